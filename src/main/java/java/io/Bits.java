@@ -25,6 +25,11 @@
 
 package java.io;
 
+import java.nio.ByteOrder;
+import java.security.AccessController;
+import sun.misc.Unsafe;
+import sun.security.action.GetPropertyAction;
+
 /**
  * Utility methods for packing/unpacking primitive values in/out of byte arrays
  * using big-endian byte ordering.
@@ -120,4 +125,88 @@ class Bits {
     static void putDouble(byte[] b, int off, double val) {
         putLong(b, off, Double.doubleToLongBits(val));
     }
+
+    /*
+     * Methods for packing/unpacking arrays of primitive values, which
+     * access whole words on platforms that support unaligned access.
+     */
+
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+    private static final long BYTE_BASE = unsafe.arrayBaseOffset(byte[].class);
+    private static final boolean BIG_ENDIAN =
+        ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+    private static final boolean UNALIGNED;
+    static {
+        String arch = AccessController.doPrivileged(
+            new GetPropertyAction("os.arch"));
+        UNALIGNED = arch.equals("i386") || arch.equals("x86") ||
+                    arch.equals("amd64") || arch.equals("x86_64") ||
+                    arch.equals("ppc64") || arch.equals("ppc64le");
+    }
+
+    private static void checkBounds(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new ArrayIndexOutOfBoundsException(off);
+        }
+    }
+
+    static void getInts(byte[] b, int off, int[] v, int voff, int len) {
+        if (!UNALIGNED) {
+            for (int end = voff + len; voff < end; off += 4) {
+                v[voff++] = getInt(b, off);
+            }
+            return;
+        }
+        checkBounds(b, off, len << 2);
+        long addr = BYTE_BASE + off;
+        for (int end = voff + len; voff < end; addr += 4) {
+            int val = unsafe.getInt(b, addr);
+            v[voff++] = BIG_ENDIAN ? val : Integer.reverseBytes(val);
+        }
+    }
+
+    static void getLongs(byte[] b, int off, long[] v, int voff, int len) {
+        if (!UNALIGNED) {
+            for (int end = voff + len; voff < end; off += 8) {
+                v[voff++] = getLong(b, off);
+            }
+            return;
+        }
+        checkBounds(b, off, len << 3);
+        long addr = BYTE_BASE + off;
+        for (int end = voff + len; voff < end; addr += 8) {
+            long val = unsafe.getLong(b, addr);
+            v[voff++] = BIG_ENDIAN ? val : Long.reverseBytes(val);
+        }
+    }
+
+    static void putInts(byte[] b, int off, int[] v, int voff, int len) {
+        if (!UNALIGNED) {
+            for (int end = voff + len; voff < end; off += 4) {
+                putInt(b, off, v[voff++]);
+            }
+            return;
+        }
+        checkBounds(b, off, len << 2);
+        long addr = BYTE_BASE + off;
+        for (int end = voff + len; voff < end; addr += 4) {
+            int val = v[voff++];
+            unsafe.putInt(b, addr, BIG_ENDIAN ? val : Integer.reverseBytes(val));
+        }
+    }
+
+    static void putLongs(byte[] b, int off, long[] v, int voff, int len) {
+        if (!UNALIGNED) {
+            for (int end = voff + len; voff < end; off += 8) {
+                putLong(b, off, v[voff++]);
+            }
+            return;
+        }
+        checkBounds(b, off, len << 3);
+        long addr = BYTE_BASE + off;
+        for (int end = voff + len; voff < end; addr += 8) {
+            long val = v[voff++];
+            unsafe.putLong(b, addr, BIG_ENDIAN ? val : Long.reverseBytes(val));
+        }
+    }
 }
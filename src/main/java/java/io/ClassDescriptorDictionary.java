@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dictionary of class descriptors shared by the object streams of a
+ * session.  An {@link ObjectOutputStream} created with a dictionary writes
+ * the descriptor of a class registered in the dictionary as the index of
+ * the class, rather than as its name, serialVersionUID and fields, and an
+ * {@link ObjectInputStream} created with a dictionary reads it back as the
+ * local descriptor of the class at that index.  The descriptors of other
+ * classes are written in full.  A dictionary may be used by any number of
+ * streams at a time.
+ *
+ * <p>Both ends of a session must register the same classes, in the same
+ * order, and the classes must be serialization compatible; in particular,
+ * the serializable fields of a registered class are not written to the
+ * stream, so they must be the same at both ends.  The stream header
+ * written with a dictionary identifies the registered classes the writer
+ * knew of by their names and serialVersionUIDs, and a reading stream
+ * whose dictionary does not start with the same classes fails with a
+ * {@code StreamCorruptedException}.  Classes registered after a writing
+ * stream was created are written in full by that stream.
+ *
+ * <p>Streams created with a dictionary do not read or write the standard
+ * serialization stream format, and do not call
+ * {@link ObjectOutputStream#writeClassDescriptor writeClassDescriptor} or
+ * {@link ObjectInputStream#readClassDescriptor readClassDescriptor}.
+ *
+ * @see ObjectOutputStream#ObjectOutputStream(OutputStream, ClassDescriptorDictionary)
+ * @see ObjectInputStream#ObjectInputStream(InputStream, ClassDescriptorDictionary)
+ * @since 9
+ */
+public final class ClassDescriptorDictionary {
+
+    /** registered class -> index */
+    private final ConcurrentHashMap<Class<?>,Integer> indexes =
+        new ConcurrentHashMap<>();
+    /** descriptors of the registered classes, by index */
+    private volatile ObjectStreamClass[] descs = new ObjectStreamClass[0];
+    /** fingerprints of the first n registered classes, at index n */
+    private volatile long[] fingerprints = new long[] { 0L };
+
+    /**
+     * Creates a dictionary and registers the given classes, in order.
+     *
+     * @param classes the classes to register
+     * @throws IllegalArgumentException if a class is not serializable, or
+     *         is a proxy class
+     */
+    public ClassDescriptorDictionary(Class<?>... classes) {
+        for (Class<?> cl : classes) {
+            register(cl);
+        }
+    }
+
+    /**
+     * Registers a class, if it is not already registered, and returns its
+     * index in this dictionary.
+     *
+     * @param cl the class to register
+     * @return the index of the class
+     * @throws IllegalArgumentException if the class is not serializable,
+     *         or is a proxy class
+     */
+    public synchronized int register(Class<?> cl) {
+        Integer index = indexes.get(cl);
+        if (index != null) {
+            return index;
+        }
+        ObjectStreamClass desc = ObjectStreamClass.lookup(cl);
+        if (desc == null || Proxy.isProxyClass(cl)) {
+            throw new IllegalArgumentException(
+                "not a serializable non-proxy class: " + cl.getName());
+        }
+        int n = descs.length;
+        long h = fingerprints[n];
+        h = 31 * h + desc.getName().hashCode();
+        h = 31 * h + desc.getSerialVersionUID();
+        long[] fps = Arrays.copyOf(fingerprints, n + 2);
+        fps[n + 1] = h;
+        ObjectStreamClass[] ds = Arrays.copyOf(descs, n + 1);
+        ds[n] = desc;
+        // publish the descriptor before its index
+        fingerprints = fps;
+        descs = ds;
+        indexes.put(cl, n);
+        return n;
+    }
+
+    /**
+     * Returns the number of classes registered in this dictionary.
+     *
+     * @return the number of registered classes
+     */
+    public int size() {
+        return descs.length;
+    }
+
+    /**
+     * Returns the index of the class of a local descriptor, or -1 if the
+     * class is not registered or its index is not below the given limit.
+     */
+    int indexOf(ObjectStreamClass desc, int limit) {
+        Class<?> cl = desc.forClass();
+        Integer index = (cl != null) ? indexes.get(cl) : null;
+        return (index != null && index < limit) ? index : -1;
+    }
+
+    /**
+     * Returns the descriptor of the registered class at the given index.
+     */
+    ObjectStreamClass get(int index) {
+        return descs[index];
+    }
+
+    /**
+     * Returns the fingerprint of the first n registered classes.
+     */
+    long fingerprint(int n) {
+        return fingerprints[n];
+    }
+}
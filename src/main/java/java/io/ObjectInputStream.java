@@ -256,6 +256,11 @@ public class ObjectInputStream
     /** buffer for reading primitive field values */
     private byte[] primVals;
 
+    /** session class descriptor dictionary, or null */
+    private final ClassDescriptorDictionary dictionary;
+    /** number of dictionary classes known to the writing stream */
+    private int dictionarySize;
+
     /** if true, invoke readObjectOverride() instead of readObject() */
     private final boolean enableOverride;
     /** if true, invoke resolveObject() */
@@ -295,8 +300,115 @@ public class ObjectInputStream
         bin = new BlockDataInputStream(in);
         handles = new HandleTable(10);
         vlist = new ValidationList();
+        dictionary = null;
+        dictionarySize = 0;
+        enableOverride = false;
+        readStreamHeader();
+        bin.setBlockDataMode(true);
+    }
+
+    /**
+     * Creates an ObjectInputStream that reads from the specified InputStream
+     * a stream written by an ObjectOutputStream created with a class
+     * descriptor dictionary.  The class descriptors written as dictionary
+     * indexes are read as the local descriptors of the classes registered
+     * at those indexes in the given dictionary, which must start with the
+     * same classes as the dictionary of the writing stream.
+     *
+     * <p>Class descriptors are read without calling
+     * <code>readClassDescriptor</code>.  Otherwise this constructor
+     * behaves as {@link #ObjectInputStream(InputStream)}.
+     *
+     * @param   in input stream to read from
+     * @param   dictionary the session class descriptor dictionary
+     * @throws  StreamCorruptedException if the stream header is incorrect,
+     *          or the dictionary does not start with the classes of the
+     *          dictionary of the writing stream
+     * @throws  IOException if an I/O error occurs while reading stream header
+     * @throws  SecurityException if untrusted subclass illegally overrides
+     *          security-sensitive methods
+     * @throws  NullPointerException if <code>in</code> or
+     *          <code>dictionary</code> is <code>null</code>
+     * @see     ObjectOutputStream#ObjectOutputStream(OutputStream, ClassDescriptorDictionary)
+     * @since   9
+     */
+    public ObjectInputStream(InputStream in,
+                             ClassDescriptorDictionary dictionary)
+        throws IOException
+    {
+        verifySubclass();
+        bin = new BlockDataInputStream(in);
+        handles = new HandleTable(10);
+        vlist = new ValidationList();
+        this.dictionary = dictionary;
         enableOverride = false;
         readStreamHeader();
+        readDictionaryHeader();
+        bin.setBlockDataMode(true);
+    }
+
+    /**
+     * Reads the number and fingerprint of the dictionary classes known to
+     * the writing stream, and checks that the dictionary of this stream
+     * starts with the same classes.
+     */
+    private void readDictionaryHeader() throws IOException {
+        int n = bin.readInt();
+        long fingerprint = bin.readLong();
+        if (n < 0 || n > dictionary.size() ||
+            fingerprint != dictionary.fingerprint(n))
+        {
+            throw new StreamCorruptedException(
+                "class descriptor dictionary mismatch");
+        }
+        dictionarySize = n;
+    }
+
+    /**
+     * Reattaches this stream to the specified InputStream, so that it
+     * reads a new serialization stream as if it were a new
+     * ObjectInputStream created with that stream.  The current underlying
+     * stream is not closed, and any data buffered from it is discarded.
+     * The state of the stream is reset, and a serialization stream header
+     * (and the class descriptor dictionary header, if any) is read from the
+     * new underlying stream and verified.  Whether object resolution is
+     * enabled is retained.
+     *
+     * <p>The buffers, handle table and validation list of this stream are
+     * reused, so that a single ObjectInputStream may read a sequence of
+     * messages from different underlying streams without reallocating
+     * them; the handle table keeps a capacity suited to the recent
+     * messages.  This method may be called after the stream has been
+     * closed.
+     *
+     * @param   in input stream to read from
+     * @throws  StreamCorruptedException if the stream header is incorrect
+     * @throws  IOException if readObject is being called, or an I/O error
+     *          occurs while reading the stream header
+     * @throws  NullPointerException if <code>in</code> is <code>null</code>
+     * @throws  IllegalStateException if the stream was created by the
+     *          protected no-arg constructor
+     * @since   9
+     */
+    public void reattach(InputStream in) throws IOException {
+        if (in == null) {
+            throw new NullPointerException();
+        }
+        if (enableOverride) {
+            throw new IllegalStateException("stream has no state to reattach");
+        }
+        if (depth != 0) {
+            throw new IOException("stream active");
+        }
+        clear();
+        passHandle = NULL_HANDLE;
+        defaultDataEnd = false;
+        closed = false;
+        bin.reattach(in);
+        readStreamHeader();
+        if (dictionary != null) {
+            readDictionaryHeader();
+        }
         bin.setBlockDataMode(true);
     }
 
@@ -325,6 +437,8 @@ public class ObjectInputStream
         bin = null;
         handles = null;
         vlist = null;
+        dictionary = null;
+        dictionarySize = 0;
         enableOverride = true;
     }
 
@@ -1599,7 +1713,11 @@ public class ObjectInputStream
 
         ObjectStreamClass readDesc = null;
         try {
-            readDesc = readClassDescriptor();
+            if (dictionary != null) {
+                readDesc = readDictionaryDescriptor();
+            } else {
+                readDesc = readClassDescriptor();
+            }
         } catch (ClassNotFoundException ex) {
             throw (IOException) new InvalidClassException(
                 "failed to read class descriptor").initCause(ex);
@@ -1627,6 +1745,25 @@ public class ObjectInputStream
         return desc;
     }
 
+    /**
+     * Reads a class descriptor written with a class descriptor dictionary,
+     * as the index of a registered class or as -1 and the descriptor.
+     */
+    private ObjectStreamClass readDictionaryDescriptor()
+        throws IOException, ClassNotFoundException
+    {
+        int index = bin.readInt();
+        if (index == -1) {
+            ObjectStreamClass desc = new ObjectStreamClass();
+            desc.readNonProxy(this);
+            return desc;
+        } else if (index < 0 || index >= dictionarySize) {
+            throw new StreamCorruptedException(
+                "invalid class descriptor index: " + index);
+        }
+        return dictionary.get(index);
+    }
+
     /**
      * Reads in and returns new string.  Sets passHandle to new string's
      * assigned handle.
@@ -2277,7 +2414,7 @@ public class ObjectInputStream
     private static class PeekInputStream extends InputStream {
 
         /** underlying stream */
-        private final InputStream in;
+        private InputStream in;
         /** peeked byte */
         private int peekb = -1;
 
@@ -2288,6 +2425,15 @@ public class ObjectInputStream
             this.in = in;
         }
 
+        /**
+         * Switches to the given underlying stream, discarding any peeked
+         * byte.
+         */
+        void reattach(InputStream in) {
+            this.in = in;
+            peekb = -1;
+        }
+
         /**
          * Peeks at next byte value in stream.  Similar to read(), except
          * that it does not consume the read value.
@@ -2405,6 +2551,18 @@ public class ObjectInputStream
             din = new DataInputStream(this);
         }
 
+        /**
+         * Switches to the given underlying stream, discarding any buffered
+         * data.  Block data mode is turned off.
+         */
+        void reattach(InputStream in) {
+            this.in.reattach(in);
+            blkmode = false;
+            pos = 0;
+            end = -1;
+            unread = 0;
+        }
+
         /**
          * Sets block data mode to the given mode (true == on, false == off)
          * and returns the previous mode value.  If the new mode is the same as
@@ -2960,10 +3118,9 @@ public class ObjectInputStream
                     stop = Math.min(endoff, off + ((end - pos) >> 2));
                 }
 
-                while (off < stop) {
-                    v[off++] = Bits.getInt(buf, pos);
-                    pos += 4;
-                }
+                Bits.getInts(buf, pos, v, off, stop - off);
+                pos += (stop - off) << 2;
+                off = stop;
             }
         }
 
@@ -3002,10 +3159,9 @@ public class ObjectInputStream
                     stop = Math.min(endoff, off + ((end - pos) >> 3));
                 }
 
-                while (off < stop) {
-                    v[off++] = Bits.getLong(buf, pos);
-                    pos += 8;
-                }
+                Bits.getLongs(buf, pos, v, off, stop - off);
+                pos += (stop - off) << 3;
+                off = stop;
             }
         }
 
@@ -3254,11 +3410,16 @@ public class ObjectInputStream
         int lowDep = -1;
         /** number of handles in table */
         int size = 0;
+        /** initial capacity, below which the table is not shrunk */
+        private final int initialCapacity;
+        /** decaying maximum of the sizes of the table when cleared */
+        private int recentSize;
 
         /**
          * Creates handle table with the given initial capacity.
          */
         HandleTable(int initialCapacity) {
+            this.initialCapacity = initialCapacity;
             status = new byte[initialCapacity];
             entries = new Object[initialCapacity];
             deps = new HandleList[initialCapacity];
@@ -3441,12 +3602,21 @@ public class ObjectInputStream
         }
 
         /**
-         * Resets table to its initial state.
+         * Resets table to its initial state.  The table keeps a capacity
+         * suited to the sizes it recently had when cleared.
          */
         void clear() {
-            Arrays.fill(status, 0, size, (byte) 0);
-            Arrays.fill(entries, 0, size, null);
-            Arrays.fill(deps, 0, size, null);
+            recentSize = Math.max(size, recentSize - (recentSize >> 2));
+            int capacity = Math.max(initialCapacity, (recentSize << 1) + 1);
+            if (entries.length > (capacity << 2)) {
+                status = new byte[capacity];
+                entries = new Object[capacity];
+                deps = new HandleList[capacity];
+            } else {
+                Arrays.fill(status, 0, size, (byte) 0);
+                Arrays.fill(entries, 0, size, null);
+                Arrays.fill(deps, 0, size, null);
+            }
             lowDep = -1;
             size = 0;
         }
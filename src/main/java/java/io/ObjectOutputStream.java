@@ -187,6 +187,11 @@ public class ObjectOutputStream
     /** buffer for writing primitive field values */
     private byte[] primVals;
 
+    /** session class descriptor dictionary, or null */
+    private final ClassDescriptorDictionary dictionary;
+    /** number of dictionary classes known when the stream was created */
+    private final int dictionarySize;
+
     /** if true, invoke writeObjectOverride() instead of writeObject() */
     private final boolean enableOverride;
     /** if true, invoke replaceObject() */
@@ -242,6 +247,8 @@ public class ObjectOutputStream
         bout = new BlockDataOutputStream(out);
         handles = new HandleTable(10, (float) 3.00);
         subs = new ReplaceTable(10, (float) 3.00);
+        dictionary = null;
+        dictionarySize = 0;
         enableOverride = false;
         writeStreamHeader();
         bout.setBlockDataMode(true);
@@ -252,6 +259,50 @@ public class ObjectOutputStream
         }
     }
 
+    /**
+     * Creates an ObjectOutputStream that writes to the specified
+     * OutputStream, writing the class descriptors of the classes
+     * registered in the given dictionary as their dictionary indexes.  The
+     * stream can only be read by an ObjectInputStream created with a
+     * dictionary that starts with the same classes; the serialization
+     * stream header is followed by the number of classes registered in the
+     * dictionary and their fingerprint.
+     *
+     * <p>Class descriptors are written without calling
+     * <code>writeClassDescriptor</code>.  Otherwise this constructor
+     * behaves as {@link #ObjectOutputStream(OutputStream)}.
+     *
+     * @param   out output stream to write to
+     * @param   dictionary the session class descriptor dictionary
+     * @throws  IOException if an I/O error occurs while writing stream header
+     * @throws  SecurityException if untrusted subclass illegally overrides
+     *          security-sensitive methods
+     * @throws  NullPointerException if <code>out</code> or
+     *          <code>dictionary</code> is <code>null</code>
+     * @see     ObjectInputStream#ObjectInputStream(InputStream, ClassDescriptorDictionary)
+     * @since   9
+     */
+    public ObjectOutputStream(OutputStream out,
+                              ClassDescriptorDictionary dictionary)
+        throws IOException
+    {
+        verifySubclass();
+        bout = new BlockDataOutputStream(out);
+        handles = new HandleTable(10, (float) 3.00);
+        subs = new ReplaceTable(10, (float) 3.00);
+        this.dictionary = dictionary;
+        dictionarySize = dictionary.size();
+        enableOverride = false;
+        writeStreamHeader();
+        writeDictionaryHeader();
+        bout.setBlockDataMode(true);
+        if (extendedDebugInfo) {
+            debugInfoStack = new DebugTraceInfoStack();
+        } else {
+            debugInfoStack = null;
+        }
+    }
+
     /**
      * Provide a way for subclasses that are completely reimplementing
      * ObjectOutputStream to not have to allocate private data just used by
@@ -277,6 +328,8 @@ public class ObjectOutputStream
         bout = null;
         handles = null;
         subs = null;
+        dictionary = null;
+        dictionarySize = 0;
         enableOverride = true;
         debugInfoStack = null;
     }
@@ -503,6 +556,60 @@ public class ObjectOutputStream
         bout.setBlockDataMode(true);
     }
 
+    /**
+     * Reattaches this stream to the specified OutputStream, so that it
+     * writes a new serialization stream as if it were a new
+     * ObjectOutputStream created with that stream.  Any buffered data is
+     * first flushed to the current underlying stream, which is not closed.
+     * The state of the stream is then reset and the stream header (and the
+     * class descriptor dictionary header, if any) is written to the new
+     * underlying stream.  The protocol version and whether object
+     * replacement is enabled are retained.
+     *
+     * <p>The buffers and handle tables of this stream are reused, so that
+     * a single ObjectOutputStream may write a sequence of messages to
+     * different underlying streams without reallocating them; the handle
+     * tables keep a capacity suited to the recent messages.  This method
+     * may be called after the stream has been closed.
+     *
+     * @param   out output stream to write to
+     * @throws  IOException if writeObject is being called, or an I/O error
+     *          occurs while flushing the stream or writing the stream header
+     * @throws  NullPointerException if <code>out</code> is <code>null</code>
+     * @throws  IllegalStateException if the stream was created by the
+     *          protected no-arg constructor
+     * @since   9
+     */
+    public void reattach(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException();
+        }
+        if (enableOverride) {
+            throw new IllegalStateException("stream has no state to reattach");
+        }
+        if (depth != 0) {
+            throw new IOException("stream active");
+        }
+        bout.setBlockDataMode(false);
+        bout.flush();
+        clear();
+        bout.reattach(out);
+        writeStreamHeader();
+        if (dictionary != null) {
+            writeDictionaryHeader();
+        }
+        bout.setBlockDataMode(true);
+    }
+
+    /**
+     * Writes the number and fingerprint of the dictionary classes known to
+     * this stream.
+     */
+    private void writeDictionaryHeader() throws IOException {
+        bout.writeInt(dictionarySize);
+        bout.writeLong(dictionary.fingerprint(dictionarySize));
+    }
+
     /**
      * Subclasses may implement this method to allow class data to be stored in
      * the stream. By default this method does nothing.  The corresponding
@@ -1275,7 +1382,14 @@ public class ObjectOutputStream
         bout.writeByte(TC_CLASSDESC);
         handles.assign(unshared ? null : desc);
 
-        if (protocol == PROTOCOL_VERSION_1) {
+        if (dictionary != null) {
+            // write the index of a registered class, or -1 and the descriptor
+            int index = dictionary.indexOf(desc, dictionarySize);
+            bout.writeInt(index);
+            if (index < 0) {
+                desc.writeNonProxy(this);
+            }
+        } else if (protocol == PROTOCOL_VERSION_1) {
             // do not invoke class descriptor write hook with old protocol
             desc.writeNonProxy(this);
         } else {
@@ -1759,7 +1873,7 @@ public class ObjectOutputStream
         private int pos = 0;
 
         /** underlying output stream */
-        private final OutputStream out;
+        private OutputStream out;
         /** loopback stream (for data writes that span data blocks) */
         private final DataOutputStream dout;
 
@@ -1772,6 +1886,14 @@ public class ObjectOutputStream
             dout = new DataOutputStream(this);
         }
 
+        /**
+         * Switches to the given underlying stream.  Block data mode must be
+         * off, so that no data is buffered.
+         */
+        void reattach(OutputStream out) {
+            this.out = out;
+        }
+
         /**
          * Sets block data mode to the given mode (true == on, false == off)
          * and returns the previous mode value.  If the new mode is the same as
@@ -2070,10 +2192,9 @@ public class ObjectOutputStream
                 if (pos <= limit) {
                     int avail = (MAX_BLOCK_SIZE - pos) >> 2;
                     int stop = Math.min(endoff, off + avail);
-                    while (off < stop) {
-                        Bits.putInt(buf, pos, v[off++]);
-                        pos += 4;
-                    }
+                    Bits.putInts(buf, pos, v, off, stop - off);
+                    pos += (stop - off) << 2;
+                    off = stop;
                 } else {
                     dout.writeInt(v[off++]);
                 }
@@ -2103,10 +2224,9 @@ public class ObjectOutputStream
                 if (pos <= limit) {
                     int avail = (MAX_BLOCK_SIZE - pos) >> 3;
                     int stop = Math.min(endoff, off + avail);
-                    while (off < stop) {
-                        Bits.putLong(buf, pos, v[off++]);
-                        pos += 8;
-                    }
+                    Bits.putLongs(buf, pos, v, off, stop - off);
+                    pos += (stop - off) << 3;
+                    off = stop;
                 } else {
                     dout.writeLong(v[off++]);
                 }
@@ -2254,17 +2374,22 @@ public class ObjectOutputStream
         private int[] next;
         /* maps handle value -> associated object */
         private Object[] objs;
+        /* initial capacity, below which the table is not shrunk */
+        private final int initialCapacity;
+        /* decaying maximum of the sizes of the table when cleared */
+        private int recentSize;
 
         /**
          * Creates new HandleTable with given capacity and load factor.
          */
         HandleTable(int initialCapacity, float loadFactor) {
+            this.initialCapacity = initialCapacity;
             this.loadFactor = loadFactor;
             spine = new int[initialCapacity];
             next = new int[initialCapacity];
             objs = new Object[initialCapacity];
             threshold = (int) (initialCapacity * loadFactor);
-            clear();
+            Arrays.fill(spine, -1);
         }
 
         /**
@@ -2300,14 +2425,39 @@ public class ObjectOutputStream
         }
 
         /**
-         * Resets table to its initial (empty) state.
+         * Resets table to its initial (empty) state.  The table keeps a
+         * capacity suited to the sizes it recently had when cleared, and
+         * clears only the used buckets if the table is sparse.
          */
         void clear() {
-            Arrays.fill(spine, -1);
-            Arrays.fill(objs, 0, size, null);
+            recentSize = Math.max(size, recentSize - (recentSize >> 2));
+            int capacity = Math.max(initialCapacity, (recentSize << 1) + 1);
+            if (next.length > (capacity << 2)) {
+                spine = new int[capacity];
+                next = new int[capacity];
+                objs = new Object[capacity];
+                threshold = (int) (capacity * loadFactor);
+                Arrays.fill(spine, -1);
+            } else {
+                if (size < (spine.length >> 3)) {
+                    for (int i = 0; i < size; i++) {
+                        spine[hash(objs[i]) % spine.length] = -1;
+                    }
+                } else {
+                    Arrays.fill(spine, -1);
+                }
+                Arrays.fill(objs, 0, size, null);
+            }
             size = 0;
         }
 
+        /**
+         * Returns the number of mappings the table can hold without growing.
+         */
+        int capacity() {
+            return next.length;
+        }
+
         /**
          * Returns the number of mappings currently in table.
          */
@@ -2406,6 +2556,9 @@ public class ObjectOutputStream
         void clear() {
             Arrays.fill(reps, 0, htab.size(), null);
             htab.clear();
+            if (reps.length > htab.capacity()) {
+                reps = new Object[htab.capacity()];
+            }
         }
 
         /**
@@ -214,6 +214,23 @@ public final class Double extends Number implements Comparable<Double> {
         return FloatingDecimal.toJavaFormatString(d);
     }
 
+    /**
+     * Writes the string representation of the {@code double} argument, as
+     * returned by {@link #toString(double)}, into a character array.
+     *
+     * @param d        the {@code double} to be converted.
+     * @param dst      the destination array.
+     * @param dstIndex the start index into the destination array.
+     * @return the number of characters written.
+     * @throws IndexOutOfBoundsException if the representation does not
+     *                                   fit in {@code dst} at {@code dstIndex}; nothing is
+     *                                   written in that case.
+     * @since 9
+     */
+    public static int toChars(double d, char[] dst, int dstIndex) {
+        return FloatingDecimal.getChars(d, dst, dstIndex);
+    }
+
     /**
      * Returns a hexadecimal string representation of the
      * {@code double} argument. All characters mentioned below
@@ -550,6 +567,31 @@ public final class Double extends Number implements Comparable<Double> {
         return FloatingDecimal.parseDouble(s);
     }
 
+    /**
+     * Returns a new {@code double} initialized to the value represented
+     * by the characters of the specified {@code CharSequence} from
+     * {@code beginIndex} to {@code endIndex - 1}.  The accepted syntax is
+     * that of {@link #parseDouble(String)}; for plain decimal input no
+     * substring is created.
+     *
+     * @param s          the {@code CharSequence} containing the value.
+     * @param beginIndex the beginning index, inclusive.
+     * @param endIndex   the ending index, exclusive.
+     * @return the {@code double} value represented by the subsequence.
+     * @throws NullPointerException      if {@code s} is null
+     * @throws IndexOutOfBoundsException if {@code beginIndex} is negative,
+     *                                   or greater than {@code endIndex}, or if {@code endIndex}
+     *                                   is greater than {@code s.length()}.
+     * @throws NumberFormatException     if the subsequence does not contain
+     *                                   a parsable {@code double}.
+     * @see #parseDouble(String)
+     * @since 9
+     */
+    public static double parseDouble(CharSequence s, int beginIndex, int endIndex)
+            throws NumberFormatException {
+        return FloatingDecimal.parseDouble(s, beginIndex, endIndex);
+    }
+
     /**
      * Returns {@code true} if the specified number is a
      * Not-a-Number (NaN) value, {@code false} otherwise.
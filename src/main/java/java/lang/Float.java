@@ -209,6 +209,23 @@ public final class Float extends Number implements Comparable<Float> {
         return FloatingDecimal.toJavaFormatString(f);
     }
 
+    /**
+     * Writes the string representation of the {@code float} argument, as
+     * returned by {@link #toString(float)}, into a character array.
+     *
+     * @param f        the {@code float} to be converted.
+     * @param dst      the destination array.
+     * @param dstIndex the start index into the destination array.
+     * @return the number of characters written.
+     * @throws IndexOutOfBoundsException if the representation does not
+     *                                   fit in {@code dst} at {@code dstIndex}; nothing is
+     *                                   written in that case.
+     * @since 9
+     */
+    public static int toChars(float f, char[] dst, int dstIndex) {
+        return FloatingDecimal.getChars(f, dst, dstIndex);
+    }
+
     /**
      * Returns a hexadecimal string representation of the
      * {@code float} argument. All characters mentioned below are
@@ -455,6 +472,31 @@ public final class Float extends Number implements Comparable<Float> {
         return FloatingDecimal.parseFloat(s);
     }
 
+    /**
+     * Returns a new {@code float} initialized to the value represented
+     * by the characters of the specified {@code CharSequence} from
+     * {@code beginIndex} to {@code endIndex - 1}.  The accepted syntax is
+     * that of {@link #parseFloat(String)}; for plain decimal input no
+     * substring is created.
+     *
+     * @param s          the {@code CharSequence} containing the value.
+     * @param beginIndex the beginning index, inclusive.
+     * @param endIndex   the ending index, exclusive.
+     * @return the {@code float} value represented by the subsequence.
+     * @throws NullPointerException      if {@code s} is null
+     * @throws IndexOutOfBoundsException if {@code beginIndex} is negative,
+     *                                   or greater than {@code endIndex}, or if {@code endIndex}
+     *                                   is greater than {@code s.length()}.
+     * @throws NumberFormatException     if the subsequence does not contain
+     *                                   a parsable {@code float}.
+     * @see #parseFloat(String)
+     * @since 9
+     */
+    public static float parseFloat(CharSequence s, int beginIndex, int endIndex)
+            throws NumberFormatException {
+        return FloatingDecimal.parseFloat(s, beginIndex, endIndex);
+    }
+
     /**
      * Returns {@code true} if the specified number is a
      * Not-a-Number (NaN) value, {@code false} otherwise.
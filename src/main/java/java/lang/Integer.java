@@ -407,6 +407,33 @@ public final class Integer extends Number implements Comparable<Integer> {
         return new String(buf, true);
     }
 
+    /**
+     * Writes the signed decimal representation of the specified integer,
+     * as returned by {@link #toString(int)}, into a character array.
+     *
+     * @param i        an integer to be converted.
+     * @param dst      the destination array.
+     * @param dstIndex the start index into the destination array.
+     * @return the number of characters written.
+     * @throws IndexOutOfBoundsException if the representation does not
+     *                                   fit in {@code dst} at {@code dstIndex}; nothing is
+     *                                   written in that case.
+     * @since 9
+     */
+    public static int toChars(int i, char[] dst, int dstIndex) {
+        int size = (i == Integer.MIN_VALUE) ? 11 :
+                   (i < 0) ? stringSize(-i) + 1 : stringSize(i);
+        if (dstIndex < 0 || dstIndex > dst.length - size) {
+            throw new IndexOutOfBoundsException("dstIndex " + dstIndex);
+        }
+        if (i == Integer.MIN_VALUE) {
+            "-2147483648".getChars(0, size, dst, dstIndex);
+        } else {
+            getChars(i, dstIndex + size, dst);
+        }
+        return size;
+    }
+
     /**
      * Returns a string representation of the argument as an unsigned
      * decimal value.
@@ -619,6 +646,96 @@ public final class Integer extends Number implements Comparable<Integer> {
         return parseInt(s, 10);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code int} in
+     * the specified {@code radix}, beginning at the specified {@code
+     * beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>The method does not take steps to guard against the
+     * {@code CharSequence} being mutated while parsing.  Unlike
+     * {@link #parseInt(String, int)} no substring needs to be created, so
+     * a field of a larger line can be parsed in place.
+     *
+     * @param s          the {@code CharSequence} containing the {@code int}
+     *                   representation to be parsed
+     * @param beginIndex the beginning index, inclusive.
+     * @param endIndex   the ending index, exclusive.
+     * @param radix      the radix to be used while parsing {@code s}.
+     * @return the signed {@code int} represented by the subsequence in
+     * the specified radix.
+     * @throws NullPointerException      if {@code s} is null.
+     * @throws IndexOutOfBoundsException if {@code beginIndex} is
+     *                                   negative, or if {@code beginIndex} is greater than
+     *                                   {@code endIndex} or if {@code endIndex} is greater than
+     *                                   {@code s.length()}.
+     * @throws NumberFormatException     if the {@code CharSequence} does not
+     *                                   contain a parsable {@code int} in the specified
+     *                                   {@code radix}, or if {@code radix} is either smaller than
+     *                                   {@link java.lang.Character#MIN_RADIX} or larger than
+     *                                   {@link java.lang.Character#MAX_RADIX}.
+     * @since 9
+     */
+    public static int parseInt(CharSequence s, int beginIndex, int endIndex, int radix)
+            throws NumberFormatException {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (radix < Character.MIN_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                    " less than Character.MIN_RADIX");
+        }
+        if (radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                    " greater than Character.MAX_RADIX");
+        }
+
+        boolean negative = false;
+        int i = beginIndex;
+        int limit = -Integer.MAX_VALUE;
+
+        if (i < endIndex) {
+            char firstChar = s.charAt(i);
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Integer.MIN_VALUE;
+                } else if (firstChar != '+') {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                i++;
+                if (i == endIndex) { // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+            }
+            int multmin = limit / radix;
+            int result = 0;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                int digit = Character.digit(s.charAt(i), radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                i++;
+                result -= digit;
+            }
+            return negative ? result : -result;
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+    }
+
     /**
      * Parses the string argument as an unsigned integer in the radix
      * specified by the second argument.  An unsigned integer maps the
@@ -65,4 +65,21 @@ class NumberFormatException extends IllegalArgumentException {
     static NumberFormatException forInputString(String s) {
         return new NumberFormatException("For input string: \"" + s + "\"");
     }
+
+    /**
+     * Factory method for making a {@code NumberFormatException}
+     * given the specified range of a {@code CharSequence} that caused
+     * the error, and the index within it of the offending character.
+     *
+     * @param   s   the {@code CharSequence} containing the input
+     * @param   beginIndex  the beginning index of the input, inclusive
+     * @param   endIndex    the ending index of the input, exclusive
+     * @param   errorIndex  the index of the offending character
+     */
+    static NumberFormatException forCharSequence(CharSequence s,
+            int beginIndex, int endIndex, int errorIndex) {
+        return new NumberFormatException("Error at index "
+                + (errorIndex - beginIndex) + " in: \""
+                + s.subSequence(beginIndex, endIndex) + "\"");
+    }
 }
@@ -36,6 +36,7 @@ import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.Arrays;
 import sun.misc.MessageUtils;
@@ -118,6 +119,46 @@ class StringCoding {
     }
 
 
+    // -- Latin-1 fast paths --
+    //
+    // Most strings encoded with UTF-8, US-ASCII or ISO-8859-1 consist of
+    // ASCII (or, for ISO-8859-1, Latin-1) chars only.  Those map one char to
+    // one byte, so they are narrowed straight into an exactly sized result,
+    // without a CharsetEncoder and without the over-sized intermediate array
+    // that has to be trimmed afterwards (UTF-8 reserves three bytes per
+    // char).  Strings with other chars fall back to the encoders.  Decoding
+    // needs no such path: the array decoders of these charsets already
+    // produce one char per byte into an exactly sized result.
+
+    private static final int NOT_LATIN1 = 0;
+    private static final int ASCII = 0x80;     // one byte per char below
+    private static final int LATIN1 = 0x100;   // one byte per char below
+
+    private static int latin1Limit(Charset cs) {
+        if (cs == StandardCharsets.UTF_8 || cs == StandardCharsets.US_ASCII)
+            return ASCII;
+        if (cs == StandardCharsets.ISO_8859_1)
+            return LATIN1;
+        return NOT_LATIN1;
+    }
+
+    // Returns the narrowed chars, or null if a char is at or above the limit.
+    // The chars are checked before the result is allocated, so that strings
+    // left to the encoders do not cost an extra array.
+    //
+    private static byte[] encodeLatin1(int limit, char[] ca, int off, int len) {
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (ca[i] >= limit)
+                return null;
+        }
+        byte[] ba = new byte[len];
+        for (int i = 0; i < len; i++) {
+            ba[i] = (byte)ca[off + i];
+        }
+        return ba;
+    }
+
     // -- Decoding --
     private static class StringDecoder {
         private final String requestedCharsetName;
@@ -275,6 +316,7 @@ class StringCoding {
         private CharsetEncoder ce;
         private final String requestedCharsetName;
         private final boolean isTrusted;
+        private final int latin1Limit;
 
         private StringEncoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -283,6 +325,7 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.latin1Limit = latin1Limit(cs);
         }
 
         String charsetName() {
@@ -296,6 +339,11 @@ class StringCoding {
         }
 
         byte[] encode(char[] ca, int off, int len) {
+            if (latin1Limit != NOT_LATIN1) {
+                byte[] ba = encodeLatin1(latin1Limit, ca, off, len);
+                if (ba != null)
+                    return ba;
+            }
             int en = scale(len, ce.maxBytesPerChar());
             byte[] ba = new byte[en];
             if (len == 0)
@@ -345,6 +393,13 @@ class StringCoding {
     }
 
     static byte[] encode(Charset cs, char[] ca, int off, int len) {
+        int limit = latin1Limit(cs);
+        if (limit != NOT_LATIN1) {
+            // The standard charsets are trusted, and the result is a fresh array
+            byte[] ba = encodeLatin1(limit, ca, off, len);
+            if (ba != null)
+                return ba;
+        }
         CharsetEncoder ce = cs.newEncoder();
         int en = scale(len, ce.maxBytesPerChar());
         byte[] ba = new byte[en];
@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.invoke;
+
+import sun.misc.JavaLangAccess;
+import sun.misc.SharedSecrets;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static java.lang.invoke.MethodHandleStatics.*;
+import static java.lang.invoke.MethodHandles.Lookup.IMPL_LOOKUP;
+
+/**
+ * <p>Methods to facilitate the creation of String concatenation methods, that
+ * can be used to efficiently concatenate a known number of arguments of known
+ * types, possibly after type adaptation and partial evaluation of arguments.
+ * These methods are typically used as <em>bootstrap methods</em> for {@code
+ * invokedynamic} call sites, to support the <em>string concatenation</em>
+ * feature of the Java Programming Language.
+ *
+ * <p>Unlike a chain of {@code StringBuilder.append} calls, which starts with
+ * a buffer of sixteen chars, grows it as arguments are appended and copies it
+ * once more in {@code toString}, the concatenation methods produced here
+ * convert every argument to a string first, sum up the exact length of the
+ * result, and write the constant parts and the arguments straight into the
+ * {@code char[]} that backs the resulting string.
+ *
+ * <p>The concatenation follows the rules of JLS 15.18.1: {@code null}
+ * arguments are converted to {@code "null"}, primitive arguments as if by the
+ * respective {@code String.valueOf} overload, and other references by calling
+ * {@code String.valueOf(Object)}.
+ *
+ * @since 9
+ */
+public final class StringConcatFactory {
+
+    /**
+     * Tag used to demarcate an ordinary argument.
+     */
+    private static final char TAG_ARG = '\u0001';
+
+    /**
+     * Tag used to demarcate a constant.
+     */
+    private static final char TAG_CONST = '\u0002';
+
+    /**
+     * Maximum number of argument slots in String Concat call.
+     *
+     * This is the limit the factory methods specify.  It stays well below
+     * the 253 argument slots that an indy call can handle: the method
+     * handles the concatenation is built from take each argument as a
+     * string, in one slot, and need at most three more slots for the char
+     * array, the write index or length, and the value folded in from the
+     * previous step (see {@link #concatenator}).
+     */
+    private static final int MAX_INDY_CONCAT_ARG_SLOTS = 200;
+
+    private static final JavaLangAccess JLA = SharedSecrets.getJavaLangAccess();
+
+    private static final MethodHandle MH_MIX_LENGTH;
+    private static final MethodHandle MH_NEW_ARRAY;
+    private static final MethodHandle MH_APPEND;
+    private static final MethodHandle MH_NEW_STRING;
+    private static final MethodHandle MH_VALUE_OF_OBJECT;
+
+    static {
+        try {
+            MH_MIX_LENGTH = IMPL_LOOKUP.findStatic(StringConcatFactory.class, "mixLength",
+                    MethodType.methodType(int.class, int.class, String.class));
+            MH_NEW_ARRAY = IMPL_LOOKUP.findStatic(StringConcatFactory.class, "newArray",
+                    MethodType.methodType(char[].class, int.class));
+            MH_APPEND = IMPL_LOOKUP.findStatic(StringConcatFactory.class, "append",
+                    MethodType.methodType(int.class, String.class, int.class, char[].class, String.class));
+            MH_NEW_STRING = IMPL_LOOKUP.findStatic(StringConcatFactory.class, "newString",
+                    MethodType.methodType(String.class, String.class, int.class, char[].class));
+            MH_VALUE_OF_OBJECT = IMPL_LOOKUP.findStatic(String.class, "valueOf",
+                    MethodType.methodType(String.class, Object.class));
+        } catch (ReflectiveOperationException ex) {
+            throw newInternalError(ex);
+        }
+    }
+
+    // No instances
+    private StringConcatFactory() { }
+
+    /**
+     * Facilitates the creation of optimized String concatenation methods,
+     * that can be used to efficiently concatenate a known number of arguments
+     * of known types.  All arguments are concatenated in their order of
+     * appearance, without any constants in between.
+     *
+     * @param lookup   Represents a lookup context with the accessibility
+     *                 privileges of the caller.  When used with {@code
+     *                 invokedynamic}, this is stacked automatically by the VM.
+     * @param name     The name of the method to implement.  This name is
+     *                 arbitrary, and has no meaning for this linkage method.
+     *                 When used with {@code invokedynamic}, this is provided by
+     *                 the {@code NameAndType} of the {@code InvokeDynamic}
+     *                 structure and is stacked automatically by the VM.
+     * @param concatType The expected signature of the {@code CallSite}.  The
+     *                   parameter types represent the types of concatenation
+     *                   arguments; the return type is always assignable from
+     *                   {@link java.lang.String}.  When used with {@code
+     *                   invokedynamic}, this is provided by the {@code
+     *                   NameAndType} of the {@code InvokeDynamic} structure and
+     *                   is stacked automatically by the VM.
+     * @return a CallSite whose target can be used to perform String
+     *         concatenation, with dynamic concatenation arguments described by
+     *         the given {@code concatType}.
+     * @throws StringConcatException If any of the linkage invariants described
+     *                               here are violated: the return type is not
+     *                               {@code String}, or the parameters take more
+     *                               than 200 argument slots.
+     * @throws NullPointerException If any of the incoming arguments is null.
+     */
+    public static CallSite makeConcat(MethodHandles.Lookup lookup,
+                                      String name,
+                                      MethodType concatType) throws StringConcatException {
+        char[] recipe = new char[concatType.parameterCount()];
+        Arrays.fill(recipe, TAG_ARG);
+        return doStringConcat(lookup, name, concatType, new String(recipe), new Object[0]);
+    }
+
+    /**
+     * Facilitates the creation of optimized String concatenation methods,
+     * that can be used to efficiently concatenate a known number of arguments
+     * of known types, possibly after type adaptation and partial evaluation
+     * of arguments.
+     *
+     * <p>The {@code recipe} describes the shape of the result: each
+     * {@code \1} (Unicode point 0001) is replaced by the next dynamic
+     * argument, each {@code \2} (Unicode point 0002) by the next of the
+     * {@code constants}, and every other char is copied to the result as is.
+     * Constants are converted to strings once, at linkage time.
+     *
+     * @param lookup   Represents a lookup context with the accessibility
+     *                 privileges of the caller.  When used with {@code
+     *                 invokedynamic}, this is stacked automatically by the VM.
+     * @param name     The name of the method to implement.  This name is
+     *                 arbitrary, and has no meaning for this linkage method.
+     * @param concatType The expected signature of the {@code CallSite}.  The
+     *                   parameter types represent the types of dynamic
+     *                   concatenation arguments; the return type is always
+     *                   assignable from {@link java.lang.String}.
+     * @param recipe   Concatenation recipe, described above.
+     * @param constants A vararg parameter representing the constants passed to
+     *                  the linkage method.
+     * @return a CallSite whose target can be used to perform String
+     *         concatenation, with dynamic concatenation arguments described by
+     *         the given {@code concatType}.
+     * @throws StringConcatException If any of the linkage invariants described
+     *                               here are violated: the return type is not
+     *                               {@code String}, the parameters take more
+     *                               than 200 argument slots, or the number of
+     *                               tags in the recipe does not match the
+     *                               number of arguments or constants.
+     * @throws NullPointerException If any of the incoming arguments is null, or
+     *                              any of the {@code constants} is null.
+     */
+    public static CallSite makeConcatWithConstants(MethodHandles.Lookup lookup,
+                                                   String name,
+                                                   MethodType concatType,
+                                                   String recipe,
+                                                   Object... constants) throws StringConcatException {
+        return doStringConcat(lookup, name, concatType, recipe, constants);
+    }
+
+    private static CallSite doStringConcat(MethodHandles.Lookup lookup,
+                                           String name,
+                                           MethodType concatType,
+                                           String recipe,
+                                           Object[] constants) throws StringConcatException {
+        Objects.requireNonNull(lookup, "Lookup is null");
+        Objects.requireNonNull(name, "Name is null");
+        Objects.requireNonNull(concatType, "Concat type is null");
+        Objects.requireNonNull(recipe, "Recipe is null");
+        Objects.requireNonNull(constants, "Constants are null");
+
+        for (Object o : constants) {
+            Objects.requireNonNull(o, "Cannot accept null constants");
+        }
+
+        if (!concatType.returnType().isAssignableFrom(String.class)) {
+            throw new StringConcatException(
+                    "The return type should be compatible with String, but it is " +
+                    concatType.returnType());
+        }
+
+        int argCount = concatType.parameterCount();
+        if (concatType.parameterSlotCount() > MAX_INDY_CONCAT_ARG_SLOTS) {
+            throw new StringConcatException("MethodType should not have more than " +
+                    MAX_INDY_CONCAT_ARG_SLOTS + " parameter slots, " + concatType);
+        }
+
+        // Fold the constants and literal chars into the fragments surrounding
+        // the dynamic arguments: fragments[i] precedes argument i, the last
+        // fragment follows the last argument
+        String[] fragments = new String[argCount + 1];
+        StringBuilder acc = new StringBuilder();
+        int arg = 0, cst = 0;
+        for (int i = 0; i < recipe.length(); i++) {
+            char c = recipe.charAt(i);
+            if (c == TAG_CONST) {
+                if (cst == constants.length) {
+                    throw new StringConcatException(
+                            "Mismatched number of concat constants: recipe wants more than " +
+                            constants.length + " constants, recipe = " + recipe);
+                }
+                acc.append(constants[cst++]);
+            } else if (c == TAG_ARG) {
+                if (arg == argCount) {
+                    throw new StringConcatException(
+                            "Mismatched number of concat arguments: recipe wants more than " +
+                            argCount + " arguments, concat type = " + concatType);
+                }
+                fragments[arg++] = acc.toString();
+                acc.setLength(0);
+            } else {
+                acc.append(c);
+            }
+        }
+        fragments[arg] = acc.toString();
+        if (arg != argCount) {
+            throw new StringConcatException(
+                    "Mismatched number of concat arguments: recipe wants " + arg +
+                    " arguments, but signature provides " + argCount);
+        }
+        if (cst != constants.length) {
+            throw new StringConcatException(
+                    "Mismatched number of concat constants: recipe wants " + cst +
+                    " constants, but only " + constants.length + " are passed");
+        }
+
+        int fragmentLength = 0;
+        for (String f : fragments) {
+            fragmentLength += f.length();
+        }
+
+        MethodHandle mh = concatenator(fragments, fragmentLength, argCount);
+        MethodHandle[] filters = new MethodHandle[argCount];
+        for (int i = 0; i < argCount; i++) {
+            filters[i] = stringifier(concatType.parameterType(i));
+        }
+        mh = MethodHandles.filterArguments(mh, 0, filters);
+        return new ConstantCallSite(mh.asType(concatType));
+    }
+
+    /**
+     * Returns a method handle of type {@code (String * argCount)String}
+     * concatenating its arguments, interleaved with the fragments, into an
+     * exactly sized char array that becomes the value of the result.  The
+     * fragments are bound at linkage time; an invocation allocates nothing
+     * but that array and the result.
+     *
+     * @param fragments the constant parts, one more than there are arguments
+     * @param fragmentLength the sum of the lengths of the fragments
+     * @param argCount the number of arguments
+     */
+    private static MethodHandle concatenator(String[] fragments, int fragmentLength, int argCount) {
+        Class<?>[] ptypes = new Class<?>[argCount];
+        Arrays.fill(ptypes, String.class);
+
+        // (int index, char[] buf, String...)String: appends the arguments
+        // from the index-th onwards, each preceded by its fragment, then the
+        // last fragment, and returns the string backed by buf
+        MethodHandle mh = MethodHandles.dropArguments(
+                MethodHandles.insertArguments(MH_NEW_STRING, 0, fragments[argCount]),
+                2, ptypes);
+        for (int i = argCount - 1; i >= 0; i--) {
+            // (int index, char[] buf, String... up to argument i)int
+            MethodHandle append = MethodHandles.dropArguments(
+                    MethodHandles.insertArguments(MH_APPEND, 0, fragments[i]),
+                    2, Arrays.copyOf(ptypes, i));
+            mh = MethodHandles.foldArguments(MethodHandles.dropArguments(mh, 1, int.class), append);
+        }
+        mh = MethodHandles.insertArguments(mh, 0, 0);
+
+        // (int length, String...)char[]: sums up the lengths of the
+        // arguments and allocates the array
+        MethodHandle alloc = MethodHandles.dropArguments(MH_NEW_ARRAY, 1, ptypes);
+        for (int i = argCount - 1; i >= 0; i--) {
+            // (int length, String... up to argument i)int
+            MethodHandle mix = MethodHandles.dropArguments(MH_MIX_LENGTH, 1, Arrays.copyOf(ptypes, i));
+            alloc = MethodHandles.foldArguments(MethodHandles.dropArguments(alloc, 1, int.class), mix);
+        }
+        alloc = MethodHandles.insertArguments(alloc, 0, fragmentLength);
+
+        return MethodHandles.foldArguments(mh, alloc);
+    }
+
+    /**
+     * Returns a method handle converting a value of the given type to a
+     * string, as {@code String.valueOf} does.
+     */
+    private static MethodHandle stringifier(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return MH_VALUE_OF_OBJECT.asType(MethodType.methodType(String.class, type));
+        }
+        // byte and short are widened to int; the other primitive types have
+        // their own valueOf overload
+        Class<?> valueOfType = (type == byte.class || type == short.class) ? int.class : type;
+        try {
+            return IMPL_LOOKUP.findStatic(String.class, "valueOf",
+                                          MethodType.methodType(String.class, valueOfType))
+                              .asType(MethodType.methodType(String.class, type));
+        } catch (ReflectiveOperationException ex) {
+            throw newInternalError(ex);
+        }
+    }
+
+    /**
+     * Adds the length of an argument to the length of the result.
+     */
+    private static int mixLength(int length, String arg) {
+        length += arg.length();
+        if (length < 0) {
+            throw new OutOfMemoryError("Overflow: String length out of range");
+        }
+        return length;
+    }
+
+    private static char[] newArray(int length) {
+        return new char[length];
+    }
+
+    /**
+     * Copies a fragment and the argument following it into the result at the
+     * given index, and returns the index after them.
+     */
+    private static int append(String fragment, int index, char[] buf, String arg) {
+        fragment.getChars(0, fragment.length(), buf, index);
+        index += fragment.length();
+        arg.getChars(0, arg.length(), buf, index);
+        return index + arg.length();
+    }
+
+    /**
+     * Copies the last fragment into the result at the given index, and
+     * returns the string backed by the result.
+     */
+    private static String newString(String fragment, int index, char[] buf) {
+        fragment.getChars(0, fragment.length(), buf, index);
+        if (index + fragment.length() != buf.length) {
+            throw new InternalError("Storage is not completely initialized, " +
+                                    (buf.length - index - fragment.length()) + " chars left");
+        }
+        return JLA.newStringUnsafe(buf);
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.math;
+
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+import static java.math.BigDecimal.INFLATED;
+
+/**
+ * A mutable decimal sum.  A {@code BigDecimalAccumulator} holds an
+ * exact value of the form <i>unscaledValue</i>&nbsp;&times;&nbsp;10<sup>-<i>scale</i></sup>
+ * and updates it in place, so that adding up many {@code BigDecimal}
+ * values does not create a new {@code BigDecimal} for every partial sum.
+ *
+ * <p>While the unscaled value fits in a {@code long} all arithmetic is
+ * done on that {@code long}; once it overflows, the value is kept in a
+ * {@code MutableBigInteger} whose storage is reused across operations.
+ * The result of a sequence of {@link #add(BigDecimal) add}, {@link
+ * #subtract(BigDecimal) subtract} and {@link #multiplyAdd(BigDecimal,
+ * BigDecimal) multiplyAdd} calls is numerically equal to, and has the
+ * same scale as, the result of the corresponding chain of exact {@code
+ * BigDecimal} operations starting from {@link BigDecimal#ZERO}: the
+ * scale of the accumulator only grows to match that of its operands.
+ *
+ * <p>Instances are not safe for use by multiple threads.  The
+ * {@link #summing()} collectors give each thread of a parallel stream
+ * its own accumulator and merge them at the end.
+ *
+ * @see     BigDecimal
+ * @since   9
+ */
+public final class BigDecimalAccumulator {
+
+    /**
+     * The unscaled value if it fits in a long, otherwise {@code INFLATED}
+     * and the value is held in {@link #intVal}.
+     */
+    private long intCompact;
+
+    /**
+     * The unscaled value when {@code intCompact == INFLATED}.
+     */
+    private final SignedMutableBigInteger intVal = new SignedMutableBigInteger();
+
+    /**
+     * The scale of the accumulated value.
+     */
+    private int scale;
+
+    // Scratch space; reused so that steady-state updates do not allocate.
+    // The words registers own their arrays, the views borrow the magnitude
+    // of a BigInteger operand and are never written.
+    private final MutableBigInteger wordsA = new MutableBigInteger(new int[2]);
+    private final MutableBigInteger wordsB = new MutableBigInteger(new int[2]);
+    private final MutableBigInteger viewA = new MutableBigInteger();
+    private final MutableBigInteger viewB = new MutableBigInteger();
+    private final MutableBigInteger scratch1 = new MutableBigInteger();
+    private final MutableBigInteger scratch2 = new MutableBigInteger();
+
+    private static final int[] INT_TEN_POWERS_TABLE = {
+        1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000,
+        1000000000
+    };
+
+    /**
+     * Creates an accumulator with value zero and scale zero.
+     */
+    public BigDecimalAccumulator() {
+    }
+
+    /**
+     * Adds {@code augend} to this accumulator.
+     *
+     * @param  augend value to be added.
+     * @return this accumulator
+     */
+    public BigDecimalAccumulator add(BigDecimal augend) {
+        return add(augend, false);
+    }
+
+    /**
+     * Subtracts {@code subtrahend} from this accumulator.
+     *
+     * @param  subtrahend value to be subtracted.
+     * @return this accumulator
+     */
+    public BigDecimalAccumulator subtract(BigDecimal subtrahend) {
+        return add(subtrahend, true);
+    }
+
+    /**
+     * Adds <tt>(unscaledVal &times; 10<sup>-scale</sup>)</tt> to this
+     * accumulator.  This is the allocation-free counterpart of
+     * {@code add(BigDecimal.valueOf(unscaledVal, scale))}.
+     *
+     * @param  unscaledVal unscaled value of the addend.
+     * @param  scale scale of the addend.
+     * @return this accumulator
+     */
+    public BigDecimalAccumulator add(long unscaledVal, int scale) {
+        alignScale(scale);
+        if (addCompact(unscaledVal, scale))
+            return this;
+        return addMagnitude(load(wordsA, unscaledVal),
+                            Long.signum(unscaledVal), scale);
+    }
+
+    /**
+     * Adds the value of another accumulator to this one.  The other
+     * accumulator is not modified.
+     *
+     * @param  other the accumulator whose value is to be added.
+     * @return this accumulator
+     */
+    public BigDecimalAccumulator add(BigDecimalAccumulator other) {
+        if (other == this)
+            return add(toBigDecimal());
+        if (other.intCompact != INFLATED)
+            return add(other.intCompact, other.scale);
+        alignScale(other.scale);
+        return addMagnitude(other.intVal, other.signum(), other.scale);
+    }
+
+    /**
+     * Adds the exact product <tt>(multiplicand &times; multiplier)</tt> to this
+     * accumulator.  The scale of the product is the sum of the scales of
+     * its factors, as for {@link BigDecimal#multiply(BigDecimal)}.
+     *
+     * @param  multiplicand the first factor.
+     * @param  multiplier the second factor.
+     * @return this accumulator
+     * @throws ArithmeticException if the scale of the product is out of
+     *         the range of an {@code int}.
+     */
+    public BigDecimalAccumulator multiplyAdd(BigDecimal multiplicand,
+                                             BigDecimal multiplier) {
+        int productScale = checkScale((long)multiplicand.scale() + multiplier.scale());
+        alignScale(productScale);
+        long x = multiplicand.compactValue();
+        long y = multiplier.compactValue();
+        if (x != INFLATED && y != INFLATED &&
+            addCompact(BigDecimal.multiply(x, y), productScale))
+            return this;
+        int sign = multiplicand.signum() * multiplier.signum();
+        if (sign == 0)
+            return this;
+        MutableBigInteger a = magnitude(multiplicand, wordsA, viewA);
+        MutableBigInteger b = magnitude(multiplier, wordsB, viewB);
+        a.multiply(b, scratch1);
+        return addMagnitude(scratch1, sign, productScale);
+    }
+
+    /**
+     * Rounds this accumulator to the given scale, as by {@link
+     * BigDecimal#setScale(int, RoundingMode)}.  The scale may also be
+     * increased, which never requires rounding.
+     *
+     * @param  newScale the scale to round to.
+     * @param  roundingMode the rounding mode to apply.
+     * @return this accumulator
+     * @throws ArithmeticException if {@code roundingMode==UNNECESSARY}
+     *         and rounding is required.
+     */
+    public BigDecimalAccumulator setScale(int newScale, RoundingMode roundingMode) {
+        if (roundingMode == null)
+            throw new NullPointerException();
+        if (newScale >= scale) {
+            alignScale(newScale);
+            return this;
+        }
+        long drop = (long)scale - newScale;
+        if (intCompact != INFLATED && drop < BigDecimal.LONG_TEN_POWERS_TABLE.length) {
+            intCompact = BigDecimal.divideAndRound(intCompact,
+                                                   BigDecimal.LONG_TEN_POWERS_TABLE[(int)drop],
+                                                   roundingMode.oldMode);
+            scale = newScale;
+            return this;
+        }
+        return set(toBigDecimal().setScale(newScale, roundingMode));
+    }
+
+    /**
+     * Rounds this accumulator according to the {@code MathContext}
+     * settings, as by {@link BigDecimal#round(MathContext)}.
+     *
+     * @param  mc the context to use.
+     * @return this accumulator
+     * @throws ArithmeticException if the rounding mode is
+     *         {@code UNNECESSARY} and rounding is required.
+     */
+    public BigDecimalAccumulator round(MathContext mc) {
+        int mcp = mc.precision;
+        if (mcp == 0)
+            return this;
+        if (intCompact == INFLATED)
+            return set(toBigDecimal().round(mc));
+        // Dropping digits may carry into a new digit, as for 999 -> 1000,
+        // so repeat until the precision fits.
+        int drop;
+        while ((drop = BigDecimal.longDigitLength(intCompact) - mcp) > 0) {
+            int newScale = checkScale((long)scale - drop);
+            intCompact = BigDecimal.divideAndRound(intCompact,
+                                                   BigDecimal.LONG_TEN_POWERS_TABLE[drop],
+                                                   mc.roundingMode.oldMode);
+            scale = newScale;
+        }
+        return this;
+    }
+
+    /**
+     * Resets this accumulator to zero with scale zero.  Storage acquired
+     * for large values is kept for reuse.
+     *
+     * @return this accumulator
+     */
+    public BigDecimalAccumulator reset() {
+        intCompact = 0;
+        scale = 0;
+        return this;
+    }
+
+    /**
+     * Returns the signum of the accumulated value.
+     *
+     * @return -1, 0, or 1 as the accumulated value is negative, zero,
+     *         or positive.
+     */
+    public int signum() {
+        if (intCompact != INFLATED)
+            return Long.signum(intCompact);
+        return intVal.isZero() ? 0 : intVal.sign;
+    }
+
+    /**
+     * Returns the scale of the accumulated value.
+     *
+     * @return the scale of the accumulated value.
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Returns the accumulated value as a {@code BigDecimal}.
+     *
+     * @return the accumulated value.
+     */
+    public BigDecimal toBigDecimal() {
+        if (intCompact != INFLATED)
+            return BigDecimal.valueOf(intCompact, scale);
+        return intVal.toBigDecimal(intVal.sign, scale);
+    }
+
+    /**
+     * Returns the string representation of the accumulated value, as by
+     * {@link BigDecimal#toString()}.
+     *
+     * @return string representation of the accumulated value.
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toString();
+    }
+
+    /**
+     * Returns a {@code Collector} that produces the exact sum of the input
+     * elements.  The result equals {@code
+     * reduce(BigDecimal.ZERO, BigDecimal::add)}, including its scale.
+     *
+     * @return a {@code Collector} that sums {@code BigDecimal} elements
+     */
+    public static Collector<BigDecimal, ?, BigDecimal> summing() {
+        return summing(Function.identity());
+    }
+
+    /**
+     * Returns a {@code Collector} that produces the exact sum of a
+     * {@code BigDecimal}-valued function applied to the input elements.
+     *
+     * @param <T> the type of the input elements
+     * @param mapper a function extracting the value to be summed
+     * @return a {@code Collector} that produces the sum of a derived value
+     */
+    public static <T> Collector<T, ?, BigDecimal>
+    summing(Function<? super T, ? extends BigDecimal> mapper) {
+        return Collector.<T, BigDecimalAccumulator, BigDecimal>of(
+                BigDecimalAccumulator::new,
+                (a, t) -> a.add(mapper.apply(t)),
+                BigDecimalAccumulator::add,
+                BigDecimalAccumulator::toBigDecimal);
+    }
+
+    // Private helpers
+
+    private BigDecimalAccumulator add(BigDecimal val, boolean negate) {
+        int s = val.scale();
+        alignScale(s);
+        long v = val.compactValue();
+        if (v != INFLATED) {
+            if (negate)
+                v = -v;
+            if (addCompact(v, s))
+                return this;
+            return addMagnitude(load(wordsA, v), Long.signum(v), s);
+        }
+        BigInteger b = val.inflated();
+        viewA.setValue(b.mag, b.mag.length);
+        return addMagnitude(viewA, negate ? -b.signum : b.signum, s);
+    }
+
+    /**
+     * Replaces the value of this accumulator by {@code val}.
+     */
+    private BigDecimalAccumulator set(BigDecimal val) {
+        scale = val.scale();
+        long v = val.compactValue();
+        if (v == INFLATED) {
+            BigInteger b = val.inflated();
+            intVal.copyValue(b.mag);
+            intVal.sign = (b.signum < 0) ? -1 : 1;
+            v = intVal.toCompactValue(intVal.sign);
+        }
+        intCompact = v;
+        return this;
+    }
+
+    /**
+     * Raises the scale of this accumulator to {@code newScale} if it is
+     * currently lower, multiplying the unscaled value by a power of ten.
+     */
+    private void alignScale(int newScale) {
+        if (newScale <= scale)
+            return;
+        int n = checkScale((long)newScale - scale);
+        long c = intCompact;
+        if (c != INFLATED) {
+            if (c == 0) {
+                scale = newScale;
+                return;
+            }
+            if (n < BigDecimal.LONG_TEN_POWERS_TABLE.length &&
+                (c = BigDecimal.longMultiplyPowerTen(c, n)) != INFLATED) {
+                intCompact = c;
+                scale = newScale;
+                return;
+            }
+            inflate();
+        }
+        intVal.copyValue(multiplyPowerTen(intVal, n));
+        scale = newScale;
+    }
+
+    /**
+     * Adds the compact value {@code v} at scale {@code s}, which must not
+     * exceed the current scale, to the compact value of this accumulator.
+     * Returns false, leaving this accumulator unchanged, if either value is
+     * not compact or the sum overflows.
+     */
+    private boolean addCompact(long v, int s) {
+        if (intCompact == INFLATED || v == INFLATED)
+            return false;
+        long diff = (long)scale - s;
+        if (diff != 0) {
+            if (diff >= BigDecimal.LONG_TEN_POWERS_TABLE.length)
+                return v == 0;
+            if ((v = BigDecimal.longMultiplyPowerTen(v, (int)diff)) == INFLATED)
+                return false;
+        }
+        long sum = BigDecimal.add(intCompact, v);
+        if (sum == INFLATED)
+            return false;
+        intCompact = sum;
+        return true;
+    }
+
+    /**
+     * Adds <tt>sign &times; mag &times; 10<sup>-s</sup></tt>, where {@code s} does not exceed the
+     * current scale.  The contents of {@code mag} are not changed.
+     */
+    private BigDecimalAccumulator addMagnitude(MutableBigInteger mag, int sign, int s) {
+        if (sign == 0)
+            return this;
+        inflate();
+        MutableBigInteger m = multiplyPowerTen(mag, checkScale((long)scale - s));
+        if (sign > 0)
+            intVal.signedAdd(m);
+        else
+            intVal.signedSubtract(m);
+        if (intVal.isZero())
+            intVal.sign = 1;
+        long c = intVal.toCompactValue(intVal.sign);
+        if (c != INFLATED)
+            intCompact = c;
+        return this;
+    }
+
+    /**
+     * Moves a compact value into {@link #intVal}.
+     */
+    private void inflate() {
+        long c = intCompact;
+        if (c == INFLATED)
+            return;
+        load(intVal, c);
+        intVal.sign = c < 0 ? -1 : 1;
+        intCompact = INFLATED;
+    }
+
+    /**
+     * Returns <tt>src &times; 10<sup>n</sup></tt>.  The product is formed in the scratch
+     * registers and {@code src} itself is returned if {@code n} is zero;
+     * the contents of {@code src} are not changed unless it is itself a
+     * scratch register.
+     */
+    private MutableBigInteger multiplyPowerTen(MutableBigInteger src, int n) {
+        MutableBigInteger x = src;
+        while (n > 0) {
+            int k = Math.min(n, 9);
+            MutableBigInteger z = (x == scratch1) ? scratch2 : scratch1;
+            x.mul(INT_TEN_POWERS_TABLE[k], z);
+            x = z;
+            n -= k;
+        }
+        return x;
+    }
+
+    /**
+     * Returns the magnitude of {@code val}, loaded into {@code words} if it
+     * is compact or viewed through {@code view} otherwise.
+     */
+    private static MutableBigInteger magnitude(BigDecimal val,
+                                               MutableBigInteger words,
+                                               MutableBigInteger view) {
+        long v = val.compactValue();
+        if (v != INFLATED)
+            return load(words, v);
+        int[] mag = val.inflated().mag;
+        view.setValue(mag, mag.length);
+        return view;
+    }
+
+    /**
+     * Stores the magnitude of {@code v} into {@code x}, whose value array
+     * is owned by this accumulator.  {@code INFLATED} is taken to be
+     * -2<sup>63</sup>.
+     */
+    private static MutableBigInteger load(MutableBigInteger x, long v) {
+        long m = (v < 0) ? -v : v;      // unsigned for Long.MIN_VALUE
+        int hi = (int)(m >>> 32);
+        int[] val = x.value;
+        if (val.length < 2)
+            x.value = val = new int[2];
+        x.offset = 0;
+        if (hi != 0) {
+            val[0] = hi;
+            val[1] = (int)m;
+            x.intLen = 2;
+        } else {
+            val[0] = (int)m;
+            x.intLen = (m == 0) ? 0 : 1;
+        }
+        return x;
+    }
+
+    private static int checkScale(long val) {
+        int asInt = (int)val;
+        if (asInt != val)
+            throw new ArithmeticException(val > 0 ? "Underflow" : "Overflow");
+        return asInt;
+    }
+}
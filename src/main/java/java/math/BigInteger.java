@@ -35,6 +35,8 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamField;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.ThreadLocalRandom;
 import sun.misc.DoubleConsts;
 import sun.misc.FloatConsts;
@@ -242,6 +244,35 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      */
     private static final int TOOM_COOK_SQUARE_THRESHOLD = 216;
 
+    /**
+     * The threshold value for using number-theoretic transform
+     * multiplication.  If the number of ints in both mag arrays are
+     * greater than this number, and the product fits in the largest
+     * transform, then NTT multiplication will be used.  This value is
+     * found experimentally to work well.
+     */
+    private static final int NTT_THRESHOLD = 6144;
+
+    /**
+     * The threshold value for using number-theoretic transform squaring.
+     * If the number of ints in the number are larger than this value,
+     * NTT squaring will be used.  This value is found experimentally to
+     * work well.
+     */
+    private static final int NTT_SQUARE_THRESHOLD = 6144;
+
+    /**
+     * The threshold value for using Newton division.  If the number of ints
+     * in the divisor are larger than this value, and the number of ints in
+     * the dividend is greater than the number of ints in the divisor plus
+     * {@code BURNIKEL_ZIEGLER_OFFSET}, the quotient is computed from a
+     * reciprocal of the divisor obtained by Newton iteration.  Below this
+     * value Burnikel-Ziegler division, whose multiplications also use NTT
+     * multiplication, is as fast.  This value is found experimentally to
+     * work well.
+     */
+    private static final int NEWTON_THRESHOLD = 1 << 17;
+
     /**
      * The threshold value for using Burnikel-Ziegler division.  If the number
      * of ints in the divisor are larger than this value, Burnikel-Ziegler
@@ -1473,13 +1504,52 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * @return {@code this * val}
      */
     public BigInteger multiply(BigInteger val) {
+        return multiply(val, false, 0);
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this * val)}.
+     * When both {@code this} and {@code val} are large, typically
+     * in the thousands of bits, parallel multiply might be used.
+     * This method returns the exact same mathematical result as
+     * {@link #multiply}.
+     *
+     * @implNote This implementation may offer better algorithmic
+     * performance when {@code val == this}.
+     *
+     * @implNote Compared to {@link #multiply}, an implementation's
+     * parallel multiplication algorithm would typically use more CPU
+     * resources to compute the result faster, and may do so with a slight
+     * increase in memory consumption.
+     *
+     * @param  val value to be multiplied by this BigInteger.
+     * @return {@code this * val}
+     * @see #multiply
+     * @since 9
+     */
+    public BigInteger parallelMultiply(BigInteger val) {
+        return multiply(val, true, 0);
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this * val)}.  If
+     * {@code parallel} is true, the sub-multiplications of Toom-Cook and
+     * NTT multiplication may be forked into the common pool, up to a depth
+     * derived from its parallelism.
+     *
+     * @param  val value to be multiplied by this BigInteger.
+     * @param  parallel whether the multiply may be done in parallel.
+     * @param  depth the current recursion depth.
+     * @return {@code this * val}
+     */
+    private BigInteger multiply(BigInteger val, boolean parallel, int depth) {
         if (val.signum == 0 || signum == 0)
             return ZERO;
 
         int xlen = mag.length;
 
         if (val == this && xlen > MULTIPLY_SQUARE_THRESHOLD) {
-            return square();
+            return square(parallel, depth);
         }
 
         int ylen = val.mag.length;
@@ -1499,8 +1569,11 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         } else {
             if ((xlen < TOOM_COOK_THRESHOLD) && (ylen < TOOM_COOK_THRESHOLD)) {
                 return multiplyKaratsuba(this, val);
+            } else if ((xlen < NTT_THRESHOLD) || (ylen < NTT_THRESHOLD) ||
+                       (nttLength(xlen + ylen) > NTT_MAX_LENGTH)) {
+                return multiplyToomCook3(this, val, parallel, depth);
             } else {
-                return multiplyToomCook3(this, val);
+                return multiplyNTT(this, val, parallel, depth);
             }
         }
     }
@@ -1648,6 +1721,91 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         }
     }
 
+    /**
+     * A task that multiplies or squares BigIntegers as part of a parallel
+     * multiplication.  Tasks are only created and forked while the recursion
+     * depth is below a limit derived from the parallelism of the common pool;
+     * deeper, and in sequential multiplications, the sub-multiplications are
+     * called directly.
+     */
+    @SuppressWarnings("serial")
+    private static abstract class RecursiveOp extends RecursiveTask<BigInteger> {
+        /**
+         * The threshold until when we should continue forking recursive ops
+         * if parallel is true. This threshold is only relevant for Toom Cook 3
+         * multiply and square.
+         */
+        private static final int PARALLEL_FORK_DEPTH_THRESHOLD =
+                calculateMaximumDepth(ForkJoinPool.getCommonPoolParallelism());
+
+        private static final int calculateMaximumDepth(int parallelism) {
+            return 32 - Integer.numberOfLeadingZeros(parallelism);
+        }
+
+        final boolean parallel;
+        /**
+         * The current recursing depth. Since it is a logarithmic algorithm,
+         * we do not need an int to hold the number.
+         */
+        final byte depth;
+
+        private RecursiveOp(boolean parallel, int depth) {
+            this.parallel = parallel;
+            this.depth = (byte) depth;
+        }
+
+        private static final class RecursiveMultiply extends RecursiveOp {
+            private final BigInteger a;
+            private final BigInteger b;
+
+            public RecursiveMultiply(BigInteger a, BigInteger b, boolean parallel, int depth) {
+                super(parallel, depth);
+                this.a = a;
+                this.b = b;
+            }
+
+            @Override
+            public BigInteger compute() {
+                return a.multiply(b, parallel, depth);
+            }
+        }
+
+        private static final class RecursiveSquare extends RecursiveOp {
+            private final BigInteger a;
+
+            public RecursiveSquare(BigInteger a, boolean parallel, int depth) {
+                super(parallel, depth);
+                this.a = a;
+            }
+
+            @Override
+            public BigInteger compute() {
+                return a.square(parallel, depth);
+            }
+        }
+
+        /**
+         * Returns true if the sub-multiplications at the given depth should
+         * be forked.
+         */
+        static boolean shouldFork(boolean parallel, int depth) {
+            return parallel && depth <= PARALLEL_FORK_DEPTH_THRESHOLD;
+        }
+
+        private static RecursiveTask<BigInteger> multiply(BigInteger a, BigInteger b,
+                                                          boolean parallel, int depth) {
+            RecursiveOp op = new RecursiveMultiply(a, b, parallel, depth);
+            op.fork();
+            return op;
+        }
+
+        private static RecursiveTask<BigInteger> square(BigInteger a, boolean parallel, int depth) {
+            RecursiveOp op = new RecursiveSquare(a, parallel, depth);
+            op.fork();
+            return op;
+        }
+    }
+
     /**
      * Multiplies two BigIntegers using a 3-way Toom-Cook multiplication
      * algorithm.  This is a recursive divide-and-conquer algorithm which is
@@ -1676,7 +1834,8 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * LNCS #4547. Springer, Madrid, Spain, June 21-22, 2007.
      *
      */
-    private static BigInteger multiplyToomCook3(BigInteger a, BigInteger b) {
+    private static BigInteger multiplyToomCook3(BigInteger a, BigInteger b,
+                                                boolean parallel, int depth) {
         int alen = a.mag.length;
         int blen = b.mag.length;
 
@@ -1700,16 +1859,31 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
 
         BigInteger v0, v1, v2, vm1, vinf, t1, t2, tm1, da1, db1;
 
-        v0 = a0.multiply(b0);
+        depth++;
         da1 = a2.add(a0);
         db1 = b2.add(b0);
-        vm1 = da1.subtract(a1).multiply(db1.subtract(b1));
+        BigInteger dam1 = da1.subtract(a1);
+        BigInteger dbm1 = db1.subtract(b1);
         da1 = da1.add(a1);
         db1 = db1.add(b1);
-        v1 = da1.multiply(db1);
-        v2 = da1.add(a2).shiftLeft(1).subtract(a0).multiply(
-             db1.add(b2).shiftLeft(1).subtract(b0));
-        vinf = a2.multiply(b2);
+        if (RecursiveOp.shouldFork(parallel, depth)) {
+            RecursiveTask<BigInteger> v0Task = RecursiveOp.multiply(a0, b0, parallel, depth);
+            RecursiveTask<BigInteger> vm1Task = RecursiveOp.multiply(dam1, dbm1, parallel, depth);
+            RecursiveTask<BigInteger> v1Task = RecursiveOp.multiply(da1, db1, parallel, depth);
+            v2 = da1.add(a2).shiftLeft(1).subtract(a0).multiply(
+                 db1.add(b2).shiftLeft(1).subtract(b0), parallel, depth);
+            vinf = a2.multiply(b2, parallel, depth);
+            v0 = v0Task.join();
+            vm1 = vm1Task.join();
+            v1 = v1Task.join();
+        } else {
+            v0 = a0.multiply(b0, parallel, depth);
+            vm1 = dam1.multiply(dbm1, parallel, depth);
+            v1 = da1.multiply(db1, parallel, depth);
+            v2 = da1.add(a2).shiftLeft(1).subtract(a0).multiply(
+                 db1.add(b2).shiftLeft(1).subtract(b0), parallel, depth);
+            vinf = a2.multiply(b2, parallel, depth);
+        }
 
         // The algorithm requires two divisions by 2 and one by 3.
         // All divisions are known to be exact, that is, they do not produce
@@ -1867,6 +2041,251 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         return new BigInteger(trustedStripLeadingZeroInts(upperInts), 1);
     }
 
+    // Number-theoretic transform multiplication
+
+    /**
+     * The primes of the two transforms, {@code 7*2^26 + 1} and
+     * {@code 5*2^25 + 1}.  Both have 3 as a primitive root.
+     */
+    private static final int NTT_PRIME1 = 469762049;
+    private static final int NTT_PRIME2 = 167772161;
+    private static final int NTT_ROOT = 3;
+
+    /**
+     * The inverse of {@code NTT_PRIME1} modulo {@code NTT_PRIME2}, used to
+     * combine the two convolutions by the Chinese remainder theorem.
+     */
+    private static final long NTT_PRIME1_INVERSE = 130489458;
+
+    /**
+     * The largest transform length.  A coefficient of the convolution of
+     * {@code n} 16-bit digits is less than {@code n/2 * 2^32}, which must
+     * be less than {@code NTT_PRIME1 * NTT_PRIME2}.
+     */
+    private static final int NTT_MAX_LENGTH = 1 << 24;
+
+    /**
+     * Returns the transform length for a product of the given number of
+     * ints, that is the power of two not less than the number of 16-bit
+     * digits of the product, or a negative value if it overflows.
+     */
+    private static int nttLength(int productInts) {
+        int digits = productInts << 1;
+        int n = Integer.highestOneBit(digits);
+        return (n == digits) ? n : n << 1;
+    }
+
+    /**
+     * Multiplies two BigIntegers using number-theoretic transforms.  The
+     * magnitudes are split into 16-bit digits and their convolution is
+     * computed with a fast Fourier transform in the integers modulo two
+     * primes, each of which supports transforms of length up to
+     * {@code 2^25}.  The exact convolution is recovered by the Chinese
+     * remainder theorem and the carries are propagated into the result.
+     * The complexity is O(n log n) multiplications of longs, so this
+     * algorithm beats Toom-Cook multiplication for numbers of several
+     * thousand ints.  Squaring is done when {@code a == b}, which saves
+     * one of the three transforms per prime.
+     *
+     * If {@code parallel} is true, the convolution modulo the second prime
+     * is forked into the common pool.
+     *
+     * See: J. M. Pollard, "The Fast Fourier Transform in a Finite Field",
+     *      Mathematics of Computation 25 (1971), p. 365-374.
+     */
+    private static BigInteger multiplyNTT(BigInteger a, BigInteger b,
+                                          boolean parallel, int depth) {
+        int[] x = a.mag;
+        int[] y = b.mag;
+        int len = x.length + y.length;
+        int n = nttLength(len);
+
+        int[] c2;
+        int[] c1;
+        if (RecursiveOp.shouldFork(parallel, depth)) {
+            NTTConvolution second = new NTTConvolution(x, y, n, NTT_PRIME2);
+            second.fork();
+            c1 = nttConvolution(x, y, n, NTT_PRIME1);
+            c2 = second.join();
+        } else {
+            c1 = nttConvolution(x, y, n, NTT_PRIME1);
+            c2 = nttConvolution(x, y, n, NTT_PRIME2);
+        }
+
+        // Combine the residues and propagate the carries, 16 bits at a time
+        int[] result = new int[len];
+        long carry = 0;
+        for (int i = 0, j = len - 1; j >= 0; j--) {
+            carry += nttCombine(c1[i], c2[i]);
+            int low = (int) carry & 0xffff;
+            carry >>>= 16;
+            i++;
+            carry += nttCombine(c1[i], c2[i]);
+            result[j] = ((int) carry << 16) | low;
+            carry >>>= 16;
+            i++;
+        }
+        return new BigInteger(trustedStripLeadingZeroInts(result),
+                              a.signum == b.signum ? 1 : -1);
+    }
+
+    /**
+     * Computes the convolution of a BigInteger magnitude modulo one of the
+     * transform primes, so that the two convolutions can run in parallel.
+     */
+    @SuppressWarnings("serial")
+    private static final class NTTConvolution extends RecursiveTask<int[]> {
+        private final int[] x;
+        private final int[] y;
+        private final int n;
+        private final int prime;
+
+        NTTConvolution(int[] x, int[] y, int n, int prime) {
+            this.x = x;
+            this.y = y;
+            this.n = n;
+            this.prime = prime;
+        }
+
+        @Override
+        protected int[] compute() {
+            return nttConvolution(x, y, n, prime);
+        }
+    }
+
+    /**
+     * Returns the cyclic convolution of length {@code n} of the 16-bit
+     * digits of the magnitudes {@code x} and {@code y}, modulo
+     * {@code prime}.  The digits are in little-endian order.
+     */
+    private static int[] nttConvolution(int[] x, int[] y, int n, int prime) {
+        long[] roots = nttRoots(n, prime);
+        int[] fx = nttDigits(x, n);
+        nttTransform(fx, roots, prime);
+        if (x == y) {
+            for (int i = 0; i < n; i++) {
+                long v = fx[i];
+                fx[i] = (int) (v * v % prime);
+            }
+        } else {
+            int[] fy = nttDigits(y, n);
+            nttTransform(fy, roots, prime);
+            for (int i = 0; i < n; i++) {
+                fx[i] = (int) ((long) fx[i] * fy[i] % prime);
+            }
+        }
+
+        // The inverse transform is the forward transform followed by a
+        // reversal of all but the first element, scaled by 1/n.
+        nttTransform(fx, roots, prime);
+        long scale = nttPow(n, prime - 2, prime);
+        fx[0] = (int) (fx[0] * scale % prime);
+        if (n > 1) {
+            fx[n / 2] = (int) (fx[n / 2] * scale % prime);
+        }
+        for (int i = 1, j = n - 1; i < j; i++, j--) {
+            int t = fx[i];
+            fx[i] = (int) (fx[j] * scale % prime);
+            fx[j] = (int) (t * scale % prime);
+        }
+        return fx;
+    }
+
+    /**
+     * Splits a big-endian magnitude into {@code n} little-endian 16-bit
+     * digits, padded with zeros.
+     */
+    private static int[] nttDigits(int[] mag, int n) {
+        int[] digits = new int[n];
+        for (int i = 0, j = mag.length - 1; j >= 0; j--) {
+            int v = mag[j];
+            digits[i++] = v & 0xffff;
+            digits[i++] = v >>> 16;
+        }
+        return digits;
+    }
+
+    /**
+     * Returns the powers {@code w^0 ... w^(n/2-1)} of a primitive
+     * {@code n}-th root of unity {@code w} modulo {@code prime}.
+     */
+    private static long[] nttRoots(int n, int prime) {
+        long[] roots = new long[Math.max(n >> 1, 1)];
+        long w = nttPow(NTT_ROOT, (prime - 1) / n, prime);
+        roots[0] = 1;
+        for (int i = 1; i < roots.length; i++) {
+            roots[i] = roots[i - 1] * w % prime;
+        }
+        return roots;
+    }
+
+    /**
+     * Transforms {@code a} in place with an iterative radix-2
+     * Cooley-Tukey fast Fourier transform modulo {@code prime}.
+     */
+    private static void nttTransform(int[] a, long[] roots, int prime) {
+        int n = a.length;
+
+        // Bit-reversal permutation
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                int t = a[i];
+                a[i] = a[j];
+                a[j] = t;
+            }
+        }
+
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1;
+            int stride = n / len;
+            for (int i = 0; i < n; i += len) {
+                for (int j = 0, k = 0; j < half; j++, k += stride) {
+                    int u = a[i + j];
+                    int v = (int) (a[i + j + half] * roots[k] % prime);
+                    int sum = u + v;
+                    a[i + j] = (sum >= prime) ? sum - prime : sum;
+                    int difference = u - v;
+                    a[i + j + half] = (difference < 0) ? difference + prime : difference;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the value less than {@code NTT_PRIME1 * NTT_PRIME2} which
+     * is congruent to {@code r1} modulo {@code NTT_PRIME1} and to
+     * {@code r2} modulo {@code NTT_PRIME2}.
+     */
+    private static long nttCombine(int r1, int r2) {
+        long t = r2 - (r1 % NTT_PRIME2);
+        if (t < 0) {
+            t += NTT_PRIME2;
+        }
+        t = t * NTT_PRIME1_INVERSE % NTT_PRIME2;
+        return r1 + t * NTT_PRIME1;
+    }
+
+    /**
+     * Returns {@code base^exponent mod prime}.
+     */
+    private static long nttPow(long base, int exponent, int prime) {
+        long result = 1;
+        base %= prime;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = result * base % prime;
+            }
+            base = base * base % prime;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
     // Squaring
 
     /**
@@ -1875,6 +2294,19 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * @return {@code this<sup>2</sup>}
      */
     private BigInteger square() {
+        return square(false, 0);
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this<sup>2</sup>)}.  If
+     * {@code parallel} is true, the sub-squares of Toom-Cook and NTT
+     * squaring may be forked into the common pool.
+     *
+     * @param parallel whether the square may be done in parallel.
+     * @param depth the current recursion depth.
+     * @return {@code this<sup>2</sup>}
+     */
+    private BigInteger square(boolean parallel, int depth) {
         if (signum == 0) {
             return ZERO;
         }
@@ -1886,8 +2318,11 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         } else {
             if (len < TOOM_COOK_SQUARE_THRESHOLD) {
                 return squareKaratsuba();
+            } else if (len < NTT_SQUARE_THRESHOLD ||
+                       nttLength(len + len) > NTT_MAX_LENGTH) {
+                return squareToomCook3(parallel, depth);
             } else {
-                return squareToomCook3();
+                return multiplyNTT(this, this, parallel, depth);
             }
         }
     }
@@ -1986,7 +2421,7 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * that has better asymptotic performance than the algorithm used in
      * squareToLen or squareKaratsuba.
      */
-    private BigInteger squareToomCook3() {
+    private BigInteger squareToomCook3(boolean parallel, int depth) {
         int len = mag.length;
 
         // k is the size (in ints) of the lower-order slices.
@@ -2003,13 +2438,26 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         a0 = getToomSlice(k, r, 2, len);
         BigInteger v0, v1, v2, vm1, vinf, t1, t2, tm1, da1;
 
-        v0 = a0.square();
+        depth++;
         da1 = a2.add(a0);
-        vm1 = da1.subtract(a1).square();
+        BigInteger dam1 = da1.subtract(a1);
         da1 = da1.add(a1);
-        v1 = da1.square();
-        vinf = a2.square();
-        v2 = da1.add(a2).shiftLeft(1).subtract(a0).square();
+        if (RecursiveOp.shouldFork(parallel, depth)) {
+            RecursiveTask<BigInteger> v0Task = RecursiveOp.square(a0, parallel, depth);
+            RecursiveTask<BigInteger> vm1Task = RecursiveOp.square(dam1, parallel, depth);
+            RecursiveTask<BigInteger> v1Task = RecursiveOp.square(da1, parallel, depth);
+            vinf = a2.square(parallel, depth);
+            v2 = da1.add(a2).shiftLeft(1).subtract(a0).square(parallel, depth);
+            v0 = v0Task.join();
+            vm1 = vm1Task.join();
+            v1 = v1Task.join();
+        } else {
+            v0 = a0.square(parallel, depth);
+            vm1 = dam1.square(parallel, depth);
+            v1 = da1.square(parallel, depth);
+            vinf = a2.square(parallel, depth);
+            v2 = da1.add(a2).shiftLeft(1).subtract(a0).square(parallel, depth);
+        }
 
         // The algorithm requires two divisions by 2 and one by 3.
         // All divisions are known to be exact, that is, they do not produce
@@ -2044,8 +2492,10 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         if (val.mag.length < BURNIKEL_ZIEGLER_THRESHOLD ||
                 mag.length - val.mag.length < BURNIKEL_ZIEGLER_OFFSET) {
             return divideKnuth(val);
-        } else {
+        } else if (val.mag.length < NEWTON_THRESHOLD) {
             return divideBurnikelZiegler(val);
+        } else {
+            return divideAndRemainderNewton(val)[0];
         }
     }
 
@@ -2081,8 +2531,10 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         if (val.mag.length < BURNIKEL_ZIEGLER_THRESHOLD ||
                 mag.length - val.mag.length < BURNIKEL_ZIEGLER_OFFSET) {
             return divideAndRemainderKnuth(val);
-        } else {
+        } else if (val.mag.length < NEWTON_THRESHOLD) {
             return divideAndRemainderBurnikelZiegler(val);
+        } else {
+            return divideAndRemainderNewton(val);
         }
     }
 
@@ -2110,8 +2562,10 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         if (val.mag.length < BURNIKEL_ZIEGLER_THRESHOLD ||
                 mag.length - val.mag.length < BURNIKEL_ZIEGLER_OFFSET) {
             return remainderKnuth(val);
-        } else {
+        } else if (val.mag.length < NEWTON_THRESHOLD) {
             return remainderBurnikelZiegler(val);
+        } else {
+            return divideAndRemainderNewton(val)[1];
         }
     }
 
@@ -2156,6 +2610,75 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         return new BigInteger[] {qBigInt, rBigInt};
     }
 
+    /**
+     * Computes {@code this / val} and {@code this % val} from a reciprocal
+     * of the divisor.  The reciprocal is computed to the precision of the
+     * quotient, plus a guard word, by Newton iteration, so that a division
+     * costs a small constant number of multiplications and benefits fully
+     * from NTT multiplication.  The estimated quotient is off by at most a
+     * few units and is corrected with the remainder.
+     *
+     * See: R. P. Brent and P. Zimmermann, "Modern Computer Arithmetic",
+     *      Cambridge University Press, 2010, section 3.4.
+     *
+     * @param val the divisor
+     * @return an array containing the quotient and remainder
+     */
+    private BigInteger[] divideAndRemainderNewton(BigInteger val) {
+        BigInteger a = this.abs();
+        BigInteger b = val.abs();
+        int n = a.bitLength();
+        int m = b.bitLength();
+
+        // The top 'precision' bits of the divisor determine the quotient
+        // up to a small error.
+        int precision = n - m + 32;
+        BigInteger top = (precision <= m) ? b.shiftRight(m - precision)
+                                          : b.shiftLeft(precision - m);
+
+        // reciprocal ~ 2^(2*precision) / top ~ 2^(precision+m) / b, and
+        // only the top bits of the dividend are needed as well.
+        int guard = Math.min(m, 64);
+        BigInteger q = a.shiftRight(m - guard).multiply(reciprocal(top, precision))
+                        .shiftRight(precision + guard);
+        BigInteger r = a.subtract(q.multiply(b));
+        while (r.signum < 0) {
+            q = q.subtract(ONE);
+            r = r.add(b);
+        }
+        while (r.compareTo(b) >= 0) {
+            q = q.add(ONE);
+            r = r.subtract(b);
+        }
+
+        BigInteger qBigInt = (signum == val.signum) ? q : q.negate();
+        BigInteger rBigInt = (signum < 0) ? r.negate() : r;
+        return new BigInteger[] {qBigInt, rBigInt};
+    }
+
+    /**
+     * Returns an approximation of {@code 2^(2*bits) / b}, where {@code b}
+     * has exactly {@code bits} bits.  The reciprocal {@code xh} of the upper
+     * {@code half} bits of {@code b} is computed recursively and refined by
+     * one Newton step {@code x' = x + x * (2^(2*bits) - b*x) / 2^(2*bits)}
+     * with {@code x = xh * 2^(bits-half)}, which doubles the number of
+     * correct bits.  Since {@code xh} only has {@code half} bits, and only
+     * the top bits of the error term matter, both products are about half
+     * the size of a full product.  The result is within a few units of
+     * the exact quotient.
+     */
+    private static BigInteger reciprocal(BigInteger b, int bits) {
+        if (bits < BURNIKEL_ZIEGLER_THRESHOLD * 32) {
+            return ONE.shiftLeft(2 * bits).divide(b);
+        }
+        int half = (bits >>> 1) + 1;
+        int shift = bits - half;
+        BigInteger xh = reciprocal(b.shiftRight(shift), half);
+        BigInteger error = ONE.shiftLeft(2 * bits).subtract(b.multiply(xh).shiftLeft(shift))
+                              .shiftRight(bits - 2);
+        return xh.shiftLeft(shift).add(xh.multiply(error).shiftRight(half + 2));
+    }
+
     /**
      * Returns a BigInteger whose value is <tt>(this<sup>exponent</sup>)</tt>.
      * Note that {@code exponent} is an integer rather than a BigInteger.
@@ -2277,6 +2800,67 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         }
     }
 
+    /**
+     * Returns the integer square root of this BigInteger.  The integer square
+     * root of the corresponding mathematical integer {@code n} is the largest
+     * mathematical integer {@code s} such that {@code s*s <= n}.  It is equal
+     * to the value of {@code floor(sqrt(n))}, where {@code sqrt(n)} denotes the
+     * real square root of {@code n} treated as a real.  Note that the integer
+     * square root will be less than the real square root if the latter is not
+     * representable as an integral value.
+     *
+     * @implNote The square root of the upper half of the bits is computed
+     * recursively and completed by Newton iteration, which converges in a
+     * couple of steps.  Each step is a division, which uses Newton division
+     * for large numbers.
+     *
+     * @return the integer square root of {@code this}
+     * @throws ArithmeticException if {@code this} is negative.  (The square
+     *         root of a negative integer {@code val} is
+     *         {@code (i * sqrt(-val))} where <i>i</i> is the
+     *         <i>imaginary unit</i> and is equal to
+     *         {@code sqrt(-1)}.)
+     * @since 9
+     */
+    public BigInteger sqrt() {
+        if (this.signum < 0) {
+            throw new ArithmeticException("Negative BigInteger");
+        }
+        return sqrtNewton(this);
+    }
+
+    /**
+     * Returns the integer square root of a non-negative BigInteger.
+     */
+    private static BigInteger sqrtNewton(BigInteger val) {
+        int bits = val.bitLength();
+        if (bits < 62) {
+            long v = val.longValue();
+            long s = (long) Math.sqrt((double) v);
+            while (s * s > v) {
+                s--;
+            }
+            while ((s + 1) * (s + 1) <= v) {
+                s++;
+            }
+            return valueOf(s);
+        }
+
+        // (s+1) * 2^k is greater than the square root, and has about half
+        // of its bits correct
+        int k = bits >>> 2;
+        BigInteger x = sqrtNewton(val.shiftRight(2 * k)).add(ONE).shiftLeft(k);
+
+        // Newton iteration decreases monotonically to the root
+        for (;;) {
+            BigInteger y = x.add(val.divide(x)).shiftRight(1);
+            if (y.compareTo(x) >= 0) {
+                return x;
+            }
+            x = y;
+        }
+    }
+
     /**
      * Returns a BigInteger whose value is the greatest common divisor of
      * {@code abs(this)} and {@code abs(val)}.  Returns 0 if
@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.nio;
+
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.misc.Cleaner;
+import sun.misc.Unsafe;
+import sun.nio.ch.DirectBuffer;
+import sun.security.action.GetPropertyAction;
+
+
+/**
+ * A pool of direct byte buffers.
+ *
+ * <p> {@link ByteBuffer#allocateDirect ByteBuffer.allocateDirect} reserves
+ * and zeroes new native memory for every buffer, and the memory is only
+ * freed once the buffer has been garbage collected.  When the limit on
+ * direct memory is reached, allocation waits for the garbage collector to
+ * free some.  A pool instead recycles the memory of buffers that are
+ * explicitly {@link #release released}, so that allocating a buffer from
+ * the pool does not reserve memory in the steady state.
+ *
+ * <p> Buffers of up to the pool's maximum pooled capacity are carved from
+ * chunks of native memory, one arena of chunks per power-of-two size class.
+ * Each thread keeps a small cache of free blocks for each size class, so that
+ * most allocations and releases by the same thread take no lock.  Larger
+ * buffers are allocated and freed individually.  Memory in the arenas is
+ * retained by the pool and counts towards the limit on direct memory.
+ *
+ * <p> The content of a newly allocated buffer is undefined; unlike
+ * {@code allocateDirect}, the memory is not zeroed.  A buffer must not be
+ * used, nor any buffer derived from it by {@link ByteBuffer#slice slice},
+ * {@link ByteBuffer#duplicate duplicate} or a view method, once it has been
+ * released, as its memory may have been allocated to another buffer.
+ *
+ * <p> A buffer that becomes unreachable without being released is a leak.
+ * Its memory is returned to the pool when the buffer is garbage collected,
+ * and the leak is counted by {@link #getLeakCount getLeakCount}.  If the
+ * {@code jdk.nio.bufferPool.leakDetection} system property is set to {@code
+ * true} then the stack trace of the allocation of each leaked buffer is also
+ * printed to the standard error stream.
+ *
+ * <p> Pools are safe for use by multiple concurrent threads.
+ *
+ * @since 9
+ */
+
+public final class DirectBufferPool {
+
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+
+    // The smallest size class, as a power of two
+    private static final int MIN_SHIFT = 8;
+
+    // The size of the chunks that blocks are carved from
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    // The default maximum capacity of pooled buffers
+    private static final int DEFAULT_MAX_POOLED_CAPACITY = 1 << 20;
+
+    // The number of bytes, and the maximum number of blocks, of each size
+    // class that a thread may cache
+    private static final int CACHE_BYTES = 256 << 10;
+    private static final int MAX_CACHE_SIZE = 64;
+
+    private static final boolean leakDetection;
+    static {
+        String s = AccessController.doPrivileged(
+            new GetPropertyAction("jdk.nio.bufferPool.leakDetection"));
+        leakDetection = (s != null) && (s.length() == 0 || Boolean.parseBoolean(s));
+    }
+
+    private static class DefaultHolder {
+        static final DirectBufferPool pool = new DirectBufferPool();
+    }
+
+    // The maximum capacity of pooled buffers
+    private final int maxPooledCapacity;
+
+    // The arena of each size class
+    private final Arena[] arenas;
+
+    // The thread caches, including those of threads that have terminated
+    private final ConcurrentLinkedQueue<Cache> caches = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Cache> threadCache = new ThreadLocal<Cache>() {
+        @Override
+        protected Cache initialValue() {
+            Cache cache = new Cache(Thread.currentThread(), arenas);
+            caches.add(cache);
+            return cache;
+        }
+    };
+
+    // Native memory held by the pool, and the number of leaked buffers
+    private final AtomicLong memoryUsed = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    /**
+     * Creates a pool that pools buffers of up to 1 MB.
+     */
+    public DirectBufferPool() {
+        this(DEFAULT_MAX_POOLED_CAPACITY);
+    }
+
+    /**
+     * Creates a pool that pools buffers of up to the given capacity.
+     *
+     * @param  maxPooledCapacity
+     *         The maximum capacity of pooled buffers, rounded up to a power
+     *         of two; larger buffers are allocated and freed individually
+     *
+     * @throws IllegalArgumentException
+     *         If {@code maxPooledCapacity} is negative or greater than
+     *         {@code 1 << 30}
+     */
+    public DirectBufferPool(int maxPooledCapacity) {
+        if (maxPooledCapacity < 0 || maxPooledCapacity > (1 << 30))
+            throw new IllegalArgumentException("Illegal maximum pooled capacity: "
+                                               + maxPooledCapacity);
+        int n = Math.max(sizeClass(maxPooledCapacity) + 1, 1);
+        this.arenas = new Arena[n];
+        for (int i = 0; i < n; i++)
+            arenas[i] = new Arena(1 << (MIN_SHIFT + i));
+        this.maxPooledCapacity = 1 << (MIN_SHIFT + n - 1);
+    }
+
+    /**
+     * Returns the pool shared by the platform.
+     *
+     * @return  The shared pool
+     */
+    public static DirectBufferPool getDefault() {
+        return DefaultHolder.pool;
+    }
+
+    /**
+     * Returns the index of the size class of the given capacity.
+     */
+    private static int sizeClass(int capacity) {
+        if (capacity <= (1 << MIN_SHIFT))
+            return 0;
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    /**
+     * Allocates a direct byte buffer from this pool.
+     *
+     * <p> The new buffer's position will be zero, its limit will be its
+     * capacity, its mark will be undefined, and its byte order will be
+     * {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.  Its content is undefined.
+     *
+     * @param  capacity
+     *         The new buffer's capacity, in bytes
+     *
+     * @return  The new byte buffer
+     *
+     * @throws  IllegalArgumentException
+     *          If the {@code capacity} is a negative integer
+     * @throws  OutOfMemoryError
+     *          If the limit on direct memory has been reached
+     */
+    public ByteBuffer allocate(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        Lease lease;
+        if (capacity > maxPooledCapacity) {
+            lease = new Lease(this, allocateUnpooled(capacity), -1, capacity);
+        } else {
+            int sc = sizeClass(capacity);
+            Cache cache = threadCache.get();
+            long address = cache.pop(sc);
+            if (address == 0)
+                address = refill(cache, sc);
+            lease = new Lease(this, address, sc, capacity);
+        }
+        DirectByteBuffer buf = new DirectByteBuffer(lease.address, capacity, lease);
+        lease.cleaner = Cleaner.create(buf, lease);
+        return buf;
+    }
+
+    /**
+     * Releases a buffer allocated from this pool.  Its memory is returned to
+     * the pool, or freed if the buffer was too large to be pooled.  If the
+     * buffer has already been released then this method has no effect.
+     *
+     * @param  buf
+     *         The buffer to release
+     *
+     * @throws  IllegalArgumentException
+     *          If the buffer was not allocated from this pool
+     */
+    public void release(ByteBuffer buf) {
+        Lease lease = leaseOf(buf);
+        if (lease == null)
+            throw new IllegalArgumentException("Buffer not allocated from this pool");
+        lease.released = true;
+        lease.cleaner.clean();
+    }
+
+    /**
+     * Tells whether the given buffer was allocated from this pool.  A
+     * buffer derived from such a buffer was not allocated from the pool.
+     *
+     * @param  buf
+     *         The buffer
+     *
+     * @return  {@code true} if, and only if, the buffer was allocated from
+     *          this pool
+     */
+    public boolean owns(ByteBuffer buf) {
+        return leaseOf(buf) != null;
+    }
+
+    /**
+     * Returns an estimate of the native memory held by this pool, in bytes,
+     * including the memory of buffers that are in use.
+     *
+     * @return  The memory held by this pool
+     */
+    public long getMemoryUsed() {
+        return memoryUsed.get();
+    }
+
+    /**
+     * Returns the number of buffers that were garbage collected without
+     * having been released.
+     *
+     * @return  The number of leaked buffers
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    private Lease leaseOf(ByteBuffer buf) {
+        if (buf instanceof DirectBuffer) {
+            Object att = ((DirectBuffer)buf).attachment();
+            if (att instanceof Lease && ((Lease)att).pool == this)
+                return (Lease)att;
+        }
+        return null;
+    }
+
+    private long allocateUnpooled(int capacity) {
+        long size = Math.max(1L, (long)capacity);
+        Bits.reserveMemory(size, capacity);
+        long address;
+        try {
+            address = unsafe.allocateMemory(size);
+        } catch (OutOfMemoryError x) {
+            Bits.unreserveMemory(size, capacity);
+            throw x;
+        }
+        memoryUsed.addAndGet(size);
+        return address;
+    }
+
+    private void freeUnpooled(long address, int capacity) {
+        long size = Math.max(1L, (long)capacity);
+        unsafe.freeMemory(address);
+        Bits.unreserveMemory(size, capacity);
+        memoryUsed.addAndGet(-size);
+    }
+
+    /**
+     * Refills the thread's cache of the given size class from the arena,
+     * and returns a block for immediate use.
+     */
+    private long refill(Cache cache, int sc) {
+        Arena arena = arenas[sc];
+        int batch = (cache.capacity(sc) + 1) / 2;
+        int n = arena.take(cache, sc, batch);
+        if (n == 0) {
+            // reclaim the caches of terminated threads before growing
+            reclaimCaches();
+            n = arena.take(cache, sc, batch);
+            while (n == 0) {
+                arena.grow();
+                n = arena.take(cache, sc, batch);
+            }
+        }
+        return cache.pop(sc);
+    }
+
+    /**
+     * Returns the blocks cached by threads that have terminated to the
+     * arenas.
+     */
+    private void reclaimCaches() {
+        Iterator<Cache> i = caches.iterator();
+        while (i.hasNext()) {
+            Cache cache = i.next();
+            if (!cache.isOwnerAlive() && caches.remove(cache)) {
+                for (int sc = 0; sc < arenas.length; sc++)
+                    arenas[sc].give(cache, sc, cache.count(sc));
+            }
+        }
+    }
+
+    /**
+     * The free blocks of one size class.
+     */
+    private final class Arena {
+        private final int blockSize;
+        private final int blocksPerChunk;
+
+        // free blocks
+        private long[] free = new long[16];
+        private int count;
+
+        Arena(int blockSize) {
+            this.blockSize = blockSize;
+            this.blocksPerChunk = Math.max(1, CHUNK_SIZE / blockSize);
+        }
+
+        /**
+         * Moves up to n free blocks to the thread's cache, returning the
+         * number moved.
+         */
+        synchronized int take(Cache cache, int sc, int n) {
+            n = Math.min(n, count);
+            for (int i = 0; i < n; i++) {
+                cache.push(sc, free[--count]);
+            }
+            return n;
+        }
+
+        /**
+         * Moves n blocks from the thread's cache to the free blocks.
+         */
+        synchronized void give(Cache cache, int sc, int n) {
+            ensureCapacity(count + n);
+            for (int i = 0; i < n; i++) {
+                free[count++] = cache.pop(sc);
+            }
+        }
+
+        synchronized void give(long address) {
+            ensureCapacity(count + 1);
+            free[count++] = address;
+        }
+
+        /**
+         * Allocates a chunk and adds its blocks to the free blocks.
+         */
+        void grow() {
+            long size = (long)blockSize * blocksPerChunk;
+            Bits.reserveMemory(size, (int)size);
+            long base;
+            try {
+                base = unsafe.allocateMemory(size);
+            } catch (OutOfMemoryError x) {
+                Bits.unreserveMemory(size, (int)size);
+                throw x;
+            }
+            memoryUsed.addAndGet(size);
+            synchronized (this) {
+                ensureCapacity(count + blocksPerChunk);
+                // in reverse so that blocks are taken in address order
+                for (int i = blocksPerChunk - 1; i >= 0; i--)
+                    free[count++] = base + (long)i * blockSize;
+            }
+        }
+
+        private void ensureCapacity(int n) {
+            if (n > free.length) {
+                long[] a = new long[Math.max(n, free.length * 2)];
+                System.arraycopy(free, 0, a, 0, count);
+                free = a;
+            }
+        }
+    }
+
+    /**
+     * A thread's cache of free blocks, one stack per size class.
+     */
+    private static final class Cache {
+        private final WeakReference<Thread> owner;
+        private final long[][] stacks;
+        private final int[] counts;
+
+        Cache(Thread owner, Arena[] arenas) {
+            this.owner = new WeakReference<>(owner);
+            this.stacks = new long[arenas.length][];
+            for (int sc = 0; sc < arenas.length; sc++) {
+                int n = CACHE_BYTES / arenas[sc].blockSize;
+                stacks[sc] = new long[Math.max(2, Math.min(n, MAX_CACHE_SIZE))];
+            }
+            this.counts = new int[arenas.length];
+        }
+
+        boolean isOwnerAlive() {
+            Thread t = owner.get();
+            return (t != null) && t.isAlive();
+        }
+
+        int capacity(int sc) {
+            return stacks[sc].length;
+        }
+
+        int count(int sc) {
+            return counts[sc];
+        }
+
+        /**
+         * Returns a block of the given size class, or 0 if there is none.
+         */
+        long pop(int sc) {
+            int n = counts[sc];
+            if (n == 0)
+                return 0;
+            counts[sc] = --n;
+            return stacks[sc][n];
+        }
+
+        /**
+         * Adds a block, returning false if the cache is full.
+         */
+        boolean push(int sc, long address) {
+            int n = counts[sc];
+            long[] stack = stacks[sc];
+            if (n == stack.length)
+                return false;
+            stack[n] = address;
+            counts[sc] = n + 1;
+            return true;
+        }
+    }
+
+    /**
+     * The memory of a buffer allocated from the pool, attached to the
+     * buffer.  Its cleaner returns the memory to the pool when the buffer is
+     * released, or when the buffer is garbage collected without having been
+     * released.
+     */
+    private static final class Lease implements Runnable {
+        final DirectBufferPool pool;
+        final long address;
+        final int sizeClass;            // -1 if not pooled
+        final int capacity;
+        final Throwable site;
+        Cleaner cleaner;
+        volatile boolean released;
+
+        Lease(DirectBufferPool pool, long address, int sizeClass, int capacity) {
+            this.pool = pool;
+            this.address = address;
+            this.sizeClass = sizeClass;
+            this.capacity = capacity;
+            this.site = leakDetection ?
+                new Throwable("Direct buffer of capacity " + capacity
+                              + " allocated here was not released") : null;
+        }
+
+        public void run() {
+            if (sizeClass < 0) {
+                pool.freeUnpooled(address, capacity);
+            } else if (released) {
+                // released by the current thread
+                Cache cache = pool.threadCache.get();
+                if (!cache.push(sizeClass, address)) {
+                    // cache is full
+                    Arena arena = pool.arenas[sizeClass];
+                    arena.give(cache, sizeClass, cache.capacity(sizeClass) / 2);
+                    cache.push(sizeClass, address);
+                }
+            } else {
+                // garbage collected, run by the reference handler
+                pool.arenas[sizeClass].give(address);
+            }
+            if (!released) {
+                pool.leakCount.incrementAndGet();
+                if (site != null) {
+                    try {
+                        site.printStackTrace();
+                    } catch (Throwable ignore) { }
+                }
+            }
+        }
+    }
+}
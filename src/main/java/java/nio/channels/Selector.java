@@ -28,7 +28,10 @@ package java.nio.channels;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 
 /**
@@ -349,6 +352,150 @@ public abstract class Selector implements Closeable {
      */
     public abstract int select() throws IOException;
 
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method performs a blocking <a href="#selop">selection
+     * operation</a>.  It wakes up from querying the operating system only when
+     * at least one channel is selected, this selector's {@link #wakeup wakeup}
+     * method is invoked, the current thread is interrupted, or the given
+     * timeout period expires, whichever comes first.
+     *
+     * <p> Rather than adding keys to the selected-key set, the specified
+     * <i>action</i>'s {@link Consumer#accept(Object) accept} method is invoked
+     * with the key for each channel that is ready to perform an operation
+     * identified by its key's interest set.  The key's ready-operation set is
+     * updated before the action is invoked.  The {@code accept} method is
+     * invoked while synchronized on the selector and its key sets, and so the
+     * <i>action</i> must not attempt a selection operation on the same
+     * selector.  If the <i>action</i> closes the selector then {@code
+     * ClosedSelectorException} is thrown when the action completes.  The
+     * <i>action</i> may close channels, cancel keys and change interest sets.
+     * Exceptions thrown by the action are relayed to the caller.
+     *
+     * <p> This method does not offer real-time guarantees: It schedules the
+     * timeout as if by invoking the {@link Object#wait(long)} method.
+     *
+     * @implSpec The default implementation removes all keys from the
+     * selected-key set, invokes {@link #select(long) select(long)} with the
+     * given timeout and then performs the action for each key added to the
+     * selected-key set.
+     *
+     * @param  action   The action to perform
+     *
+     * @param  timeout  If positive, block for up to {@code timeout}
+     *                  milliseconds, more or less, while waiting for a
+     *                  channel to become ready; if zero, block indefinitely;
+     *                  must not be negative
+     *
+     * @return  The number of keys consumed, possibly zero
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @throws  IllegalArgumentException
+     *          If the value of the timeout argument is negative
+     *
+     * @since 9
+     */
+    public int select(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return doSelect(Objects.requireNonNull(action), timeout);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method is equivalent to invoking the 2-arg {@link
+     * #select(Consumer, long) select} method with a timeout of {@code 0} to
+     * block indefinitely.  </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of keys consumed, possibly zero
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @since 9
+     */
+    public int select(Consumer<SelectionKey> action) throws IOException {
+        return select(action, 0);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method performs a non-blocking <a href="#selop">selection
+     * operation</a>, and otherwise behaves as the {@link #select(Consumer,
+     * long) select(Consumer,long)} method.
+     *
+     * <p> Invoking this method clears the effect of any previous invocations
+     * of the {@link #wakeup wakeup} method.  </p>
+     *
+     * @implSpec The default implementation removes all keys from the
+     * selected-key set, invokes {@link #selectNow() selectNow()} and then
+     * performs the action for each key added to the selected-key set.
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of keys consumed, possibly zero
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @since 9
+     */
+    public int selectNow(Consumer<SelectionKey> action) throws IOException {
+        return doSelect(Objects.requireNonNull(action), -1);
+    }
+
+    /**
+     * Default implementation of select(Consumer) and selectNow(Consumer).
+     */
+    private int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        synchronized (this) {
+            Set<SelectionKey> selectedKeys = selectedKeys();
+            synchronized (selectedKeys) {
+                selectedKeys.clear();
+                int numKeysSelected;
+                if (timeout < 0) {
+                    numKeysSelected = selectNow();
+                } else {
+                    numKeysSelected = select(timeout);
+                }
+
+                // copy selected-key set as action may remove keys
+                Set<SelectionKey> keysToConsume = new HashSet<>(selectedKeys);
+                selectedKeys.clear();
+
+                for (SelectionKey k : keysToConsume) {
+                    action.accept(k);
+                    if (!isOpen())
+                        throw new ClosedSelectorException();
+                }
+                return numKeysSelected;
+            }
+        }
+    }
+
     /**
      * Causes the first selection operation that has not yet returned to return
      * immediately.
@@ -26,11 +26,17 @@
 package java.nio.channels;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.SocketOption;
 import java.net.SocketAddress;
 import java.nio.channels.spi.AbstractSelectableChannel;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import sun.nio.ch.ExtendedSocketOption;
+import sun.nio.ch.Net;
 
 /**
  * A selectable channel for stream-oriented listening sockets.
@@ -108,6 +114,123 @@ public abstract class ServerSocketChannel
         return SelectorProvider.provider().openServerSocketChannel();
     }
 
+    /**
+     * Opens several server-socket channels bound to the same address, each
+     * registered with its own selector.
+     *
+     * <p> Each channel is opened by the system-wide default {@link
+     * java.nio.channels.spi.SelectorProvider} object, has the {@code
+     * SO_REUSEPORT} socket option enabled, is bound to the given address and
+     * is configured non-blocking.  It is then registered for {@link
+     * SelectionKey#OP_ACCEPT accept} operations with a new selector, opened by
+     * the same provider.  The kernel distributes incoming connections among
+     * the channels, so that each selector can be serviced by its own thread,
+     * accepting connections and registering them with the same selector,
+     * without a single acceptor thread handing connections to the others.
+     *
+     * <p> The channels are bound one after the other, and so a connection
+     * that arrives while they are being bound may be queued on any of those
+     * already bound.  The selection keys are returned in the order that the
+     * channels were bound; a key's {@link SelectionKey#channel() channel} and
+     * {@link SelectionKey#selector() selector} are the channel and the selector
+     * to service.  Closing the selectors and channels is the responsibility
+     * of the caller.
+     *
+     * @param   local
+     *          The address to bind the sockets to, or {@code null} to bind
+     *          them to an automatically assigned socket address.  If the
+     *          port is automatically assigned then the port assigned to the
+     *          first channel is shared by the others
+     * @param   backlog
+     *          The maximum number of pending connections of each channel
+     * @param   count
+     *          The number of channels
+     *
+     * @return  The selection keys of the channels, one per channel
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code count} is less than {@code 1}
+     * @throws  UnsupportedOperationException
+     *          If the {@code SO_REUSEPORT} socket option is not supported
+     * @throws  IOException
+     *          If an I/O error occurs, in which case the channels and
+     *          selectors opened by this method are closed
+     * @throws  SecurityException
+     *          If a security manager has been installed and its {@link
+     *          SecurityManager#checkListen checkListen} method denies the
+     *          operation
+     *
+     * @since 9
+     */
+    public static List<SelectionKey> openAcceptors(SocketAddress local,
+                                                   int backlog,
+                                                   int count)
+        throws IOException
+    {
+        if (count < 1)
+            throw new IllegalArgumentException("count < 1");
+        if (!Net.isReusePortAvailable())
+            throw new UnsupportedOperationException("SO_REUSEPORT not supported");
+        SelectorProvider provider = SelectorProvider.provider();
+        List<SelectionKey> keys = new ArrayList<>(count);
+        boolean done = false;
+        try {
+            for (int i = 0; i < count; i++) {
+                Selector sel = provider.openSelector();
+                ServerSocketChannel ssc;
+                try {
+                    ssc = provider.openServerSocketChannel();
+                } catch (IOException x) {
+                    sel.close();
+                    throw x;
+                }
+                try {
+                    ssc.setOption(ExtendedSocketOption.SO_REUSEPORT, true);
+                    ssc.bind(local, backlog);
+                    ssc.configureBlocking(false);
+                    keys.add(ssc.register(sel, SelectionKey.OP_ACCEPT));
+                } catch (IOException | RuntimeException x) {
+                    ssc.close();
+                    sel.close();
+                    throw x;
+                }
+                // the others share the port assigned to the first
+                if (i == 0)
+                    local = boundAddress(local, ssc);
+            }
+            done = true;
+        } finally {
+            if (!done) {
+                for (SelectionKey k : keys) {
+                    try {
+                        k.channel().close();
+                    } catch (IOException ignore) { }
+                    try {
+                        k.selector().close();
+                    } catch (IOException ignore) { }
+                }
+            }
+        }
+        return Collections.unmodifiableList(keys);
+    }
+
+    /**
+     * Returns the address to bind to so as to share the port of the given
+     * channel, bound to the given address.
+     */
+    private static SocketAddress boundAddress(SocketAddress local,
+                                              ServerSocketChannel ssc)
+        throws IOException
+    {
+        if (local != null && ((InetSocketAddress)local).getPort() != 0)
+            return local;
+        // the port is revealed even if the local address is not
+        int port = ((InetSocketAddress)ssc.getLocalAddress()).getPort();
+        if (local == null)
+            return new InetSocketAddress(port);
+        return new InetSocketAddress(((InetSocketAddress)local).getAddress(), port);
+    }
+
     /**
      * Returns an operation set identifying this channel's supported
      * operations.
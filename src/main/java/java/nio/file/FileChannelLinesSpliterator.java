@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.nio.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import sun.nio.ch.MappedLineReader;
+
+/**
+ * A file-channel-based spliterator, for the lines of a file in a charset
+ * whose line terminators are single bytes that cannot appear within any
+ * other character.
+ * <p>
+ * The spliterator covers a range of byte positions in the file and reports
+ * the lines that start in that range. It splits at the midpoint of the range
+ * without reading the file, as the {@link MappedLineReader} created when
+ * traversal starts realigns to the first line boundary in its range. The
+ * lines are therefore divided between the halves exactly, and a parallel
+ * stream over a large file reads and decodes it in parallel from
+ * memory-mapped regions.
+ * <p>
+ * The spliterator does not close the channel; this is the responsibility of
+ * the stream that owns it.
+ */
+final class FileChannelLinesSpliterator implements Spliterator<String> {
+
+    /**
+     * Ranges smaller than this are not split further, as the per-split cost
+     * of mapping and realigning outweighs the parallelism.
+     */
+    static final int MIN_SPLIT_SIZE = 1 << 16;
+
+    private final FileChannel fc;
+    private final Charset cs;
+    private long index;
+    private final long fence;
+
+    // Created lazily when traversal starts
+    private MappedLineReader reader;
+
+    FileChannelLinesSpliterator(FileChannel fc, Charset cs, long index, long fence) {
+        this.fc = fc;
+        this.cs = cs;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    /**
+     * Returns true if the lines of a file in the given charset can be split.
+     */
+    static boolean isSupported(Charset cs) {
+        return MappedLineReader.isSupported(cs);
+    }
+
+    private MappedLineReader reader() {
+        MappedLineReader r = reader;
+        if (r == null) {
+            try {
+                r = reader = new MappedLineReader(fc, cs, index, fence);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return r;
+    }
+
+    private String readLine() {
+        try {
+            return reader().readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        String line = readLine();
+        if (line != null) {
+            action.accept(line);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        String line;
+        while ((line = readLine()) != null) {
+            action.accept(line);
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        // cannot split after traversal has started
+        if (reader != null) {
+            return null;
+        }
+        long mid = (index + fence) >>> 1;
+        if (mid - index < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        // the prefix takes the lines starting before the midpoint
+        Spliterator<String> prefix = new FileChannelLinesSpliterator(fc, cs, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        // the number of bytes is an upper bound on the number of lines,
+        // the exact count is not known until traversal
+        return Math.max(0, (reader != null ? fence - reader.position() : fence - index));
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+}
@@ -3720,6 +3720,17 @@ public final class Files {
      * {@link Stream#close close} method is invoked after the stream operations
      * are completed.
      *
+     * @implNote
+     * For non-empty files of the default file system in the
+     * {@link StandardCharsets#UTF_8 UTF-8},
+     * {@link StandardCharsets#ISO_8859_1 ISO-8859-1} or
+     * {@link StandardCharsets#US_ASCII US-ASCII} charsets, the stream reads
+     * the file through memory-mapped regions of a {@link FileChannel} rather
+     * than a {@code Reader}, and splits by byte position: each half reads the
+     * lines that start within its range of bytes. A {@link Stream#parallel
+     * parallel} stream therefore reads and decodes the file in parallel. The
+     * lines read are those present when the stream was created, bytes
+     * appended to the file later are not read.
      *
      * @param   path
      *          the path to the file
@@ -3741,6 +3752,18 @@ public final class Files {
      * @since   1.8
      */
     public static Stream<String> lines(Path path, Charset cs) throws IOException {
+        // Use the file channel based spliterator for the charsets it supports
+        // and files that can be mapped, as it can be split efficiently
+        if (path.getFileSystem() == FileSystems.getDefault() &&
+                FileChannelLinesSpliterator.isSupported(cs)) {
+            FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+            Stream<String> lines = createFileChannelLinesStream(fc, cs);
+            if (lines != null) {
+                return lines;
+            }
+            fc.close();
+        }
+
         BufferedReader br = Files.newBufferedReader(path, cs);
         try {
             return br.lines().onClose(asUncheckedRunnable(br));
@@ -3756,6 +3779,33 @@ public final class Files {
         }
     }
 
+    private static Stream<String> createFileChannelLinesStream(FileChannel fc, Charset cs)
+        throws IOException
+    {
+        try {
+            // FileChannel.size() may in certain circumstances return zero
+            // for a non-zero length file, such as those of /proc, so
+            // disallow this case
+            long length = fc.size();
+            if (length > 0) {
+                Spliterator<String> s = new FileChannelLinesSpliterator(fc, cs, 0, length);
+                return StreamSupport.stream(s, false)
+                        .onClose(Files.asUncheckedRunnable(fc));
+            }
+        } catch (Error|RuntimeException|IOException e) {
+            try {
+                fc.close();
+            } catch (IOException ex) {
+                try {
+                    e.addSuppressed(ex);
+                } catch (Throwable ignore) {
+                }
+            }
+            throw e;
+        }
+        return null;
+    }
+
     /**
      * Read all lines from a file as a {@code Stream}. Bytes from the file are
      * decoded into characters using the {@link StandardCharsets#UTF_8 UTF-8}
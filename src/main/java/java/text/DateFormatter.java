@@ -0,0 +1,643 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.text;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import static java.text.DateFormatSymbols.*;
+
+/**
+ * An immutable and thread-safe counterpart of {@link SimpleDateFormat} for
+ * formatting.  A <code>DateFormatter</code> takes the compiled pattern of a
+ * <code>SimpleDateFormat</code> and resolves it once into a plan of
+ * literals, numeric fields and tables of field names.  Formatting then
+ * derives the fields directly from the epoch milliseconds and the time zone
+ * offset with Gregorian arithmetic, without a <code>Calendar</code>, a
+ * <code>NumberFormat</code> or any locking, and can write into a
+ * <code>String</code>, an {@link Appendable} or a caller supplied
+ * <code>char</code> array.
+ *
+ * <p>The output is the same as the output of the
+ * <code>SimpleDateFormat</code> the formatter was created from.  Patterns
+ * with week based fields (<code>Y w W F</code>), time zone names
+ * (<code>z</code>) or standalone months (<code>L</code>), formats with a
+ * calendar other than the default <code>GregorianCalendar</code>, and dates
+ * before 1583 or after the year 9999 are formatted by a
+ * private copy of the original <code>SimpleDateFormat</code>.
+ *
+ * @see          SimpleDateFormat
+ * @since 9
+ */
+public final class DateFormatter {
+
+    private static final int LITERAL = -1;
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+    private static final long DAYS_0000_TO_1970 = (146097 * 5L) - (30L * 365L + 7L);
+
+    // The default Gregorian cutover, 1582-10-15T00:00:00Z
+    private static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+    // 1583-01-02T00:00:00Z, one day into the first full Gregorian year so
+    // that no time zone offset can move a date before it.
+    private static final long MIN_COMPILED_MILLIS = -12212467200000L;
+    // 9999-12-30T23:59:59.999Z
+    private static final long MAX_COMPILED_MILLIS = 253402300799999L - MILLIS_PER_DAY;
+
+    private static final int[] DAYS_BEFORE_MONTH = {
+        0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334
+    };
+
+    /**
+     * The format this formatter was created from.  It is never modified
+     * and is only cloned for the dates which are not compiled.
+     */
+    private final SimpleDateFormat prototype;
+
+    /**
+     * The time zone, or null if the pattern is not compiled.
+     */
+    private final TimeZone zone;
+
+    // The plan: one entry per literal or pattern field
+    private final int[] fields;
+    private final int[] counts;
+    private final char[][] literals;
+    private final String[][] names;
+
+    private final char zeroDigit;
+    private final int maxLength;
+
+    private DateFormatter(SimpleDateFormat format) {
+        prototype = (SimpleDateFormat) format.clone();
+
+        char[] compiledPattern = prototype.getCompiledPattern();
+        int n = 0;
+        for (int i = 0; i < compiledPattern.length; n++) {
+            int tag = compiledPattern[i] >>> 8;
+            int count = compiledPattern[i++] & 0xff;
+            if (count == 255) {
+                count = compiledPattern[i++] << 16;
+                count |= compiledPattern[i++];
+            }
+            if (tag == SimpleDateFormat.TAG_QUOTE_CHARS) {
+                i += count;
+            }
+        }
+        fields = new int[n];
+        counts = new int[n];
+        literals = new char[n][];
+        names = new String[n][];
+
+        boolean compiled = isCompilable(prototype);
+        int length = 0;
+        for (int i = 0, k = 0; i < compiledPattern.length; k++) {
+            int tag = compiledPattern[i] >>> 8;
+            int count = compiledPattern[i++] & 0xff;
+            if (count == 255) {
+                count = compiledPattern[i++] << 16;
+                count |= compiledPattern[i++];
+            }
+
+            fields[k] = tag;
+            counts[k] = count;
+            switch (tag) {
+            case SimpleDateFormat.TAG_QUOTE_ASCII_CHAR:
+                fields[k] = LITERAL;
+                literals[k] = new char[] { (char) count };
+                length += 1;
+                break;
+
+            case SimpleDateFormat.TAG_QUOTE_CHARS:
+                fields[k] = LITERAL;
+                literals[k] = new char[count];
+                System.arraycopy(compiledPattern, i, literals[k], 0, count);
+                i += count;
+                length += count;
+                break;
+
+            case PATTERN_WEEK_OF_YEAR:
+            case PATTERN_WEEK_OF_MONTH:
+            case PATTERN_DAY_OF_WEEK_IN_MONTH:
+            case PATTERN_WEEK_YEAR:
+            case PATTERN_ZONE_NAME:
+            case PATTERN_MONTH_STANDALONE:
+                compiled = false;
+                break;
+
+            case PATTERN_ERA:
+            case PATTERN_DAY_OF_WEEK:
+            case PATTERN_AM_PM:
+                names[k] = fieldNames(prototype, tag, count);
+                length += maxLength(names[k]);
+                break;
+
+            case PATTERN_MONTH:
+                if (count >= 3) {
+                    names[k] = fieldNames(prototype, tag, count);
+                    length += maxLength(names[k]);
+                }
+                length += Math.max(count, 10);
+                break;
+
+            case PATTERN_ZONE_VALUE:
+                length += 5;
+                break;
+
+            case PATTERN_ISO_ZONE:
+                length += 6;
+                break;
+
+            default:
+                length += Math.max(count, 10);
+                break;
+            }
+        }
+
+        zone = compiled ? (TimeZone) prototype.getTimeZone().clone() : null;
+        zeroDigit = compiled ?
+            ((DecimalFormat) prototype.getNumberFormat()).getDecimalFormatSymbols().getZeroDigit() :
+            '0';
+        maxLength = length;
+    }
+
+    /**
+     * Returns true if the fields of the given format can be computed
+     * without its calendar and number format.
+     */
+    private static boolean isCompilable(SimpleDateFormat format) {
+        Calendar calendar = format.getCalendar();
+        if (calendar.getClass() != GregorianCalendar.class ||
+            ((GregorianCalendar) calendar).getGregorianChange().getTime() != GREGORIAN_CUTOVER) {
+            return false;
+        }
+        NumberFormat numberFormat = format.getNumberFormat();
+        if (!(numberFormat instanceof DecimalFormat)) {
+            return false;
+        }
+        DecimalFormat decimalFormat = (DecimalFormat) numberFormat;
+        return !decimalFormat.isGroupingUsed() &&
+            !decimalFormat.isExponentialNotation() &&
+            decimalFormat.getMultiplier() == 1 &&
+            decimalFormat.getPositivePrefix().isEmpty() &&
+            decimalFormat.getPositiveSuffix().isEmpty();
+    }
+
+    /**
+     * Returns the names of the given text field, indexed by the calendar
+     * field value, as <code>SimpleDateFormat.subFormat</code> would
+     * format them.  A null entry of a month table means the month is
+     * formatted as a number.
+     */
+    private static String[] fieldNames(SimpleDateFormat format, int patternCharIndex, int count) {
+        if (format.usesDateFormatSymbols()) {
+            DateFormatSymbols symbols = format.getDateFormatSymbols();
+            switch (patternCharIndex) {
+            case PATTERN_ERA:
+                return symbols.getEras();
+            case PATTERN_DAY_OF_WEEK:
+                return (count >= 4) ? symbols.getWeekdays() : symbols.getShortWeekdays();
+            case PATTERN_AM_PM:
+                return symbols.getAmPmStrings();
+            default:
+                return (count >= 4) ? symbols.getMonths() : symbols.getShortMonths();
+            }
+        }
+
+        Calendar calendar = format.getCalendar();
+        Locale locale = format.getLocale();
+        int field;
+        switch (patternCharIndex) {
+        case PATTERN_ERA:
+            field = Calendar.ERA;
+            break;
+        case PATTERN_DAY_OF_WEEK:
+            field = Calendar.DAY_OF_WEEK;
+            break;
+        case PATTERN_AM_PM:
+            field = Calendar.AM_PM;
+            break;
+        default:
+            field = Calendar.MONTH;
+            break;
+        }
+        int style = (count >= 4) ? Calendar.LONG : Calendar.SHORT;
+        Map<String, Integer> map = null;
+        if (patternCharIndex == PATTERN_MONTH && format.isForceStandaloneForm()) {
+            map = calendar.getDisplayNames(field, style | 0x8000, locale);
+        }
+        if (map == null) {
+            map = calendar.getDisplayNames(field, style, locale);
+        }
+        String[] names = new String[calendar.getMaximum(field) + 1];
+        if (map != null) {
+            for (Map.Entry<String, Integer> e : map.entrySet()) {
+                int value = e.getValue();
+                if (value >= 0 && value < names.length) {
+                    names[value] = e.getKey();
+                }
+            }
+        }
+        return names;
+    }
+
+    private static int maxLength(String[] names) {
+        int max = 0;
+        for (String name : names) {
+            if (name != null) {
+                max = Math.max(max, name.length());
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Creates a formatter for the given pattern and the default
+     * {@link java.util.Locale.Category#FORMAT FORMAT} locale and time zone.
+     *
+     * @param pattern the pattern describing the date and time format
+     * @return the formatter
+     * @exception NullPointerException if the given pattern is null
+     * @exception IllegalArgumentException if the given pattern is invalid
+     */
+    public static DateFormatter ofPattern(String pattern) {
+        return new DateFormatter(new SimpleDateFormat(pattern));
+    }
+
+    /**
+     * Creates a formatter for the given pattern and locale, and the
+     * default time zone.
+     *
+     * @param pattern the pattern describing the date and time format
+     * @param locale the locale whose date format symbols should be used
+     * @return the formatter
+     * @exception NullPointerException if the given pattern or locale is null
+     * @exception IllegalArgumentException if the given pattern is invalid
+     */
+    public static DateFormatter ofPattern(String pattern, Locale locale) {
+        return new DateFormatter(new SimpleDateFormat(pattern, locale));
+    }
+
+    /**
+     * Creates a formatter with the current settings of the given format,
+     * including its time zone.  Later changes to <code>format</code> do
+     * not affect the formatter.
+     *
+     * @param format the format to copy
+     * @return the formatter
+     * @exception NullPointerException if <code>format</code> is null
+     */
+    public static DateFormatter of(SimpleDateFormat format) {
+        return new DateFormatter(format);
+    }
+
+    /**
+     * Returns a copy of this formatter that formats in the given time zone.
+     *
+     * @param zone the time zone
+     * @return the formatter
+     * @exception NullPointerException if <code>zone</code> is null
+     */
+    public DateFormatter withZone(TimeZone zone) {
+        SimpleDateFormat format = toFormat();
+        format.setTimeZone(zone);
+        return new DateFormatter(format);
+    }
+
+    /**
+     * Returns a <code>SimpleDateFormat</code> with the settings of this
+     * formatter.
+     *
+     * @return a new <code>SimpleDateFormat</code>
+     */
+    public SimpleDateFormat toFormat() {
+        return (SimpleDateFormat) prototype.clone();
+    }
+
+    /**
+     * Returns the pattern of this formatter.
+     *
+     * @return a pattern string
+     * @see SimpleDateFormat#toPattern()
+     */
+    public String toPattern() {
+        return prototype.toPattern();
+    }
+
+    /**
+     * Formats a <code>Date</code>.
+     *
+     * @param date the date to format
+     * @return the formatted string
+     * @exception NullPointerException if <code>date</code> is null
+     */
+    public String format(Date date) {
+        return format(date.getTime());
+    }
+
+    /**
+     * Formats the given number of milliseconds since the epoch.
+     *
+     * @param millis the milliseconds since 1970-01-01T00:00:00Z
+     * @return the formatted string
+     */
+    public String format(long millis) {
+        if (!isCompiled(millis)) {
+            return fallback(millis);
+        }
+        char[] buf = new char[maxLength];
+        return new String(buf, 0, subformat(millis, buf, 0));
+    }
+
+    /**
+     * Formats the given number of milliseconds since the epoch and appends
+     * the result to the given <code>Appendable</code>.
+     *
+     * @param millis the milliseconds since 1970-01-01T00:00:00Z
+     * @param appendable where the text is to be appended
+     * @exception NullPointerException if <code>appendable</code> is null
+     * @exception UncheckedIOException if an I/O error occurs
+     */
+    public void formatTo(long millis, Appendable appendable) {
+        Objects.requireNonNull(appendable, "appendable");
+        try {
+            if (!isCompiled(millis)) {
+                appendable.append(fallback(millis));
+                return;
+            }
+            char[] buf = new char[maxLength];
+            int end = subformat(millis, buf, 0);
+            if (appendable instanceof StringBuilder) {
+                ((StringBuilder) appendable).append(buf, 0, end);
+            } else if (appendable instanceof StringBuffer) {
+                ((StringBuffer) appendable).append(buf, 0, end);
+            } else {
+                appendable.append(CharBuffer.wrap(buf, 0, end));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Formats the given number of milliseconds since the epoch into the
+     * given array, starting at <code>offset</code>.
+     *
+     * @param millis the milliseconds since 1970-01-01T00:00:00Z
+     * @param dst the destination array
+     * @param offset the index of the first char to write
+     * @return the index following the last char written
+     * @exception IndexOutOfBoundsException if <code>offset</code> is
+     *            negative, or the result does not fit in <code>dst</code>
+     */
+    public int format(long millis, char[] dst, int offset) {
+        if (offset < 0 || offset > dst.length) {
+            throw new IndexOutOfBoundsException("offset " + offset +
+                                                ", array length " + dst.length);
+        }
+        if (isCompiled(millis) && dst.length - offset >= maxLength) {
+            return subformat(millis, dst, offset);
+        }
+        String s = isCompiled(millis) ? format(millis) : fallback(millis);
+        int length = s.length();
+        if (length > dst.length - offset) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " +
+                                                length + ", array length " + dst.length);
+        }
+        s.getChars(0, length, dst, offset);
+        return offset + length;
+    }
+
+    @Override
+    public String toString() {
+        return "DateFormatter[" + toPattern() + "]";
+    }
+
+    private boolean isCompiled(long millis) {
+        return zone != null && millis >= MIN_COMPILED_MILLIS && millis <= MAX_COMPILED_MILLIS;
+    }
+
+    private String fallback(long millis) {
+        return toFormat().format(new Date(millis));
+    }
+
+    /**
+     * Writes the formatted date to <code>buf</code>, which has room for
+     * at least <code>maxLength</code> chars from <code>pos</code>.
+     *
+     * @return the index following the last char
+     */
+    private int subformat(long millis, char[] buf, int pos) {
+        int offset = zone.getOffset(millis);
+        long local = millis + offset;
+        long epochDay = Math.floorDiv(local, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(local, MILLIS_PER_DAY);
+
+        // Civil date from the epoch day, as LocalDate.ofEpochDay does
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;  // adjust to 0000-03-01
+        long yearEst = (400 * zeroDay + 591) / 146097;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12;     // 0-based, as Calendar.MONTH
+        int dayOfMonth = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        int year = (int) (yearEst + marchMonth0 / 10);
+        int dayOfWeek = (int) Math.floorMod(epochDay + 4, 7) + 1;  // Calendar.SUNDAY == 1
+
+        int hourOfDay = millisOfDay / 3600000;
+        int value;
+        for (int k = 0; k < fields.length; k++) {
+            int count = counts[k];
+            switch (fields[k]) {
+            case LITERAL:
+                char[] literal = literals[k];
+                System.arraycopy(literal, 0, buf, pos, literal.length);
+                pos += literal.length;
+                continue;
+
+            case PATTERN_ERA:
+                pos = appendName(names[k], GregorianCalendar.AD, buf, pos);
+                continue;
+
+            case PATTERN_YEAR:
+                if (count != 2) {
+                    pos = zeroPaddingNumber(year, count, buf, pos);
+                } else {
+                    pos = zeroPaddingNumber(year % 100, 2, buf, pos);
+                } // clip 1996 to 96
+                continue;
+
+            case PATTERN_MONTH:
+                if (count >= 3 && names[k][month] != null) {
+                    pos = appendName(names[k], month, buf, pos);
+                } else {
+                    pos = zeroPaddingNumber(month + 1, count, buf, pos);
+                }
+                continue;
+
+            case PATTERN_DAY_OF_MONTH:
+                value = dayOfMonth;
+                break;
+
+            case PATTERN_HOUR_OF_DAY1:
+                value = (hourOfDay == 0) ? 24 : hourOfDay;
+                break;
+
+            case PATTERN_HOUR_OF_DAY0:
+                value = hourOfDay;
+                break;
+
+            case PATTERN_MINUTE:
+                value = millisOfDay / 60000 % 60;
+                break;
+
+            case PATTERN_SECOND:
+                value = millisOfDay / 1000 % 60;
+                break;
+
+            case PATTERN_MILLISECOND:
+                value = millisOfDay % 1000;
+                break;
+
+            case PATTERN_DAY_OF_WEEK:
+                pos = appendName(names[k], dayOfWeek, buf, pos);
+                continue;
+
+            case PATTERN_DAY_OF_YEAR:
+                value = DAYS_BEFORE_MONTH[month] + dayOfMonth;
+                if (month > 1 && (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0)) {
+                    value++;
+                }
+                break;
+
+            case PATTERN_AM_PM:
+                pos = appendName(names[k], hourOfDay / 12, buf, pos);
+                continue;
+
+            case PATTERN_HOUR1:
+                value = (hourOfDay % 12 == 0) ? 12 : hourOfDay % 12;
+                break;
+
+            case PATTERN_HOUR0:
+                value = hourOfDay % 12;
+                break;
+
+            case PATTERN_ISO_DAY_OF_WEEK:
+                value = CalendarBuilder.toISODayOfWeek(dayOfWeek);
+                break;
+
+            case PATTERN_ZONE_VALUE: // 'Z' ("-/+hhmm" form)
+                value = offset / 60000;
+                if (value >= 0) {
+                    buf[pos++] = '+';
+                } else {
+                    buf[pos++] = '-';
+                    value = -value;
+                }
+                pos = sprintf0d(value / 60 * 100 + value % 60, 4, buf, pos);
+                continue;
+
+            case PATTERN_ISO_ZONE:   // 'X'
+                if (offset == 0) {
+                    buf[pos++] = 'Z';
+                    continue;
+                }
+                value = offset / 60000;
+                if (value >= 0) {
+                    buf[pos++] = '+';
+                } else {
+                    buf[pos++] = '-';
+                    value = -value;
+                }
+                pos = sprintf0d(value / 60, 2, buf, pos);
+                if (count == 1) {
+                    continue;
+                }
+                if (count == 3) {
+                    buf[pos++] = ':';
+                }
+                pos = sprintf0d(value % 60, 2, buf, pos);
+                continue;
+
+            default:
+                throw new InternalError("unexpected field " + fields[k]);
+            }
+            pos = zeroPaddingNumber(value, count, buf, pos);
+        }
+        return pos;
+    }
+
+    private static int appendName(String[] names, int value, char[] buf, int pos) {
+        String name = (value < names.length) ? names[value] : null;
+        if (name != null) {
+            int length = name.length();
+            name.getChars(0, length, buf, pos);
+            pos += length;
+        }
+        return pos;
+    }
+
+    /**
+     * Writes a non-negative number with at least the given number of
+     * digits, in the digits of the number format.
+     */
+    private int zeroPaddingNumber(int value, int minDigits, char[] buf, int pos) {
+        return appendDigits(value, minDigits, zeroDigit, buf, pos);
+    }
+
+    /**
+     * Writes a non-negative number with at least the given number of
+     * ASCII digits.
+     */
+    private static int sprintf0d(int value, int width, char[] buf, int pos) {
+        return appendDigits(value, width, '0', buf, pos);
+    }
+
+    private static int appendDigits(int value, int minDigits, char zero, char[] buf, int pos) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = pos + Math.max(digits, minDigits);
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (char) (zero + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+}
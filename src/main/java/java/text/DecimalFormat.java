@@ -3670,6 +3670,22 @@ public class DecimalFormat extends NumberFormat {
         fastPathCheckNeeded = true;
     }
 
+    /**
+     * Returns true if this format uses scientific notation.  Used by
+     * <code>DecimalFormatter</code> when compiling a format.
+     */
+    boolean isExponentialNotation() {
+        return useExponentialNotation;
+    }
+
+    /**
+     * Returns true if this format is a currency format, which uses the
+     * monetary decimal separator.  Used by <code>DecimalFormatter</code>.
+     */
+    boolean isCurrencyFormat() {
+        return isCurrencyFormat;
+    }
+
     /**
      * Reads the default serializable fields from the stream and performs
      * validations and adjustments for older serialized versions. The
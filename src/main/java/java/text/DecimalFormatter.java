@@ -0,0 +1,737 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.text;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+import sun.misc.DoubleToDecimal;
+
+/**
+ * An immutable and thread-safe counterpart of {@link DecimalFormat} for
+ * formatting.  A <code>DecimalFormatter</code> is compiled once from a
+ * pattern or from an existing <code>DecimalFormat</code>: the affixes,
+ * digit counts, grouping, multiplier, rounding mode and symbols are
+ * resolved up front, so formatting needs no locking, no
+ * <code>DigitList</code> and no <code>StringBuffer</code>.  The result
+ * can be written to a <code>String</code>, an {@link Appendable} or
+ * directly into a caller supplied <code>char</code> array.
+ *
+ * <p>The output is the same as the output of the <code>DecimalFormat</code>
+ * the formatter was compiled from.  A <code>double</code> is converted to
+ * the shortest decimal that uniquely distinguishes it before it is rounded;
+ * halfway cases are decided on the exact binary value.  The only visible
+ * difference is for integral values of 2<sup>53</sup> and above, where
+ * <code>DecimalFormat</code> may print more digits than needed and this
+ * class prints zeros in their place.  Patterns in scientific notation, and
+ * <code>long</code> values that overflow when the multiplier is applied,
+ * are formatted by a private copy of the original
+ * <code>DecimalFormat</code>.
+ *
+ * <p>A shared instance can be stored in a static field:
+ * <blockquote><pre>
+ * private static final DecimalFormatter PRICE = DecimalFormatter.ofPattern("#,##0.00");
+ * ...
+ * int end = PRICE.format(price, buffer, offset);
+ * </pre></blockquote>
+ *
+ * @see          DecimalFormat
+ * @since 9
+ */
+public final class DecimalFormatter {
+
+    /**
+     * The format this formatter was compiled from.  It is never modified
+     * and is only cloned for the formats which are not compiled.
+     */
+    private final DecimalFormat prototype;
+
+    /**
+     * True if every value is formatted by a clone of the prototype.
+     */
+    private final boolean exponential;
+
+    private final char[] positivePrefix;
+    private final char[] positiveSuffix;
+    private final char[] negativePrefix;
+    private final char[] negativeSuffix;
+
+    private final int minIntDigits;
+    private final int maxIntDigits;
+    private final int minFraDigits;
+    private final int maxFraDigits;
+
+    /**
+     * The grouping size, or zero if grouping is not used.
+     */
+    private final int groupingSize;
+    private final boolean decimalSeparatorAlwaysShown;
+    private final int multiplier;
+    private final RoundingMode roundingMode;
+
+    private final char zero;
+    private final char grouping;
+    private final char decimal;
+    private final char[] nan;
+    private final char[] infinity;
+
+    /**
+     * The longest pair of affixes, or NaN or infinity symbols.
+     */
+    private final int maxAffixLength;
+
+    /**
+     * The scratch space of the formatting thread.  Formatting is confined
+     * to one thread, so the digits and the output are reused across calls
+     * instead of being allocated for every value.
+     */
+    private final ThreadLocal<Digits> scratch = ThreadLocal.withInitial(Digits::new);
+
+    private DecimalFormatter(DecimalFormat format) {
+        prototype = (DecimalFormat) format.clone();
+        exponential = prototype.isExponentialNotation();
+        positivePrefix = prototype.getPositivePrefix().toCharArray();
+        positiveSuffix = prototype.getPositiveSuffix().toCharArray();
+        negativePrefix = prototype.getNegativePrefix().toCharArray();
+        negativeSuffix = prototype.getNegativeSuffix().toCharArray();
+        minIntDigits = prototype.getMinimumIntegerDigits();
+        maxIntDigits = prototype.getMaximumIntegerDigits();
+        minFraDigits = prototype.getMinimumFractionDigits();
+        maxFraDigits = prototype.getMaximumFractionDigits();
+        groupingSize = prototype.isGroupingUsed() ? prototype.getGroupingSize() : 0;
+        decimalSeparatorAlwaysShown = prototype.isDecimalSeparatorAlwaysShown();
+        multiplier = prototype.getMultiplier();
+        roundingMode = prototype.getRoundingMode();
+
+        DecimalFormatSymbols symbols = prototype.getDecimalFormatSymbols();
+        zero = symbols.getZeroDigit();
+        grouping = symbols.getGroupingSeparator();
+        decimal = prototype.isCurrencyFormat() ?
+            symbols.getMonetaryDecimalSeparator() :
+            symbols.getDecimalSeparator();
+        nan = symbols.getNaN().toCharArray();
+        infinity = symbols.getInfinity().toCharArray();
+        maxAffixLength = Math.max(Math.max(positivePrefix.length + positiveSuffix.length,
+                                           negativePrefix.length + negativeSuffix.length),
+                                  Math.max(nan.length, infinity.length));
+    }
+
+    /**
+     * Creates a formatter for the given pattern and the symbols of the
+     * default {@link java.util.Locale.Category#FORMAT FORMAT} locale.
+     *
+     * @param pattern a non-localized pattern string, as accepted by
+     *        {@link DecimalFormat#DecimalFormat(String)}
+     * @return the formatter
+     * @exception NullPointerException if <code>pattern</code> is null
+     * @exception IllegalArgumentException if the given pattern is invalid
+     */
+    public static DecimalFormatter ofPattern(String pattern) {
+        return new DecimalFormatter(new DecimalFormat(pattern));
+    }
+
+    /**
+     * Creates a formatter for the given pattern and symbols.
+     *
+     * @param pattern a non-localized pattern string
+     * @param symbols the set of symbols to be used
+     * @return the formatter
+     * @exception NullPointerException if any of the given arguments is null
+     * @exception IllegalArgumentException if the given pattern is invalid
+     */
+    public static DecimalFormatter ofPattern(String pattern, DecimalFormatSymbols symbols) {
+        return new DecimalFormatter(new DecimalFormat(pattern, symbols));
+    }
+
+    /**
+     * Creates a formatter with the current settings of the given format.
+     * Later changes to <code>format</code> do not affect the formatter.
+     *
+     * @param format the format to copy
+     * @return the formatter
+     * @exception NullPointerException if <code>format</code> is null
+     */
+    public static DecimalFormatter of(DecimalFormat format) {
+        return new DecimalFormatter(format);
+    }
+
+    /**
+     * Returns a <code>DecimalFormat</code> with the settings of this
+     * formatter.
+     *
+     * @return a new <code>DecimalFormat</code>
+     */
+    public DecimalFormat toFormat() {
+        return (DecimalFormat) prototype.clone();
+    }
+
+    /**
+     * Synthesizes a pattern string that represents the settings of this
+     * formatter.
+     *
+     * @return a pattern string
+     * @see DecimalFormat#toPattern()
+     */
+    public String toPattern() {
+        return prototype.toPattern();
+    }
+
+    /**
+     * Formats a double.
+     *
+     * @param number the double to format
+     * @return the formatted string
+     * @exception ArithmeticException if rounding is needed with rounding
+     *            mode being set to RoundingMode.UNNECESSARY
+     */
+    public String format(double number) {
+        if (exponential) {
+            return toFormat().format(number);
+        }
+        Digits digits = toDigits(number);
+        int length = subformat(digits);
+        return new String(digits.buf, 0, length);
+    }
+
+    /**
+     * Formats a long.
+     *
+     * @param number the long to format
+     * @return the formatted string
+     * @exception ArithmeticException if rounding is needed with rounding
+     *            mode being set to RoundingMode.UNNECESSARY
+     */
+    public String format(long number) {
+        Digits digits = exponential ? null : toDigits(number);
+        if (digits == null) {
+            return toFormat().format(number);
+        }
+        int length = subformat(digits);
+        return new String(digits.buf, 0, length);
+    }
+
+    /**
+     * Formats a double and appends the result to the given
+     * <code>Appendable</code>.
+     *
+     * @param number the double to format
+     * @param appendable where the text is to be appended
+     * @exception NullPointerException if <code>appendable</code> is null
+     * @exception UncheckedIOException if an I/O error occurs
+     * @exception ArithmeticException if rounding is needed with rounding
+     *            mode being set to RoundingMode.UNNECESSARY
+     */
+    public void formatTo(double number, Appendable appendable) {
+        Objects.requireNonNull(appendable, "appendable");
+        if (exponential) {
+            append(appendable, toFormat().format(number));
+        } else {
+            append(appendable, toDigits(number));
+        }
+    }
+
+    /**
+     * Formats a long and appends the result to the given
+     * <code>Appendable</code>.
+     *
+     * @param number the long to format
+     * @param appendable where the text is to be appended
+     * @exception NullPointerException if <code>appendable</code> is null
+     * @exception UncheckedIOException if an I/O error occurs
+     * @exception ArithmeticException if rounding is needed with rounding
+     *            mode being set to RoundingMode.UNNECESSARY
+     */
+    public void formatTo(long number, Appendable appendable) {
+        Objects.requireNonNull(appendable, "appendable");
+        Digits digits = exponential ? null : toDigits(number);
+        if (digits == null) {
+            append(appendable, toFormat().format(number));
+        } else {
+            append(appendable, digits);
+        }
+    }
+
+    /**
+     * Formats a double into the given array, starting at
+     * <code>offset</code>.
+     *
+     * @param number the double to format
+     * @param dst the destination array
+     * @param offset the index of the first char to write
+     * @return the index following the last char written
+     * @exception IndexOutOfBoundsException if <code>offset</code> is
+     *            negative, or the result does not fit in <code>dst</code>
+     * @exception ArithmeticException if rounding is needed with rounding
+     *            mode being set to RoundingMode.UNNECESSARY
+     */
+    public int format(double number, char[] dst, int offset) {
+        if (exponential) {
+            return copy(toFormat().format(number), dst, offset);
+        }
+        return format(toDigits(number), dst, offset);
+    }
+
+    /**
+     * Formats a long into the given array, starting at <code>offset</code>.
+     *
+     * @param number the long to format
+     * @param dst the destination array
+     * @param offset the index of the first char to write
+     * @return the index following the last char written
+     * @exception IndexOutOfBoundsException if <code>offset</code> is
+     *            negative, or the result does not fit in <code>dst</code>
+     * @exception ArithmeticException if rounding is needed with rounding
+     *            mode being set to RoundingMode.UNNECESSARY
+     */
+    public int format(long number, char[] dst, int offset) {
+        Digits digits = exponential ? null : toDigits(number);
+        if (digits == null) {
+            return copy(toFormat().format(number), dst, offset);
+        }
+        return format(digits, dst, offset);
+    }
+
+    @Override
+    public String toString() {
+        return "DecimalFormatter[" + toPattern() + "]";
+    }
+
+    private int format(Digits digits, char[] dst, int offset) {
+        int length = subformat(digits);
+        checkRange(dst, offset, length);
+        System.arraycopy(digits.buf, 0, dst, offset, length);
+        return offset + length;
+    }
+
+    private static int copy(String s, char[] dst, int offset) {
+        int length = s.length();
+        checkRange(dst, offset, length);
+        s.getChars(0, length, dst, offset);
+        return offset + length;
+    }
+
+    private static void checkRange(char[] dst, int offset, int length) {
+        if (offset < 0 || offset > dst.length - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " +
+                                                length + ", array length " + dst.length);
+        }
+    }
+
+    private void append(Appendable appendable, Digits digits) {
+        int length = subformat(digits);
+        if (appendable instanceof StringBuilder) {
+            ((StringBuilder) appendable).append(digits.buf, 0, length);
+        } else if (appendable instanceof StringBuffer) {
+            ((StringBuffer) appendable).append(digits.buf, 0, length);
+        } else {
+            // Other appendables may keep the sequence, or call back into
+            // this formatter, so they get a copy of the scratch buffer
+            append(appendable, new String(digits.buf, 0, length));
+        }
+    }
+
+    private static void append(Appendable appendable, CharSequence csq) {
+        try {
+            appendable.append(csq);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The decimal digits of a value to format, in the form used by
+     * <code>DigitList</code>: <code>0.digits &times; 10^decimalAt</code>
+     * without trailing zeros.  A value that is NaN or infinite has a
+     * negative count.  An instance is reused for the values formatted by
+     * one thread, together with the buffer the result is written to.
+     */
+    private static final class Digits {
+        static final int NAN = -1;
+        static final int INFINITE = -2;
+
+        final char[] digits = new char[19];
+        final DoubleToDecimal decimal = new DoubleToDecimal();
+        char[] buf = new char[32];
+        boolean isNegative;
+        boolean isInteger;
+        int count;
+        int decimalAt;
+
+        Digits reset(boolean isNegative, boolean isInteger) {
+            this.isNegative = isNegative;
+            this.isInteger = isInteger;
+            count = 0;
+            decimalAt = 0;
+            return this;
+        }
+
+        boolean isZero() {
+            return count == 0;
+        }
+    }
+
+    /**
+     * Converts a double the way <code>DecimalFormat.format(double,
+     * StringBuffer, FieldDelegate)</code> and
+     * <code>DigitList.set(boolean, double, int, boolean)</code> do in
+     * fixed point notation.
+     */
+    private Digits toDigits(double number) {
+        if (Double.isNaN(number) ||
+           (Double.isInfinite(number) && multiplier == 0)) {
+            Digits d = scratch.get().reset(false, false);
+            d.count = Digits.NAN;
+            return d;
+        }
+
+        boolean isNegative = ((number < 0.0) || (number == 0.0 && 1/number < 0.0)) ^ (multiplier < 0);
+
+        if (multiplier != 1) {
+            number *= multiplier;
+        }
+
+        Digits d = scratch.get().reset(isNegative, false);
+        if (Double.isInfinite(number)) {
+            d.count = Digits.INFINITE;
+            return d;
+        }
+
+        if (isNegative) {
+            number = -number;
+        }
+
+        // at this point we are guaranteed a nonnegative finite number.
+        assert(number >= 0 && !Double.isInfinite(number));
+
+        DoubleToDecimal decimal = d.decimal.set(number);
+        long value = decimal.digits();
+        int count = 0;
+        if (value != 0) {
+            int left = d.digits.length;
+            while (value > 0) {
+                d.digits[--left] = (char)('0' + (value % 10));
+                value /= 10;
+            }
+            count = d.digits.length - left;
+            System.arraycopy(d.digits, left, d.digits, 0, count);
+        }
+        d.count = count;
+        d.decimalAt = count + decimal.exponent();
+        int maximumDigits = maxFraDigits;
+
+        if (count == 0) {
+            d.decimalAt = 0;
+        } else if (-d.decimalAt > maximumDigits) {
+            // Handle an underflow to zero when we round something like
+            // 0.0009 to 2 fractional digits.
+            d.count = 0;
+        } else if (-d.decimalAt == maximumDigits) {
+            // If we round 0.0009 to 3 fractional digits, then we have to
+            // create a new one digit in the least significant location.
+            if (shouldRoundUp(d, 0, number)) {
+                d.count = 1;
+                ++d.decimalAt;
+                d.digits[0] = '1';
+            } else {
+                d.count = 0;
+            }
+        } else {
+            round(d, maximumDigits + d.decimalAt, number);
+        }
+        return d;
+    }
+
+    /**
+     * Converts a long the way <code>DecimalFormat.format(long,
+     * StringBuffer, FieldDelegate)</code> does, or returns null if the
+     * value has to be formatted as a <code>BigInteger</code>.
+     */
+    private Digits toDigits(long number) {
+        boolean isNegative = (number < 0);
+        if (isNegative) {
+            number = -number;
+        }
+
+        if (number < 0) { // This can only happen if number == Long.MIN_VALUE.
+            if (multiplier != 0) {
+                return null;
+            }
+        } else if (multiplier != 1 && multiplier != 0) {
+            long cutoff = Long.MAX_VALUE / multiplier;
+            if (cutoff < 0) {
+                cutoff = -cutoff;
+            }
+            if (number > cutoff) {
+                return null;
+            }
+        }
+
+        number *= multiplier;
+        if (number == 0) {
+            isNegative = false;
+        } else {
+            if (multiplier < 0) {
+                number = -number;
+                isNegative = !isNegative;
+            }
+        }
+
+        Digits d = scratch.get().reset(isNegative, true);
+        if (number > 0) {
+            char[] digits = d.digits;
+            int left = digits.length;
+            while (number > 0) {
+                digits[--left] = (char)('0' + (number % 10));
+                number /= 10;
+            }
+            d.decimalAt = digits.length - left;
+            int right = digits.length - 1;
+            while (digits[right] == '0') {
+                --right;
+            }
+            d.count = right - left + 1;
+            System.arraycopy(digits, left, digits, 0, d.count);
+        }
+        return d;
+    }
+
+    /**
+     * Rounds the digits to the given number of digits, as
+     * <code>DigitList.round</code> does.
+     */
+    private void round(Digits d, int maximumDigits, double number) {
+        char[] digits = d.digits;
+        if (maximumDigits >= 0 && maximumDigits < d.count) {
+            if (shouldRoundUp(d, maximumDigits, number)) {
+                for (;;) {
+                    --maximumDigits;
+                    if (maximumDigits < 0) {
+                        // We have all 9's, so we increment to a single digit
+                        // of one and adjust the exponent.
+                        digits[0] = '1';
+                        ++d.decimalAt;
+                        maximumDigits = 0; // Adjust the count
+                        break;
+                    }
+
+                    ++digits[maximumDigits];
+                    if (digits[maximumDigits] <= '9') break;
+                }
+                ++maximumDigits; // Increment for use as count
+            }
+            d.count = maximumDigits;
+
+            // Eliminate trailing zeros.
+            while (d.count > 1 && digits[d.count-1] == '0') {
+                --d.count;
+            }
+        }
+    }
+
+    /**
+     * Returns true if truncating the digits to the given number of digits
+     * has to increment the last digit kept.  Unlike
+     * <code>DigitList.shouldRoundUp</code>, which relies on what
+     * <code>FloatingDecimal</code> did to the last digit, a halfway case
+     * is decided by comparing the exact value of <code>number</code> with
+     * the tie.
+     */
+    private boolean shouldRoundUp(Digits d, int maximumDigits, double number) {
+        char[] digits = d.digits;
+        int count = d.count;
+        if (maximumDigits >= count) {
+            return false;
+        }
+        switch (roundingMode) {
+        case UP:
+            return true;
+        case DOWN:
+            return false;
+        case CEILING:
+            return !d.isNegative;
+        case FLOOR:
+            return d.isNegative;
+        case HALF_UP:
+        case HALF_DOWN:
+        case HALF_EVEN:
+            if (digits[maximumDigits] != '5') {
+                return digits[maximumDigits] > '5';
+            }
+            if (maximumDigits != count - 1) {
+                // There are remaining non zero digits, above the tie
+                return true;
+            }
+            int cmp = new BigDecimal(number).compareTo(
+                    new BigDecimal(new String(digits, 0, count)).scaleByPowerOfTen(d.decimalAt - count));
+            if (cmp != 0) {
+                return cmp > 0;
+            }
+            if (roundingMode == RoundingMode.HALF_EVEN) {
+                return (maximumDigits > 0) && (digits[maximumDigits-1] % 2 != 0);
+            }
+            return roundingMode == RoundingMode.HALF_UP;
+        case UNNECESSARY:
+            throw new ArithmeticException(
+                "Rounding needed with the rounding mode being set to RoundingMode.UNNECESSARY");
+        default:
+            assert false;
+            return false;
+        }
+    }
+
+    /**
+     * Writes the formatted digits to the buffer of <code>d</code>, which is
+     * grown first if the result might not fit.
+     *
+     * @return the length of the result
+     */
+    private int subformat(Digits d) {
+        // Bound the integer digits, including a lone zero and the grouping
+        // separators between them, and the fraction digits with the decimal
+        // separator
+        long intDigits = Math.min(maxIntDigits, Math.max(minIntDigits, d.decimalAt)) + 1;
+        long length = maxAffixLength + intDigits + 1 +
+            (groupingSize > 0 ? intDigits / groupingSize : 0) +
+            Math.min(maxFraDigits, Math.max(minFraDigits, d.count - d.decimalAt));
+        if (length > d.buf.length) {
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("Formatted length out of range");
+            }
+            d.buf = new char[(int) length];
+        }
+        return subformat(d, d.buf, 0);
+    }
+
+    /**
+     * Writes the formatted digits to <code>buf</code> starting at
+     * <code>pos</code>, as <code>DecimalFormat.subformat</code> does in
+     * fixed point notation.
+     *
+     * @return the index following the last char
+     */
+    private int subformat(Digits d, char[] buf, int pos) {
+        if (d.count == Digits.NAN) {
+            return put(buf, pos, nan);
+        }
+
+        pos = put(buf, pos, d.isNegative ? negativePrefix : positivePrefix);
+
+        if (d.count == Digits.INFINITE) {
+            pos = put(buf, pos, infinity);
+        } else {
+            pos = subformatFixed(d, buf, pos);
+        }
+
+        return put(buf, pos, d.isNegative ? negativeSuffix : positiveSuffix);
+    }
+
+    private int subformatFixed(Digits d, char[] buf, int pos) {
+        char[] digits = d.digits;
+        int zeroDelta = zero - '0';
+        boolean isInteger = d.isInteger;
+
+        // Output the integer portion.  Here 'count' is the total
+        // number of integer digits we will display, including both
+        // leading zeros required to satisfy getMinimumIntegerDigits,
+        // and actual digits present in the number.
+        int count = minIntDigits;
+        int digitIndex = 0; // Index into digits[]
+        if (d.decimalAt > 0 && count < d.decimalAt) {
+            count = d.decimalAt;
+        }
+
+        // Handle the case where getMaximumIntegerDigits() is smaller
+        // than the real number of integer digits.  If this is so, we
+        // output the least significant max integer digits.
+        if (count > maxIntDigits) {
+            count = maxIntDigits;
+            digitIndex = d.decimalAt - count;
+        }
+
+        int sizeBeforeIntegerPart = pos;
+        for (int i=count-1; i>=0; --i) {
+            if (i < d.decimalAt && digitIndex < d.count) {
+                // Output a real digit
+                pos = put(buf, pos, (char)(digits[digitIndex++] + zeroDelta));
+            } else {
+                // Output a leading zero
+                pos = put(buf, pos, zero);
+            }
+
+            // Output grouping separator if necessary.
+            if (groupingSize != 0 && i > 0 && (i % groupingSize == 0)) {
+                pos = put(buf, pos, grouping);
+            }
+        }
+
+        // Determine whether or not there are any printable fractional
+        // digits.  If we've used up the digits we know there aren't.
+        boolean fractionPresent = (minFraDigits > 0) ||
+            (!isInteger && digitIndex < d.count);
+
+        // If there is no fraction present, and we haven't printed any
+        // integer digits, then print a zero.
+        if (!fractionPresent && pos == sizeBeforeIntegerPart) {
+            pos = put(buf, pos, zero);
+        }
+
+        if (decimalSeparatorAlwaysShown || fractionPresent) {
+            pos = put(buf, pos, decimal);
+        }
+
+        for (int i=0; i < maxFraDigits; ++i) {
+            if (i >= minFraDigits &&
+                (isInteger || digitIndex >= d.count)) {
+                break;
+            }
+
+            // Output leading fractional zeros.
+            if (-1-i > (d.decimalAt-1)) {
+                pos = put(buf, pos, zero);
+                continue;
+            }
+
+            if (!isInteger && digitIndex < d.count) {
+                pos = put(buf, pos, (char)(digits[digitIndex++] + zeroDelta));
+            } else {
+                pos = put(buf, pos, zero);
+            }
+        }
+        return pos;
+    }
+
+    private static int put(char[] buf, int pos, char c) {
+        buf[pos] = c;
+        return pos + 1;
+    }
+
+    private static int put(char[] buf, int pos, char[] chars) {
+        System.arraycopy(chars, 0, buf, pos, chars.length);
+        return pos + chars.length;
+    }
+}
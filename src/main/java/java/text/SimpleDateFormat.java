@@ -483,8 +483,8 @@ public class SimpleDateFormat extends DateFormat {
     /**
      * Tags for the compiled pattern.
      */
-    private final static int TAG_QUOTE_ASCII_CHAR       = 100;
-    private final static int TAG_QUOTE_CHARS            = 101;
+    final static int TAG_QUOTE_ASCII_CHAR       = 100;
+    final static int TAG_QUOTE_CHARS            = 101;
 
     /**
      * Locale dependent digit zero.
@@ -2193,6 +2193,37 @@ public class SimpleDateFormat extends DateFormat {
         return useDateFormatSymbols || locale == null;
     }
 
+    /**
+     * Returns a copy of the compiled pattern.  Used by
+     * <code>DateFormatter</code> to build its formatting plan.
+     */
+    char[] getCompiledPattern() {
+        return compiledPattern.clone();
+    }
+
+    /**
+     * Returns true if text fields are taken from the DateFormatSymbols
+     * rather than from Calendar.getDisplayName.
+     */
+    boolean usesDateFormatSymbols() {
+        return useDateFormatSymbols();
+    }
+
+    /**
+     * Returns true if a pattern consisting of a single month field uses
+     * the standalone form.
+     */
+    boolean isForceStandaloneForm() {
+        return forceStandaloneForm;
+    }
+
+    /**
+     * Returns the locale this format was created for, or null.
+     */
+    Locale getLocale() {
+        return locale;
+    }
+
     /**
      * Translates a pattern, mapping each character in the from string to the
      * corresponding character in the to string.
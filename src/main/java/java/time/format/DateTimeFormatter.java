@@ -77,11 +77,13 @@ import java.text.Format;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.Period;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.chrono.Chronology;
 import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatterBuilder.CompiledPrinterParser;
 import java.time.format.DateTimeFormatterBuilder.CompositePrinterParser;
 import java.time.temporal.ChronoField;
 import java.time.temporal.IsoFields;
@@ -508,6 +510,10 @@ public final class DateTimeFormatter {
      * The zone to use for formatting, null for no override.
      */
     private final ZoneId zone;
+    /**
+     * The compiled form of the printer/parser, null if not supported.
+     */
+    private final CompiledPrinterParser compiled;
 
     //-----------------------------------------------------------------------
     /**
@@ -1378,6 +1384,8 @@ public final class DateTimeFormatter {
         this.resolverStyle = Objects.requireNonNull(resolverStyle, "resolverStyle");
         this.chrono = chrono;
         this.zone = zone;
+        this.compiled = CompiledPrinterParser.compile(
+                printerParser, decimalStyle, resolverStyle, resolverFields, chrono, zone);
     }
 
     //-----------------------------------------------------------------------
@@ -1739,13 +1747,17 @@ public final class DateTimeFormatter {
         Objects.requireNonNull(temporal, "temporal");
         Objects.requireNonNull(appendable, "appendable");
         try {
-            DateTimePrintContext context = new DateTimePrintContext(temporal, this);
             if (appendable instanceof StringBuilder) {
-                printerParser.format(context, (StringBuilder) appendable);
+                StringBuilder buf = (StringBuilder) appendable;
+                if (formatCompiled(temporal, buf) == false) {
+                    printerParser.format(new DateTimePrintContext(temporal, this), buf);
+                }
             } else {
                 // buffer output to avoid writing to appendable in case of error
                 StringBuilder buf = new StringBuilder(32);
-                printerParser.format(context, buf);
+                if (formatCompiled(temporal, buf) == false) {
+                    printerParser.format(new DateTimePrintContext(temporal, this), buf);
+                }
                 appendable.append(buf);
             }
         } catch (IOException ex) {
@@ -1753,6 +1765,74 @@ public final class DateTimeFormatter {
         }
     }
 
+    /**
+     * Formats using the compiled form of the printer/parser, if possible.
+     *
+     * @param temporal  the temporal object to format, not null
+     * @param buf  the buffer to format to, not null
+     * @return true if formatted, false if the buffer is unchanged and the general path must be used
+     */
+    private boolean formatCompiled(TemporalAccessor temporal, StringBuilder buf) {
+        if (compiled != null) {
+            int length = buf.length();
+            if (compiled.format(temporal, buf, null, 0) >= 0) {
+                return true;
+            }
+            buf.setLength(length);
+        }
+        return false;
+    }
+
+    /**
+     * Formats a date-time object to a byte array using this formatter.
+     * <p>
+     * This outputs the formatted date-time as US-ASCII bytes starting at
+     * the specified offset, avoiding the intermediate {@code String} when
+     * writing to a byte buffer or stream. Formatters made up only of numeric
+     * fields, fractions, ASCII literals, instants and ISO offset IDs, such
+     * as {@link #ISO_LOCAL_DATE_TIME}, {@link #ISO_OFFSET_DATE_TIME} and
+     * {@link #ISO_INSTANT}, write directly to the array without allocating.
+     * <p>
+     * If an exception is thrown, the content of the array from the offset
+     * onwards is undefined.
+     *
+     * @param temporal  the temporal object to format, not null
+     * @param dst  the array to write to, not null
+     * @param offset  the index of the first byte to write
+     * @return the number of bytes written
+     * @throws DateTimeException if an error occurs during formatting,
+     *  or if the formatted text contains non-ASCII characters
+     * @throws IndexOutOfBoundsException if the offset is out of range,
+     *  or the formatted text does not fit in the array
+     * @since 9
+     */
+    public int formatTo(TemporalAccessor temporal, byte[] dst, int offset) {
+        Objects.requireNonNull(temporal, "temporal");
+        Objects.requireNonNull(dst, "dst");
+        if (offset < 0 || offset > dst.length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + dst.length);
+        }
+        if (compiled != null) {
+            int end = compiled.format(temporal, null, dst, offset);
+            if (end >= 0) {
+                return end - offset;
+            }
+        }
+        String str = format(temporal);
+        int len = str.length();
+        if (len > dst.length - offset) {
+            throw new IndexOutOfBoundsException("Formatted text does not fit in the array");
+        }
+        for (int i = 0; i < len; i++) {
+            char ch = str.charAt(i);
+            if (ch >= 0x80) {
+                throw new DateTimeException("Formatted text contains non-ASCII characters: " + str);
+            }
+            dst[offset + i] = (byte) ch;
+        }
+        return len;
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Fully parses the text producing a temporal object.
@@ -1854,6 +1934,33 @@ public final class DateTimeFormatter {
         }
     }
 
+    /**
+     * Fully parses the text producing an instant.
+     * <p>
+     * This is equivalent to {@code parse(text, Instant::from)}, but formatters
+     * made up only of numeric fields, fractions, literals, instants and ISO
+     * offset IDs, such as {@link #ISO_INSTANT} and {@link #ISO_OFFSET_DATE_TIME},
+     * compute the epoch-second and nanosecond directly from the text without
+     * building the intermediate parsed and resolved state.
+     * A text without an offset can be parsed if the formatter has an override
+     * zone that is a {@code ZoneOffset}.
+     *
+     * @param text  the text to parse, not null
+     * @return the parsed instant, not null
+     * @throws DateTimeParseException if unable to parse the requested result
+     * @since 9
+     */
+    public Instant parseInstant(CharSequence text) {
+        Objects.requireNonNull(text, "text");
+        if (compiled != null) {
+            Instant instant = compiled.parseInstant(text);
+            if (instant != null) {
+                return instant;
+            }
+        }
+        return parse(text, Instant::from);
+    }
+
     /**
      * Fully parses the text producing an object of one of the specified types.
      * <p>
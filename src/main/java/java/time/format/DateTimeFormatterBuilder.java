@@ -70,6 +70,7 @@ import static java.time.temporal.ChronoField.NANO_OF_SECOND;
 import static java.time.temporal.ChronoField.OFFSET_SECONDS;
 import static java.time.temporal.ChronoField.SECOND_OF_MINUTE;
 import static java.time.temporal.ChronoField.YEAR;
+import static java.time.temporal.ChronoField.YEAR_OF_ERA;
 
 import java.lang.ref.SoftReference;
 import java.math.BigDecimal;
@@ -80,8 +81,12 @@ import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.Year;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.time.chrono.ChronoLocalDate;
 import java.time.chrono.Chronology;
 import java.time.chrono.IsoChronology;
@@ -4493,6 +4498,918 @@ public final class DateTimeFormatterBuilder {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * A flattened, allocation-free form of a composite printer-parser made
+     * up only of numeric fields, fractions, character literals, instants and
+     * ISO offset IDs, such as the ISO_LOCAL_DATE_TIME, ISO_OFFSET_DATE_TIME
+     * and ISO_INSTANT formatters and most numeric patterns.
+     * <p>
+     * The plan formats the common {@code java.time} types directly from
+     * their primitive getters, without a {@code DateTimePrintContext} or
+     * boxed field values, and parses straight to epoch seconds and nanos
+     * without a {@code Parsed} object. Whenever the plan cannot reproduce
+     * the result of the general printer-parsers exactly, such as for an
+     * unsupported temporal, an out of range value or malformed text, it
+     * reports failure and the caller falls back to the general path, which
+     * also produces the usual exceptions.
+     */
+    static final class CompiledPrinterParser {
+        // step codes
+        private static final int LITERAL = 0;
+        private static final int NUMBER = 1;
+        private static final int FRACTION = 2;
+        private static final int INSTANT = 3;
+        private static final int OFFSET = 4;
+        private static final int SECTION = 5;
+
+        // fields, also parse slots
+        private static final int F_YEAR = 0;
+        private static final int F_YEAR_OF_ERA = 1;
+        private static final int F_MONTH = 2;
+        private static final int F_DAY = 3;
+        private static final int F_HOUR = 4;
+        private static final int F_MINUTE = 5;
+        private static final int F_SECOND = 6;
+        private static final int F_NANO = 7;
+        private static final int F_OFFSET = 8;
+        private static final int F_INSTANT = 9;     // two slots, seconds and nanos
+        private static final int SLOTS = 11;
+
+        // what a temporal can supply
+        private static final int HAS_DATE = 1;
+        private static final int HAS_TIME = 2;
+        private static final int HAS_OFFSET = 4;
+        private static final int HAS_INSTANT = 8;
+        private static final int[] FIELD_NEEDS = {
+            HAS_DATE, HAS_DATE, HAS_DATE, HAS_DATE,
+            HAS_TIME, HAS_TIME, HAS_TIME, HAS_TIME,
+            HAS_OFFSET, HAS_INSTANT,
+        };
+
+        private static final long[] TEN_POWERS = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L,
+            1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+            100000000000000L, 1000000000000000L, 10000000000000000L,
+            100000000000000000L, 1000000000000000000L,
+        };
+
+        private static final SignStyle[] SIGN_STYLES = SignStyle.values();
+
+        private static final int DAYS_PER_CYCLE = 146097;
+        private static final long DAYS_0000_TO_1970 = (DAYS_PER_CYCLE * 5L) - (30L * 365L + 7L);
+        private static final long SECONDS_0000_TO_1970 = DAYS_0000_TO_1970 * 86400L;
+        private static final long SECONDS_TO_10000 = 253402300800L;  // 10000-01-01T00:00Z
+
+        /** The step codes. */
+        private final int[] code;
+        /** The literal character, field or fractional digits of each step. */
+        private final int[] arg;
+        /** The minimum width of numbers and fractions. */
+        private final int[] minWidth;
+        /** The maximum width of numbers and fractions. */
+        private final int[] maxWidth;
+        /**
+         * The sign style ordinal of numbers, whether fractions have a decimal
+         * point, whether literals ignore case, or the end of a section.
+         */
+        private final int[] flags;
+        /** For sections, the fields needed by the steps directly inside. */
+        private final int[] needs;
+        /** Whether the plan parses exactly as the general parser. */
+        private final boolean parseable;
+        private final ZoneId zone;
+        private final ResolverStyle resolverStyle;
+
+        private CompiledPrinterParser(Compiler c, ZoneId zone, ResolverStyle resolverStyle,
+                                      boolean parseable) {
+            int n = c.size;
+            this.code = Arrays.copyOf(c.code, n);
+            this.arg = Arrays.copyOf(c.arg, n);
+            this.minWidth = Arrays.copyOf(c.minWidth, n);
+            this.maxWidth = Arrays.copyOf(c.maxWidth, n);
+            this.flags = Arrays.copyOf(c.flags, n);
+            this.needs = Arrays.copyOf(c.needs, n);
+            this.zone = zone;
+            this.resolverStyle = resolverStyle;
+            this.parseable = parseable;
+        }
+
+        /**
+         * Compiles the printer-parser of a formatter.
+         *
+         * @return the compiled form, null if the formatter is not supported
+         */
+        static CompiledPrinterParser compile(CompositePrinterParser printerParser,
+                DecimalStyle decimalStyle, ResolverStyle resolverStyle,
+                Set<TemporalField> resolverFields, Chronology chrono, ZoneId zone) {
+            if (decimalStyle.equals(DecimalStyle.STANDARD) == false ||
+                    (chrono != null && chrono.equals(IsoChronology.INSTANCE) == false)) {
+                return null;
+            }
+            Compiler c = new Compiler();
+            if (c.add(printerParser, false) == false) {
+                return null;
+            }
+            boolean parseable = c.lenient == false && c.unparseable == false && resolverFields == null;
+            return new CompiledPrinterParser(c, zone, resolverStyle, parseable);
+        }
+
+        /**
+         * Builds the step arrays while walking the printer-parser tree.
+         */
+        private static final class Compiler {
+            int[] code = new int[16];
+            int[] arg = new int[16];
+            int[] minWidth = new int[16];
+            int[] maxWidth = new int[16];
+            int[] flags = new int[16];
+            int[] needs = new int[16];
+            int size;
+            boolean caseSensitive = true;
+            boolean strict = true;
+            boolean lenient;
+            boolean unparseable;
+
+            private int emit(int stepCode, int stepArg, int min, int max, int stepFlags) {
+                if (size == code.length) {
+                    int len = size * 2;
+                    code = Arrays.copyOf(code, len);
+                    arg = Arrays.copyOf(arg, len);
+                    minWidth = Arrays.copyOf(minWidth, len);
+                    maxWidth = Arrays.copyOf(maxWidth, len);
+                    flags = Arrays.copyOf(flags, len);
+                    needs = Arrays.copyOf(needs, len);
+                }
+                code[size] = stepCode;
+                arg[size] = stepArg;
+                minWidth[size] = min;
+                maxWidth[size] = max;
+                flags[size] = stepFlags;
+                needs[size] = (stepCode == NUMBER || stepCode == FRACTION) ? FIELD_NEEDS[stepArg] :
+                              (stepCode == INSTANT) ? HAS_INSTANT :
+                              (stepCode == OFFSET) ? HAS_OFFSET : 0;
+                if (strict == false && stepCode != SECTION) {
+                    lenient = true;
+                }
+                return size++;
+            }
+
+            boolean add(DateTimePrinterParser pp, boolean inOptional) {
+                if (pp instanceof CompositePrinterParser) {
+                    CompositePrinterParser cpp = (CompositePrinterParser) pp;
+                    if (cpp.optional == false) {
+                        if (inOptional) {
+                            return false;  // would discard only part of the section
+                        }
+                        for (DateTimePrinterParser child : cpp.printerParsers) {
+                            if (add(child, false) == false) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                    int start = emit(SECTION, 0, 0, 0, 0);
+                    for (DateTimePrinterParser child : cpp.printerParsers) {
+                        if (add(child, true) == false) {
+                            return false;
+                        }
+                    }
+                    flags[start] = size;
+                    int sectionNeeds = 0;
+                    for (int i = start + 1; i < size; i++) {
+                        sectionNeeds |= needs[i];
+                        if (code[i] == SECTION) {
+                            i = flags[i] - 1;
+                        }
+                    }
+                    needs[start] = sectionNeeds;
+                    return true;
+                }
+                if (pp instanceof SettingsParser) {
+                    if (inOptional) {
+                        return false;
+                    }
+                    switch ((SettingsParser) pp) {
+                        case SENSITIVE: caseSensitive = true; break;
+                        case INSENSITIVE: caseSensitive = false; break;
+                        case STRICT: strict = true; break;
+                        case LENIENT: strict = false; break;
+                    }
+                    return true;
+                }
+                if (pp instanceof CharLiteralPrinterParser) {
+                    return addLiteral(((CharLiteralPrinterParser) pp).literal);
+                }
+                if (pp instanceof StringLiteralPrinterParser) {
+                    String literal = ((StringLiteralPrinterParser) pp).literal;
+                    for (int i = 0; i < literal.length(); i++) {
+                        if (addLiteral(literal.charAt(i)) == false) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                if (pp.getClass() == NumberPrinterParser.class) {
+                    NumberPrinterParser npp = (NumberPrinterParser) pp;
+                    int field = fieldIndex(npp.field);
+                    if (field < 0) {
+                        return false;
+                    }
+                    unparseable |= npp.subsequentWidth > 0;  // adjacent value parsing
+                    emit(NUMBER, field, npp.minWidth, npp.maxWidth, npp.signStyle.ordinal());
+                    return true;
+                }
+                if (pp instanceof FractionPrinterParser) {
+                    FractionPrinterParser fpp = (FractionPrinterParser) pp;
+                    if (fpp.field != NANO_OF_SECOND) {
+                        return false;
+                    }
+                    emit(FRACTION, F_NANO, fpp.minWidth, fpp.maxWidth, fpp.decimalPoint ? 1 : 0);
+                    return true;
+                }
+                if (pp instanceof InstantPrinterParser) {
+                    int fractionalDigits = ((InstantPrinterParser) pp).fractionalDigits;
+                    // InstantPrinterParser cannot parse with no fractional digits
+                    unparseable |= fractionalDigits == 0;
+                    emit(INSTANT, fractionalDigits, 0, 0, caseSensitive ? 0 : 1);
+                    return true;
+                }
+                if (pp instanceof OffsetIdPrinterParser) {
+                    OffsetIdPrinterParser opp = (OffsetIdPrinterParser) pp;
+                    if (opp.type != 6 || opp.noOffsetText.equals("Z") == false) {  // "+HH:MM:ss"
+                        return false;
+                    }
+                    emit(OFFSET, F_OFFSET, 0, 0, caseSensitive ? 0 : 1);
+                    return true;
+                }
+                return false;
+            }
+
+            private boolean addLiteral(char literal) {
+                if (literal >= 0x80) {
+                    return false;  // output must be ASCII
+                }
+                emit(LITERAL, literal, 0, 0, caseSensitive ? 0 : 1);
+                return true;
+            }
+
+            private static int fieldIndex(TemporalField field) {
+                if (field == YEAR) {
+                    return F_YEAR;
+                } else if (field == YEAR_OF_ERA) {
+                    return F_YEAR_OF_ERA;
+                } else if (field == MONTH_OF_YEAR) {
+                    return F_MONTH;
+                } else if (field == DAY_OF_MONTH) {
+                    return F_DAY;
+                } else if (field == HOUR_OF_DAY) {
+                    return F_HOUR;
+                } else if (field == MINUTE_OF_HOUR) {
+                    return F_MINUTE;
+                } else if (field == SECOND_OF_MINUTE) {
+                    return F_SECOND;
+                } else if (field == NANO_OF_SECOND) {
+                    return F_NANO;
+                }
+                return -1;
+            }
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Formats the temporal, appending to {@code buf} if it is not null and
+         * writing ASCII bytes into {@code dst} from {@code pos} otherwise.
+         *
+         * @return the position after the last byte written to {@code dst}, any
+         *  non-negative value when appending, or -1 if the general path must be
+         *  used, in which case partial output may have been written
+         * @throws IndexOutOfBoundsException if {@code dst} is too small
+         */
+        int format(TemporalAccessor temporal, StringBuilder buf, byte[] dst, int pos) {
+            int has;
+            long year = 0;
+            int month = 0, day = 0, hour = 0, minute = 0, second = 0, nano = 0, offset = 0;
+            long instantSecs = 0;
+            if (temporal instanceof LocalDateTime) {
+                LocalDateTime ldt = (LocalDateTime) temporal;
+                has = HAS_DATE | HAS_TIME;
+                year = ldt.getYear();
+                month = ldt.getMonthValue();
+                day = ldt.getDayOfMonth();
+                hour = ldt.getHour();
+                minute = ldt.getMinute();
+                second = ldt.getSecond();
+                nano = ldt.getNano();
+            } else if (temporal instanceof LocalDate) {
+                LocalDate date = (LocalDate) temporal;
+                has = HAS_DATE;
+                year = date.getYear();
+                month = date.getMonthValue();
+                day = date.getDayOfMonth();
+            } else if (temporal instanceof LocalTime) {
+                LocalTime time = (LocalTime) temporal;
+                has = HAS_TIME;
+                hour = time.getHour();
+                minute = time.getMinute();
+                second = time.getSecond();
+                nano = time.getNano();
+            } else {
+                // types with an instant; the override zone replaces the offset
+                if (temporal instanceof Instant) {
+                    Instant instant = (Instant) temporal;
+                    instantSecs = instant.getEpochSecond();
+                    nano = instant.getNano();
+                    if (zone == null) {
+                        has = HAS_INSTANT;
+                    } else {
+                        has = HAS_DATE | HAS_TIME | HAS_OFFSET | HAS_INSTANT;
+                        offset = zoneOffset(instant);
+                    }
+                } else if (temporal instanceof OffsetDateTime || temporal instanceof ZonedDateTime) {
+                    boolean zoned = temporal instanceof ZonedDateTime;
+                    OffsetDateTime odt = zoned ? null : (OffsetDateTime) temporal;
+                    ZonedDateTime zdt = zoned ? (ZonedDateTime) temporal : null;
+                    instantSecs = zoned ? zdt.toEpochSecond() : odt.toEpochSecond();
+                    nano = zoned ? zdt.getNano() : odt.getNano();
+                    offset = (zoned ? zdt.getOffset() : odt.getOffset()).getTotalSeconds();
+                    has = HAS_DATE | HAS_TIME | HAS_OFFSET | HAS_INSTANT;
+                    if (zone != null && (zoned == false || zone.equals(zdt.getZone()) == false)) {
+                        if (zone instanceof ZoneOffset == false) {
+                            return -1;
+                        }
+                        offset = ((ZoneOffset) zone).getTotalSeconds();
+                    }
+                } else {
+                    return -1;
+                }
+                if ((has & HAS_DATE) != 0) {
+                    long localSecs = instantSecs + offset;
+                    long epochDay = Math.floorDiv(localSecs, 86400);
+                    int secsOfDay = (int) Math.floorMod(localSecs, 86400);
+                    hour = secsOfDay / 3600;
+                    minute = (secsOfDay / 60) % 60;
+                    second = secsOfDay % 60;
+                    long ymd = civilFromDays(epochDay);
+                    year = ymd >> 9;
+                    month = (int) (ymd >> 5) & 0xF;
+                    day = (int) ymd & 0x1F;
+                    if (year < Year.MIN_VALUE || year > Year.MAX_VALUE) {
+                        return -1;  // the general path reports the error
+                    }
+                }
+            }
+
+            for (int i = 0, n = code.length; i < n; i++) {
+                int step = code[i];
+                if (step == SECTION) {
+                    if ((has & needs[i]) != needs[i]) {
+                        i = flags[i] - 1;  // fields not available, skip the section
+                    }
+                    continue;
+                }
+                if ((has & needs[i]) != needs[i]) {
+                    return -1;  // not optional, the general path reports the error
+                }
+                switch (step) {
+                    case LITERAL:
+                        pos = put(buf, dst, pos, arg[i]);
+                        break;
+                    case NUMBER: {
+                        long value;
+                        switch (arg[i]) {
+                            case F_YEAR: value = year; break;
+                            case F_YEAR_OF_ERA: value = (year >= 1 ? year : 1 - year); break;
+                            case F_MONTH: value = month; break;
+                            case F_DAY: value = day; break;
+                            case F_HOUR: value = hour; break;
+                            case F_MINUTE: value = minute; break;
+                            case F_SECOND: value = second; break;
+                            default: value = nano; break;
+                        }
+                        pos = formatNumber(buf, dst, pos, value, minWidth[i], maxWidth[i], flags[i]);
+                        if (pos < 0) {
+                            return -1;
+                        }
+                        break;
+                    }
+                    case FRACTION:
+                        pos = formatFraction(buf, dst, pos, nano, minWidth[i], maxWidth[i], flags[i] != 0);
+                        break;
+                    case INSTANT:
+                        pos = formatInstant(buf, dst, pos, instantSecs, nano, arg[i]);
+                        if (pos < 0) {
+                            return -1;
+                        }
+                        break;
+                    case OFFSET:
+                        pos = formatOffset(buf, dst, pos, offset);
+                        break;
+                }
+            }
+            return pos;
+        }
+
+        private int zoneOffset(Instant instant) {
+            if (zone instanceof ZoneOffset) {
+                return ((ZoneOffset) zone).getTotalSeconds();
+            }
+            return zone.getRules().getOffset(instant).getTotalSeconds();
+        }
+
+        private static int put(StringBuilder buf, byte[] dst, int pos, int ch) {
+            if (buf != null) {
+                buf.append((char) ch);
+                return pos;
+            }
+            if (pos >= dst.length) {
+                throw new IndexOutOfBoundsException("Formatted text does not fit in the array");
+            }
+            dst[pos] = (byte) ch;
+            return pos + 1;
+        }
+
+        private static int putDigits(StringBuilder buf, byte[] dst, int pos, long value, int digits) {
+            if (digits <= 9) {
+                return putDigits(buf, dst, pos, (int) value, digits);
+            }
+            for (int d = digits - 1; d >= 0; d--) {
+                long p = TEN_POWERS[d];
+                int digit = (int) (value / p);
+                value -= digit * p;
+                pos = put(buf, dst, pos, '0' + digit);
+            }
+            return pos;
+        }
+
+        private static int putDigits(StringBuilder buf, byte[] dst, int pos, int value, int digits) {
+            for (int d = digits - 1; d >= 0; d--) {
+                int p = (int) TEN_POWERS[d];
+                int digit = value / p;
+                value -= digit * p;
+                pos = put(buf, dst, pos, '0' + digit);
+            }
+            return pos;
+        }
+
+        private static int digitCount(long value) {
+            int n = 1;
+            while (n < TEN_POWERS.length && value >= TEN_POWERS[n]) {
+                n++;
+            }
+            return n;
+        }
+
+        /**
+         * As NumberPrinterParser.format, for the standard decimal style.
+         */
+        private static int formatNumber(StringBuilder buf, byte[] dst, int pos, long value,
+                                        int minWidth, int maxWidth, int signStyle) {
+            if (value == Long.MIN_VALUE) {
+                return -1;
+            }
+            long abs = Math.abs(value);
+            int len = digitCount(abs);
+            if (len > maxWidth) {
+                return -1;
+            }
+            SignStyle style = SIGN_STYLES[signStyle];
+            if (value >= 0) {
+                if ((style == SignStyle.EXCEEDS_PAD && minWidth < 19 && value >= NumberPrinterParser.EXCEED_POINTS[minWidth]) ||
+                        style == SignStyle.ALWAYS) {
+                    pos = put(buf, dst, pos, '+');
+                }
+            } else {
+                if (style == SignStyle.NOT_NEGATIVE) {
+                    return -1;
+                }
+                if (style != SignStyle.NEVER) {
+                    pos = put(buf, dst, pos, '-');
+                }
+            }
+            return putDigits(buf, dst, pos, abs, Math.max(len, minWidth));
+        }
+
+        /**
+         * As FractionPrinterParser.format, for the nano-of-second.
+         */
+        private static int formatFraction(StringBuilder buf, byte[] dst, int pos, int nano,
+                                          int minWidth, int maxWidth, boolean decimalPoint) {
+            int scale = 9;
+            if (nano == 0) {
+                scale = 0;
+            } else {
+                while (nano % TEN_POWERS[10 - scale] == 0) {
+                    scale--;
+                }
+            }
+            int outputScale = Math.min(Math.max(scale, minWidth), maxWidth);
+            if (outputScale == 0) {
+                return pos;
+            }
+            if (decimalPoint) {
+                pos = put(buf, dst, pos, '.');
+            }
+            return putDigits(buf, dst, pos, nano / TEN_POWERS[9 - outputScale], outputScale);
+        }
+
+        /**
+         * As InstantPrinterParser.format, for years 0000 to 9999.
+         */
+        private static int formatInstant(StringBuilder buf, byte[] dst, int pos, long secs,
+                                         int nano, int fractionalDigits) {
+            if (secs < -SECONDS_0000_TO_1970 || secs >= SECONDS_TO_10000 - SECONDS_0000_TO_1970) {
+                return -1;
+            }
+            long ymd = civilFromDays(Math.floorDiv(secs, 86400));
+            int secsOfDay = (int) Math.floorMod(secs, 86400);
+            pos = putDigits(buf, dst, pos, ymd >> 9, 4);
+            pos = put(buf, dst, pos, '-');
+            pos = putDigits(buf, dst, pos, (ymd >> 5) & 0xF, 2);
+            pos = put(buf, dst, pos, '-');
+            pos = putDigits(buf, dst, pos, ymd & 0x1F, 2);
+            pos = put(buf, dst, pos, 'T');
+            pos = putDigits(buf, dst, pos, secsOfDay / 3600, 2);
+            pos = put(buf, dst, pos, ':');
+            pos = putDigits(buf, dst, pos, (secsOfDay / 60) % 60, 2);
+            pos = put(buf, dst, pos, ':');
+            pos = putDigits(buf, dst, pos, secsOfDay % 60, 2);
+            if ((fractionalDigits < 0 && nano > 0) || fractionalDigits > 0) {
+                int digits;
+                if (fractionalDigits >= 0) {
+                    digits = fractionalDigits;
+                } else {
+                    digits = 9;
+                    while (nano % TEN_POWERS[10 - digits] == 0) {
+                        digits--;
+                    }
+                    if (fractionalDigits == -2) {
+                        digits = (digits + 2) / 3 * 3;
+                    }
+                }
+                pos = put(buf, dst, pos, '.');
+                pos = putDigits(buf, dst, pos, nano / TEN_POWERS[9 - digits], digits);
+            }
+            return put(buf, dst, pos, 'Z');
+        }
+
+        /**
+         * As OffsetIdPrinterParser.format, for "+HH:MM:ss" and "Z".
+         */
+        private static int formatOffset(StringBuilder buf, byte[] dst, int pos, int totalSecs) {
+            if (totalSecs == 0) {
+                return put(buf, dst, pos, 'Z');
+            }
+            int absHours = Math.abs((totalSecs / 3600) % 100);
+            int absMinutes = Math.abs((totalSecs / 60) % 60);
+            int absSeconds = Math.abs(totalSecs % 60);
+            pos = put(buf, dst, pos, totalSecs < 0 ? '-' : '+');
+            pos = putDigits(buf, dst, pos, absHours, 2);
+            pos = put(buf, dst, pos, ':');
+            pos = putDigits(buf, dst, pos, absMinutes, 2);
+            if (absSeconds > 0) {
+                pos = put(buf, dst, pos, ':');
+                pos = putDigits(buf, dst, pos, absSeconds, 2);
+            }
+            return pos;
+        }
+
+        /**
+         * Converts an epoch-day to the proleptic ISO year, month and day, as
+         * LocalDate.ofEpochDay does, packed as {@code year << 9 | month << 5 | day}.
+         */
+        private static long civilFromDays(long epochDay) {
+            long zeroDay = epochDay + DAYS_0000_TO_1970;
+            // find the march-based year
+            zeroDay -= 60;  // adjust to 0000-03-01 so leap day is at end of four year cycle
+            long adjust = 0;
+            if (zeroDay < 0) {
+                // adjust negative years to positive for calculation
+                long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+                adjust = adjustCycles * 400;
+                zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+            }
+            long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+            long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+            if (doyEst < 0) {
+                // fix estimate
+                yearEst--;
+                doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+            }
+            yearEst += adjust;  // reset any negative year
+            int marchDoy0 = (int) doyEst;
+
+            // convert march-based values back to january-based
+            int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+            int month = (marchMonth0 + 2) % 12 + 1;
+            int dom = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+            yearEst += marchMonth0 / 10;
+            return (yearEst << 9) | (month << 5) | dom;
+        }
+
+        /**
+         * Converts a proleptic ISO date to an epoch-day, as LocalDate.toEpochDay does.
+         */
+        private static long daysFromCivil(long y, int m, int d) {
+            long total = 0;
+            total += 365 * y;
+            if (y >= 0) {
+                total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+            } else {
+                total -= y / -4 - y / -100 + y / -400;
+            }
+            total += ((367 * m - 362) / 12);
+            total += d - 1;
+            if (m > 2) {
+                total--;
+                if (IsoChronology.INSTANCE.isLeapYear(y) == false) {
+                    total--;
+                }
+            }
+            return total - DAYS_0000_TO_1970;
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Parses the whole text to an instant.
+         *
+         * @return the instant, or null if the general path must be used
+         */
+        Instant parseInstant(CharSequence text) {
+            if (parseable == false) {
+                return null;
+            }
+            long[] values = new long[SLOTS];
+            int[] set = new int[1];
+            int pos = parse(text, 0, 0, code.length, values, set);
+            if (pos != text.length()) {
+                return null;
+            }
+            int mask = set[0];
+            if (mask == (1 << F_INSTANT)) {
+                return Instant.ofEpochSecond(values[F_INSTANT], values[F_INSTANT + 1]);
+            }
+            int required = (1 << F_MONTH) | (1 << F_DAY) | (1 << F_HOUR) | (1 << F_MINUTE);
+            int optional = (1 << F_SECOND) | (1 << F_NANO) | (1 << F_OFFSET);
+            int yearBit = mask & ((1 << F_YEAR) | (1 << F_YEAR_OF_ERA));
+            if ((mask & required) != required || (mask & ~(required | optional | yearBit)) != 0 ||
+                    (yearBit != (1 << F_YEAR) && (yearBit != (1 << F_YEAR_OF_ERA) || resolverStyle == ResolverStyle.STRICT)) ||
+                    ((mask & (1 << F_NANO)) != 0 && (mask & (1 << F_SECOND)) == 0)) {
+                return null;
+            }
+            long year = values[yearBit == (1 << F_YEAR) ? F_YEAR : F_YEAR_OF_ERA];
+            int month = (int) values[F_MONTH];
+            int day = (int) values[F_DAY];
+            long hour = values[F_HOUR];
+            long minute = values[F_MINUTE];
+            long second = values[F_SECOND];
+            if (year < (yearBit == (1 << F_YEAR) ? Year.MIN_VALUE : 1) || year > Year.MAX_VALUE ||
+                    month < 1 || month > 12 || day < 1 || day > 28 && day > lengthOfMonth(year, month) ||
+                    hour > 23 || minute > 59 || second > 59 || values[F_NANO] > 999_999_999) {
+                return null;
+            }
+            // an override zone takes precedence over a parsed offset
+            long offset;
+            if (zone instanceof ZoneOffset) {
+                offset = ((ZoneOffset) zone).getTotalSeconds();
+            } else if (zone == null && (mask & (1 << F_OFFSET)) != 0) {
+                offset = values[F_OFFSET];
+            } else {
+                return null;
+            }
+            long secs = daysFromCivil(year, month, day) * 86400 + hour * 3600 + minute * 60 + second - offset;
+            return Instant.ofEpochSecond(secs, values[F_NANO]);
+        }
+
+        private static int lengthOfMonth(long year, int month) {
+            switch (month) {
+                case 2:
+                    return (IsoChronology.INSTANCE.isLeapYear(year) ? 29 : 28);
+                case 4:
+                case 6:
+                case 9:
+                case 11:
+                    return 30;
+                default:
+                    return 31;
+            }
+        }
+
+        /**
+         * Parses the steps from {@code from} to {@code to}, storing field values
+         * in {@code values} and marking them in {@code set[0]}.
+         *
+         * @return the new position, negative if the text does not match
+         */
+        private int parse(CharSequence text, int pos, int from, int to, long[] values, int[] set) {
+            int length = text.length();
+            for (int i = from; i < to; i++) {
+                int field = arg[i];
+                switch (code[i]) {
+                    case SECTION: {
+                        int saved = set[0];
+                        int end = flags[i];
+                        int newPos = parse(text, pos, i + 1, end, values, set);
+                        if (newPos < 0) {
+                            set[0] = saved;
+                        } else {
+                            pos = newPos;
+                        }
+                        i = end - 1;
+                        continue;
+                    }
+                    case LITERAL: {
+                        if (pos >= length || matches(text.charAt(pos), (char) field, flags[i] != 0) == false) {
+                            return ~pos;
+                        }
+                        pos++;
+                        continue;
+                    }
+                    case NUMBER: {
+                        int min = minWidth[i];
+                        int max = maxWidth[i];
+                        int style = flags[i];
+                        int end = Math.min(pos + max, length);
+                        long total = 0;
+                        int p = pos;
+                        for (char ch; p < end && (ch = text.charAt(p)) >= '0' && ch <= '9'; p++) {
+                            total = total * 10 + (ch - '0');
+                        }
+                        int len = p - pos;
+                        if (len < min || len > 18 || style == SignStyle.ALWAYS.ordinal() ||
+                                (style == SignStyle.EXCEEDS_PAD.ordinal() && len > min)) {
+                            return ~pos;  // including signs, which the general parser handles
+                        }
+                        if (store(values, set, field, total) == false) {
+                            return ~pos;
+                        }
+                        pos = p;
+                        continue;
+                    }
+                    case FRACTION: {
+                        int min = minWidth[i];
+                        if (flags[i] != 0) {
+                            if (pos >= length || text.charAt(pos) != '.') {
+                                if (min > 0) {
+                                    return ~pos;
+                                }
+                                continue;
+                            }
+                            pos++;
+                        }
+                        int end = Math.min(pos + maxWidth[i], length);
+                        int total = 0;
+                        int p = pos;
+                        for (char ch; p < end && (ch = text.charAt(p)) >= '0' && ch <= '9'; p++) {
+                            total = total * 10 + (ch - '0');
+                        }
+                        if (p - pos < min || store(values, set, F_NANO, total * TEN_POWERS[9 - (p - pos)]) == false) {
+                            return ~pos;
+                        }
+                        pos = p;
+                        continue;
+                    }
+                    case INSTANT: {
+                        int newPos = parseInstant(text, pos, field, flags[i] != 0, values);
+                        if (newPos < 0 || (set[0] & (1 << F_INSTANT)) != 0) {
+                            return ~pos;
+                        }
+                        set[0] |= 1 << F_INSTANT;
+                        pos = newPos;
+                        continue;
+                    }
+                    case OFFSET: {
+                        int newPos = parseOffset(text, pos, flags[i] != 0, values, set);
+                        if (newPos < 0) {
+                            return ~pos;
+                        }
+                        pos = newPos;
+                        continue;
+                    }
+                }
+            }
+            return pos;
+        }
+
+        private static boolean matches(char ch, char literal, boolean ignoreCase) {
+            return ch == literal ||
+                    (ignoreCase && (Character.toUpperCase(ch) == Character.toUpperCase(literal) ||
+                                    Character.toLowerCase(ch) == Character.toLowerCase(literal)));
+        }
+
+        private static boolean store(long[] values, int[] set, int field, long value) {
+            int bit = 1 << field;
+            if ((set[0] & bit) != 0) {
+                return false;  // parsed twice, let the general parser check
+            }
+            set[0] |= bit;
+            values[field] = value;
+            return true;
+        }
+
+        /**
+         * Parses 'yyyy-MM-ddTHH:mm:ss[.fffffffff]Z' for years 0000 to 9999.
+         */
+        private static int parseInstant(CharSequence text, int pos, int fractionalDigits,
+                                        boolean ignoreCase, long[] values) {
+            int length = text.length();
+            if (pos + 20 > length) {
+                return -1;
+            }
+            long year = digits(text, pos, 4);
+            long month = (text.charAt(pos + 4) == '-' ? digits(text, pos + 5, 2) : -1);
+            long day = (text.charAt(pos + 7) == '-' ? digits(text, pos + 8, 2) : -1);
+            long hour = (matches(text.charAt(pos + 10), 'T', ignoreCase) ? digits(text, pos + 11, 2) : -1);
+            long minute = (text.charAt(pos + 13) == ':' ? digits(text, pos + 14, 2) : -1);
+            long second = (text.charAt(pos + 16) == ':' ? digits(text, pos + 17, 2) : -1);
+            if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, (int) month) ||
+                    hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return -1;
+            }
+            pos += 19;
+            int minDigits = (fractionalDigits < 0 ? 0 : fractionalDigits);
+            int maxDigits = (fractionalDigits < 0 ? 9 : fractionalDigits);
+            long nano = 0;
+            if (text.charAt(pos) == '.') {
+                pos++;
+                int end = Math.min(pos + maxDigits, length);
+                int p = pos;
+                for (char ch; p < end && (ch = text.charAt(p)) >= '0' && ch <= '9'; p++) {
+                    nano = nano * 10 + (ch - '0');
+                }
+                if (p - pos < minDigits) {
+                    return -1;
+                }
+                nano *= TEN_POWERS[9 - (p - pos)];
+                pos = p;
+            } else if (minDigits > 0) {
+                return -1;
+            }
+            if (pos >= length || matches(text.charAt(pos), 'Z', ignoreCase) == false) {
+                return -1;
+            }
+            values[F_INSTANT] = daysFromCivil(year, (int) month, (int) day) * 86400 +
+                    hour * 3600 + minute * 60 + second;
+            values[F_INSTANT + 1] = nano;
+            return pos + 1;
+        }
+
+        /**
+         * Parses "Z" or an offset of the form +HH:MM or +HH:MM:SS.
+         */
+        private static int parseOffset(CharSequence text, int pos, boolean ignoreCase,
+                                       long[] values, int[] set) {
+            int length = text.length();
+            if (pos >= length) {
+                return -1;
+            }
+            char sign = text.charAt(pos);
+            long offset;
+            if (matches(sign, 'Z', ignoreCase)) {
+                offset = 0;
+                pos++;
+            } else if ((sign == '+' || sign == '-') && pos + 6 <= length && text.charAt(pos + 3) == ':') {
+                long hours = digits(text, pos + 1, 2);
+                long minutes = digits(text, pos + 4, 2);
+                long seconds = 0;
+                pos += 6;
+                if (pos + 3 <= length && text.charAt(pos) == ':') {
+                    seconds = digits(text, pos + 1, 2);
+                    if (seconds < 0) {
+                        return -1;  // the general parser backs off, let it decide
+                    }
+                    pos += 3;
+                }
+                if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59 || seconds > 59) {
+                    return -1;
+                }
+                offset = hours * 3600 + minutes * 60 + seconds;
+                if (offset > 18 * 3600) {
+                    return -1;
+                }
+                offset = (sign == '-' ? -offset : offset);
+            } else {
+                return -1;
+            }
+            return store(values, set, F_OFFSET, offset) ? pos : -1;
+        }
+
+        /**
+         * Returns the value of exactly {@code count} ASCII digits, or -1.
+         */
+        private static long digits(CharSequence text, int pos, int count) {
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                char ch = text.charAt(pos + i);
+                if (ch < '0' || ch > '9') {
+                    return -1;
+                }
+                total = total * 10 + (ch - '0');
+            }
+            return total;
+        }
+    }
+
     //-------------------------------------------------------------------------
     /**
      * Length comparator.
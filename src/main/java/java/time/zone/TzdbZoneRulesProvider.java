@@ -62,11 +62,7 @@
 package java.time.zone;
 
 import java.io.ByteArrayInputStream;
-import java.io.BufferedInputStream;
 import java.io.DataInputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.io.StreamCorruptedException;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -78,6 +74,8 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
+import sun.util.calendar.TzdbData;
+
 /**
  * Loads time-zone rules for 'TZDB'.
  *
@@ -94,9 +92,14 @@ final class TzdbZoneRulesProvider extends ZoneRulesProvider {
      */
     private String versionId;
     /**
-     * Region to rules mapping
+     * Region to rules mapping, the value is either the position of the
+     * serialized rules in the data as an {@code Integer}, or the rules
      */
     private final Map<String, Object> regionToRules = new ConcurrentHashMap<>();
+    /**
+     * The rules data, shared with {@code ZoneInfoFile}
+     */
+    private final byte[] data;
 
     /**
      * Creates an instance.
@@ -106,12 +109,8 @@ final class TzdbZoneRulesProvider extends ZoneRulesProvider {
      */
     public TzdbZoneRulesProvider() {
         try {
-            String libDir = System.getProperty("java.home") + File.separator + "lib";
-            try (DataInputStream dis = new DataInputStream(
-                     new BufferedInputStream(new FileInputStream(
-                         new File(libDir, "tzdb.dat"))))) {
-                load(dis);
-            }
+            data = TzdbData.get();
+            load(data);
         } catch (Exception ex) {
             throw new ZoneRulesException("Unable to load TZDB time-zone rules", ex);
         }
@@ -130,9 +129,11 @@ final class TzdbZoneRulesProvider extends ZoneRulesProvider {
             throw new ZoneRulesException("Unknown time-zone ID: " + zoneId);
         }
         try {
-            if (obj instanceof byte[]) {
-                byte[] bytes = (byte[]) obj;
-                DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (obj instanceof Integer) {
+                // rules are only deserialized when first used
+                int pos = (Integer) obj;
+                DataInputStream dis = new DataInputStream(
+                    new ByteArrayInputStream(data, pos, data.length - pos));
                 obj = Ser.read(dis);
                 regionToRules.put(zoneId, obj);
             }
@@ -153,12 +154,15 @@ final class TzdbZoneRulesProvider extends ZoneRulesProvider {
     }
 
     /**
-     * Loads the rules from a DateInputStream, often in a jar file.
+     * Loads the region and version tables from the rules data, recording
+     * the position of the serialized rules of each region.
      *
-     * @param dis  the DateInputStream to load, not null
+     * @param data  the rules data, not null
      * @throws Exception if an error occurs
      */
-    private void load(DataInputStream dis) throws Exception {
+    private void load(byte[] data) throws Exception {
+        ByteArrayInputStream in = new ByteArrayInputStream(data);
+        DataInputStream dis = new DataInputStream(in);
         if (dis.readByte() != 1) {
             throw new StreamCorruptedException("File format not recognised");
         }
@@ -183,9 +187,9 @@ final class TzdbZoneRulesProvider extends ZoneRulesProvider {
         int ruleCount = dis.readShort();
         Object[] ruleArray = new Object[ruleCount];
         for (int i = 0; i < ruleCount; i++) {
-            byte[] bytes = new byte[dis.readShort()];
-            dis.readFully(bytes);
-            ruleArray[i] = bytes;
+            int length = dis.readShort();
+            ruleArray[i] = data.length - in.available();
+            dis.skipBytes(length);
         }
         // link version-region-rules
         for (int i = 0; i < versionCount; i++) {
@@ -79,8 +79,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * The rules defining how the zone offset varies for a single time-zone.
@@ -113,10 +112,28 @@ public final class ZoneRules implements Serializable {
      * Serialization version.
      */
     private static final long serialVersionUID = 3044319355680032515L;
+    /**
+     * The first year to have its transitions cached.
+     */
+    private static final int FIRST_CACHED_YEAR = 1900;
     /**
      * The last year to have its transitions cached.
      */
     private static final int LAST_CACHED_YEAR = 2100;
+    /**
+     * The number of days in the offset cache, a power of two.
+     */
+    private static final int OFFSET_CACHE_SIZE = 512;
+    /**
+     * Seconds per day.
+     */
+    private static final long SECONDS_PER_DAY = 86400;
+    /**
+     * The range of epoch-days whose offsets are cached, a year inside the
+     * supported range, so that filling the cache never throws.
+     */
+    private static final long FIRST_CACHED_DAY = LocalDate.of(Year.MIN_VALUE + 1, 1, 1).toEpochDay();
+    private static final long LAST_CACHED_DAY = LocalDate.of(Year.MAX_VALUE - 1, 1, 1).toEpochDay();
 
     /**
      * The transitions between standard offsets (epoch seconds), sorted.
@@ -145,10 +162,20 @@ public final class ZoneRules implements Serializable {
      */
     private final ZoneOffsetTransitionRule[] lastRules;
     /**
-     * The map of recent transitions.
+     * The transitions of recent years, indexed by year from {@code FIRST_CACHED_YEAR},
+     * created lazily.
+     */
+    private transient volatile AtomicReferenceArray<ZoneOffsetTransition[]> lastRulesCache;
+    /**
+     * The offsets of recently queried days, indexed by epoch-day modulo
+     * {@code OFFSET_CACHE_SIZE}, created lazily.
      */
-    private final transient ConcurrentMap<Integer, ZoneOffsetTransition[]> lastRulesCache =
-                new ConcurrentHashMap<Integer, ZoneOffsetTransition[]>();
+    private transient volatile DayOffsets[] offsetCache;
+    /**
+     * The epoch-day of the last query that missed each slot of the offset
+     * cache, created lazily before {@code offsetCache}.
+     */
+    private transient volatile long[] offsetCacheMisses;
     /**
      * The zero-length long array.
      */
@@ -481,6 +508,64 @@ public final class ZoneRules implements Serializable {
             return standardOffsets[0];
         }
         long epochSec = instant.getEpochSecond();
+        long epochDay = Math.floorDiv(epochSec, SECONDS_PER_DAY);
+        DayOffsets[] cache = offsetCache;
+        if (cache == null) {
+            offsetCacheMisses = new long[OFFSET_CACHE_SIZE];
+            offsetCache = cache = new DayOffsets[OFFSET_CACHE_SIZE];
+        }
+        int slot = (int) epochDay & (OFFSET_CACHE_SIZE - 1);
+        DayOffsets day = cache[slot];
+        if (day == null || day.epochDay != epochDay) {
+            // only fill the slot when the day is queried again, as finding the
+            // offsets of a whole day costs more than finding a single offset
+            long[] misses = offsetCacheMisses;
+            if (misses[slot] != epochDay) {
+                misses[slot] = epochDay;
+                return findOffset(epochSec);
+            }
+            day = findDayOffsets(epochDay);
+            if (day == null) {
+                return findOffset(epochSec);
+            }
+            cache[slot] = day;
+        }
+        return (epochSec < day.transition ? day.offsetBefore : day.offsetAfter);
+    }
+
+    /**
+     * Finds the offsets of a UTC day, with at most one transition.
+     *
+     * @param epochDay  the epoch-day of the UTC day
+     * @return the offsets, null if the day has more than one transition or is out of range
+     */
+    private DayOffsets findDayOffsets(long epochDay) {
+        // days near the ends of the supported range are not cached, as
+        // finding their offsets may throw differently from findOffset
+        if (epochDay < FIRST_CACHED_DAY || epochDay > LAST_CACHED_DAY) {
+            return null;
+        }
+        long start = epochDay * SECONDS_PER_DAY;
+        long end = start + SECONDS_PER_DAY;
+        ZoneOffset offsetBefore = findOffset(start);
+        ZoneOffsetTransition trans = nextTransition(Instant.ofEpochSecond(start));
+        if (trans == null || trans.toEpochSecond() >= end) {
+            return new DayOffsets(epochDay, Long.MAX_VALUE, offsetBefore, offsetBefore);
+        }
+        ZoneOffsetTransition following = nextTransition(trans.getInstant());
+        if (following != null && following.toEpochSecond() < end) {
+            return null;
+        }
+        return new DayOffsets(epochDay, trans.toEpochSecond(), offsetBefore, trans.getOffsetAfter());
+    }
+
+    /**
+     * Finds the offset applicable at the specified epoch-second, without the cache.
+     *
+     * @param epochSec  the epoch-second
+     * @return the offset, not null
+     */
+    private ZoneOffset findOffset(long epochSec) {
         // check if using last rules
         if (lastRules.length > 0 &&
                 epochSec > savingsInstantTransitions[savingsInstantTransitions.length - 1]) {
@@ -719,18 +804,24 @@ public final class ZoneRules implements Serializable {
      * @return the transition array, not null
      */
     private ZoneOffsetTransition[] findTransitionArray(int year) {
-        Integer yearObj = year;  // should use Year class, but this saves a class load
-        ZoneOffsetTransition[] transArray = lastRulesCache.get(yearObj);
-        if (transArray != null) {
-            return transArray;
+        boolean cacheable = year >= FIRST_CACHED_YEAR && year < LAST_CACHED_YEAR;
+        AtomicReferenceArray<ZoneOffsetTransition[]> cache = lastRulesCache;
+        if (cacheable) {
+            if (cache == null) {
+                lastRulesCache = cache = new AtomicReferenceArray<>(LAST_CACHED_YEAR - FIRST_CACHED_YEAR);
+            }
+            ZoneOffsetTransition[] transArray = cache.get(year - FIRST_CACHED_YEAR);
+            if (transArray != null) {
+                return transArray;
+            }
         }
         ZoneOffsetTransitionRule[] ruleArray = lastRules;
-        transArray  = new ZoneOffsetTransition[ruleArray.length];
+        ZoneOffsetTransition[] transArray  = new ZoneOffsetTransition[ruleArray.length];
         for (int i = 0; i < ruleArray.length; i++) {
             transArray[i] = ruleArray[i].createTransition(year);
         }
-        if (year < LAST_CACHED_YEAR) {
-            lastRulesCache.putIfAbsent(yearObj, transArray);
+        if (cacheable) {
+            cache.set(year - FIRST_CACHED_YEAR, transArray);
         }
         return transArray;
     }
@@ -1025,4 +1116,27 @@ public final class ZoneRules implements Serializable {
         return "ZoneRules[currentStandardOffset=" + standardOffsets[standardOffsets.length - 1] + "]";
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * The offsets of a single UTC day, which has at most one transition.
+     * Instances are immutable, so they can be shared without synchronization.
+     */
+    private static final class DayOffsets {
+        /** The epoch-day. */
+        final long epochDay;
+        /** The epoch-second of the transition, {@code Long.MAX_VALUE} if none. */
+        final long transition;
+        /** The offset before the transition. */
+        final ZoneOffset offsetBefore;
+        /** The offset from the transition onwards. */
+        final ZoneOffset offsetAfter;
+
+        DayOffsets(long epochDay, long transition, ZoneOffset offsetBefore, ZoneOffset offsetAfter) {
+            this.epochDay = epochDay;
+            this.transition = transition;
+            this.offsetBefore = offsetBefore;
+            this.offsetAfter = offsetAfter;
+        }
+    }
+
 }
@@ -1304,16 +1304,14 @@ public final class Spliterators {
              * operations, across combinations of #elements vs #cores,
              * whether or not either are known.  We generate
              * O(sqrt(#elements)) splits, allowing O(sqrt(#cores))
-             * potential speedup.
+             * potential speedup.  Sources of unknown size start
+             * with small, geometrically increasing batches; see
+             * nextBatchSize.
              */
             HoldingConsumer<T> holder = new HoldingConsumer<>();
             long s = est;
             if (s > 1 && tryAdvance(holder)) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = nextBatchSize(batch, s);
                 Object[] a = new Object[n];
                 int j = 0;
                 do { a[j] = holder.value; } while (++j < n && tryAdvance(holder));
@@ -1419,11 +1417,7 @@ public final class Spliterators {
             HoldingIntConsumer holder = new HoldingIntConsumer();
             long s = est;
             if (s > 1 && tryAdvance(holder)) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = nextBatchSize(batch, s);
                 int[] a = new int[n];
                 int j = 0;
                 do { a[j] = holder.value; } while (++j < n && tryAdvance(holder));
@@ -1529,11 +1523,7 @@ public final class Spliterators {
             HoldingLongConsumer holder = new HoldingLongConsumer();
             long s = est;
             if (s > 1 && tryAdvance(holder)) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = nextBatchSize(batch, s);
                 long[] a = new long[n];
                 int j = 0;
                 do { a[j] = holder.value; } while (++j < n && tryAdvance(holder));
@@ -1639,11 +1629,7 @@ public final class Spliterators {
             HoldingDoubleConsumer holder = new HoldingDoubleConsumer();
             long s = est;
             if (s > 1 && tryAdvance(holder)) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = nextBatchSize(batch, s);
                 double[] a = new double[n];
                 int j = 0;
                 do { a[j] = holder.value; } while (++j < n && tryAdvance(holder));
@@ -1681,6 +1667,41 @@ public final class Spliterators {
         }
     }
 
+    // Batch sizes for splitting sequential sources
+
+    /**
+     * The first batch size of a source of unknown size.
+     */
+    static final int MIN_BATCH = 1 << 4;
+
+    /**
+     * Returns the size of the next batch copied out by {@code trySplit} of
+     * a spliterator traversing a sequential source, such as an iterator.
+     * Batches grow arithmetically by {@code BATCH_UNIT}.  If the size of the
+     * source is unknown, which is typical of I/O backed sources such as
+     * {@code BufferedReader.lines()}, batches instead start at
+     * {@code MIN_BATCH} and double until reaching {@code BATCH_UNIT}, so
+     * that short sources of costly elements still split into several
+     * batches rather than into one batch holding all elements.
+     *
+     * @param batch the size of the previous batch, or 0 if none
+     * @param est the size estimate of the source, or {@code Long.MAX_VALUE}
+     *        if unknown
+     * @return the size of the next batch, at most {@code est} and
+     *         {@code MAX_BATCH}
+     */
+    static int nextBatchSize(int batch, long est) {
+        int unit = AbstractSpliterator.BATCH_UNIT;
+        int n = (est == Long.MAX_VALUE && batch < unit)
+                ? Math.max(MIN_BATCH, batch << 1)
+                : batch + unit;
+        if (n > est)
+            n = (int) est;
+        if (n > AbstractSpliterator.MAX_BATCH)
+            n = AbstractSpliterator.MAX_BATCH;
+        return n;
+    }
+
     // Iterator-based Spliterators
 
     /**
@@ -1763,7 +1784,9 @@ public final class Spliterators {
              * operations, across combinations of #elements vs #cores,
              * whether or not either are known.  We generate
              * O(sqrt(#elements)) splits, allowing O(sqrt(#cores))
-             * potential speedup.
+             * potential speedup.  Sources of unknown size start
+             * with small, geometrically increasing batches; see
+             * nextBatchSize.
              */
             Iterator<? extends T> i;
             long s;
@@ -1774,11 +1797,7 @@ public final class Spliterators {
             else
                 s = est;
             if (s > 1 && i.hasNext()) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = nextBatchSize(batch, s);
                 Object[] a = new Object[n];
                 int j = 0;
                 do { a[j] = i.next(); } while (++j < n && i.hasNext());
@@ -1886,11 +1905,7 @@ public final class Spliterators {
             PrimitiveIterator.OfInt i = it;
             long s = est;
             if (s > 1 && i.hasNext()) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = nextBatchSize(batch, s);
                 int[] a = new int[n];
                 int j = 0;
                 do { a[j] = i.nextInt(); } while (++j < n && i.hasNext());
@@ -1980,11 +1995,7 @@ public final class Spliterators {
             PrimitiveIterator.OfLong i = it;
             long s = est;
             if (s > 1 && i.hasNext()) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = nextBatchSize(batch, s);
                 long[] a = new long[n];
                 int j = 0;
                 do { a[j] = i.nextLong(); } while (++j < n && i.hasNext());
@@ -2074,11 +2085,7 @@ public final class Spliterators {
             PrimitiveIterator.OfDouble i = it;
             long s = est;
             if (s > 1 && i.hasNext()) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = nextBatchSize(batch, s);
                 double[] a = new double[n];
                 int j = 0;
                 do { a[j] = i.nextDouble(); } while (++j < n && i.hasNext());
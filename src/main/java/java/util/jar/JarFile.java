@@ -39,6 +39,7 @@ import java.security.CodeSource;
 import sun.misc.IOUtils;
 import sun.security.action.GetPropertyAction;
 import sun.security.util.ManifestEntryVerifier;
+import sun.misc.JavaUtilZipFileAccess;
 import sun.misc.SharedSecrets;
 import sun.security.util.SignatureFileVerifier;
 
@@ -204,7 +205,12 @@ class JarFile extends ZipFile {
         return man;
     }
 
-    private native String[] getMetaInfEntryNames();
+    private String[] getMetaInfEntryNames() {
+        return JUZFA.getMetaInfEntryNames(this);
+    }
+
+    private static final JavaUtilZipFileAccess JUZFA =
+        SharedSecrets.getJavaUtilZipFileAccess();
 
     /**
      * Returns the <code>JarEntry</code> for the given entry name or
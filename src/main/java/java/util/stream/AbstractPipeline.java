@@ -26,6 +26,9 @@ package java.util.stream;
 
 import java.util.Objects;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
@@ -148,6 +151,18 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     private boolean parallel;
 
+    /**
+     * The pool in which parallel evaluation executes, or null for the common
+     * pool; only valid for the source stage.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The target leaf size of parallel evaluation, or 0 if to be derived
+     * from the source size; only valid for the source stage.
+     */
+    private long leafSize;
+
     /**
      * Constructor for the head of a stream pipeline.
      *
@@ -230,7 +245,7 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         linkedOrConsumed = true;
 
         return isParallel()
-               ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
+               ? invokeInPool(() -> terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags())))
                : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
     }
 
@@ -249,13 +264,51 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         // If the last intermediate operation is stateful then
         // evaluate directly to avoid an extra collection step
         if (isParallel() && previousStage != null && opIsStateful()) {
-            return opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator);
+            return invokeInPool(() -> opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator));
+        }
+        else if (isParallel()) {
+            return invokeInPool(() -> evaluate(sourceSpliterator(0), true, generator));
         }
         else {
             return evaluate(sourceSpliterator(0), true, generator);
         }
     }
 
+    /**
+     * Runs a parallel evaluation in the pool selected for this pipeline.  If
+     * no pool was selected, or the caller already runs in that pool, the
+     * evaluation runs in the calling thread and its tasks are forked into
+     * the pool of the calling thread, or the common pool.
+     *
+     * @param evaluation the parallel evaluation
+     * @return the result of the evaluation
+     */
+    private <R> R invokeInPool(Supplier<R> evaluation) {
+        ForkJoinPool p = sourceStage.pool;
+        if (p == null || ForkJoinTask.getPool() == p)
+            return evaluation.get();
+        return p.invoke(new EvaluationTask<>(evaluation));
+    }
+
+    /**
+     * A task performing a parallel evaluation from a thread of the selected
+     * pool, so that the fork-join tasks of the evaluation are forked into
+     * that pool.
+     */
+    @SuppressWarnings("serial")
+    private static final class EvaluationTask<R> extends RecursiveTask<R> {
+        private final Supplier<R> evaluation;
+
+        EvaluationTask(Supplier<R> evaluation) {
+            this.evaluation = evaluation;
+        }
+
+        @Override
+        protected R compute() {
+            return evaluation.get();
+        }
+    }
+
     /**
      * Gets the source stage spliterator if this pipeline stage is the source
      * stage.  The pipeline is consumed after this method is called and
@@ -307,6 +360,24 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         return (S) this;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final S parallel(ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        sourceStage.parallel = true;
+        sourceStage.pool = pool;
+        return (S) this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final S leafSize(long size) {
+        if (size < 0)
+            throw new IllegalArgumentException(Long.toString(size));
+        sourceStage.leafSize = size;
+        return (S) this;
+    }
+
     @Override
     public void close() {
         linkedOrConsumed = true;
@@ -492,6 +563,11 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         return p.getOutputShape();
     }
 
+    @Override
+    final long getLeafSize() {
+        return sourceStage.leafSize;
+    }
+
     @Override
     final <P_IN> long exactOutputSizeIfKnown(Spliterator<P_IN> spliterator) {
         return StreamOpFlag.SIZED.isKnown(getStreamAndOpFlags()) ? spliterator.getExactSizeIfKnown() : -1;
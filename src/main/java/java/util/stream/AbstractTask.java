@@ -27,6 +27,7 @@ package java.util.stream;
 import java.util.Spliterator;
 import java.util.concurrent.CountedCompleter;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Abstract base class for most fork-join tasks used to implement stream ops.
@@ -96,6 +97,15 @@ abstract class AbstractTask<P_IN, P_OUT, R,
      */
     static final int LEAF_TARGET = ForkJoinPool.getCommonPoolParallelism() << 2;
 
+    /**
+     * Shift of the target leaf size giving the smallest leaf into which a
+     * task is split while other workers are starved.  Uneven per-element
+     * cost leaves workers idle while others still hold large portions; those
+     * portions are then split further, down to an eighth of the target
+     * size, instead of running as stragglers.
+     */
+    static final int ADAPTIVE_SPLIT_SHIFT = 3;
+
     /** The pipeline helper, common to all tasks in a computation */
     protected final PipelineHelper<P_OUT> helper;
 
@@ -176,15 +186,32 @@ abstract class AbstractTask<P_IN, P_OUT, R,
     protected abstract R doLeaf();
 
     /**
-     * Returns a suggested target leaf size based on the initial size estimate.
+     * Returns a suggested target leaf size based on the initial size estimate
+     * and the parallelism of the pool the current thread operates in.
      *
      * @return suggested target leaf size
      */
     public static long suggestTargetSize(long sizeEstimate) {
-        long est = sizeEstimate / LEAF_TARGET;
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        int leafTarget = (pool == null || pool == ForkJoinPool.commonPool())
+                         ? LEAF_TARGET
+                         : pool.getParallelism() << 2;
+        long est = sizeEstimate / leafTarget;
         return est > 0L ? est : 1L;
     }
 
+    /**
+     * Returns the target leaf size requested for the pipeline, if any,
+     * otherwise a suggested target leaf size based on the initial size
+     * estimate.
+     *
+     * @return target leaf size
+     */
+    static long suggestTargetSize(PipelineHelper<?> helper, long sizeEstimate) {
+        long size = helper.getLeafSize();
+        return size > 0L ? size : suggestTargetSize(sizeEstimate);
+    }
+
     /**
      * Returns the targetSize, initializing it via the supplied
      * size estimate if not already initialized.
@@ -192,7 +219,31 @@ abstract class AbstractTask<P_IN, P_OUT, R,
     protected final long getTargetSize(long sizeEstimate) {
         long s;
         return ((s = targetSize) != 0 ? s :
-                (targetSize = suggestTargetSize(sizeEstimate)));
+                (targetSize = suggestTargetSize(helper, sizeEstimate)));
+    }
+
+    /**
+     * Returns the smallest size into which a task of the given target leaf
+     * size is split while other workers are starved, being the target leaf
+     * size itself if requested for the pipeline.
+     */
+    static long adaptiveSplitSize(PipelineHelper<?> helper, long sizeThreshold) {
+        return helper.getLeafSize() > 0L
+               ? sizeThreshold
+               : Math.max(1L, sizeThreshold >>> ADAPTIVE_SPLIT_SHIFT);
+    }
+
+    /**
+     * Returns true if a task of the given size should be split: either it is
+     * larger than the target leaf size, or it is larger than the adaptive
+     * split size and the current worker holds no queued tasks beyond those
+     * other, idle, workers could steal.
+     */
+    static boolean shouldSplit(long sizeEstimate, long sizeThreshold, long minSize) {
+        return sizeEstimate > sizeThreshold
+               || (sizeEstimate > minSize
+                   && ForkJoinTask.inForkJoinPool()
+                   && ForkJoinTask.getSurplusQueuedTaskCount() <= 0);
     }
 
     /**
@@ -285,16 +336,19 @@ abstract class AbstractTask<P_IN, P_OUT, R,
      * when split, to avoid deep recursion. To cope with spliterators
      * that may be systematically biased toward left-heavy or
      * right-heavy splits, we alternate which child is forked versus
-     * continued in the loop.
+     * continued in the loop.  Once the target leaf size is reached, splitting
+     * continues only while other workers are starved for tasks, see
+     * {@link #shouldSplit}.
      */
     @Override
     public void compute() {
         Spliterator<P_IN> rs = spliterator, ls; // right, left spliterators
         long sizeEstimate = rs.estimateSize();
         long sizeThreshold = getTargetSize(sizeEstimate);
+        long minSize = adaptiveSplitSize(helper, sizeThreshold);
         boolean forkRight = false;
         @SuppressWarnings("unchecked") K task = (K) this;
-        while (sizeEstimate > sizeThreshold && (ls = rs.trySplit()) != null) {
+        while (shouldSplit(sizeEstimate, sizeThreshold, minSize) && (ls = rs.trySplit()) != null) {
             K leftChild, rightChild, taskToFork;
             task.leftChild  = leftChild = task.makeChild(ls);
             task.rightChild = rightChild = task.makeChild(rs);
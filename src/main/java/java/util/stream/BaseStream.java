@@ -29,8 +29,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
@@ -116,6 +118,61 @@ public interface BaseStream<T, S extends BaseStream<T, S>>
      */
     S parallel();
 
+    /**
+     * Returns an equivalent stream that is parallel and whose parallel
+     * operations execute in the given {@code ForkJoinPool} rather than in the
+     * {@link ForkJoinPool#commonPool() common pool}.  Leaf tasks are sized for
+     * the parallelism of the given pool.
+     *
+     * <p>This is an <a href="package-summary.html#StreamOps">intermediate
+     * operation</a>.
+     *
+     * @apiNote
+     * Dedicated pools keep long running batch pipelines from starving latency
+     * sensitive pipelines that share the common pool.
+     *
+     * @implSpec
+     * The default implementation returns {@link #parallel()}, whose parallel
+     * operations execute in the common pool.
+     *
+     * @param pool the pool in which parallel operations execute
+     * @return a parallel stream
+     * @throws NullPointerException if {@code pool} is null
+     * @since 9
+     */
+    default S parallel(ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        return parallel();
+    }
+
+    /**
+     * Returns an equivalent stream whose parallel operations stop splitting
+     * their source once a portion holds at most {@code size} elements.  By
+     * default the leaf size is derived from the size of the source and the
+     * parallelism of the executing pool, assuming elements of uniform cost.
+     * Pipelines whose per-element cost is high or uneven may request smaller
+     * leaves.  Has no effect on sequential streams.
+     *
+     * <p>This is an <a href="package-summary.html#StreamOps">intermediate
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation checks {@code size} and returns this stream,
+     * ignoring the requested leaf size.
+     *
+     * @param size the target number of elements processed by a leaf task, or
+     *        {@code 0} to restore the default
+     * @return a stream with the given target leaf size
+     * @throws IllegalArgumentException if {@code size} is negative
+     * @since 9
+     */
+    @SuppressWarnings("unchecked")
+    default S leafSize(long size) {
+        if (size < 0)
+            throw new IllegalArgumentException(Long.toString(size));
+        return (S) this;
+    }
+
     /**
      * Returns an equivalent stream that is
      * <a href="package-summary.html#Ordering">unordered</a>.  May return
@@ -385,6 +385,34 @@ abstract class IntPipeline<E_IN>
             return SliceOps.makeInt(this, n, -1);
     }
 
+    @Override
+    public final Stream<int[]> windowFixed(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        return WindowOps.makeInt(this, size, size, false);
+    }
+
+    @Override
+    public final Stream<int[]> windowSliding(int size, int step) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        if (step <= 0)
+            throw new IllegalArgumentException(Integer.toString(step));
+        return WindowOps.makeInt(this, size, step, false);
+    }
+
+    @Override
+    public final Stream<int[]> chunked(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        return WindowOps.makeInt(this, size, size, true);
+    }
+
+    @Override
+    public final IntStream scan(int identity, IntBinaryOperator accumulator) {
+        return WindowOps.makeIntScan(this, identity, accumulator);
+    }
+
     @Override
     public final IntStream sorted() {
         return SortedOps.makeInt(this);
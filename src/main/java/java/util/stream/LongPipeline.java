@@ -366,6 +366,34 @@ abstract class LongPipeline<E_IN>
             return SliceOps.makeLong(this, n, -1);
     }
 
+    @Override
+    public final Stream<long[]> windowFixed(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        return WindowOps.makeLong(this, size, size, false);
+    }
+
+    @Override
+    public final Stream<long[]> windowSliding(int size, int step) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        if (step <= 0)
+            throw new IllegalArgumentException(Integer.toString(step));
+        return WindowOps.makeLong(this, size, step, false);
+    }
+
+    @Override
+    public final Stream<long[]> chunked(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        return WindowOps.makeLong(this, size, size, true);
+    }
+
+    @Override
+    public final LongStream scan(long identity, LongBinaryOperator accumulator) {
+        return WindowOps.makeLongScan(this, identity, accumulator);
+    }
+
     @Override
     public final LongStream sorted() {
         return SortedOps.makeLong(this);
@@ -71,6 +71,16 @@ abstract class PipelineHelper<P_OUT> {
      */
     abstract int getStreamAndOpFlags();
 
+    /**
+     * Gets the target number of elements processed by a leaf task of a
+     * parallel evaluation of the pipeline, as requested by
+     * {@link BaseStream#leafSize(long)}.
+     *
+     * @return the target leaf size, or {@code 0} if it is to be derived from
+     *         the size of the source
+     */
+    abstract long getLeafSize();
+
     /**
      * Returns the exact output size of the portion of the output resulting from
      * applying the pipeline stages described by this {@code PipelineHelper} to
@@ -26,6 +26,7 @@ package java.util.stream;
 
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Spliterator;
@@ -411,6 +412,34 @@ abstract class ReferencePipeline<P_IN, P_OUT>
             return SliceOps.makeRef(this, n, -1);
     }
 
+    @Override
+    public final Stream<List<P_OUT>> windowFixed(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        return WindowOps.makeRef(this, size, size, false);
+    }
+
+    @Override
+    public final Stream<List<P_OUT>> windowSliding(int size, int step) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        if (step <= 0)
+            throw new IllegalArgumentException(Integer.toString(step));
+        return WindowOps.makeRef(this, size, step, false);
+    }
+
+    @Override
+    public final Stream<List<P_OUT>> chunked(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        return WindowOps.makeRef(this, size, size, true);
+    }
+
+    @Override
+    public final Stream<P_OUT> scan(P_OUT identity, BinaryOperator<P_OUT> accumulator) {
+        return WindowOps.makeRefScan(this, identity, accumulator);
+    }
+
     // Terminal operations from Stream
 
     @Override
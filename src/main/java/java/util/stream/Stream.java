@@ -31,6 +31,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Spliterator;
@@ -478,6 +479,121 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     Stream<T> skip(long n);
 
+    /**
+     * Returns a stream consisting of consecutive, non-overlapping windows of
+     * {@code size} elements of this stream, in encounter order.  Trailing
+     * elements that do not fill a complete window are discarded.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.  Sequential pipelines buffer at most one
+     * window, so it may be applied to infinite streams.
+     *
+     * @implSpec
+     * The default implementation collects the windows from the
+     * {@link #spliterator() spliterator} of this stream in encounter
+     * order, buffering at most one window.  The returned stream is
+     * parallel if this stream is, and closing it closes this stream.
+     *
+     * @param size the number of elements in each window
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code size} is not positive
+     * @since 9
+     */
+    default Stream<List<T>> windowFixed(int size) {
+        return WindowOps.windows(this, size, size, false);
+    }
+
+    /**
+     * Returns a stream consisting of windows of {@code size} consecutive
+     * elements of this stream, a new window starting at every
+     * {@code step}-th element in encounter order.  Windows overlap if
+     * {@code step < size} and elements between windows are discarded if
+     * {@code step > size}.  Trailing elements that do not fill a complete
+     * window are discarded.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote
+     * For example, the moving averages over five elements of a
+     * {@code Stream<Double> doubles} can be computed with:
+     * <pre>{@code
+     *     DoubleStream averages = doubles.windowSliding(5, 1)
+     *         .mapToDouble(w -> w.stream().mapToDouble(Double::doubleValue).average().getAsDouble());
+     * }</pre>
+     *
+     * @implSpec
+     * The default implementation collects the windows from the
+     * {@link #spliterator() spliterator} of this stream in encounter
+     * order, buffering at most one window.  The returned stream is
+     * parallel if this stream is, and closing it closes this stream.
+     *
+     * @param size the number of elements in each window
+     * @param step the number of elements between the first elements of two
+     *        consecutive windows
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code size} or {@code step} is
+     *         not positive
+     * @since 9
+     */
+    default Stream<List<T>> windowSliding(int size, int step) {
+        return WindowOps.windows(this, size, step, false);
+    }
+
+    /**
+     * Returns a stream consisting of consecutive, non-overlapping chunks of
+     * {@code size} elements of this stream, in encounter order.  Unlike
+     * {@link #windowFixed(int)}, the last chunk holds the remaining elements
+     * if they do not fill a complete chunk.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @implSpec
+     * The default implementation collects the chunks from the
+     * {@link #spliterator() spliterator} of this stream in encounter
+     * order, buffering at most one chunk.  The returned stream is
+     * parallel if this stream is, and closing it closes this stream.
+     *
+     * @param size the maximum number of elements in each chunk
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code size} is not positive
+     * @since 9
+     */
+    default Stream<List<T>> chunked(int size) {
+        return WindowOps.windows(this, size, size, true);
+    }
+
+    /**
+     * Returns a stream consisting of the running accumulation of the
+     * elements of this stream, using the provided identity value and an
+     * <a href="package-summary.html#Associativity">associative</a>
+     * accumulation function.  The n-th element of the new stream is
+     * {@code accumulator.apply(...accumulator.apply(identity, e0)..., en)}.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.  Parallel pipelines of known size compute
+     * the accumulation with a parallel prefix, which requires that
+     * {@code identity} is an identity for {@code accumulator}.
+     *
+     * @implSpec
+     * The default implementation accumulates the elements of the
+     * {@link #spliterator() spliterator} of this stream in encounter
+     * order.  The returned stream is parallel if this stream is, and
+     * closing it closes this stream.
+     *
+     * @param identity the identity value for the accumulating function
+     * @param accumulator an <a href="package-summary.html#Associativity">associative</a>,
+     *                    <a href="package-summary.html#NonInterference">non-interfering</a>,
+     *                    <a href="package-summary.html#Statelessness">stateless</a>
+     *                    function for combining two values
+     * @return the new stream
+     * @since 9
+     */
+    default Stream<T> scan(T identity, BinaryOperator<T> accumulator) {
+        return WindowOps.scan(this, identity, accumulator);
+    }
+
     /**
      * Performs an action for each element of this stream.
      *
@@ -0,0 +1,1019 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+
+/**
+ * Factory for instances of stateful intermediate operations that group
+ * consecutive elements of a stream into windows, or that produce the running
+ * accumulation (scan) of the elements of a stream.
+ *
+ * <p>A window of {@code size} elements starts at every {@code step}-th element
+ * in encounter order.  Windows may therefore overlap ({@code step < size}),
+ * abut ({@code step == size}) or leave gaps ({@code step > size}).  Only the
+ * last window of a chunked stream may hold fewer than {@code size} elements.
+ *
+ * <p>Sequential evaluation never buffers more than one window, so these
+ * operations may be applied to infinite streams.  Parallel evaluation of a
+ * stream whose size is known collects the upstream elements into an array and
+ * splits the window indices over it; otherwise windows are pulled in encounter
+ * order and handed out in batches.
+ *
+ * @since 9
+ */
+final class WindowOps {
+
+    // No instances
+    private WindowOps() { }
+
+    /**
+     * Flags for window operations: the number and kind of the elements
+     * changes, encounter order is preserved.
+     */
+    private static final int WINDOW_FLAGS = StreamOpFlag.NOT_SIZED
+                                            | StreamOpFlag.NOT_SORTED
+                                            | StreamOpFlag.NOT_DISTINCT;
+
+    /**
+     * Flags for scan operations: size preserving, encounter order preserving.
+     */
+    private static final int SCAN_FLAGS = StreamOpFlag.NOT_SORTED
+                                          | StreamOpFlag.NOT_DISTINCT;
+
+    /**
+     * Calculates the number of windows over {@code count} elements.
+     *
+     * @param count the number of elements
+     * @param size the window size, assumed to be > 0
+     * @param step the distance between the first elements of two consecutive
+     *        windows, assumed to be > 0
+     * @param partial true if a trailing window with fewer than {@code size}
+     *        elements is reported, assumed to imply {@code size == step}
+     * @return the number of windows
+     */
+    static int windowCount(long count, int size, int step, boolean partial) {
+        long windows;
+        if (partial)
+            windows = (count + step - 1) / step;
+        else
+            windows = count < size ? 0 : (count - size) / step + 1;
+        if (windows >= Nodes.MAX_ARRAY_SIZE)
+            throw new IllegalArgumentException(Nodes.BAD_SIZE);
+        return (int) windows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asWindow(Object[] window) {
+        return Collections.unmodifiableList(Arrays.asList((T[]) window));
+    }
+
+    private static void checkWindow(int size, int step) {
+        if (size <= 0)
+            throw new IllegalArgumentException(Integer.toString(size));
+        if (step <= 0)
+            throw new IllegalArgumentException(Integer.toString(step));
+    }
+
+    // Default implementations for streams that are not pipelines
+
+    /**
+     * Returns a stream of the windows of the provided stream, pulled from
+     * its spliterator.
+     *
+     * @param <T> the type of the input elements
+     * @param upstream a reference stream with element type T
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of two windows
+     * @param partial true if a trailing partial window is reported
+     */
+    static <T> Stream<List<T>> windows(Stream<T> upstream,
+                                       int size, int step, boolean partial) {
+        checkWindow(size, step);
+        return StreamSupport.stream(new RefWindowSpliterator<>(upstream.spliterator(),
+                                                               size, step, partial),
+                                    upstream.isParallel())
+                            .onClose(upstream::close);
+    }
+
+    /**
+     * Returns a stream of the windows of the provided int stream, pulled
+     * from its spliterator.
+     */
+    static Stream<int[]> windows(IntStream upstream,
+                                 int size, int step, boolean partial) {
+        checkWindow(size, step);
+        return StreamSupport.stream(new IntWindowSpliterator(upstream.spliterator(),
+                                                             size, step, partial),
+                                    upstream.isParallel())
+                            .onClose(upstream::close);
+    }
+
+    /**
+     * Returns a stream of the windows of the provided long stream, pulled
+     * from its spliterator.
+     */
+    static Stream<long[]> windows(LongStream upstream,
+                                  int size, int step, boolean partial) {
+        checkWindow(size, step);
+        return StreamSupport.stream(new LongWindowSpliterator(upstream.spliterator(),
+                                                              size, step, partial),
+                                    upstream.isParallel())
+                            .onClose(upstream::close);
+    }
+
+    /**
+     * Returns a stream of the running accumulation of the provided stream,
+     * pulled from its spliterator.
+     */
+    static <T> Stream<T> scan(Stream<T> upstream,
+                              T identity, BinaryOperator<T> accumulator) {
+        Objects.requireNonNull(accumulator);
+        return StreamSupport.stream(new RefScanSpliterator<>(upstream.spliterator(),
+                                                             identity, accumulator),
+                                    upstream.isParallel())
+                            .onClose(upstream::close);
+    }
+
+    /**
+     * Returns a stream of the running accumulation of the provided int
+     * stream, pulled from its spliterator.
+     */
+    static IntStream scan(IntStream upstream,
+                          int identity, IntBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator);
+        return StreamSupport.intStream(new IntScanSpliterator(upstream.spliterator(),
+                                                              identity, accumulator),
+                                       upstream.isParallel())
+                            .onClose(upstream::close);
+    }
+
+    /**
+     * Returns a stream of the running accumulation of the provided long
+     * stream, pulled from its spliterator.
+     */
+    static LongStream scan(LongStream upstream,
+                           long identity, LongBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator);
+        return StreamSupport.longStream(new LongScanSpliterator(upstream.spliterator(),
+                                                                identity, accumulator),
+                                        upstream.isParallel())
+                            .onClose(upstream::close);
+    }
+
+    /**
+     * Appends a window operation to the provided stream.
+     *
+     * @param <T> the type of the input elements
+     * @param upstream a reference stream with element type T
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of two windows
+     * @param partial true if a trailing partial window is reported
+     */
+    static <T> Stream<List<T>> makeRef(AbstractPipeline<?, T, ?> upstream,
+                                       int size, int step, boolean partial) {
+        return new ReferencePipeline.StatefulOp<T, List<T>>(upstream, StreamShape.REFERENCE,
+                                                            WINDOW_FLAGS) {
+            @Override
+            Sink<T> opWrapSink(int flags, Sink<List<T>> sink) {
+                return new Sink.ChainedReference<T, List<T>>(sink) {
+                    final RefWindower w = new RefWindower(size, step, partial);
+
+                    @Override
+                    public void begin(long size) {
+                        w.clear();
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(T t) {
+                        if (w.add(t))
+                            downstream.accept(WindowOps.<T>asWindow(w.take()));
+                    }
+
+                    @Override
+                    public void end() {
+                        Object[] rest = w.takeRemaining();
+                        if (rest != null && !downstream.cancellationRequested())
+                            downstream.accept(WindowOps.<T>asWindow(rest));
+                        downstream.end();
+                    }
+                };
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            <P_IN> Node<List<T>> opEvaluateParallel(PipelineHelper<List<T>> helper,
+                                                    Spliterator<P_IN> spliterator,
+                                                    IntFunction<List<T>[]> generator) {
+                // The helper describes the upstream stages and so produces T
+                PipelineHelper<T> h = (PipelineHelper<T>) (PipelineHelper<?>) helper;
+                Object[] array = h.evaluate(spliterator, true, n -> (T[]) new Object[n])
+                                  .asArray(n -> (T[]) new Object[n]);
+                List<T>[] windows = generator.apply(windowCount(array.length, size, step, partial));
+                Arrays.parallelSetAll(windows, WindowOps.<T>refWindows(array, size, step)::apply);
+                return Nodes.node(windows);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            <P_IN> Spliterator<List<T>> opEvaluateParallelLazy(PipelineHelper<List<T>> helper,
+                                                               Spliterator<P_IN> spliterator) {
+                PipelineHelper<T> h = (PipelineHelper<T>) (PipelineHelper<?>) helper;
+                if (StreamOpFlag.SIZED.isKnown(h.getStreamAndOpFlags())) {
+                    Object[] array = h.evaluate(spliterator, true, n -> (T[]) new Object[n])
+                                      .asArray(n -> (T[]) new Object[n]);
+                    return new IndexedWindowSpliterator<>(WindowOps.<T>refWindows(array, size, step), 0,
+                                                          windowCount(array.length, size, step, partial));
+                }
+                else {
+                    // Unknown, possibly infinite, size; retain bounded memory
+                    return new RefWindowSpliterator<>(h.wrapSpliterator(spliterator),
+                                                      size, step, partial);
+                }
+            }
+        };
+    }
+
+    /**
+     * Appends a window operation to the provided int stream.
+     *
+     * @param upstream an int stream
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of two windows
+     * @param partial true if a trailing partial window is reported
+     */
+    static Stream<int[]> makeInt(AbstractPipeline<?, Integer, ?> upstream,
+                                 int size, int step, boolean partial) {
+        return new ReferencePipeline.StatefulOp<Integer, int[]>(upstream, StreamShape.INT_VALUE,
+                                                                WINDOW_FLAGS) {
+            @Override
+            Sink<Integer> opWrapSink(int flags, Sink<int[]> sink) {
+                return new Sink.ChainedInt<int[]>(sink) {
+                    final IntWindower w = new IntWindower(size, step, partial);
+
+                    @Override
+                    public void begin(long size) {
+                        w.clear();
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(int t) {
+                        if (w.add(t))
+                            downstream.accept(w.take());
+                    }
+
+                    @Override
+                    public void end() {
+                        int[] rest = w.takeRemaining();
+                        if (rest != null && !downstream.cancellationRequested())
+                            downstream.accept(rest);
+                        downstream.end();
+                    }
+                };
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            <P_IN> Node<int[]> opEvaluateParallel(PipelineHelper<int[]> helper,
+                                                  Spliterator<P_IN> spliterator,
+                                                  IntFunction<int[][]> generator) {
+                PipelineHelper<Integer> h = (PipelineHelper<Integer>) (PipelineHelper<?>) helper;
+                int[] array = ((Node.OfInt) h.evaluate(spliterator, true, Integer[]::new)).asPrimitiveArray();
+                int[][] windows = generator.apply(windowCount(array.length, size, step, partial));
+                Arrays.parallelSetAll(windows, intWindows(array, size, step)::apply);
+                return Nodes.node(windows);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            <P_IN> Spliterator<int[]> opEvaluateParallelLazy(PipelineHelper<int[]> helper,
+                                                             Spliterator<P_IN> spliterator) {
+                PipelineHelper<Integer> h = (PipelineHelper<Integer>) (PipelineHelper<?>) helper;
+                if (StreamOpFlag.SIZED.isKnown(h.getStreamAndOpFlags())) {
+                    int[] array = ((Node.OfInt) h.evaluate(spliterator, true, Integer[]::new)).asPrimitiveArray();
+                    return new IndexedWindowSpliterator<>(intWindows(array, size, step), 0,
+                                                          windowCount(array.length, size, step, partial));
+                }
+                else {
+                    return new IntWindowSpliterator((Spliterator.OfInt) h.wrapSpliterator(spliterator),
+                                                    size, step, partial);
+                }
+            }
+        };
+    }
+
+    /**
+     * Appends a window operation to the provided long stream.
+     *
+     * @param upstream a long stream
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of two windows
+     * @param partial true if a trailing partial window is reported
+     */
+    static Stream<long[]> makeLong(AbstractPipeline<?, Long, ?> upstream,
+                                   int size, int step, boolean partial) {
+        return new ReferencePipeline.StatefulOp<Long, long[]>(upstream, StreamShape.LONG_VALUE,
+                                                              WINDOW_FLAGS) {
+            @Override
+            Sink<Long> opWrapSink(int flags, Sink<long[]> sink) {
+                return new Sink.ChainedLong<long[]>(sink) {
+                    final LongWindower w = new LongWindower(size, step, partial);
+
+                    @Override
+                    public void begin(long size) {
+                        w.clear();
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(long t) {
+                        if (w.add(t))
+                            downstream.accept(w.take());
+                    }
+
+                    @Override
+                    public void end() {
+                        long[] rest = w.takeRemaining();
+                        if (rest != null && !downstream.cancellationRequested())
+                            downstream.accept(rest);
+                        downstream.end();
+                    }
+                };
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            <P_IN> Node<long[]> opEvaluateParallel(PipelineHelper<long[]> helper,
+                                                   Spliterator<P_IN> spliterator,
+                                                   IntFunction<long[][]> generator) {
+                PipelineHelper<Long> h = (PipelineHelper<Long>) (PipelineHelper<?>) helper;
+                long[] array = ((Node.OfLong) h.evaluate(spliterator, true, Long[]::new)).asPrimitiveArray();
+                long[][] windows = generator.apply(windowCount(array.length, size, step, partial));
+                Arrays.parallelSetAll(windows, longWindows(array, size, step)::apply);
+                return Nodes.node(windows);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            <P_IN> Spliterator<long[]> opEvaluateParallelLazy(PipelineHelper<long[]> helper,
+                                                              Spliterator<P_IN> spliterator) {
+                PipelineHelper<Long> h = (PipelineHelper<Long>) (PipelineHelper<?>) helper;
+                if (StreamOpFlag.SIZED.isKnown(h.getStreamAndOpFlags())) {
+                    long[] array = ((Node.OfLong) h.evaluate(spliterator, true, Long[]::new)).asPrimitiveArray();
+                    return new IndexedWindowSpliterator<>(longWindows(array, size, step), 0,
+                                                          windowCount(array.length, size, step, partial));
+                }
+                else {
+                    return new LongWindowSpliterator((Spliterator.OfLong) h.wrapSpliterator(spliterator),
+                                                     size, step, partial);
+                }
+            }
+        };
+    }
+
+    /**
+     * Appends a "scan" operation to the provided stream.
+     *
+     * @param <T> the type of both input and output elements
+     * @param upstream a reference stream with element type T
+     * @param identity the identity value for the accumulating function
+     * @param accumulator an associative, non-interfering, stateless function
+     *        for combining two values
+     */
+    static <T> Stream<T> makeRefScan(AbstractPipeline<?, T, ?> upstream,
+                                     T identity, BinaryOperator<T> accumulator) {
+        Objects.requireNonNull(accumulator);
+        return new ReferencePipeline.StatefulOp<T, T>(upstream, StreamShape.REFERENCE,
+                                                      SCAN_FLAGS) {
+            @Override
+            Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                return new Sink.ChainedReference<T, T>(sink) {
+                    T state;
+
+                    @Override
+                    public void begin(long size) {
+                        state = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(T t) {
+                        downstream.accept(state = accumulator.apply(state, t));
+                    }
+
+                    @Override
+                    public void end() {
+                        state = null;
+                        downstream.end();
+                    }
+                };
+            }
+
+            @Override
+            <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper,
+                                              Spliterator<P_IN> spliterator,
+                                              IntFunction<T[]> generator) {
+                T[] array = helper.evaluate(spliterator, true, generator).asArray(generator);
+                if (array.length > 0) {
+                    array[0] = accumulator.apply(identity, array[0]);
+                    Arrays.parallelPrefix(array, accumulator);
+                }
+                return Nodes.node(array);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            <P_IN> Spliterator<T> opEvaluateParallelLazy(PipelineHelper<T> helper,
+                                                         Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.SIZED.isKnown(helper.getStreamAndOpFlags()))
+                    return opEvaluateParallel(helper, spliterator, n -> (T[]) new Object[n]).spliterator();
+                else
+                    return new RefScanSpliterator<>(helper.wrapSpliterator(spliterator),
+                                                    identity, accumulator);
+            }
+        };
+    }
+
+    /**
+     * Appends a "scan" operation to the provided int stream.
+     *
+     * @param upstream an int stream
+     * @param identity the identity value for the accumulating function
+     * @param accumulator an associative, non-interfering, stateless function
+     *        for combining two values
+     */
+    static IntStream makeIntScan(AbstractPipeline<?, Integer, ?> upstream,
+                                 int identity, IntBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator);
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE,
+                                                   SCAN_FLAGS) {
+            @Override
+            Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                return new Sink.ChainedInt<Integer>(sink) {
+                    int state;
+
+                    @Override
+                    public void begin(long size) {
+                        state = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(int t) {
+                        downstream.accept(state = accumulator.applyAsInt(state, t));
+                    }
+                };
+            }
+
+            @Override
+            <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper,
+                                                    Spliterator<P_IN> spliterator,
+                                                    IntFunction<Integer[]> generator) {
+                int[] array = ((Node.OfInt) helper.evaluate(spliterator, true, generator)).asPrimitiveArray();
+                if (array.length > 0) {
+                    array[0] = accumulator.applyAsInt(identity, array[0]);
+                    Arrays.parallelPrefix(array, accumulator);
+                }
+                return Nodes.node(array);
+            }
+
+            @Override
+            <P_IN> Spliterator<Integer> opEvaluateParallelLazy(PipelineHelper<Integer> helper,
+                                                               Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.SIZED.isKnown(helper.getStreamAndOpFlags()))
+                    return opEvaluateParallel(helper, spliterator, Integer[]::new).spliterator();
+                else
+                    return new IntScanSpliterator((Spliterator.OfInt) helper.wrapSpliterator(spliterator),
+                                                  identity, accumulator);
+            }
+        };
+    }
+
+    /**
+     * Appends a "scan" operation to the provided long stream.
+     *
+     * @param upstream a long stream
+     * @param identity the identity value for the accumulating function
+     * @param accumulator an associative, non-interfering, stateless function
+     *        for combining two values
+     */
+    static LongStream makeLongScan(AbstractPipeline<?, Long, ?> upstream,
+                                   long identity, LongBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator);
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE,
+                                                 SCAN_FLAGS) {
+            @Override
+            Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedLong<Long>(sink) {
+                    long state;
+
+                    @Override
+                    public void begin(long size) {
+                        state = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(long t) {
+                        downstream.accept(state = accumulator.applyAsLong(state, t));
+                    }
+                };
+            }
+
+            @Override
+            <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper,
+                                                 Spliterator<P_IN> spliterator,
+                                                 IntFunction<Long[]> generator) {
+                long[] array = ((Node.OfLong) helper.evaluate(spliterator, true, generator)).asPrimitiveArray();
+                if (array.length > 0) {
+                    array[0] = accumulator.applyAsLong(identity, array[0]);
+                    Arrays.parallelPrefix(array, accumulator);
+                }
+                return Nodes.node(array);
+            }
+
+            @Override
+            <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper,
+                                                            Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.SIZED.isKnown(helper.getStreamAndOpFlags()))
+                    return opEvaluateParallel(helper, spliterator, Long[]::new).spliterator();
+                else
+                    return new LongScanSpliterator((Spliterator.OfLong) helper.wrapSpliterator(spliterator),
+                                                   identity, accumulator);
+            }
+        };
+    }
+
+    // Random access windows over collected elements
+
+    private static <T> IntFunction<List<T>> refWindows(Object[] array, int size, int step) {
+        return i -> {
+            int from = i * step;
+            return WindowOps.<T>asWindow(Arrays.copyOfRange(array, from, Math.min(from + size, array.length)));
+        };
+    }
+
+    private static IntFunction<int[]> intWindows(int[] array, int size, int step) {
+        return i -> {
+            int from = i * step;
+            return Arrays.copyOfRange(array, from, Math.min(from + size, array.length));
+        };
+    }
+
+    private static IntFunction<long[]> longWindows(long[] array, int size, int step) {
+        return i -> {
+            int from = i * step;
+            return Arrays.copyOfRange(array, from, Math.min(from + size, array.length));
+        };
+    }
+
+    /**
+     * A spliterator over a range of window indices, each window being copied
+     * out of the collected upstream elements on traversal.  Splits the index
+     * range in half, so overlapping windows may be reported by different
+     * threads.
+     *
+     * @param <R> the type of windows
+     */
+    static final class IndexedWindowSpliterator<R> implements Spliterator<R> {
+        private final IntFunction<? extends R> windowAt;
+        private int index;        // current index, modified on advance/split
+        private final int fence;  // one past last index
+
+        IndexedWindowSpliterator(IntFunction<? extends R> windowAt, int origin, int fence) {
+            this.windowAt = windowAt;
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public Spliterator<R> trySplit() {
+            int lo = index, mid = (lo + fence) >>> 1;
+            return (lo >= mid)
+                   ? null
+                   : new IndexedWindowSpliterator<>(windowAt, lo, index = mid);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            Objects.requireNonNull(action);
+            int i = index, hi = fence;
+            index = hi;
+            for (; i < hi; i++)
+                action.accept(windowAt.apply(i));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                action.accept(windowAt.apply(index++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+                   | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+        }
+    }
+
+    // Window buffers
+
+    /**
+     * Buffers the elements of the current window.  Once a window is full it is
+     * copied out and the buffer slides forward by {@code step} elements,
+     * retaining the elements shared with the next window and skipping the
+     * elements between windows.
+     *
+     * @param <A> the type of the buffer array
+     */
+    private static abstract class Windower<A> {
+        final int size;
+        final int step;
+        final boolean partial;
+        final A buffer;
+        int count;   // number of buffered elements
+        int skip;    // number of elements to drop before buffering resumes
+
+        Windower(int size, int step, boolean partial, A buffer) {
+            this.size = size;
+            this.step = step;
+            this.partial = partial;
+            this.buffer = buffer;
+        }
+
+        abstract A copyOf(A array, int length);
+
+        /**
+         * Returns the buffer index at which the next element is stored, or
+         * -1 if the element falls between two windows.
+         */
+        final int next() {
+            if (skip > 0) {
+                skip--;
+                return -1;
+            }
+            return count++;
+        }
+
+        final boolean isFull() {
+            return count == size;
+        }
+
+        /**
+         * Copies out the current full window and slides the buffer.
+         */
+        final A take() {
+            A window = copyOf(buffer, count);
+            int drop = Math.min(step, count);
+            System.arraycopy(buffer, drop, buffer, 0, count - drop);
+            count -= drop;
+            skip = step - drop;
+            return window;
+        }
+
+        /**
+         * Copies out the trailing partial window, if any and if reported.
+         */
+        final A takeRemaining() {
+            if (!partial || count == 0)
+                return null;
+            A window = copyOf(buffer, count);
+            count = 0;
+            return window;
+        }
+
+        final void clear() {
+            count = 0;
+            skip = 0;
+        }
+    }
+
+    private static final class RefWindower extends Windower<Object[]> {
+        RefWindower(int size, int step, boolean partial) {
+            super(size, step, partial, new Object[size]);
+        }
+
+        @Override
+        Object[] copyOf(Object[] array, int length) {
+            return Arrays.copyOf(array, length);
+        }
+
+        boolean add(Object t) {
+            int i = next();
+            if (i >= 0)
+                buffer[i] = t;
+            return isFull();
+        }
+    }
+
+    private static final class IntWindower extends Windower<int[]> {
+        IntWindower(int size, int step, boolean partial) {
+            super(size, step, partial, new int[size]);
+        }
+
+        @Override
+        int[] copyOf(int[] array, int length) {
+            return Arrays.copyOf(array, length);
+        }
+
+        boolean add(int t) {
+            int i = next();
+            if (i >= 0)
+                buffer[i] = t;
+            return isFull();
+        }
+    }
+
+    private static final class LongWindower extends Windower<long[]> {
+        LongWindower(int size, int step, boolean partial) {
+            super(size, step, partial, new long[size]);
+        }
+
+        @Override
+        long[] copyOf(long[] array, int length) {
+            return Arrays.copyOf(array, length);
+        }
+
+        boolean add(long t) {
+            int i = next();
+            if (i >= 0)
+                buffer[i] = t;
+            return isFull();
+        }
+    }
+
+    // Spliterators pulling from sources of unknown size
+
+    private static long estimateWindows(Spliterator<?> s, int step) {
+        long est = s.estimateSize();
+        return est == Long.MAX_VALUE ? est : est / step;
+    }
+
+    /**
+     * Pulls windows from a reference spliterator of unknown size.  Splitting
+     * is inherited from {@link Spliterators.AbstractSpliterator}, copying
+     * batches of windows into arrays, so at most one window plus one batch is
+     * buffered at any time.
+     */
+    static final class RefWindowSpliterator<T> extends Spliterators.AbstractSpliterator<List<T>>
+            implements Consumer<T> {
+        private final Spliterator<T> s;
+        private final RefWindower w;
+        private boolean finished;
+
+        RefWindowSpliterator(Spliterator<T> s, int size, int step, boolean partial) {
+            super(estimateWindows(s, step),
+                  (s.characteristics() & Spliterator.ORDERED) | Spliterator.NONNULL);
+            this.s = s;
+            this.w = new RefWindower(size, step, partial);
+        }
+
+        @Override
+        public void accept(T t) {
+            w.add(t);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            Objects.requireNonNull(action);
+            while (!finished) {
+                if (!s.tryAdvance(this)) {
+                    finished = true;
+                    Object[] rest = w.takeRemaining();
+                    if (rest == null)
+                        return false;
+                    action.accept(WindowOps.<T>asWindow(rest));
+                    return true;
+                }
+                if (w.isFull()) {
+                    action.accept(WindowOps.<T>asWindow(w.take()));
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Pulls windows from an int spliterator of unknown size.
+     */
+    static final class IntWindowSpliterator extends Spliterators.AbstractSpliterator<int[]>
+            implements IntConsumer {
+        private final Spliterator.OfInt s;
+        private final IntWindower w;
+        private boolean finished;
+
+        IntWindowSpliterator(Spliterator.OfInt s, int size, int step, boolean partial) {
+            super(estimateWindows(s, step),
+                  (s.characteristics() & Spliterator.ORDERED) | Spliterator.NONNULL);
+            this.s = s;
+            this.w = new IntWindower(size, step, partial);
+        }
+
+        @Override
+        public void accept(int t) {
+            w.add(t);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            Objects.requireNonNull(action);
+            while (!finished) {
+                if (!s.tryAdvance(this)) {
+                    finished = true;
+                    int[] rest = w.takeRemaining();
+                    if (rest == null)
+                        return false;
+                    action.accept(rest);
+                    return true;
+                }
+                if (w.isFull()) {
+                    action.accept(w.take());
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Pulls windows from a long spliterator of unknown size.
+     */
+    static final class LongWindowSpliterator extends Spliterators.AbstractSpliterator<long[]>
+            implements LongConsumer {
+        private final Spliterator.OfLong s;
+        private final LongWindower w;
+        private boolean finished;
+
+        LongWindowSpliterator(Spliterator.OfLong s, int size, int step, boolean partial) {
+            super(estimateWindows(s, step),
+                  (s.characteristics() & Spliterator.ORDERED) | Spliterator.NONNULL);
+            this.s = s;
+            this.w = new LongWindower(size, step, partial);
+        }
+
+        @Override
+        public void accept(long t) {
+            w.add(t);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super long[]> action) {
+            Objects.requireNonNull(action);
+            while (!finished) {
+                if (!s.tryAdvance(this)) {
+                    finished = true;
+                    long[] rest = w.takeRemaining();
+                    if (rest == null)
+                        return false;
+                    action.accept(rest);
+                    return true;
+                }
+                if (w.isFull()) {
+                    action.accept(w.take());
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Pulls running accumulations from a reference spliterator of unknown
+     * size.
+     */
+    static final class RefScanSpliterator<T> extends Spliterators.AbstractSpliterator<T>
+            implements Consumer<T> {
+        private final Spliterator<T> s;
+        private final BinaryOperator<T> accumulator;
+        private T state;
+
+        RefScanSpliterator(Spliterator<T> s, T identity, BinaryOperator<T> accumulator) {
+            super(s.estimateSize(), s.characteristics() & Spliterator.ORDERED);
+            this.s = s;
+            this.accumulator = accumulator;
+            this.state = identity;
+        }
+
+        @Override
+        public void accept(T t) {
+            state = accumulator.apply(state, t);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (!s.tryAdvance(this))
+                return false;
+            action.accept(state);
+            return true;
+        }
+    }
+
+    /**
+     * Pulls running accumulations from an int spliterator of unknown size.
+     */
+    static final class IntScanSpliterator extends Spliterators.AbstractIntSpliterator
+            implements IntConsumer {
+        private final Spliterator.OfInt s;
+        private final IntBinaryOperator accumulator;
+        private int state;
+
+        IntScanSpliterator(Spliterator.OfInt s, int identity, IntBinaryOperator accumulator) {
+            super(s.estimateSize(), s.characteristics() & Spliterator.ORDERED);
+            this.s = s;
+            this.accumulator = accumulator;
+            this.state = identity;
+        }
+
+        @Override
+        public void accept(int t) {
+            state = accumulator.applyAsInt(state, t);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (!s.tryAdvance(this))
+                return false;
+            action.accept(state);
+            return true;
+        }
+    }
+
+    /**
+     * Pulls running accumulations from a long spliterator of unknown size.
+     */
+    static final class LongScanSpliterator extends Spliterators.AbstractLongSpliterator
+            implements LongConsumer {
+        private final Spliterator.OfLong s;
+        private final LongBinaryOperator accumulator;
+        private long state;
+
+        LongScanSpliterator(Spliterator.OfLong s, long identity, LongBinaryOperator accumulator) {
+            super(s.estimateSize(), s.characteristics() & Spliterator.ORDERED);
+            this.s = s;
+            this.accumulator = accumulator;
+            this.state = identity;
+        }
+
+        @Override
+        public void accept(long t) {
+            state = accumulator.applyAsLong(state, t);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            if (!s.tryAdvance(this))
+                return false;
+            action.accept(state);
+            return true;
+        }
+    }
+}
@@ -134,6 +134,38 @@ class Adler32 implements Checksum {
         return (long)adler & 0xffffffffL;
     }
 
+    /**
+     * Returns the Adler-32 checksum of the concatenation of two byte
+     * sequences, given the checksum of each sequence and the length of the
+     * second one.  This lets the checksum of a large input be computed in
+     * parallel over its segments and then combined in order.
+     *
+     * @param adler1 the Adler-32 checksum of the first sequence
+     * @param adler2 the Adler-32 checksum of the second sequence
+     * @param len2 the length in bytes of the second sequence
+     * @return the Adler-32 checksum of the first sequence followed by the
+     *         second
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @since 9
+     */
+    public static long combine(long adler1, long adler2, long len2) {
+        if (len2 < 0) {
+            throw new IllegalArgumentException("len2 < 0");
+        }
+        // as zlib's adler32_combine()
+        final long BASE = 65521;        // largest prime smaller than 65536
+        long rem = len2 % BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (rem * sum1) % BASE;
+        sum1 += (adler2 & 0xffff) + BASE - 1;
+        sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + BASE - rem;
+        if (sum1 >= BASE) sum1 -= BASE;
+        if (sum1 >= BASE) sum1 -= BASE;
+        if (sum2 >= (BASE << 1)) sum2 -= (BASE << 1);
+        if (sum2 >= BASE) sum2 -= BASE;
+        return sum1 | (sum2 << 16);
+    }
+
     private native static int update(int adler, int b);
     private native static int updateBytes(int adler, byte[] b, int off,
                                           int len);
@@ -131,6 +131,24 @@ class CRC32 implements Checksum {
         return (long)crc & 0xffffffffL;
     }
 
+    /**
+     * Returns the CRC-32 of the concatenation of two byte sequences,
+     * given the CRC-32 of each sequence and the length of the second one.
+     * This lets the CRC-32 of a large input be computed in parallel over
+     * its segments, for example with a {@link CheckedInputStream} per
+     * segment, and then combined in order.
+     *
+     * @param crc1 the CRC-32 of the first sequence
+     * @param crc2 the CRC-32 of the second sequence
+     * @param len2 the length in bytes of the second sequence
+     * @return the CRC-32 of the first sequence followed by the second
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @since 9
+     */
+    public static long combine(long crc1, long crc2, long len2) {
+        return ZipUtils.crcCombine(0xedb88320, crc1, crc2, len2);
+    }
+
     private native static int update(int crc, int b);
     private native static int updateBytes(int crc, byte[] b, int off, int len);
 
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import sun.misc.Unsafe;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * A class that can be used to compute the CRC-32C of a data stream.
+ *
+ * <p> CRC-32C is defined in <a href="http://www.ietf.org/rfc/rfc3720.txt">RFC
+ * 3720</a>: Internet Small Computer Systems Interface (iSCSI).  It uses the
+ * Castagnoli polynomial, which detects more errors than the polynomial of
+ * {@link CRC32}.
+ *
+ * <p> The checksum is computed eight bytes at a time with the
+ * "slicing-by-8" table lookup, reading each eight bytes with a pair of
+ * aligned {@code int} loads from arrays and direct buffers alike.
+ *
+ * <p> Passing a {@code null} argument to a method in this class will cause
+ * a {@link NullPointerException} to be thrown.
+ *
+ * @see         Checksum
+ * @since 9
+ */
+public final class CRC32C implements Checksum {
+
+    /*
+     * The reflected Castagnoli polynomial
+     * x^32 + x^28 + x^27 + x^26 + x^25 + x^23 + x^22 + x^20 + x^19 + x^18
+     * + x^14 + x^13 + x^11 + x^10 + x^9 + x^8 + x^6 + 1
+     */
+    private static final int CRC32C_POLY = 0x82F63B78;
+
+    /*
+     * Table i, at [i << 8], holds the CRC of each byte value followed by i
+     * zero bytes.
+     */
+    private static final int[] TABLE = new int[8 * 256];
+
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+    private static final long ARRAY_BYTE_BASE_OFFSET =
+        Unsafe.ARRAY_BYTE_BASE_OFFSET;
+    private static final boolean BIG_ENDIAN =
+        ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            int crc = n;
+            for (int k = 0; k < 8; k++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ CRC32C_POLY : crc >>> 1;
+            }
+            TABLE[n] = crc;
+        }
+        for (int n = 0; n < 256; n++) {
+            int crc = TABLE[n];
+            for (int i = 1; i < 8; i++) {
+                crc = (crc >>> 8) ^ TABLE[crc & 0xff];
+                TABLE[(i << 8) + n] = crc;
+            }
+        }
+    }
+
+    // Calculated CRC-32C value, kept inverted
+    private int crc = 0xFFFFFFFF;
+
+    /**
+     * Creates a new CRC32C object.
+     */
+    public CRC32C() {
+    }
+
+    /**
+     * Updates the CRC-32C checksum with the specified byte (the low
+     * eight bits of the argument b).
+     *
+     * @param b the byte to update the checksum with
+     */
+    public void update(int b) {
+        crc = (crc >>> 8) ^ TABLE[(crc ^ b) & 0xff];
+    }
+
+    /**
+     * Updates the CRC-32C checksum with the specified array of bytes.
+     *
+     * @throws  ArrayIndexOutOfBoundsException
+     *          if {@code off} is negative, or {@code len} is negative,
+     *          or {@code off+len} is greater than the length of the
+     *          array {@code b}
+     */
+    public void update(byte[] b, int off, int len) {
+        if (b == null) {
+            throw new NullPointerException();
+        }
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        crc = updateBytes(crc, b, ARRAY_BYTE_BASE_OFFSET + off, len);
+    }
+
+    /**
+     * Updates the CRC-32C checksum with the specified array of bytes.
+     *
+     * @param b the array of bytes to update the checksum with
+     */
+    public void update(byte[] b) {
+        crc = updateBytes(crc, b, ARRAY_BYTE_BASE_OFFSET, b.length);
+    }
+
+    /**
+     * Updates the checksum with the bytes from the specified buffer.
+     *
+     * The checksum is updated using
+     * buffer.{@link java.nio.Buffer#remaining() remaining()}
+     * bytes starting at
+     * buffer.{@link java.nio.Buffer#position() position()}
+     * Upon return, the buffer's position will
+     * be updated to its limit; its limit will not have been changed.
+     *
+     * @param buffer the ByteBuffer to update the checksum with
+     */
+    public void update(ByteBuffer buffer) {
+        int pos = buffer.position();
+        int limit = buffer.limit();
+        assert (pos <= limit);
+        int rem = limit - pos;
+        if (rem <= 0)
+            return;
+        if (buffer instanceof DirectBuffer) {
+            crc = updateBytes(crc, null,
+                              ((DirectBuffer)buffer).address() + pos, rem);
+        } else if (buffer.hasArray()) {
+            crc = updateBytes(crc, buffer.array(),
+                              ARRAY_BYTE_BASE_OFFSET + buffer.arrayOffset() + pos,
+                              rem);
+        } else {
+            byte[] b = new byte[rem];
+            buffer.get(b);
+            crc = updateBytes(crc, b, ARRAY_BYTE_BASE_OFFSET, b.length);
+        }
+        buffer.position(limit);
+    }
+
+    /**
+     * Resets CRC-32C to initial value.
+     */
+    public void reset() {
+        crc = 0xFFFFFFFF;
+    }
+
+    /**
+     * Returns CRC-32C value.
+     */
+    public long getValue() {
+        return (~crc) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Returns the CRC-32C of the concatenation of two byte sequences,
+     * given the CRC-32C of each sequence and the length of the second one.
+     * This lets the CRC-32C of a large input be computed in parallel over
+     * its segments, for example with a {@link CheckedInputStream} per
+     * segment, and then combined in order.
+     *
+     * @param crc1 the CRC-32C of the first sequence
+     * @param crc2 the CRC-32C of the second sequence
+     * @param len2 the length in bytes of the second sequence
+     * @return the CRC-32C of the first sequence followed by the second
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @since 9
+     */
+    public static long combine(long crc1, long crc2, long len2) {
+        return ZipUtils.crcCombine(CRC32C_POLY, crc1, crc2, len2);
+    }
+
+    /*
+     * Updates crc with len bytes at offset off of base, an array or null
+     * for an absolute address.  Bytes are consumed singly up to an 8-byte
+     * aligned address, then eight at a time.  Arrays start 8-byte aligned,
+     * so off is aligned in the same way as the address it stands for.
+     */
+    private static int updateBytes(int crc, Object base, long off, int len) {
+        long end = off + len;
+
+        // Step 1: to an 8-byte aligned address
+        if (len > 8) {
+            int align = (int)(-off & 7);
+            for (long limit = off + align; off < limit; off++) {
+                crc = (crc >>> 8) ^
+                      TABLE[(crc ^ UNSAFE.getByte(base, off)) & 0xff];
+            }
+        }
+
+        // Step 2: eight bytes at a time, slicing-by-8
+        int[] t = TABLE;
+        for (long limit = end - 7; off < limit; off += 8) {
+            int lo = UNSAFE.getInt(base, off);
+            int hi = UNSAFE.getInt(base, off + 4);
+            if (BIG_ENDIAN) {
+                lo = Integer.reverseBytes(lo);
+                hi = Integer.reverseBytes(hi);
+            }
+            lo ^= crc;
+            crc = t[(7 << 8) + (lo & 0xff)] ^
+                  t[(6 << 8) + ((lo >>> 8) & 0xff)] ^
+                  t[(5 << 8) + ((lo >>> 16) & 0xff)] ^
+                  t[(4 << 8) + (lo >>> 24)] ^
+                  t[(3 << 8) + (hi & 0xff)] ^
+                  t[(2 << 8) + ((hi >>> 8) & 0xff)] ^
+                  t[(1 << 8) + ((hi >>> 16) & 0xff)] ^
+                  t[hi >>> 24];
+        }
+
+        // Step 3: the remaining bytes
+        for (; off < end; off++) {
+            crc = (crc >>> 8) ^ TABLE[(crc ^ UNSAFE.getByte(base, off)) & 0xff];
+        }
+        return crc;
+    }
+}
@@ -25,6 +25,9 @@
 
 package java.util.zip;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
 /**
  * This class provides support for general purpose compression using the
  * popular ZLIB compression library. The ZLIB compression library was
@@ -74,14 +77,25 @@ public
 class Deflater {
 
     private final ZStreamRef zsRef;
-    private byte[] buf = new byte[0];
+    private byte[] buf = defaultBuf;
     private int off, len;
+    private ByteBuffer input;     // input buffer, or null if buf is the input
+    private byte[] inputArray;    // copy of input without an array
+    private byte[] outputArray;   // output for buffers without an array
     private int level, strategy;
     private boolean setParams;
     private boolean finish, finished;
     private long bytesRead;
     private long bytesWritten;
 
+    private static final byte[] defaultBuf = new byte[0];
+
+    /*
+     * The most bytes copied in or out at a time for buffers that aren't
+     * backed by an accessible array.
+     */
+    private static final int COPY_CHUNK = 32 * 1024;
+
     /**
      * Compression method for the deflate algorithm (the only one currently
      * supported).
@@ -204,6 +218,7 @@ class Deflater {
             throw new ArrayIndexOutOfBoundsException();
         }
         synchronized (zsRef) {
+            this.input = null;
             this.buf = b;
             this.off = off;
             this.len = len;
@@ -220,6 +235,38 @@ class Deflater {
         setInput(b, 0, b.length);
     }
 
+    /**
+     * Sets input data for compression.
+     * <p>
+     * One of the {@code setInput()} methods should be called whenever
+     * {@code needsInput()} returns true indicating that more input data
+     * is required.
+     * <p>
+     * The given buffer's position will be advanced as deflate
+     * operations are performed, up to the buffer's limit.
+     * The input buffer may be modified (refilled) between deflate
+     * operations; doing so is equivalent to creating a new buffer
+     * and setting it with this method.
+     * <p>
+     * The bytes of a buffer backed by an accessible array are deflated
+     * in place; those of a direct or read-only buffer are copied in
+     * chunks as they are deflated.
+     *
+     * @param input the input data bytes
+     * @see Deflater#needsInput
+     * @since 9
+     */
+    public void setInput(ByteBuffer input) {
+        if (input == null) {
+            throw new NullPointerException();
+        }
+        synchronized (zsRef) {
+            this.input = input;
+            this.buf = defaultBuf;
+            this.off = this.len = 0;
+        }
+    }
+
     /**
      * Sets preset dictionary for compression. A preset dictionary is used
      * when the history buffer can be predetermined. When the data is later
@@ -259,6 +306,35 @@ class Deflater {
         setDictionary(b, 0, b.length);
     }
 
+    /**
+     * Sets preset dictionary for compression. A preset dictionary is used
+     * when the history buffer can be predetermined. When the data is later
+     * uncompressed with Inflater.inflate(), Inflater.getAdler() can be called
+     * in order to get the Adler-32 value of the dictionary required for
+     * decompression.
+     * <p>
+     * The bytes in given byte buffer will be fully consumed by this method.
+     * On return, its position will equal its limit.
+     *
+     * @param dictionary the dictionary data bytes
+     * @see Inflater#inflate
+     * @see Inflater#getAdler
+     * @since 9
+     */
+    public void setDictionary(ByteBuffer dictionary) {
+        int rem = dictionary.remaining();
+        if (dictionary.hasArray()) {
+            int pos = dictionary.position();
+            setDictionary(dictionary.array(), dictionary.arrayOffset() + pos,
+                          rem);
+            dictionary.position(pos + rem);
+        } else {
+            byte[] b = new byte[rem];
+            dictionary.get(b);
+            setDictionary(b, 0, rem);
+        }
+    }
+
     /**
      * Sets the compression strategy to the specified value.
      *
@@ -318,7 +394,10 @@ class Deflater {
      * should be called in order to provide more input
      */
     public boolean needsInput() {
-        return len <= 0;
+        synchronized (zsRef) {
+            ByteBuffer input = this.input;
+            return input == null ? len <= 0 : !input.hasRemaining();
+        }
     }
 
     /**
@@ -438,16 +517,132 @@ class Deflater {
             ensureOpen();
             if (flush == NO_FLUSH || flush == SYNC_FLUSH ||
                 flush == FULL_FLUSH) {
-                int thisLen = this.len;
-                int n = deflateBytes(zsRef.address(), b, off, len, flush);
-                bytesWritten += n;
-                bytesRead += (thisLen - this.len);
-                return n;
+                return deflate0(b, off, len, flush);
             }
             throw new IllegalArgumentException();
         }
     }
 
+    /**
+     * Compresses the input data and fills specified buffer with compressed
+     * data. Returns actual number of bytes of compressed data. A return value
+     * of 0 indicates that {@link #needsInput() needsInput} should be called
+     * in order to determine if more input data is required.
+     *
+     * <p>This method uses {@link #NO_FLUSH} as its compression flush mode.
+     * An invocation of this method of the form {@code deflater.deflate(output)}
+     * yields the same result as the invocation of
+     * {@code deflater.deflate(output, Deflater.NO_FLUSH)}.
+     *
+     * @param output the buffer for the compressed data
+     * @return the actual number of bytes of compressed data written to the
+     *         output buffer
+     * @throws ReadOnlyBufferException if the given output buffer is read-only
+     * @since 9
+     */
+    public int deflate(ByteBuffer output) {
+        return deflate(output, NO_FLUSH);
+    }
+
+    /**
+     * Compresses the input data and fills the specified buffer with compressed
+     * data. Returns actual number of bytes of data compressed, with the same
+     * flush modes and semantics as {@link #deflate(byte[], int, int, int)}.
+     * <p>
+     * On success, the position of the given {@code output} byte buffer will be
+     * advanced by as many bytes as were produced by the operation, which is equal
+     * to the number returned by this method.
+     * <p>
+     * The bytes are deflated in place into a buffer backed by an accessible
+     * array; a direct buffer receives them through a reused intermediate
+     * array, at most 32K at a time.
+     *
+     * @param output the buffer for the compressed data
+     * @param flush the compression flush mode
+     * @return the actual number of bytes of compressed data written to
+     *         the output buffer
+     * @throws IllegalArgumentException if the flush mode is invalid
+     * @throws ReadOnlyBufferException if the given output buffer is read-only
+     * @since 9
+     */
+    public int deflate(ByteBuffer output, int flush) {
+        if (output.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        if (flush != NO_FLUSH && flush != SYNC_FLUSH && flush != FULL_FLUSH) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (zsRef) {
+            ensureOpen();
+            int pos = output.position();
+            int rem = Math.max(output.limit() - pos, 0);
+            if (output.hasArray()) {
+                int n = deflate0(output.array(), output.arrayOffset() + pos,
+                                 rem, flush);
+                output.position(pos + n);
+                return n;
+            }
+            int chunk = Math.min(rem, COPY_CHUNK);
+            byte[] b = outputArray;
+            if (b == null || b.length < chunk) {
+                outputArray = b = new byte[chunk];
+            }
+            int n = deflate0(b, 0, chunk, flush);
+            output.put(b, 0, n);
+            return n;
+        }
+    }
+
+    /*
+     * Deflates into the given array from the input array, or from the
+     * input buffer if one was set, whose position is then advanced past
+     * the bytes consumed.
+     */
+    private int deflate0(byte[] b, int off, int len, int flush) {
+        assert Thread.holdsLock(zsRef);
+        ByteBuffer input = this.input;
+        if (input == null) {
+            int thisLen = this.len;
+            int n = deflateBytes(zsRef.address(), b, off, len, flush);
+            bytesWritten += n;
+            bytesRead += (thisLen - this.len);
+            return n;
+        }
+        int pos = input.position();
+        int rem = Math.max(input.limit() - pos, 0);
+        if (input.hasArray()) {
+            this.buf = input.array();
+            this.off = input.arrayOffset() + pos;
+            this.len = rem;
+        } else {
+            int chunk = Math.min(rem, COPY_CHUNK);
+            byte[] in = inputArray;
+            if (in == null || in.length < chunk) {
+                inputArray = in = new byte[chunk];
+            }
+            input.get(in, 0, chunk);
+            this.buf = in;
+            this.off = 0;
+            this.len = chunk;
+        }
+        // zlib is only told to finish once the last chunk is handed to it
+        boolean finish = this.finish;
+        this.finish = finish && this.len == rem;
+        int thisLen = this.len;
+        try {
+            int n = deflateBytes(zsRef.address(), b, off, len, flush);
+            bytesWritten += n;
+            return n;
+        } finally {
+            int consumed = thisLen - this.len;
+            bytesRead += consumed;
+            input.position(pos + consumed);
+            this.finish = finish;
+            this.buf = defaultBuf;
+            this.off = this.len = 0;
+        }
+    }
+
     /**
      * Returns the ADLER-32 value of the uncompressed data.
      * @return the ADLER-32 value of the uncompressed data
@@ -521,6 +716,7 @@ class Deflater {
             reset(zsRef.address());
             finish = false;
             finished = false;
+            input = null;
             off = len = 0;
             bytesRead = bytesWritten = 0;
         }
@@ -540,6 +736,8 @@ class Deflater {
             if (addr != 0) {
                 end(addr);
                 buf = null;
+                input = null;
+                inputArray = outputArray = null;
             }
         }
     }
@@ -25,6 +25,9 @@
 
 package java.util.zip;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
 /**
  * This class provides support for general purpose decompression using the
  * popular ZLIB compression library. The ZLIB compression library was
@@ -76,6 +79,9 @@ class Inflater {
     private final ZStreamRef zsRef;
     private byte[] buf = defaultBuf;
     private int off, len;
+    private ByteBuffer input;     // input buffer, or null if buf is the input
+    private byte[] inputArray;    // copy of input without an array
+    private byte[] outputArray;   // output for buffers without an array
     private boolean finished;
     private boolean needDict;
     private long bytesRead;
@@ -83,6 +89,12 @@ class Inflater {
 
     private static final byte[] defaultBuf = new byte[0];
 
+    /*
+     * The most bytes copied in or out at a time for buffers that aren't
+     * backed by an accessible array.
+     */
+    private static final int COPY_CHUNK = 32 * 1024;
+
     static {
         /* Zip library is loaded from System.initializeSystemClass */
         initIDs();
@@ -127,6 +139,7 @@ class Inflater {
             throw new ArrayIndexOutOfBoundsException();
         }
         synchronized (zsRef) {
+            this.input = null;
             this.buf = b;
             this.off = off;
             this.len = len;
@@ -144,6 +157,38 @@ class Inflater {
         setInput(b, 0, b.length);
     }
 
+    /**
+     * Sets input data for decompression.
+     * <p>
+     * One of the {@code setInput()} methods should be called whenever
+     * {@code needsInput()} returns true indicating that more input data
+     * is required.
+     * <p>
+     * The given buffer's position will be advanced as inflate
+     * operations are performed, up to the buffer's limit.
+     * The input buffer may be modified (refilled) between inflate
+     * operations; doing so is equivalent to creating a new buffer
+     * and setting it with this method.
+     * <p>
+     * The bytes of a buffer backed by an accessible array are inflated
+     * in place; those of a direct or read-only buffer are copied in
+     * chunks as they are inflated.
+     *
+     * @param input the input data bytes
+     * @see Inflater#needsInput
+     * @since 9
+     */
+    public void setInput(ByteBuffer input) {
+        if (input == null) {
+            throw new NullPointerException();
+        }
+        synchronized (zsRef) {
+            this.input = input;
+            this.buf = defaultBuf;
+            this.off = this.len = 0;
+        }
+    }
+
     /**
      * Sets the preset dictionary to the given array of bytes. Should be
      * called when inflate() returns 0 and needsDictionary() returns true
@@ -182,6 +227,34 @@ class Inflater {
         setDictionary(b, 0, b.length);
     }
 
+    /**
+     * Sets the preset dictionary to the bytes in the given buffer. Should be
+     * called when inflate() returns 0 and needsDictionary() returns true
+     * indicating that a preset dictionary is required. The method getAdler()
+     * can be used to get the Adler-32 value of the dictionary needed.
+     * <p>
+     * The bytes in given byte buffer will be fully consumed by this method.
+     * On return, its position will equal its limit.
+     *
+     * @param dictionary the dictionary data bytes
+     * @see Inflater#needsDictionary
+     * @see Inflater#getAdler
+     * @since 9
+     */
+    public void setDictionary(ByteBuffer dictionary) {
+        int rem = dictionary.remaining();
+        if (dictionary.hasArray()) {
+            int pos = dictionary.position();
+            setDictionary(dictionary.array(), dictionary.arrayOffset() + pos,
+                          rem);
+            dictionary.position(pos + rem);
+        } else {
+            byte[] b = new byte[rem];
+            dictionary.get(b);
+            setDictionary(b, 0, rem);
+        }
+    }
+
     /**
      * Returns the total number of bytes remaining in the input buffer.
      * This can be used to find out what bytes still remain in the input
@@ -190,7 +263,8 @@ class Inflater {
      */
     public int getRemaining() {
         synchronized (zsRef) {
-            return len;
+            ByteBuffer input = this.input;
+            return input == null ? len : input.remaining();
         }
     }
 
@@ -202,7 +276,8 @@ class Inflater {
      */
     public boolean needsInput() {
         synchronized (zsRef) {
-            return len <= 0;
+            ByteBuffer input = this.input;
+            return input == null ? len <= 0 : !input.hasRemaining();
         }
     }
 
@@ -255,11 +330,7 @@ class Inflater {
         }
         synchronized (zsRef) {
             ensureOpen();
-            int thisLen = this.len;
-            int n = inflateBytes(zsRef.address(), b, off, len);
-            bytesWritten += n;
-            bytesRead += (thisLen - this.len);
-            return n;
+            return inflate0(b, off, len);
         }
     }
 
@@ -280,6 +351,103 @@ class Inflater {
         return inflate(b, 0, b.length);
     }
 
+    /**
+     * Uncompresses bytes into specified buffer. Returns actual number
+     * of bytes uncompressed. A return value of 0 indicates that
+     * needsInput() or needsDictionary() should be called in order to
+     * determine if more input data or a preset dictionary is required.
+     * In the latter case, getAdler() can be used to get the Adler-32
+     * value of the dictionary required.
+     * <p>
+     * On success, the position of the given {@code output} byte buffer will be
+     * advanced by as many bytes as were produced by the operation, which is equal
+     * to the number returned by this method.
+     * <p>
+     * The bytes are inflated in place into a buffer backed by an accessible
+     * array; a direct buffer receives them through a reused intermediate
+     * array, at most 32K at a time.
+     *
+     * @param output the destination for the uncompressed data
+     * @return the actual number of uncompressed bytes
+     * @throws DataFormatException if the compressed data format is invalid
+     * @throws ReadOnlyBufferException if the given output buffer is read-only
+     * @see Inflater#needsInput
+     * @see Inflater#needsDictionary
+     * @since 9
+     */
+    public int inflate(ByteBuffer output) throws DataFormatException {
+        if (output.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        synchronized (zsRef) {
+            ensureOpen();
+            int pos = output.position();
+            int rem = Math.max(output.limit() - pos, 0);
+            if (output.hasArray()) {
+                int n = inflate0(output.array(), output.arrayOffset() + pos,
+                                 rem);
+                output.position(pos + n);
+                return n;
+            }
+            int chunk = Math.min(rem, COPY_CHUNK);
+            byte[] b = outputArray;
+            if (b == null || b.length < chunk) {
+                outputArray = b = new byte[chunk];
+            }
+            int n = inflate0(b, 0, chunk);
+            output.put(b, 0, n);
+            return n;
+        }
+    }
+
+    /*
+     * Inflates into the given array from the input array, or from the
+     * input buffer if one was set, whose position is then advanced past
+     * the bytes consumed.
+     */
+    private int inflate0(byte[] b, int off, int len)
+        throws DataFormatException
+    {
+        assert Thread.holdsLock(zsRef);
+        ByteBuffer input = this.input;
+        if (input == null) {
+            int thisLen = this.len;
+            int n = inflateBytes(zsRef.address(), b, off, len);
+            bytesWritten += n;
+            bytesRead += (thisLen - this.len);
+            return n;
+        }
+        int pos = input.position();
+        int rem = Math.max(input.limit() - pos, 0);
+        if (input.hasArray()) {
+            this.buf = input.array();
+            this.off = input.arrayOffset() + pos;
+            this.len = rem;
+        } else {
+            int chunk = Math.min(rem, COPY_CHUNK);
+            byte[] in = inputArray;
+            if (in == null || in.length < chunk) {
+                inputArray = in = new byte[chunk];
+            }
+            input.get(in, 0, chunk);
+            this.buf = in;
+            this.off = 0;
+            this.len = chunk;
+        }
+        int thisLen = this.len;
+        try {
+            int n = inflateBytes(zsRef.address(), b, off, len);
+            bytesWritten += n;
+            return n;
+        } finally {
+            int consumed = thisLen - this.len;
+            bytesRead += consumed;
+            input.position(pos + consumed);
+            this.buf = defaultBuf;
+            this.off = this.len = 0;
+        }
+    }
+
     /**
      * Returns the ADLER-32 value of the uncompressed data.
      * @return the ADLER-32 value of the uncompressed data
@@ -351,6 +519,7 @@ class Inflater {
             ensureOpen();
             reset(zsRef.address());
             buf = defaultBuf;
+            input = null;
             finished = false;
             needDict = false;
             off = len = 0;
@@ -372,6 +541,8 @@ class Inflater {
             if (addr != 0) {
                 end(addr);
                 buf = null;
+                input = null;
+                inputArray = outputArray = null;
             }
         }
     }
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DirectBufferPool;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * A channel that uncompresses data in the "deflate" compression format
+ * read from another channel.  It is the buffer-based counterpart of
+ * {@link InflaterInputStream}.
+ *
+ * <p> Compressed data is read from the source channel into a direct buffer
+ * allocated from the {@link DirectBufferPool#getDefault() default pool},
+ * so the source channel needs no temporary buffer of its own, and is then
+ * uncompressed into the caller's buffer by {@link Inflater#inflate(ByteBuffer)}.
+ * The inflater copies the bytes of the direct input buffer in chunks as it
+ * inflates them, and likewise copies its output into a direct buffer;
+ * output into a buffer backed by an accessible array is not copied.  The
+ * {@link #readBuffer()} method inflates into a direct buffer allocated
+ * from the same pool.
+ *
+ * <p> An inflater channel is not safe for use by multiple concurrent
+ * threads.
+ *
+ * @see Inflater
+ * @since 9
+ */
+public
+class InflaterChannel implements ReadableByteChannel {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel ch;
+    private final Inflater inf;
+    private final boolean usesDefaultInflater;
+    private final int bufferSize;
+    private ByteBuffer input;       // compressed data, from the pool
+    private boolean closed;
+    private boolean reachEOF;
+
+    /**
+     * Creates a new channel with the specified decompressor and input
+     * buffer size.
+     *
+     * @param ch the channel the compressed data is read from
+     * @param inf the decompressor ("inflater")
+     * @param size the input buffer size
+     * @exception IllegalArgumentException if {@code size <= 0}
+     */
+    public InflaterChannel(ReadableByteChannel ch, Inflater inf, int size) {
+        this(ch, inf, size, false);
+    }
+
+    /**
+     * Creates a new channel with the specified decompressor and a default
+     * input buffer size.
+     *
+     * @param ch the channel the compressed data is read from
+     * @param inf the decompressor ("inflater")
+     */
+    public InflaterChannel(ReadableByteChannel ch, Inflater inf) {
+        this(ch, inf, DEFAULT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * Creates a new channel with a default decompressor and input buffer
+     * size.
+     *
+     * @param ch the channel the compressed data is read from
+     */
+    public InflaterChannel(ReadableByteChannel ch) {
+        this(ch, new Inflater(), DEFAULT_BUFFER_SIZE, true);
+    }
+
+    private InflaterChannel(ReadableByteChannel ch, Inflater inf, int size,
+                            boolean usesDefaultInflater)
+    {
+        if (ch == null || inf == null) {
+            throw new NullPointerException();
+        } else if (size <= 0) {
+            throw new IllegalArgumentException("buffer size <= 0");
+        }
+        this.ch = ch;
+        this.inf = inf;
+        this.bufferSize = size;
+        this.usesDefaultInflater = usesDefaultInflater;
+    }
+
+    /**
+     * Reads uncompressed data into the given buffer.  Unless the remaining
+     * space in the buffer is zero, this method will block, if the source
+     * channel is in blocking mode, until some input can be decompressed.
+     * If the source channel is in non-blocking mode and has no input
+     * available then no bytes are read and {@code 0} is returned.
+     *
+     * @param dst the buffer into which the data is read
+     * @return the number of bytes read, or -1 if the end of the compressed
+     *         input is reached or a preset dictionary is needed
+     * @exception ClosedChannelException if this channel is closed
+     * @exception ZipException if a ZIP format error has occurred
+     * @exception EOFException if the source channel reaches its end before
+     *            the end of the compressed data
+     * @exception IOException if an I/O error has occurred
+     */
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        try {
+            int n;
+            while ((n = inf.inflate(dst)) == 0) {
+                if (inf.finished() || inf.needsDictionary()) {
+                    reachEOF = true;
+                    return -1;
+                }
+                if (inf.needsInput() && !fill()) {
+                    return 0;
+                }
+            }
+            return n;
+        } catch (DataFormatException e) {
+            String s = e.getMessage();
+            throw new ZipException(s != null ? s : "Invalid ZLIB data format");
+        }
+    }
+
+    /**
+     * Reads uncompressed data into a new direct buffer allocated from the
+     * {@link DirectBufferPool#getDefault() default pool}, filling it unless
+     * the end of the compressed input is reached first.  The buffer is
+     * returned flipped, ready to be read; the caller should give it back
+     * with {@link DirectBufferPool#release DirectBufferPool.getDefault().release}
+     * once done with it.
+     *
+     * @param capacity the capacity of the buffer
+     * @return the buffer, or {@code null} if the end of the compressed
+     *         input had already been reached
+     * @exception IllegalArgumentException if {@code capacity <= 0}
+     * @exception IOException if an I/O error has occurred
+     */
+    public ByteBuffer readBuffer(int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0");
+        }
+        ensureOpen();
+        DirectBufferPool pool = DirectBufferPool.getDefault();
+        ByteBuffer buf = pool.allocate(capacity);
+        boolean done = false;
+        try {
+            while (buf.hasRemaining()) {
+                int n = read(buf);
+                if (n <= 0 && (n < 0 || !isBlocking())) {
+                    break;
+                }
+            }
+            done = true;
+        } finally {
+            if (!done) {
+                pool.release(buf);
+            }
+        }
+        if (buf.position() == 0 && reachEOF) {
+            pool.release(buf);
+            return null;
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Reads uncompressed data into a new direct buffer of the input buffer
+     * size allocated from the default pool, as if by
+     * {@link #readBuffer(int) readBuffer(size)}.
+     *
+     * @return the buffer, or {@code null} if the end of the compressed
+     *         input had already been reached
+     * @exception IOException if an I/O error has occurred
+     */
+    public ByteBuffer readBuffer() throws IOException {
+        return readBuffer(bufferSize);
+    }
+
+    /**
+     * Tells whether or not this channel is open.
+     *
+     * @return {@code true} if, and only if, this channel is open
+     */
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Closes this channel and the source channel, and returns the input
+     * buffer to the pool.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            if (usesDefaultInflater)
+                inf.end();
+            if (input != null) {
+                ByteBuffer buf = input;
+                input = null;
+                DirectBufferPool.getDefault().release(buf);
+            }
+            ch.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private boolean isBlocking() {
+        return !(ch instanceof SelectableChannel) ||
+               ((SelectableChannel)ch).isBlocking();
+    }
+
+    /*
+     * Reads more compressed data and hands it to the inflater.  Returns
+     * false if none was available from a non-blocking source channel.
+     */
+    private boolean fill() throws IOException {
+        ByteBuffer buf = input;
+        if (buf == null) {
+            input = buf = DirectBufferPool.getDefault().allocate(bufferSize);
+        }
+        buf.clear();
+        int n = ch.read(buf);
+        if (n == -1) {
+            throw new EOFException("Unexpected end of ZLIB input stream");
+        }
+        buf.flip();
+        inf.setInput(buf);
+        return n > 0;
+    }
+}
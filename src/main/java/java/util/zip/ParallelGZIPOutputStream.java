@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.zip;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class implements a stream filter for writing compressed data in
+ * the GZIP file format, compressing blocks of the data in parallel.
+ *
+ * <p> The data written to the stream is split into blocks that are
+ * compressed by tasks in a {@link ForkJoinPool}.  Each block is compressed
+ * with the last 32K of the previous block as its preset dictionary, so the
+ * compression ratio is close to that of {@link GZIPOutputStream}.  The
+ * compressed blocks are written in order as a single GZIP member, which can
+ * be read by {@link GZIPInputStream} or any other GZIP reader.  The CRC-32
+ * of each block is computed by its task, and the CRC-32 of the member is
+ * combined from them.
+ *
+ * <p> At most twice as many blocks as the parallelism of the pool are
+ * held at a time; writing to the stream blocks until the oldest of them is
+ * written out when that many are pending.
+ *
+ * @see GZIPOutputStream
+ * @since 9
+ */
+public
+class ParallelGZIPOutputStream extends FilterOutputStream {
+    /*
+     * GZIP header magic number.
+     */
+    private final static int GZIP_MAGIC = 0x8b1f;
+
+    /*
+     * Trailer size in bytes.
+     */
+    private final static int TRAILER_SIZE = 8;
+
+    /*
+     * Default block size, as that of pigz.
+     */
+    private final static int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    /*
+     * Size of the deflate window, the most of the previous block that is
+     * used as the dictionary of a block.
+     */
+    private final static int DICT_SIZE = 32 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int blockSize;
+    private final int level;
+    private final int maxPending;
+
+    // Blocks being compressed or waiting to be written, oldest first
+    private final ArrayDeque<Block> pending = new ArrayDeque<>();
+
+    // Deflaters free for use by a block
+    private final ConcurrentLinkedDeque<Deflater> deflaters =
+        new ConcurrentLinkedDeque<>();
+
+    private byte[] buf;             // the block being filled
+    private int count;              // number of bytes in buf
+    private byte[] prev;            // the previous block, for its dictionary
+    private int prevCount;
+
+    private long crc;               // CRC-32 of the data written out
+    private long size;              // number of bytes written out
+    private volatile boolean finished;
+    private boolean closed;
+
+    /**
+     * Creates a new output stream with a default block size that
+     * compresses in the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param out the output stream
+     * @exception IOException If an I/O error has occurred.
+     */
+    public ParallelGZIPOutputStream(OutputStream out) throws IOException {
+        this(out, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a new output stream with the specified block size that
+     * compresses in the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param out the output stream
+     * @param blockSize the number of bytes of input compressed by a task
+     * @exception IOException If an I/O error has occurred.
+     * @exception IllegalArgumentException if {@code blockSize <= 0}
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int blockSize)
+        throws IOException
+    {
+        this(out, blockSize, Deflater.DEFAULT_COMPRESSION,
+             ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new output stream with the specified block size and
+     * compression level that compresses in the specified pool.
+     *
+     * @param out the output stream
+     * @param blockSize the number of bytes of input compressed by a task
+     * @param level the compression level (0-9), or
+     *        {@link Deflater#DEFAULT_COMPRESSION}
+     * @param pool the pool in which blocks are compressed
+     * @exception IOException If an I/O error has occurred.
+     * @exception IllegalArgumentException if {@code blockSize <= 0} or
+     *            the compression level is invalid
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int blockSize,
+                                    int level, ForkJoinPool pool)
+        throws IOException
+    {
+        super(out);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize <= 0");
+        }
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        if (pool == null) {
+            throw new NullPointerException();
+        }
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.maxPending = Math.max(2, 2 * pool.getParallelism());
+        this.buf = new byte[blockSize];
+        writeHeader();
+    }
+
+    /**
+     * Writes a byte to the compressed output stream.
+     *
+     * @param b the byte to be written
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void write(int b) throws IOException {
+        byte[] buf = new byte[1];
+        buf[0] = (byte)(b & 0xff);
+        write(buf, 0, 1);
+    }
+
+    /**
+     * Writes array of bytes to the compressed output stream.  The data is
+     * compressed when a block has been filled.
+     *
+     * @param b the data to be written
+     * @param off the start offset of the data
+     * @param len the length of the data
+     * @exception IOException If an I/O error has occurred.
+     */
+    public synchronized void write(byte[] b, int off, int len)
+        throws IOException
+    {
+        ensureOpen();
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submit(false);
+            }
+        }
+    }
+
+    /**
+     * Flushes the compressed output stream.  The data written so far is
+     * compressed, as if with {@link Deflater#SYNC_FLUSH}, and written to
+     * the underlying stream before it is flushed.
+     *
+     * @exception IOException If an I/O error has occurred.
+     */
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        if (count > 0) {
+            submit(false);
+        }
+        while (!pending.isEmpty()) {
+            writeBlock(pending.poll());
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes writing compressed data to the output stream without closing
+     * the underlying stream.  Use this method when applying multiple filters
+     * in succession to the same output stream.
+     *
+     * @exception IOException If an I/O error has occurred.
+     */
+    public synchronized void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        ensureOpen();
+        try {
+            submit(true);
+            while (!pending.isEmpty()) {
+                writeBlock(pending.poll());
+            }
+            byte[] trailer = new byte[TRAILER_SIZE];
+            writeInt((int)crc, trailer, 0);       // CRC-32 of uncompr. data
+            writeInt((int)size, trailer, 4);      // Number of uncompr. bytes
+            out.write(trailer);
+        } finally {
+            finished = true;
+            endDeflaters();
+        }
+    }
+
+    /**
+     * Writes remaining compressed data to the output stream and closes the
+     * underlying stream.
+     *
+     * @exception IOException If an I/O error has occurred.
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            finish();
+        } finally {
+            closed = true;
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (finished) {
+            throw new IOException("write beyond end of stream");
+        }
+    }
+
+    /*
+     * Hands the current block to the pool, first writing out the oldest
+     * pending block if there are too many.
+     */
+    private void submit(boolean last) throws IOException {
+        if (pending.size() >= maxPending) {
+            writeBlock(pending.poll());
+        }
+        Block block = new Block(buf, count, prev, prevCount, last);
+        block.task = pool.submit(block);
+        pending.add(block);
+        prev = buf;
+        prevCount = count;
+        buf = new byte[blockSize];
+        count = 0;
+    }
+
+    private void writeBlock(Block block) throws IOException {
+        try {
+            block.task.get();
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException x) {
+            Throwable cause = x.getCause();
+            if (cause instanceof IOException)
+                throw (IOException)cause;
+            throw new ZipException("block compression failed: " + cause);
+        }
+        out.write(block.out, 0, block.outCount);
+        crc = CRC32.combine(crc, block.crc, block.count);
+        size += block.count;
+    }
+
+    private Deflater getDeflater() {
+        Deflater def = deflaters.poll();
+        if (def == null) {
+            def = new Deflater(level, true);
+        }
+        return def;
+    }
+
+    private void releaseDeflater(Deflater def) {
+        def.reset();
+        deflaters.push(def);
+        // the stream may have been finished concurrently
+        if (finished && deflaters.remove(def)) {
+            def.end();
+        }
+    }
+
+    private void endDeflaters() {
+        for (Block block : pending) {
+            block.task.cancel(false);
+        }
+        pending.clear();
+        Deflater def;
+        while ((def = deflaters.poll()) != null) {
+            def.end();
+        }
+    }
+
+    /*
+     * A block of input and the compressed data and CRC-32 computed from it
+     * by a task in the pool.
+     */
+    private final class Block implements Runnable {
+        final byte[] in;
+        final int count;
+        final byte[] dict;
+        final int dictCount;
+        final boolean last;
+        ForkJoinTask<?> task;
+
+        byte[] out;
+        int outCount;
+        long crc;
+
+        Block(byte[] in, int count, byte[] dict, int dictCount, boolean last) {
+            this.in = in;
+            this.count = count;
+            this.dict = dict;
+            this.dictCount = dictCount;
+            this.last = last;
+        }
+
+        public void run() {
+            CRC32 crc32 = new CRC32();
+            crc32.update(in, 0, count);
+            crc = crc32.getValue();
+
+            Deflater def = getDeflater();
+            try {
+                if (dict != null && dictCount > 0) {
+                    int n = Math.min(dictCount, DICT_SIZE);
+                    def.setDictionary(dict, dictCount - n, n);
+                }
+                def.setInput(in, 0, count);
+                out = new byte[count + (count >>> 3) + 64];
+                if (last) {
+                    def.finish();
+                    while (!def.finished()) {
+                        deflate(def, Deflater.NO_FLUSH);
+                    }
+                } else {
+                    // a sync flush ends the block on a byte boundary
+                    // without ending the deflate stream
+                    while (deflate(def, Deflater.SYNC_FLUSH) == 0) {
+                    }
+                }
+            } finally {
+                releaseDeflater(def);
+            }
+        }
+
+        /*
+         * Deflates into the remainder of out, growing out if it is filled.
+         * Returns the number of bytes of space left in out.
+         */
+        private int deflate(Deflater def, int flush) {
+            if (outCount == out.length) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            outCount += def.deflate(out, outCount, out.length - outCount,
+                                    flush);
+            return out.length - outCount;
+        }
+    }
+
+    /*
+     * Writes GZIP member header.
+     */
+    private void writeHeader() throws IOException {
+        out.write(new byte[] {
+                      (byte) GZIP_MAGIC,        // Magic number (short)
+                      (byte)(GZIP_MAGIC >> 8),  // Magic number (short)
+                      Deflater.DEFLATED,        // Compression method (CM)
+                      0,                        // Flags (FLG)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Extra flags (XFLG)
+                      0                         // Operating system (OS)
+                  });
+    }
+
+    /*
+     * Writes integer in Intel byte order to a byte array, starting at a
+     * given offset.
+     */
+    private void writeInt(int i, byte[] buf, int offset) throws IOException {
+        buf[offset] = (byte)(i & 0xff);
+        buf[offset + 1] = (byte)((i >> 8) & 0xff);
+        buf[offset + 2] = (byte)((i >> 16) & 0xff);
+        buf[offset + 3] = (byte)((i >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,900 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import static java.util.zip.ZipConstants.*;
+import static java.util.zip.ZipConstants64.*;
+import static java.util.zip.ZipUtils.*;
+
+/**
+ * This class writes a ZIP file to a {@link FileChannel}, compressing its
+ * entries in parallel.
+ *
+ * <p> Each entry added to the writer is compressed, and its CRC-32
+ * computed, by a task run on the writer's {@link Executor}.  Entries are
+ * written to the channel in the order they were added, each as soon as it
+ * and the entries before it have been compressed.  Space for an entry is
+ * reserved in order, and its local header and data are then written with
+ * positional writes, so that compressed entries are written concurrently.
+ * As the sizes and CRC-32 of an entry are known before it is written, they
+ * are stored in its local header and no data descriptors are written.
+ *
+ * <p> The central directory is built up as entries are written, as compact
+ * encoded headers rather than {@code ZipEntry} objects, and is written when
+ * the writer is {@link #finish finished}.  ZIP64 extensions are used when
+ * an entry size, an offset or the number of entries needs them.
+ *
+ * <p> The compressed data of an entry is held in memory until it is
+ * written.  At most a fixed number of entries are pending at a time;
+ * adding an entry blocks until one of them has been written when that
+ * many are pending.
+ *
+ * @see ZipOutputStream
+ * @since 9
+ */
+public
+class ParallelZipWriter implements Closeable {
+
+    /**
+     * Compression method for uncompressed (STORED) entries.
+     */
+    public static final int STORED = ZipEntry.STORED;
+
+    /**
+     * Compression method for compressed (DEFLATED) entries.
+     */
+    public static final int DEFLATED = ZipEntry.DEFLATED;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel ch;
+    private final Executor executor;
+    private final ZipCoder zc;
+    private final int maxPending;
+    private final Semaphore permits;
+
+    // Entries being compressed or waiting to be written, in order
+    private final ArrayDeque<Job> queue = new ArrayDeque<>();
+    private long position;          // guarded by queue
+    private final Buffer cen = new Buffer(1024);   // guarded by queue
+    private long count;             // guarded by queue
+    private volatile Throwable failure;
+
+    private final HashSet<String> names = new HashSet<>();
+    private final ConcurrentLinkedDeque<Deflater> deflaters =
+        new ConcurrentLinkedDeque<>();
+    private byte[] comment;
+    private int method = DEFLATED;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Creates a new ZIP writer that writes from the current position of
+     * the given channel.
+     *
+     * <p>The UTF-8 {@link java.nio.charset.Charset charset} is used
+     * to encode the entry names and comments.
+     *
+     * @param ch the channel, which must be open for writing
+     * @param executor the executor that compresses the entries
+     * @param maxPending the most entries that may be pending at a time
+     * @exception IOException if an I/O error has occurred
+     * @exception IllegalArgumentException if {@code maxPending <= 0}
+     */
+    public ParallelZipWriter(FileChannel ch, Executor executor, int maxPending)
+        throws IOException
+    {
+        this(ch, executor, maxPending, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new ZIP writer that writes from the current position of
+     * the given channel.
+     *
+     * @param ch the channel, which must be open for writing
+     * @param executor the executor that compresses the entries
+     * @param maxPending the most entries that may be pending at a time
+     * @param charset the {@linkplain java.nio.charset.Charset charset}
+     *                to be used to encode the entry names and comments
+     * @exception IOException if an I/O error has occurred
+     * @exception IllegalArgumentException if {@code maxPending <= 0}
+     */
+    public ParallelZipWriter(FileChannel ch, Executor executor, int maxPending,
+                             Charset charset)
+        throws IOException
+    {
+        if (ch == null || executor == null)
+            throw new NullPointerException();
+        if (charset == null)
+            throw new NullPointerException("charset is null");
+        if (maxPending <= 0)
+            throw new IllegalArgumentException("maxPending <= 0");
+        this.ch = ch;
+        this.executor = executor;
+        this.zc = ZipCoder.get(charset);
+        this.maxPending = maxPending;
+        this.permits = new Semaphore(maxPending);
+        this.position = ch.position();
+    }
+
+    /**
+     * Sets the ZIP file comment.
+     * @param comment the comment string
+     * @exception IllegalArgumentException if the length of the specified
+     *            ZIP file comment is greater than 0xFFFF bytes
+     */
+    public void setComment(String comment) {
+        if (comment != null) {
+            this.comment = zc.getBytes(comment);
+            if (this.comment.length > 0xffff)
+                throw new IllegalArgumentException("ZIP file comment too long.");
+        }
+    }
+
+    /**
+     * Sets the default compression method for subsequent entries. This
+     * default will be used whenever the compression method is not specified
+     * for an individual ZIP file entry, and is initially set to DEFLATED.
+     * @param method the default compression method
+     * @exception IllegalArgumentException if the specified compression method
+     *            is invalid
+     */
+    public void setMethod(int method) {
+        if (method != DEFLATED && method != STORED) {
+            throw new IllegalArgumentException("invalid compression method");
+        }
+        this.method = method;
+    }
+
+    /**
+     * Sets the compression level for subsequent entries which are DEFLATED.
+     * The default setting is DEFAULT_COMPRESSION.
+     * @param level the compression level (0-9)
+     * @exception IllegalArgumentException if the compression level is invalid
+     */
+    public void setLevel(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        this.level = level;
+    }
+
+    /**
+     * Adds an entry with the given data.  The array is not copied, and
+     * must not be modified until the writer is finished.
+     *
+     * <p> The default compression method will be used if no compression
+     * method was specified for the entry, and the current time will be used
+     * if the entry has no set modification time.  The size, compressed size
+     * and CRC-32 of the entry are set when it has been compressed; if the
+     * size or CRC-32 was set beforehand, it is checked against the data.
+     *
+     * @param e the ZIP entry to be written
+     * @param b the entry data
+     * @param off the start offset in the data
+     * @param len the number of bytes of data
+     * @exception ZipException if a ZIP format error has occurred, including
+     *            in the compression of an entry added earlier
+     * @exception IOException if an I/O error has occurred
+     */
+    public void addEntry(ZipEntry e, byte[] b, int off, int len)
+        throws IOException
+    {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        submit(new Job(e, b, off, len, null));
+    }
+
+    /**
+     * Adds an entry with the given data, as if by
+     * {@link #addEntry(ZipEntry, byte[], int, int)
+     * addEntry(e, b, 0, b.length)}.
+     *
+     * @param e the ZIP entry to be written
+     * @param b the entry data
+     * @exception ZipException if a ZIP format error has occurred
+     * @exception IOException if an I/O error has occurred
+     */
+    public void addEntry(ZipEntry e, byte[] b) throws IOException {
+        addEntry(e, b, 0, b.length);
+    }
+
+    /**
+     * Adds an entry whose data is read from an input stream.  The stream
+     * is opened by invoking {@code source} and is read and closed by the
+     * task that compresses the entry.  The entry is otherwise handled as
+     * by {@link #addEntry(ZipEntry, byte[], int, int)}.
+     *
+     * @param e the ZIP entry to be written
+     * @param source opens the stream of the entry data
+     * @exception ZipException if a ZIP format error has occurred
+     * @exception IOException if an I/O error has occurred
+     */
+    public void addEntry(ZipEntry e, Callable<? extends InputStream> source)
+        throws IOException
+    {
+        if (source == null) {
+            throw new NullPointerException();
+        }
+        submit(new Job(e, null, 0, 0, source));
+    }
+
+    /**
+     * Waits for all entries to be written, then writes the central
+     * directory without closing the channel.  The position of the channel
+     * is set to the end of the ZIP file.
+     *
+     * @exception ZipException if a ZIP file error has occurred
+     * @exception IOException if an I/O exception has occurred
+     */
+    public void finish() throws IOException {
+        ensureOpen();
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            acquire(maxPending);
+        } finally {
+            endDeflaters();
+        }
+        checkFailure();
+        synchronized (queue) {
+            long off = position;
+            write(ByteBuffer.wrap(cen.buf, 0, cen.len), off);
+            Buffer end = new Buffer(ZIP64_ENDHDR + ZIP64_LOCHDR + ENDHDR + 0xffff);
+            writeEND(end, off + cen.len, off, cen.len);
+            write(ByteBuffer.wrap(end.buf, 0, end.len), off + cen.len);
+            position = off + cen.len + end.len;
+            ch.position(position);
+        }
+    }
+
+    /**
+     * Finishes the ZIP file and closes the channel.
+     *
+     * @exception ZipException if a ZIP file error has occurred
+     * @exception IOException if an I/O error has occurred
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                finish();
+            } finally {
+                closed = true;
+                ch.close();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable x = failure;
+        if (x != null) {
+            if (x instanceof IOException)
+                throw (IOException)x;
+            throw new ZipException("entry compression failed: " + x);
+        }
+    }
+
+    private void acquire(int n) throws IOException {
+        try {
+            permits.acquire(n);
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void submit(Job job) throws IOException {
+        ensureOpen();
+        if (finished) {
+            throw new ZipException("ZIP writer finished");
+        }
+        checkFailure();
+        ZipEntry e = job.entry;
+        if (e.time == -1) {
+            e.setTime(System.currentTimeMillis());
+        }
+        if (e.method == -1) {
+            e.method = method;  // use default method
+        }
+        if (e.method != DEFLATED && e.method != STORED) {
+            throw new ZipException("unsupported compression method");
+        }
+        if (e.method == STORED && e.size != -1 && e.csize != -1 &&
+            e.size != e.csize) {
+            throw new ZipException(
+                "STORED entry where compressed != uncompressed size");
+        }
+        if (!names.add(e.name)) {
+            throw new ZipException("duplicate entry: " + e.name);
+        }
+        e.flag = zc.isUTF8() ? EFS : 0;
+        job.level = level;
+        // keep a copy of dostime for the CEN, otherwise the tz sensitive
+        // local time entries in loc and cen might be different if the
+        // default tz gets changed in between
+        job.dostime = javaToDosTime(e.time);
+
+        acquire(1);
+        synchronized (queue) {
+            queue.add(job);
+        }
+        try {
+            executor.execute(job);
+        } catch (RuntimeException x) {
+            job.fail(x);
+            throw x;
+        }
+    }
+
+    /*
+     * Reserves space for the entries at the head of the queue that have
+     * been compressed, in order, and writes them.
+     */
+    private void drain() {
+        while (true) {
+            Job job;
+            long off;
+            synchronized (queue) {
+                job = queue.peek();
+                if (job == null || !job.done) {
+                    return;
+                }
+                queue.poll();
+                if (failure == null && job.error != null) {
+                    failure = job.error;
+                }
+                if (failure != null) {
+                    permits.release();
+                    continue;
+                }
+                off = position;
+                try {
+                    job.loc = locHeader(job);
+                    writeCEN(job, off);
+                } catch (ZipException x) {
+                    failure = x;
+                    permits.release();
+                    continue;
+                }
+                position += job.loc.len + job.outLen;
+                count++;
+            }
+            try {
+                write(ByteBuffer.wrap(job.loc.buf, 0, job.loc.len), off);
+                write(ByteBuffer.wrap(job.out, job.outOff, job.outLen),
+                      off + job.loc.len);
+            } catch (Throwable x) {
+                if (failure == null)
+                    failure = x;
+            } finally {
+                job.release();
+                permits.release();
+            }
+        }
+    }
+
+    private void write(ByteBuffer bb, long pos) throws IOException {
+        while (bb.hasRemaining()) {
+            pos += ch.write(bb, pos);
+        }
+    }
+
+    private Deflater getDeflater(int level) {
+        Deflater def = deflaters.poll();
+        if (def == null) {
+            return new Deflater(level, true);
+        }
+        def.setLevel(level);
+        return def;
+    }
+
+    private void releaseDeflater(Deflater def) {
+        def.reset();
+        deflaters.push(def);
+        // the writer may have been finished concurrently
+        if (finished && deflaters.remove(def)) {
+            def.end();
+        }
+    }
+
+    private void endDeflaters() {
+        Deflater def;
+        while ((def = deflaters.poll()) != null) {
+            def.end();
+        }
+    }
+
+    /*
+     * An entry, and its data compressed by a task run on the executor.
+     */
+    private final class Job implements Runnable {
+        final ZipEntry entry;
+        final Callable<? extends InputStream> source;
+        byte[] in;
+        int inOff, inLen;
+        int level;
+        long dostime;
+
+        byte[] out;
+        int outOff, outLen;
+        Buffer loc;
+        volatile boolean done;
+        Throwable error;
+
+        Job(ZipEntry entry, byte[] in, int inOff, int inLen,
+            Callable<? extends InputStream> source)
+        {
+            this.entry = entry;
+            this.in = in;
+            this.inOff = inOff;
+            this.inLen = inLen;
+            this.source = source;
+        }
+
+        public void run() {
+            try {
+                if (source != null) {
+                    readSource();
+                }
+                CRC32 crc = new CRC32();
+                crc.update(in, inOff, inLen);
+                ZipEntry e = entry;
+                if (e.size != -1 && e.size != inLen) {
+                    throw new ZipException(
+                        "invalid entry size (expected " + e.size +
+                        " but got " + inLen + " bytes)");
+                }
+                if (e.crc != -1 && e.crc != crc.getValue()) {
+                    throw new ZipException(
+                        "invalid entry crc-32 (expected 0x" +
+                        Long.toHexString(e.crc) + " but got 0x" +
+                        Long.toHexString(crc.getValue()) + ")");
+                }
+                if (e.method == DEFLATED) {
+                    deflate();
+                } else {
+                    out = in;
+                    outOff = inOff;
+                    outLen = inLen;
+                }
+                e.size = inLen;
+                e.csize = outLen;
+                e.crc = crc.getValue();
+            } catch (Throwable x) {
+                error = x;
+            }
+            done = true;
+            drain();
+        }
+
+        void fail(Throwable x) {
+            error = x;
+            done = true;
+            drain();
+        }
+
+        void release() {
+            in = out = null;
+        }
+
+        private void readSource() throws Exception {
+            byte[] buf = new byte[BUFFER_SIZE];
+            int n = 0;
+            try (InputStream is = source.call()) {
+                int r;
+                while ((r = is.read(buf, n, buf.length - n)) != -1) {
+                    n += r;
+                    if (n == buf.length) {
+                        if (n == Integer.MAX_VALUE - 8)
+                            throw new ZipException("entry too large");
+                        buf = Arrays.copyOf(buf,
+                            (int)Math.min(2L * n, Integer.MAX_VALUE - 8));
+                    }
+                }
+            }
+            in = buf;
+            inOff = 0;
+            inLen = n;
+        }
+
+        private void deflate() {
+            Deflater def = getDeflater(level);
+            try {
+                def.setInput(in, inOff, inLen);
+                def.finish();
+                byte[] b = new byte[Math.max(64, inLen + (inLen >>> 3) + 64)];
+                int n = 0;
+                while (!def.finished()) {
+                    if (n == b.length)
+                        b = Arrays.copyOf(b, b.length * 2);
+                    n += def.deflate(b, n, b.length - n);
+                }
+                out = b;
+                outOff = 0;
+                outLen = n;
+            } finally {
+                releaseDeflater(def);
+            }
+        }
+    }
+
+    /*
+     * Returns the local file (LOC) header of the entry of a job.
+     */
+    private Buffer locHeader(Job job) throws ZipException {
+        ZipEntry e = job.entry;
+        byte[] nameBytes = zc.getBytes(e.name);
+        Buffer b = new Buffer(LOCHDR + nameBytes.length + 64 +
+                              (e.extra == null ? 0 : e.extra.length));
+        boolean hasZip64 = e.csize >= ZIP64_MAGICVAL || e.size >= ZIP64_MAGICVAL;
+        int elen = getExtraLen(e.extra);
+        b.writeInt(LOCSIG);                 // LOC header signature
+        b.writeShort(hasZip64 ? 45 : version(e)); // version needed to extract
+        b.writeShort(e.flag);               // general purpose bit flag
+        b.writeShort(e.method);             // compression method
+        b.writeInt(job.dostime);            // last modification time
+        b.writeInt(e.crc);                  // crc-32
+        if (hasZip64) {
+            b.writeInt(ZIP64_MAGICVAL);
+            b.writeInt(ZIP64_MAGICVAL);
+            elen += 20;        //headid(2) + size(2) + size(8) + csize(8)
+        } else {
+            b.writeInt(e.csize);            // compressed size
+            b.writeInt(e.size);             // uncompressed size
+        }
+        b.writeShort(nameBytes.length);
+
+        int elenEXTT = 0;               // info-zip extended timestamp
+        int flagEXTT = 0;
+        if (e.mtime != null) {
+            elenEXTT += 4;
+            flagEXTT |= EXTT_FLAG_LMT;
+        }
+        if (e.atime != null) {
+            elenEXTT += 4;
+            flagEXTT |= EXTT_FLAG_LAT;
+        }
+        if (e.ctime != null) {
+            elenEXTT += 4;
+            flagEXTT |= EXTT_FLAT_CT;
+        }
+        if (flagEXTT != 0)
+            elen += (elenEXTT + 5);    // headid(2) + size(2) + flag(1) + data
+        b.writeShort(elen);
+        b.writeBytes(nameBytes, 0, nameBytes.length);
+        if (hasZip64) {
+            b.writeShort(ZIP64_EXTID);
+            b.writeShort(16);
+            b.writeLong(e.size);
+            b.writeLong(e.csize);
+        }
+        if (flagEXTT != 0) {
+            b.writeShort(EXTID_EXTT);
+            b.writeShort(elenEXTT + 1);      // flag + data
+            b.writeByte(flagEXTT);
+            if (e.mtime != null)
+                b.writeInt(fileTimeToUnixTime(e.mtime));
+            if (e.atime != null)
+                b.writeInt(fileTimeToUnixTime(e.atime));
+            if (e.ctime != null)
+                b.writeInt(fileTimeToUnixTime(e.ctime));
+        }
+        writeExtra(b, e.extra);
+        return b;
+    }
+
+    /*
+     * Appends the central directory (CEN) header of the entry of a job,
+     * whose LOC header is at the given offset.
+     */
+    private void writeCEN(Job job, long locoff) throws ZipException {
+        ZipEntry e = job.entry;
+        Buffer b = cen;
+        int version = version(e);
+        long csize = e.csize;
+        long size = e.size;
+        long offset = locoff;
+        int elenZIP64 = 0;
+        boolean hasZip64 = false;
+
+        if (e.csize >= ZIP64_MAGICVAL) {
+            csize = ZIP64_MAGICVAL;
+            elenZIP64 += 8;              // csize(8)
+            hasZip64 = true;
+        }
+        if (e.size >= ZIP64_MAGICVAL) {
+            size = ZIP64_MAGICVAL;    // size(8)
+            elenZIP64 += 8;
+            hasZip64 = true;
+        }
+        if (locoff >= ZIP64_MAGICVAL) {
+            offset = ZIP64_MAGICVAL;
+            elenZIP64 += 8;              // offset(8)
+            hasZip64 = true;
+        }
+        b.writeInt(CENSIG);           // CEN header signature
+        if (hasZip64) {
+            b.writeShort(45);         // ver 4.5 for zip64
+            b.writeShort(45);
+        } else {
+            b.writeShort(version);    // version made by
+            b.writeShort(version);    // version needed to extract
+        }
+        b.writeShort(e.flag);         // general purpose bit flag
+        b.writeShort(e.method);       // compression method
+        b.writeInt(job.dostime);      // last modification time
+        b.writeInt(e.crc);            // crc-32
+        b.writeInt(csize);            // compressed size
+        b.writeInt(size);             // uncompressed size
+        byte[] nameBytes = zc.getBytes(e.name);
+        b.writeShort(nameBytes.length);
+
+        int elen = getExtraLen(e.extra);
+        if (hasZip64) {
+            elen += (elenZIP64 + 4);// + headid(2) + datasize(2)
+        }
+        // cen info-zip extended timestamp only outputs mtime
+        // but set the flag for a/ctime, if present in loc
+        int flagEXTT = 0;
+        if (e.mtime != null) {
+            elen += 4;              // + mtime(4)
+            flagEXTT |= EXTT_FLAG_LMT;
+        }
+        if (e.atime != null) {
+            flagEXTT |= EXTT_FLAG_LAT;
+        }
+        if (e.ctime != null) {
+            flagEXTT |= EXTT_FLAT_CT;
+        }
+        if (flagEXTT != 0) {
+            elen += 5;             // headid + sz + flag
+        }
+        b.writeShort(elen);
+        byte[] commentBytes;
+        if (e.comment != null) {
+            commentBytes = zc.getBytes(e.comment);
+            b.writeShort(Math.min(commentBytes.length, 0xffff));
+        } else {
+            commentBytes = null;
+            b.writeShort(0);
+        }
+        b.writeShort(0);              // starting disk number
+        b.writeShort(0);              // internal file attributes (unused)
+        b.writeInt(0);                // external file attributes (unused)
+        b.writeInt(offset);           // relative offset of local header
+        b.writeBytes(nameBytes, 0, nameBytes.length);
+
+        // take care of EXTID_ZIP64 and EXTID_EXTT
+        if (hasZip64) {
+            b.writeShort(ZIP64_EXTID);// Zip64 extra
+            b.writeShort(elenZIP64);
+            if (size == ZIP64_MAGICVAL)
+                b.writeLong(e.size);
+            if (csize == ZIP64_MAGICVAL)
+                b.writeLong(e.csize);
+            if (offset == ZIP64_MAGICVAL)
+                b.writeLong(locoff);
+        }
+        if (flagEXTT != 0) {
+            b.writeShort(EXTID_EXTT);
+            if (e.mtime != null) {
+                b.writeShort(5);      // flag + mtime
+                b.writeByte(flagEXTT);
+                b.writeInt(fileTimeToUnixTime(e.mtime));
+            } else {
+                b.writeShort(1);      // flag only
+                b.writeByte(flagEXTT);
+            }
+        }
+        writeExtra(b, e.extra);
+        if (commentBytes != null) {
+            b.writeBytes(commentBytes, 0, Math.min(commentBytes.length, 0xffff));
+        }
+    }
+
+    /*
+     * Writes end of central directory (END) header, and the ZIP64 END
+     * header and locator if needed, with the ZIP64 END header at end64.
+     */
+    private void writeEND(Buffer b, long end64, long off, long len) {
+        boolean hasZip64 = false;
+        long xlen = len;
+        long xoff = off;
+        if (xlen >= ZIP64_MAGICVAL) {
+            xlen = ZIP64_MAGICVAL;
+            hasZip64 = true;
+        }
+        if (xoff >= ZIP64_MAGICVAL) {
+            xoff = ZIP64_MAGICVAL;
+            hasZip64 = true;
+        }
+        int count = (int)Math.min(this.count, ZIP64_MAGICCOUNT);
+        if (count >= ZIP64_MAGICCOUNT) {
+            hasZip64 = true;
+        }
+        if (hasZip64) {
+            //zip64 end of central directory record
+            b.writeInt(ZIP64_ENDSIG);        // zip64 END record signature
+            b.writeLong(ZIP64_ENDHDR - 12);  // size of zip64 end
+            b.writeShort(45);                // version made by
+            b.writeShort(45);                // version needed to extract
+            b.writeInt(0);                   // number of this disk
+            b.writeInt(0);                   // central directory start disk
+            b.writeLong(this.count);         // number of directory entires on disk
+            b.writeLong(this.count);         // number of directory entires
+            b.writeLong(len);                // length of central directory
+            b.writeLong(off);                // offset of central directory
+
+            //zip64 end of central directory locator
+            b.writeInt(ZIP64_LOCSIG);        // zip64 END locator signature
+            b.writeInt(0);                   // zip64 END start disk
+            b.writeLong(end64);              // offset of zip64 END
+            b.writeInt(1);                   // total number of disks (?)
+        }
+        b.writeInt(ENDSIG);                 // END record signature
+        b.writeShort(0);                    // number of this disk
+        b.writeShort(0);                    // central directory start disk
+        b.writeShort(count);                // number of directory entries on disk
+        b.writeShort(count);                // total number of directory entries
+        b.writeInt(xlen);                   // length of central directory
+        b.writeInt(xoff);                   // offset of central directory
+        if (comment != null) {              // zip file comment
+            b.writeShort(comment.length);
+            b.writeBytes(comment, 0, comment.length);
+        } else {
+            b.writeShort(0);
+        }
+    }
+
+    private static int version(ZipEntry e) throws ZipException {
+        switch (e.method) {
+        case DEFLATED: return 20;
+        case STORED:   return 10;
+        default: throw new ZipException("unsupported compression method");
+        }
+    }
+
+    /*
+     * Returns the length of extra data without EXTT and ZIP64.
+     */
+    private static int getExtraLen(byte[] extra) {
+        if (extra == null)
+            return 0;
+        int skipped = 0;
+        int len = extra.length;
+        int off = 0;
+        while (off + 4 <= len) {
+            int tag = get16(extra, off);
+            int sz = get16(extra, off + 2);
+            if (sz < 0 || (off + 4 + sz) > len) {
+                break;
+            }
+            if (tag == EXTID_EXTT || tag == EXTID_ZIP64) {
+                skipped += (sz + 4);
+            }
+            off += (sz + 4);
+        }
+        return len - skipped;
+    }
+
+    /*
+     * Writes extra data without EXTT and ZIP64.
+     */
+    private static void writeExtra(Buffer b, byte[] extra) {
+        if (extra != null) {
+            int len = extra.length;
+            int off = 0;
+            while (off + 4 <= len) {
+                int tag = get16(extra, off);
+                int sz = get16(extra, off + 2);
+                if (sz < 0 || (off + 4 + sz) > len) {
+                    b.writeBytes(extra, off, len - off);
+                    return;
+                }
+                if (tag != EXTID_EXTT && tag != EXTID_ZIP64) {
+                    b.writeBytes(extra, off, sz + 4);
+                }
+                off += (sz + 4);
+            }
+            if (off < len) {
+                b.writeBytes(extra, off, len - off);
+            }
+        }
+    }
+
+    /*
+     * A growable byte array written in little-endian byte order.
+     */
+    private static final class Buffer {
+        byte[] buf;
+        int len;
+
+        Buffer(int size) {
+            buf = new byte[size];
+        }
+
+        private void ensureCapacity(int n) {
+            if (len + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(len + n, buf.length * 2));
+            }
+        }
+
+        void writeByte(int v) {
+            ensureCapacity(1);
+            buf[len++] = (byte)v;
+        }
+
+        void writeShort(int v) {
+            ensureCapacity(2);
+            buf[len++] = (byte)(v >>> 0);
+            buf[len++] = (byte)(v >>> 8);
+        }
+
+        void writeInt(long v) {
+            ensureCapacity(4);
+            buf[len++] = (byte)(v >>>  0);
+            buf[len++] = (byte)(v >>>  8);
+            buf[len++] = (byte)(v >>> 16);
+            buf[len++] = (byte)(v >>> 24);
+        }
+
+        void writeLong(long v) {
+            writeInt(v);
+            writeInt(v >>> 32);
+        }
+
+        void writeBytes(byte[] b, int off, int n) {
+            ensureCapacity(n);
+            System.arraycopy(b, off, buf, len, n);
+            len += n;
+        }
+    }
+}
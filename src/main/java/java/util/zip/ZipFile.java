@@ -30,10 +30,10 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
+import java.io.RandomAccessFile;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -42,6 +42,7 @@ import java.util.NoSuchElementException;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -55,11 +56,17 @@ import static java.util.zip.ZipUtils.*;
  * or method in this class will cause a {@link NullPointerException} to be
  * thrown.
  *
+ * @implNote The central directory is indexed when the zip file is opened,
+ * and looking up entries, enumerating them and reading their contents
+ * don't lock the {@code ZipFile}, so that many threads can read from the
+ * same zip file concurrently.  Zip files that are open at the same time
+ * share their index and file descriptor.
+ *
  * @author      David Connelly
  */
 public
 class ZipFile implements ZipConstants, Closeable {
-    private long jzfile;           // address of jzfile data
+    private Source zsrc;           // the indexed zip file
     private final String name;     // zip file name
     private final int total;       // total number of entries
     private final boolean locsig;  // if zip file starts with LOCSIG (usually true)
@@ -82,23 +89,6 @@ class ZipFile implements ZipConstants, Closeable {
      */
     public static final int OPEN_DELETE = 0x4;
 
-    static {
-        /* Zip library is loaded from System.initializeSystemClass */
-        initIDs();
-    }
-
-    private static native void initIDs();
-
-    private static final boolean usemmap;
-
-    static {
-        // A system prpperty to disable mmap use to avoid vm crash when
-        // in-use zip file is accidently overwritten by others.
-        String prop = sun.misc.VM.getSavedProperty("sun.zip.disableMemoryMapping");
-        usemmap = (prop == null ||
-                   !(prop.length() == 0 || prop.equalsIgnoreCase("true")));
-    }
-
     /**
      * Opens a zip file for reading.
      *
@@ -217,12 +207,12 @@ class ZipFile implements ZipConstants, Closeable {
             throw new NullPointerException("charset is null");
         this.zc = ZipCoder.get(charset);
         long t0 = System.nanoTime();
-        jzfile = open(name, mode, file.lastModified(), usemmap);
+        zsrc = Source.get(file, (mode & OPEN_DELETE) != 0);
         sun.misc.PerfCounter.getZipFileOpenTime().addElapsedTimeFrom(t0);
         sun.misc.PerfCounter.getZipFileCount().increment();
         this.name = name;
-        this.total = getTotal(jzfile);
-        this.locsig = startsWithLOC(jzfile);
+        this.total = zsrc.total;
+        this.locsig = zsrc.startsWithLoc;
     }
 
     /**
@@ -284,13 +274,11 @@ class ZipFile implements ZipConstants, Closeable {
      * Since 1.7
      */
     public String getComment() {
-        synchronized (this) {
-            ensureOpen();
-            byte[] bcomm = getCommentBytes(jzfile);
-            if (bcomm == null)
-                return null;
-            return zc.toString(bcomm, bcomm.length);
-        }
+        Source zsrc = ensureOpen();
+        byte[] bcomm = zsrc.comment;
+        if (bcomm == null)
+            return null;
+        return zc.toString(bcomm, bcomm.length);
     }
 
     /**
@@ -305,25 +293,14 @@ class ZipFile implements ZipConstants, Closeable {
         if (name == null) {
             throw new NullPointerException("name");
         }
-        long jzentry = 0;
-        synchronized (this) {
-            ensureOpen();
-            jzentry = getEntry(jzfile, zc.getBytes(name), true);
-            if (jzentry != 0) {
-                ZipEntry ze = getZipEntry(name, jzentry);
-                freeEntry(jzfile, jzentry);
-                return ze;
-            }
+        Source zsrc = ensureOpen();
+        int pos = zsrc.getEntryPos(zc.getBytes(name), true);
+        if (pos != -1) {
+            return getZipEntry(zsrc, name, pos);
         }
         return null;
     }
 
-    private static native long getEntry(long jzfile, byte[] name,
-                                        boolean addSlash);
-
-    // freeEntry releases the C jzentry struct.
-    private static native void freeEntry(long jzfile, long jzentry);
-
     // the outstanding inputstreams that need to be closed,
     // mapped to the inflater objects they use.
     private final Map<InputStream, Inflater> streams = new WeakHashMap<>();
@@ -346,41 +323,38 @@ class ZipFile implements ZipConstants, Closeable {
         if (entry == null) {
             throw new NullPointerException("entry");
         }
-        long jzentry = 0;
-        ZipFileInputStream in = null;
-        synchronized (this) {
-            ensureOpen();
-            if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
-                jzentry = getEntry(jzfile, zc.getBytesUTF8(entry.name), false);
-            } else {
-                jzentry = getEntry(jzfile, zc.getBytes(entry.name), false);
-            }
-            if (jzentry == 0) {
-                return null;
-            }
-            in = new ZipFileInputStream(jzentry);
+        Source zsrc = ensureOpen();
+        int pos;
+        if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
+            pos = zsrc.getEntryPos(zc.getBytesUTF8(entry.name), false);
+        } else {
+            pos = zsrc.getEntryPos(zc.getBytes(entry.name), false);
+        }
+        if (pos == -1) {
+            return null;
+        }
+        ZipFileInputStream in = new ZipFileInputStream(zsrc, pos);
 
-            switch (getEntryMethod(jzentry)) {
-            case STORED:
-                synchronized (streams) {
-                    streams.put(in, null);
-                }
-                return in;
-            case DEFLATED:
-                // MORE: Compute good size for inflater stream:
-                long size = getEntrySize(jzentry) + 2; // Inflater likes a bit of slack
-                if (size > 65536) size = 8192;
-                if (size <= 0) size = 4096;
-                Inflater inf = getInflater();
-                InputStream is =
-                    new ZipFileInflaterInputStream(in, inf, (int)size);
-                synchronized (streams) {
-                    streams.put(is, inf);
-                }
-                return is;
-            default:
-                throw new ZipException("invalid compression method");
+        switch (zsrc.CENHOW(pos)) {
+        case STORED:
+            synchronized (streams) {
+                streams.put(in, null);
+            }
+            return in;
+        case DEFLATED:
+            // MORE: Compute good size for inflater stream:
+            long size = in.size() + 2; // Inflater likes a bit of slack
+            if (size > 65536) size = 8192;
+            if (size <= 0) size = 4096;
+            Inflater inf = getInflater();
+            InputStream is =
+                new ZipFileInflaterInputStream(in, inf, (int)size);
+            synchronized (streams) {
+                streams.put(is, inf);
             }
+            return is;
+        default:
+            throw new ZipException("invalid compression method");
         }
     }
 
@@ -445,11 +419,9 @@ class ZipFile implements ZipConstants, Closeable {
      */
     private Inflater getInflater() {
         Inflater inf;
-        synchronized (inflaterCache) {
-            while (null != (inf = inflaterCache.poll())) {
-                if (false == inf.ended()) {
-                    return inf;
-                }
+        while (null != (inf = inflaterCache.poll())) {
+            if (false == inf.ended()) {
+                return inf;
             }
         }
         return new Inflater(true);
@@ -461,14 +433,17 @@ class ZipFile implements ZipConstants, Closeable {
     private void releaseInflater(Inflater inf) {
         if (false == inf.ended()) {
             inf.reset();
-            synchronized (inflaterCache) {
-                inflaterCache.add(inf);
+            inflaterCache.push(inf);
+            // the zip file may have been closed concurrently
+            if (closeRequested && inflaterCache.remove(inf)) {
+                inf.end();
             }
         }
     }
 
     // List of available Inflater objects for decompression
-    private Deque<Inflater> inflaterCache = new ArrayDeque<>();
+    private final ConcurrentLinkedDeque<Inflater> inflaterCache =
+        new ConcurrentLinkedDeque<>();
 
     /**
      * Returns the path name of the ZIP file.
@@ -490,10 +465,8 @@ class ZipFile implements ZipConstants, Closeable {
         }
 
         public boolean hasNext() {
-            synchronized (ZipFile.this) {
-                ensureOpen();
-                return i < total;
-            }
+            ensureOpen();
+            return i < total;
         }
 
         public ZipEntry nextElement() {
@@ -501,31 +474,11 @@ class ZipFile implements ZipConstants, Closeable {
         }
 
         public ZipEntry next() {
-            synchronized (ZipFile.this) {
-                ensureOpen();
-                if (i >= total) {
-                    throw new NoSuchElementException();
-                }
-                long jzentry = getNextEntry(jzfile, i++);
-                if (jzentry == 0) {
-                    String message;
-                    if (closeRequested) {
-                        message = "ZipFile concurrently closed";
-                    } else {
-                        message = getZipMessage(ZipFile.this.jzfile);
-                    }
-                    throw new ZipError("jzentry == 0" +
-                                       ",\n jzfile = " + ZipFile.this.jzfile +
-                                       ",\n total = " + ZipFile.this.total +
-                                       ",\n name = " + ZipFile.this.name +
-                                       ",\n i = " + i +
-                                       ",\n message = " + message
-                        );
-                }
-                ZipEntry ze = getZipEntry(null, jzentry);
-                freeEntry(jzfile, jzentry);
-                return ze;
+            Source zsrc = ensureOpen();
+            if (i >= total) {
+                throw new NoSuchElementException();
             }
+            return getZipEntry(zsrc, null, zsrc.getEntryPos(i++));
         }
     }
 
@@ -554,26 +507,32 @@ class ZipFile implements ZipConstants, Closeable {
                         Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
     }
 
-    private ZipEntry getZipEntry(String name, long jzentry) {
+    private ZipEntry getZipEntry(Source zsrc, String name, int pos) {
         ZipEntry e = new ZipEntry();
-        e.flag = getEntryFlag(jzentry);  // get the flag first
+        e.flag = zsrc.CENFLG(pos);  // get the flag first
+        int nlen = zsrc.CENNAM(pos);
+        int elen = zsrc.CENEXT(pos);
+        int clen = zsrc.CENCOM(pos);
         if (name != null) {
             e.name = name;
         } else {
-            byte[] bname = getEntryBytes(jzentry, JZENTRY_NAME);
+            byte[] bname = zsrc.getBytes(pos + CENHDR, nlen);
             if (!zc.isUTF8() && (e.flag & EFS) != 0) {
                 e.name = zc.toStringUTF8(bname, bname.length);
             } else {
                 e.name = zc.toString(bname, bname.length);
             }
         }
-        e.time = dosToJavaTime(getEntryTime(jzentry));
-        e.crc = getEntryCrc(jzentry);
-        e.size = getEntrySize(jzentry);
-        e.csize = getEntryCSize(jzentry);
-        e.method = getEntryMethod(jzentry);
-        e.setExtra0(getEntryBytes(jzentry, JZENTRY_EXTRA), false);
-        byte[] bcomm = getEntryBytes(jzentry, JZENTRY_COMMENT);
+        e.time = dosToJavaTime(zsrc.CENTIM(pos));
+        e.crc = zsrc.CENCRC(pos);
+        e.size = zsrc.size(pos);
+        e.csize = zsrc.csize(pos);
+        e.method = zsrc.CENHOW(pos);
+        if (elen != 0) {
+            e.setExtra0(zsrc.getBytes(pos + CENHDR + nlen, elen), false);
+        }
+        byte[] bcomm = (clen == 0) ? null :
+            zsrc.getBytes(pos + CENHDR + nlen + elen, clen);
         if (bcomm == null) {
             e.comment = null;
         } else {
@@ -586,8 +545,6 @@ class ZipFile implements ZipConstants, Closeable {
         return e;
     }
 
-    private static native long getNextEntry(long jzfile, int i);
-
     /**
      * Returns the number of entries in the ZIP file.
      * @return the number of entries in the ZIP file
@@ -629,18 +586,16 @@ class ZipFile implements ZipConstants, Closeable {
 
             // Release cached inflaters
             Inflater inf;
-            synchronized (inflaterCache) {
-                while (null != (inf = inflaterCache.poll())) {
-                    inf.end();
-                }
+            while (null != (inf = inflaterCache.poll())) {
+                inf.end();
             }
 
-            if (jzfile != 0) {
-                // Close the zip file
-                long zf = this.jzfile;
-                jzfile = 0;
+            if (zsrc != null) {
+                // Release the zip file
+                Source zsrc = this.zsrc;
+                this.zsrc = null;
 
-                close(zf);
+                Source.release(zsrc);
             }
         }
     }
@@ -663,16 +618,16 @@ class ZipFile implements ZipConstants, Closeable {
         close();
     }
 
-    private static native void close(long jzfile);
-
-    private void ensureOpen() {
+    private Source ensureOpen() {
         if (closeRequested) {
             throw new IllegalStateException("zip file closed");
         }
 
-        if (jzfile == 0) {
+        Source zsrc = this.zsrc;
+        if (zsrc == null) {
             throw new IllegalStateException("The object is not initialized.");
         }
+        return zsrc;
     }
 
     private void ensureOpenOrZipException() throws IOException {
@@ -687,22 +642,37 @@ class ZipFile implements ZipConstants, Closeable {
      */
    private class ZipFileInputStream extends InputStream {
         private volatile boolean closeRequested = false;
-        protected long jzentry; // address of jzentry data
+        private final Source zsrc; // the zip file the entry is read from
         private   long pos;     // current position within entry data
         protected long rem;     // number of remaining bytes within entry
         protected long size;    // uncompressed size of this entry
 
-        ZipFileInputStream(long jzentry) {
-            pos = 0;
-            rem = getEntryCSize(jzentry);
-            size = getEntrySize(jzentry);
-            this.jzentry = jzentry;
+        ZipFileInputStream(Source zsrc, int cenpos) throws IOException {
+            rem = zsrc.csize(cenpos);
+            size = zsrc.size(cenpos);
+            this.zsrc = zsrc;
+            // the data offset is resolved from the LOC header on first read
+            pos = -zsrc.locoff(cenpos);
+        }
+
+        private void initDataOffset() throws IOException {
+            if (pos <= 0) {
+                byte[] loc = new byte[LOCHDR];
+                pos = -pos + zsrc.locpos;
+                if (zsrc.readFullyAt(loc, 0, LOCHDR, pos) != LOCHDR) {
+                    throw new ZipException("ZipFile error reading zip file");
+                }
+                if (get32(loc, 0) != LOCSIG) {
+                    throw new ZipException("ZipFile invalid LOC header (bad signature)");
+                }
+                pos += LOCHDR + get16(loc, LOCNAM) + get16(loc, LOCEXT);
+            }
         }
 
         public int read(byte b[], int off, int len) throws IOException {
-            synchronized (ZipFile.this) {
-                long rem = this.rem;
-                long pos = this.pos;
+            long rem;
+            synchronized (this) {
+                rem = this.rem;
                 if (rem == 0) {
                     return -1;
                 }
@@ -714,11 +684,11 @@ class ZipFile implements ZipConstants, Closeable {
                 }
 
                 ensureOpenOrZipException();
-                len = ZipFile.read(ZipFile.this.jzfile, jzentry, pos, b,
-                                   off, len);
+                initDataOffset();
+                len = zsrc.readAt(b, off, len, pos);
                 if (len > 0) {
                     this.pos = (pos + len);
-                    this.rem = (rem - len);
+                    this.rem = (rem -= len);
                 }
             }
             if (rem == 0) {
@@ -736,11 +706,14 @@ class ZipFile implements ZipConstants, Closeable {
             }
         }
 
-        public long skip(long n) {
-            if (n > rem)
-                n = rem;
-            pos += n;
-            rem -= n;
+        public long skip(long n) throws IOException {
+            synchronized (this) {
+                initDataOffset();
+                if (n > rem)
+                    n = rem;
+                pos += n;
+                rem -= n;
+            }
             if (rem == 0) {
                 close();
             }
@@ -761,12 +734,6 @@ class ZipFile implements ZipConstants, Closeable {
             closeRequested = true;
 
             rem = 0;
-            synchronized (ZipFile.this) {
-                if (jzentry != 0 && ZipFile.this.jzfile != 0) {
-                    freeEntry(ZipFile.this.jzfile, jzentry);
-                    jzentry = 0;
-                }
-            }
             synchronized (streams) {
                 streams.remove(this);
             }
@@ -783,6 +750,9 @@ class ZipFile implements ZipConstants, Closeable {
                 public boolean startsWithLocHeader(ZipFile zip) {
                     return zip.startsWithLocHeader();
                 }
+                public String[] getMetaInfEntryNames(ZipFile zip) {
+                    return zip.getMetaInfEntryNames();
+                }
              }
         );
     }
@@ -795,26 +765,556 @@ class ZipFile implements ZipConstants, Closeable {
         return locsig;
     }
 
-    private static native long open(String name, int mode, long lastModified,
-                                    boolean usemmap) throws IOException;
-    private static native int getTotal(long jzfile);
-    private static native boolean startsWithLOC(long jzfile);
-    private static native int read(long jzfile, long jzentry,
-                                   long pos, byte[] b, int off, int len);
-
-    // access to the native zentry object
-    private static native long getEntryTime(long jzentry);
-    private static native long getEntryCrc(long jzentry);
-    private static native long getEntryCSize(long jzentry);
-    private static native long getEntrySize(long jzentry);
-    private static native int getEntryMethod(long jzentry);
-    private static native int getEntryFlag(long jzentry);
-    private static native byte[] getCommentBytes(long jzfile);
-
-    private static final int JZENTRY_NAME = 0;
-    private static final int JZENTRY_EXTRA = 1;
-    private static final int JZENTRY_COMMENT = 2;
-    private static native byte[] getEntryBytes(long jzentry, int type);
-
-    private static native String getZipMessage(long jzfile);
+    /**
+     * Returns the names of all entries whose names start with "META-INF/"
+     * (ignoring case), or {@code null} if there are none.
+     */
+    private String[] getMetaInfEntryNames() {
+        Source zsrc = ensureOpen();
+        int[] metapos = zsrc.metanames;
+        if (metapos.length == 0) {
+            return null;
+        }
+        String[] names = new String[metapos.length];
+        for (int i = 0; i < metapos.length; i++) {
+            int pos = metapos[i];
+            byte[] bname = zsrc.getBytes(pos + CENHDR, zsrc.CENNAM(pos));
+            if (!zc.isUTF8() && (zsrc.CENFLG(pos) & EFS) != 0) {
+                names[i] = zc.toStringUTF8(bname, bname.length);
+            } else {
+                names[i] = zc.toString(bname, bname.length);
+            }
+        }
+        return names;
+    }
+
+    /*
+     * The opened zip file and an index of its central directory.
+     *
+     * The central directory (CEN) is read into a byte array once when the
+     * zip file is opened.  Entries are then looked up through an open
+     * addressing hash table of their name hashes, so lookups don't lock.
+     * Entry data is read by seeking the RandomAccessFile and reading, with
+     * the RandomAccessFile locked only for the seek and the read.  ZipFile
+     * objects opened on the same unmodified file share a Source.
+     */
+    private static final class Source {
+        private static final int META_INF_LEN = 9;  // "META-INF/".length()
+        private static final int[] EMPTY_META = new int[0];
+
+        private static final HashMap<Key, Source> files = new HashMap<>();
+
+        private final Key key;          // null if not shared
+        private int refs = 1;           // guarded by files
+
+        private final RandomAccessFile zfile;
+        private final byte[] cen;       // the CEN
+        final int total;                // total number of entries
+        final long locpos;              // position of first LOC header
+        final boolean startsWithLoc;    // if the zip file starts with LOCSIG
+        final byte[] comment;           // zip file comment, or null
+        final int[] metanames;          // CEN positions of META-INF/ names
+
+        private final int[] positions;  // CEN position of each entry
+        private final int[] hashes;     // name hash of each entry
+        private final int[] table;      // entry index + 1, or 0 if empty
+        private final int tablemask;
+
+        private static final class Key {
+            final String path;
+            final long lastModified;
+            final long length;
+
+            Key(File file) {
+                this.path = file.getPath();
+                this.lastModified = file.lastModified();
+                this.length = file.length();
+            }
+
+            public int hashCode() {
+                return path.hashCode() + 31 * Long.hashCode(lastModified) +
+                       Long.hashCode(length);
+            }
+
+            public boolean equals(Object obj) {
+                if (!(obj instanceof Key))
+                    return false;
+                Key that = (Key)obj;
+                return path.equals(that.path) &&
+                       lastModified == that.lastModified &&
+                       length == that.length;
+            }
+        }
+
+        static Source get(File file, boolean toDelete) throws IOException {
+            if (toDelete) {
+                return new Source(null, file, true);
+            }
+            Key key = new Key(file);
+            Source src;
+            synchronized (files) {
+                src = files.get(key);
+                if (src != null) {
+                    src.refs++;
+                    return src;
+                }
+            }
+            src = new Source(key, file, false);
+            synchronized (files) {
+                Source prev = files.get(key);
+                if (prev != null) {    // someone else opened it first
+                    prev.refs++;
+                    src.close();
+                    return prev;
+                }
+                files.put(key, src);
+                return src;
+            }
+        }
+
+        static void release(Source src) throws IOException {
+            if (src.key != null) {
+                synchronized (files) {
+                    if (--src.refs > 0) {
+                        return;
+                    }
+                    files.remove(src.key);
+                }
+            }
+            src.close();
+        }
+
+        private Source(Key key, File file, boolean toDelete)
+            throws IOException
+        {
+            this.key = key;
+            this.zfile = new RandomAccessFile(file, "r");
+            try {
+                if (toDelete) {
+                    file.delete();
+                }
+
+                long ziplen = zfile.length();
+                if (ziplen == 0) {
+                    throw new ZipException("zip file is empty");
+                }
+                End end = findEND(ziplen);
+                this.comment = end.comment;
+
+                long cenpos = end.endpos - end.cenlen;  // position of CEN
+                long locpos = cenpos - end.cenoff;      // position of first LOC
+                if (end.cenlen > end.endpos) {
+                    throw new ZipException("invalid END header (bad central directory size)");
+                }
+                if (locpos < 0) {
+                    throw new ZipException("invalid END header (bad central directory offset)");
+                }
+                if (end.cenlen > Integer.MAX_VALUE - ENDHDR) {
+                    throw new ZipException("invalid END header (central directory too large)");
+                }
+                this.locpos = locpos;
+                this.cen = readCEN(cenpos, (int)end.cenlen);
+
+                byte[] sig = new byte[4];
+                this.startsWithLoc = readFullyAt(sig, 0, 4, 0) == 4 &&
+                                     get32(sig, 0) == LOCSIG;
+
+                // index the entries
+                int cenlen = (int)end.cenlen;
+                // The END entry count is not trusted beyond the number of
+                // headers that fit in the CEN, the array grows if it is low
+                int[] positions = new int[Math.min(end.centot, cenlen / CENHDR)];
+                int total = 0;
+                int pos = 0;
+                int limit = cenlen - CENHDR;
+                while (pos <= limit) {
+                    if (CENSIG(pos) != CENSIG) {
+                        throw new ZipException("invalid CEN header (bad signature)");
+                    }
+                    if ((CENFLG(pos) & 1) != 0) {
+                        throw new ZipException("invalid CEN header (encrypted entry)");
+                    }
+                    int method = CENHOW(pos);
+                    if (method != STORED && method != DEFLATED) {
+                        throw new ZipException("invalid CEN header (bad compression method)");
+                    }
+                    int next = pos + CENHDR + CENNAM(pos) + CENEXT(pos) + CENCOM(pos);
+                    if (next > cenlen) {
+                        throw new ZipException("invalid CEN header (bad header size)");
+                    }
+                    if (total == positions.length) {
+                        // An END header that is wrong about the entry
+                        // count usually means there are more than 65535
+                        positions = Arrays.copyOf(positions,
+                                                  Math.max(16, total * 2));
+                    }
+                    positions[total++] = pos;
+                    pos = next;
+                }
+                if (pos != cenlen) {
+                    throw new ZipException("invalid CEN header (bad header size)");
+                }
+                if (total != positions.length) {
+                    positions = Arrays.copyOf(positions, total);
+                }
+                this.total = total;
+                this.positions = positions;
+
+                // Hash the names into a table at least twice the size of
+                // the entry count.  As with the native implementation, the
+                // first of any duplicate names is the one found.
+                int tablelen = Integer.highestOneBit(Math.max(total, 1)) << 2;
+                int[] table = new int[tablelen];
+                int[] hashes = new int[total];
+                int mask = tablelen - 1;
+                int nmeta = 0;
+                for (int i = 0; i < total; i++) {
+                    int p = positions[i];
+                    int h = hashN(p + CENHDR, CENNAM(p), 0);
+                    hashes[i] = h;
+                    int slot = h & mask;
+                    while (table[slot] != 0) {
+                        int j = table[slot] - 1;
+                        if (hashes[j] == h && namesEqual(positions[j], p)) {
+                            break;
+                        }
+                        slot = (slot + 1) & mask;
+                    }
+                    if (table[slot] == 0) {
+                        table[slot] = i + 1;
+                    }
+                    if (isMetaName(p)) {
+                        nmeta++;
+                    }
+                }
+                this.table = table;
+                this.tablemask = mask;
+                this.hashes = hashes;
+
+                if (nmeta == 0) {
+                    this.metanames = EMPTY_META;
+                } else {
+                    int[] metanames = new int[nmeta];
+                    nmeta = 0;
+                    for (int i = 0; i < total; i++) {
+                        if (isMetaName(positions[i])) {
+                            metanames[nmeta++] = positions[i];
+                        }
+                    }
+                    this.metanames = metanames;
+                }
+            } catch (IOException | RuntimeException x) {
+                zfile.close();
+                throw x;
+            }
+        }
+
+        private void close() throws IOException {
+            // wait for a read in progress, so its descriptor can't be reused
+            synchronized (zfile) {
+                zfile.close();
+            }
+        }
+
+        /* The END header, or the ZIP64 END header if there is one. */
+        private static class End {
+            int  centot;    // total number of entries
+            long cenlen;    // size of the CEN
+            long cenoff;    // offset of the CEN relative to the first LOC
+            long endpos;    // position of the END header
+            byte[] comment; // zip file comment, or null
+        }
+
+        private End findEND(long ziplen) throws IOException {
+            byte[] buf = new byte[READBLOCKSZ];
+            long minHDR = (ziplen - END_MAXLEN) > 0 ? ziplen - END_MAXLEN : 0;
+            long minPos = minHDR - (buf.length - ENDHDR);
+            for (long pos = ziplen - buf.length; pos >= minPos; pos -= (buf.length - ENDHDR)) {
+                int off = 0;
+                if (pos < 0) {
+                    // Pretend there are some NUL bytes before start of file
+                    off = (int)-pos;
+                    Arrays.fill(buf, 0, off, (byte)0);
+                }
+                int len = buf.length - off;
+                if (readFullyAt(buf, off, len, pos + off) != len) {
+                    throw new ZipException("zip END header not found");
+                }
+                // Now scan the block backwards for END header signature
+                for (int i = buf.length - ENDHDR; i >= 0; i--) {
+                    if (buf[i+0] == (byte)'P'    &&
+                        buf[i+1] == (byte)'K'    &&
+                        buf[i+2] == (byte)'\005' &&
+                        buf[i+3] == (byte)'\006') {
+                        End end = new End();
+                        end.centot = get16(buf, i + ENDTOT);
+                        end.cenlen = get32(buf, i + ENDSIZ);
+                        end.cenoff = get32(buf, i + ENDOFF);
+                        end.endpos = pos + i;
+                        int comlen = get16(buf, i + ENDCOM);
+                        if (end.endpos + ENDHDR + comlen != ziplen) {
+                            // The comment length doesn't match, which is
+                            // usually caused by bytes padded after the
+                            // zip file.  Accept the header only if the
+                            // CEN and first LOC headers are where it says.
+                            byte[] sbuf = new byte[4];
+                            long cenpos = end.endpos - end.cenlen;
+                            long locpos = cenpos - end.cenoff;
+                            if (cenpos < 0 ||
+                                locpos < 0 ||
+                                readFullyAt(sbuf, 0, 4, cenpos) != 4 ||
+                                get32(sbuf, 0) != CENSIG ||
+                                readFullyAt(sbuf, 0, 4, locpos) != 4 ||
+                                get32(sbuf, 0) != LOCSIG) {
+                                continue;
+                            }
+                        }
+                        if (comlen > 0) {
+                            byte[] comment = new byte[comlen];
+                            if (readFullyAt(comment, 0, comlen, end.endpos + ENDHDR)
+                                != comlen) {
+                                throw new ZipException("zip comment read failed");
+                            }
+                            end.comment = comment;
+                        }
+                        findEND64(end);
+                        return end;
+                    }
+                }
+            }
+            throw new ZipException("zip END header not found");
+        }
+
+        // Replaces the END values by those of the ZIP64 END header, if any
+        private void findEND64(End end) throws IOException {
+            byte[] loc64 = new byte[ZIP64_LOCHDR];
+            if (end.endpos < ZIP64_LOCHDR ||
+                readFullyAt(loc64, 0, loc64.length, end.endpos - ZIP64_LOCHDR)
+                != loc64.length || get32(loc64, 0) != ZIP64_LOCSIG) {
+                return;
+            }
+            long end64pos = get64(loc64, ZIP64_LOCOFF);
+            byte[] end64buf = new byte[ZIP64_ENDHDR];
+            if (end64pos < 0 ||
+                readFullyAt(end64buf, 0, end64buf.length, end64pos)
+                != end64buf.length || get32(end64buf, 0) != ZIP64_ENDSIG) {
+                return;
+            }
+            long cenlen64 = get64(end64buf, ZIP64_ENDSIZ);
+            long cenoff64 = get64(end64buf, ZIP64_ENDOFF);
+            long centot64 = get64(end64buf, ZIP64_ENDTOT);
+            // double-check against the END header
+            if (cenlen64 != end.cenlen && end.cenlen != ZIP64_MAGICVAL ||
+                cenoff64 != end.cenoff && end.cenoff != ZIP64_MAGICVAL ||
+                centot64 != end.centot && end.centot != ZIP64_MAGICCOUNT) {
+                return;
+            }
+            if (centot64 < 0 || centot64 > Integer.MAX_VALUE) {
+                throw new ZipException("invalid END header (too many entries)");
+            }
+            end.cenlen = cenlen64;
+            end.cenoff = cenoff64;
+            end.centot = (int)centot64;
+            end.endpos = end64pos;
+        }
+
+        private static final int READBLOCKSZ = 128;
+        private static final int END_MAXLEN = 0xFFFF + ENDHDR;
+
+        private byte[] readCEN(long cenpos, int cenlen) throws IOException {
+            byte[] buf = new byte[cenlen];
+            if (readFullyAt(buf, 0, cenlen, cenpos) != cenlen) {
+                throw new ZipException("read CEN tables failed");
+            }
+            return buf;
+        }
+
+        /*
+         * Reads up to len bytes at pos, stopping early only at the end of
+         * the file, and returns the number of bytes read.
+         */
+        int readFullyAt(byte[] b, int off, int len, long pos)
+            throws IOException
+        {
+            synchronized (zfile) {
+                zfile.seek(pos);
+                int total = 0;
+                while (total < len) {
+                    int n = zfile.read(b, off + total, len - total);
+                    if (n < 0) {
+                        break;
+                    }
+                    total += n;
+                }
+                return total;
+            }
+        }
+
+        int readAt(byte[] b, int off, int len, long pos) throws IOException {
+            int n;
+            synchronized (zfile) {
+                zfile.seek(pos);
+                n = zfile.read(b, off, len);
+            }
+            if (n < 0) {
+                throw new ZipException("ZipFile read error");
+            }
+            return n;
+        }
+
+        // CEN field accessors; pos is the position of a CEN header
+        final long CENSIG(int pos) { return get32(cen, pos); }
+        final int CENFLG(int pos) { return get16(cen, pos + CENFLG); }
+        final int CENHOW(int pos) { return get16(cen, pos + CENHOW); }
+        final long CENTIM(int pos) { return get32(cen, pos + CENTIM); }
+        final long CENCRC(int pos) { return get32(cen, pos + CENCRC); }
+        final long CENSIZ(int pos) { return get32(cen, pos + CENSIZ); }
+        final long CENLEN(int pos) { return get32(cen, pos + CENLEN); }
+        final int CENNAM(int pos) { return get16(cen, pos + CENNAM); }
+        final int CENEXT(int pos) { return get16(cen, pos + CENEXT); }
+        final int CENCOM(int pos) { return get16(cen, pos + CENCOM); }
+        final long CENOFF(int pos) { return get32(cen, pos + CENOFF); }
+
+        final long size(int pos) {
+            long size = CENLEN(pos);
+            return size != ZIP64_MAGICVAL ? size : zip64Value(pos, 0);
+        }
+
+        final long csize(int pos) {
+            long csize = CENSIZ(pos);
+            if (csize != ZIP64_MAGICVAL)
+                return csize;
+            return zip64Value(pos, CENLEN(pos) == ZIP64_MAGICVAL ? 1 : 0);
+        }
+
+        final long locoff(int pos) {
+            long off = CENOFF(pos);
+            if (off != ZIP64_MAGICVAL)
+                return off;
+            int n = (CENLEN(pos) == ZIP64_MAGICVAL ? 1 : 0) +
+                    (CENSIZ(pos) == ZIP64_MAGICVAL ? 1 : 0);
+            return zip64Value(pos, n);
+        }
+
+        /*
+         * Returns the n-th 8-byte value of the ZIP64 extra field of the
+         * entry at pos.  The values present are, in order, those of the
+         * size, csize and LOC offset that are 0xFFFFFFFF in the CEN header.
+         */
+        private long zip64Value(int pos, int n) {
+            int off = pos + CENHDR + CENNAM(pos);
+            int end = off + CENEXT(pos);
+            while (off + 4 <= end) {
+                int tag = get16(cen, off);
+                int sz = get16(cen, off + 2);
+                off += 4;
+                if (off + sz > end)         // invalid data
+                    break;
+                if (tag == EXTID_ZIP64) {
+                    if (sz < 8 * (n + 1))
+                        break;
+                    return get64(cen, off + 8 * n);
+                }
+                off += sz;
+            }
+            return ZIP64_MAGICVAL;
+        }
+
+        final byte[] getBytes(int pos, int len) {
+            return Arrays.copyOfRange(cen, pos, pos + len);
+        }
+
+        /* Returns the CEN position of the i-th entry. */
+        final int getEntryPos(int i) {
+            return positions[i];
+        }
+
+        /*
+         * Returns the CEN position of the entry with the given name, or -1
+         * if there is none.  If addSlash is true and there is no entry
+         * named name, the entry named name + "/" is looked up instead.
+         */
+        final int getEntryPos(byte[] name, boolean addSlash) {
+            if (total == 0) {
+                return -1;
+            }
+            int h = 0;
+            for (byte b : name) {
+                h = 31 * h + (b & 0xff);
+            }
+            int pos = lookup(name, h, false);
+            if (pos == -1 && addSlash && name.length > 0 &&
+                name[name.length - 1] != '/') {
+                pos = lookup(name, 31 * h + '/', true);
+            }
+            return pos;
+        }
+
+        private int lookup(byte[] name, int h, boolean slash) {
+            int len = name.length + (slash ? 1 : 0);
+            int[] table = this.table;
+            int slot = h & tablemask;
+            int idx;
+            while ((idx = table[slot]) != 0) {
+                idx--;
+                if (hashes[idx] == h) {
+                    int pos = positions[idx];
+                    if (CENNAM(pos) == len && nameEquals(pos, name, slash)) {
+                        return pos;
+                    }
+                }
+                slot = (slot + 1) & tablemask;
+            }
+            return -1;
+        }
+
+        private boolean nameEquals(int pos, byte[] name, boolean slash) {
+            int off = pos + CENHDR;
+            for (int i = 0; i < name.length; i++) {
+                if (cen[off + i] != name[i]) {
+                    return false;
+                }
+            }
+            return !slash || cen[off + name.length] == '/';
+        }
+
+        private boolean namesEqual(int pos1, int pos2) {
+            int len = CENNAM(pos1);
+            if (CENNAM(pos2) != len) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (cen[pos1 + CENHDR + i] != cen[pos2 + CENHDR + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int hashN(int off, int len, int h) {
+            for (int i = 0; i < len; i++) {
+                h = 31 * h + (cen[off + i] & 0xff);
+            }
+            return h;
+        }
+
+        /* Returns true if the name of the entry at pos starts with "META-INF/". */
+        private boolean isMetaName(int pos) {
+            if (CENNAM(pos) < META_INF_LEN) {
+                return false;
+            }
+            int off = pos + CENHDR;
+            for (int i = 0; i < META_INF_LEN; i++) {
+                int c = cen[off + i];
+                // Avoid toUpperCase; it's locale-dependent
+                if (c >= 'a' && c <= 'z') {
+                    c += 'A' - 'a';
+                }
+                if (c != "META-INF/".charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -118,4 +118,66 @@ class ZipUtils {
     public static final long get64(byte b[], int off) {
         return get32(b, off) | (get32(b, off+4) << 32);
     }
+
+    /**
+     * Returns the CRC of the concatenation of two byte sequences, given the
+     * CRCs crc1 and crc2 of the sequences and the length len2 of the second
+     * one, for the reflected CRC-32 polynomial poly.  This is zlib's
+     * crc32_combine(): crc1 is advanced over len2 zero bytes by repeatedly
+     * squaring the GF(2) matrix operator for a zero bit.
+     */
+    static long crcCombine(int poly, long crc1, long crc2, long len2) {
+        if (len2 < 0) {
+            throw new IllegalArgumentException("len2 < 0");
+        }
+        if (len2 == 0) {
+            return crc1;
+        }
+        // odd holds the operator for one zero bit, even for two
+        int[] even = new int[32];
+        int[] odd = new int[32];
+        odd[0] = poly;
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);     // two zero bits
+        gf2MatrixSquare(odd, even);     // four zero bits
+
+        // apply len2 zero bytes to crc1, squaring the operator each step
+        int c = (int)crc1;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0) {
+                c = gf2MatrixTimes(even, c);
+            }
+            len2 >>>= 1;
+            if (len2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0) {
+                c = gf2MatrixTimes(odd, c);
+            }
+            len2 >>>= 1;
+        } while (len2 != 0);
+        return (long)(c ^ (int)crc2) & 0xffffffffL;
+    }
+
+    private static int gf2MatrixTimes(int[] mat, int vec) {
+        int sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0) {
+                sum ^= mat[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(int[] square, int[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
 }
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package sun.misc;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a finite, positive double to the shortest decimal
+ * <code>digits&nbsp;&times;&nbsp;10<sup>exponent</sup></code> that rounds
+ * back to the same double, choosing the one closest to the exact binary
+ * value if there are several.  This follows the Ryu algorithm (Ulf Adams,
+ * "Ry&#x16B;: fast float-to-string conversion", PLDI 2018): the bounds of
+ * the rounding interval are scaled by a precomputed power of five and the
+ * digits are then removed from the scaled bounds with plain
+ * <code>long</code> arithmetic.  Unlike
+ * <code>FloatingDecimal.BinaryToASCIIBuffer</code>, it never falls back to
+ * big integer arithmetic and allocates nothing.
+ *
+ * <p>An instance holds the result of the last conversion and may be reused,
+ * but is not thread-safe.
+ */
+public final class DoubleToDecimal {
+
+    private static final int DOUBLE_MANTISSA_BITS = 52;
+    private static final long DOUBLE_MANTISSA_MASK = (1L << DOUBLE_MANTISSA_BITS) - 1;
+    private static final int DOUBLE_EXPONENT_BITS = 11;
+    private static final int DOUBLE_EXPONENT_MASK = (1 << DOUBLE_EXPONENT_BITS) - 1;
+    private static final int DOUBLE_EXPONENT_BIAS = (1 << (DOUBLE_EXPONENT_BITS - 1)) - 1;
+
+    private static final int POW5_BITCOUNT = 125;
+    private static final int POW5_INV_BITCOUNT = 125;
+    private static final int POW5_TABLE_SIZE = 326;
+    private static final int POW5_INV_TABLE_SIZE = 342;
+
+    // The low and high 64 bits of 5^i, normalized to POW5_BITCOUNT bits
+    private static final long[] POW5_SPLIT_LO = new long[POW5_TABLE_SIZE];
+    private static final long[] POW5_SPLIT_HI = new long[POW5_TABLE_SIZE];
+    // The low and high 64 bits of 2^(bitlength(5^i) - 1 + POW5_INV_BITCOUNT) / 5^i + 1
+    private static final long[] POW5_INV_SPLIT_LO = new long[POW5_INV_TABLE_SIZE];
+    private static final long[] POW5_INV_SPLIT_HI = new long[POW5_INV_TABLE_SIZE];
+
+    static {
+        BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int i = 0; i < POW5_INV_TABLE_SIZE; i++) {
+            BigInteger pow = BigInteger.valueOf(5).pow(i);
+            int pow5len = pow.bitLength();
+            if (i < POW5_TABLE_SIZE) {
+                int shift = pow5len - POW5_BITCOUNT;
+                BigInteger split = shift >= 0 ? pow.shiftRight(shift) : pow.shiftLeft(-shift);
+                POW5_SPLIT_LO[i] = split.and(mask).longValue();
+                POW5_SPLIT_HI[i] = split.shiftRight(64).longValue();
+            }
+            int j = pow5len - 1 + POW5_INV_BITCOUNT;
+            BigInteger inv = BigInteger.ONE.shiftLeft(j).divide(pow).add(BigInteger.ONE);
+            POW5_INV_SPLIT_LO[i] = inv.and(mask).longValue();
+            POW5_INV_SPLIT_HI[i] = inv.shiftRight(64).longValue();
+        }
+    }
+
+    private long digits;
+    private int exponent;
+
+    /**
+     * Creates an instance holding zero.
+     */
+    public DoubleToDecimal() {
+    }
+
+    /**
+     * Returns the decimal digits of the last converted value, without
+     * trailing zeros unless the value is zero.
+     */
+    public long digits() {
+        return digits;
+    }
+
+    /**
+     * Returns the decimal exponent of the last converted value.
+     */
+    public int exponent() {
+        return exponent;
+    }
+
+    /**
+     * Converts the given value.
+     *
+     * @param value a finite, non-negative double
+     * @return this instance
+     */
+    public DoubleToDecimal set(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        long ieeeMantissa = bits & DOUBLE_MANTISSA_MASK;
+        int ieeeExponent = (int) (bits >>> DOUBLE_MANTISSA_BITS) & DOUBLE_EXPONENT_MASK;
+        assert bits >= 0 && ieeeExponent != DOUBLE_EXPONENT_MASK;
+        if (ieeeExponent == 0 && ieeeMantissa == 0) {
+            digits = 0;
+            exponent = 0;
+            return this;
+        }
+
+        int e2;
+        long m2;
+        if (ieeeExponent == 0) {
+            // Subnormal
+            e2 = 1 - DOUBLE_EXPONENT_BIAS - DOUBLE_MANTISSA_BITS - 2;
+            m2 = ieeeMantissa;
+        } else {
+            e2 = ieeeExponent - DOUBLE_EXPONENT_BIAS - DOUBLE_MANTISSA_BITS - 2;
+            m2 = (1L << DOUBLE_MANTISSA_BITS) | ieeeMantissa;
+        }
+        boolean even = (m2 & 1) == 0;
+        boolean acceptBounds = even;
+
+        // Step 2: Determine the interval of valid decimal representations
+        long mv = 4 * m2;
+        // Implicit bool -> int conversion. True is 1, false is 0.
+        int mmShift = (ieeeMantissa != 0 || ieeeExponent <= 1) ? 1 : 0;
+
+        // Step 3: Convert to a decimal power base using 128-bit arithmetic
+        long vr, vp, vm;
+        int e10;
+        boolean vmIsTrailingZeros = false;
+        boolean vrIsTrailingZeros = false;
+        if (e2 >= 0) {
+            int q = log10Pow2(e2) - (e2 > 3 ? 1 : 0);
+            e10 = q;
+            int k = POW5_INV_BITCOUNT + pow5bits(q) - 1;
+            int i = -e2 + q + k;
+            long lo = POW5_INV_SPLIT_LO[q], hi = POW5_INV_SPLIT_HI[q];
+            vr = mulShift64(4 * m2, lo, hi, i);
+            vp = mulShift64(4 * m2 + 2, lo, hi, i);
+            vm = mulShift64(4 * m2 - 1 - mmShift, lo, hi, i);
+            if (q <= 21) {
+                // This should use q <= 22, but I think 21 is also safe.
+                // Smaller values may still be safe, but it's more difficult
+                // to reason about them.  Only one of mp, mv, and mm can be a
+                // multiple of 5, if any.
+                if (mv % 5 == 0) {
+                    vrIsTrailingZeros = multipleOfPowerOf5(mv, q);
+                } else if (acceptBounds) {
+                    // Same as min(e2 + (~mm & 1), pow5Factor(mm)) >= q
+                    // <=> e2 + (~mm & 1) >= q && pow5Factor(mm) >= q
+                    // <=> true && pow5Factor(mm) >= q, since e2 >= q.
+                    vmIsTrailingZeros = multipleOfPowerOf5(mv - 1 - mmShift, q);
+                } else {
+                    // Same as min(e2 + 1, pow5Factor(mp)) >= q.
+                    vp -= multipleOfPowerOf5(mv + 2, q) ? 1 : 0;
+                }
+            }
+        } else {
+            int q = log10Pow5(-e2) - (-e2 > 1 ? 1 : 0);
+            e10 = q + e2;
+            int i = -e2 - q;
+            int k = pow5bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            long lo = POW5_SPLIT_LO[i], hi = POW5_SPLIT_HI[i];
+            vr = mulShift64(4 * m2, lo, hi, j);
+            vp = mulShift64(4 * m2 + 2, lo, hi, j);
+            vm = mulShift64(4 * m2 - 1 - mmShift, lo, hi, j);
+            if (q <= 1) {
+                // {vr,vp,vm} is trailing zeros if {mv,mp,mm} has at least q
+                // trailing 0 bits.  mv = 4 * m2, so it always has at least
+                // two trailing 0 bits.
+                vrIsTrailingZeros = true;
+                if (acceptBounds) {
+                    // mm = mv - 1 - mmShift, so it has 1 trailing 0 bit iff
+                    // mmShift == 1.
+                    vmIsTrailingZeros = mmShift == 1;
+                } else {
+                    // mp = mv + 2, so it always has at least one trailing 0 bit.
+                    --vp;
+                }
+            } else if (q < 63) {
+                // We want to know if the full product has at least q
+                // trailing zeros.  We need to compute min(p2(mv), p5(mv) - e2)
+                // >= q, i.e. p2(mv) >= q (because -e2 >= q).
+                vrIsTrailingZeros = multipleOfPowerOf2(mv, q);
+            }
+        }
+
+        // Step 4: Find the shortest decimal representation in the interval
+        // of valid representations.
+        int removed = 0;
+        int lastRemovedDigit = 0;
+        long output;
+        if (vmIsTrailingZeros || vrIsTrailingZeros) {
+            // General case, which happens rarely (~0.7%).
+            for (;;) {
+                long vpDiv10 = vp / 10;
+                long vmDiv10 = vm / 10;
+                if (vpDiv10 <= vmDiv10) {
+                    break;
+                }
+                int vmMod10 = (int) (vm % 10);
+                long vrDiv10 = vr / 10;
+                int vrMod10 = (int) (vr % 10);
+                vmIsTrailingZeros &= vmMod10 == 0;
+                vrIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = vrMod10;
+                vr = vrDiv10;
+                vp = vpDiv10;
+                vm = vmDiv10;
+                ++removed;
+            }
+            if (vmIsTrailingZeros) {
+                for (;;) {
+                    long vmDiv10 = vm / 10;
+                    int vmMod10 = (int) (vm % 10);
+                    if (vmMod10 != 0) {
+                        break;
+                    }
+                    long vpDiv10 = vp / 10;
+                    long vrDiv10 = vr / 10;
+                    int vrMod10 = (int) (vr % 10);
+                    vrIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = vrMod10;
+                    vr = vrDiv10;
+                    vp = vpDiv10;
+                    vm = vmDiv10;
+                    ++removed;
+                }
+            }
+            if (vrIsTrailingZeros && lastRemovedDigit == 5 && vr % 2 == 0) {
+                // Round even if the exact number is .....50..0.
+                lastRemovedDigit = 4;
+            }
+            // We need to take vr + 1 if vr is outside bounds or we need to
+            // round up.
+            output = vr + (((vr == vm && (!acceptBounds || !vmIsTrailingZeros))
+                            || lastRemovedDigit >= 5) ? 1 : 0);
+        } else {
+            // Specialized for the common case (~99.3%).
+            boolean roundUp = false;
+            long vpDiv100 = vp / 100;
+            long vmDiv100 = vm / 100;
+            if (vpDiv100 > vmDiv100) {
+                // Optimization: remove two digits at a time (~86.2%).
+                long vrDiv100 = vr / 100;
+                int vrMod100 = (int) (vr % 100);
+                roundUp = vrMod100 >= 50;
+                vr = vrDiv100;
+                vp = vpDiv100;
+                vm = vmDiv100;
+                removed += 2;
+            }
+            for (;;) {
+                long vpDiv10 = vp / 10;
+                long vmDiv10 = vm / 10;
+                if (vpDiv10 <= vmDiv10) {
+                    break;
+                }
+                long vrDiv10 = vr / 10;
+                int vrMod10 = (int) (vr % 10);
+                roundUp = vrMod10 >= 5;
+                vr = vrDiv10;
+                vp = vpDiv10;
+                vm = vmDiv10;
+                ++removed;
+            }
+            // We need to take vr + 1 if vr is outside bounds or we need to
+            // round up.
+            output = vr + ((vr == vm || roundUp) ? 1 : 0);
+        }
+        int exp = e10 + removed;
+
+        // Normalize away trailing zeros, which remain for some powers of ten
+        while (output % 10 == 0) {
+            output /= 10;
+            exp++;
+        }
+        digits = output;
+        exponent = exp;
+        return this;
+    }
+
+    // Returns e == 0 ? 1 : ceil(log_2(5^e)), for 0 <= e <= 3528
+    private static int pow5bits(int e) {
+        return ((e * 1217359) >>> 19) + 1;
+    }
+
+    // Returns floor(log_10(2^e)), for 0 <= e <= 1650
+    private static int log10Pow2(int e) {
+        return (e * 78913) >>> 18;
+    }
+
+    // Returns floor(log_10(5^e)), for 0 <= e <= 2620
+    private static int log10Pow5(int e) {
+        return (e * 732923) >>> 20;
+    }
+
+    private static int pow5Factor(long value) {
+        int count = 0;
+        while (value % 5 == 0) {
+            value /= 5;
+            count++;
+        }
+        return count;
+    }
+
+    // Returns true if value is divisible by 5^p
+    private static boolean multipleOfPowerOf5(long value, int p) {
+        return pow5Factor(value) >= p;
+    }
+
+    // Returns true if value is divisible by 2^p
+    private static boolean multipleOfPowerOf2(long value, int p) {
+        return (value & ((1L << p) - 1)) == 0;
+    }
+
+    // Returns the high 64 bits of the unsigned 128-bit product of a and b
+    private static long multiplyHighUnsigned(long a, long b) {
+        long aLo = a & 0xFFFFFFFFL, aHi = a >>> 32;
+        long bLo = b & 0xFFFFFFFFL, bHi = b >>> 32;
+        long loLo = aLo * bLo;
+        long hiLo = aHi * bLo;
+        long loHi = aLo * bHi;
+        long cross = (loLo >>> 32) + (hiLo & 0xFFFFFFFFL) + loHi;
+        return (hiLo >>> 32) + (cross >>> 32) + aHi * bHi;
+    }
+
+    // Returns (m * (hi * 2^64 + lo)) >> j, for 64 < j < 128 and the result
+    // fitting in 63 bits
+    private static long mulShift64(long m, long lo, long hi, int j) {
+        long b0Hi = multiplyHighUnsigned(m, lo);
+        long b2Lo = m * hi;
+        long b2Hi = multiplyHighUnsigned(m, hi);
+        long sumLo = b2Lo + b0Hi;
+        long sumHi = b2Hi + (Long.compareUnsigned(sumLo, b2Lo) < 0 ? 1 : 0);
+        int dist = j - 64;
+        return (sumHi << (64 - dist)) | (sumLo >>> dist);
+    }
+}
@@ -107,6 +107,10 @@ public class FloatingDecimal{
      * represent a properly formatted double precision value.
      */
     public static double parseDouble(String s) throws NumberFormatException {
+        double d = parseDecimal(s, 0, s.length(), false);
+        if (!Double.isNaN(d)) {
+            return d;
+        }
         return readJavaFormatString(s).doubleValue();
     }
 
@@ -119,9 +123,96 @@ public class FloatingDecimal{
      * represent a properly formatted single precision value.
      */
     public static float parseFloat(String s) throws NumberFormatException {
+        double d = parseDecimal(s, 0, s.length(), true);
+        if (!Double.isNaN(d)) {
+            return (float)d;
+        }
         return readJavaFormatString(s).floatValue();
     }
 
+    /**
+     * Converts the characters of a <code>CharSequence</code> between the
+     * specified indices to a double precision floating point value.  The
+     * accepted syntax is that of {@link #parseDouble(String)}; no substring
+     * is created unless the input is unusual (hexadecimal, <code>NaN</code>,
+     * <code>Infinity</code> or malformed).
+     *
+     * @param s The <code>CharSequence</code> to convert.
+     * @param beginIndex The index of the first character, inclusive.
+     * @param endIndex The index of the last character, exclusive.
+     * @return The double precision value.
+     * @throws IndexOutOfBoundsException If the indices are out of range.
+     * @throws NumberFormatException If the characters do not represent a
+     * properly formatted double precision value.
+     */
+    public static double parseDouble(CharSequence s, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        checkRange(s, beginIndex, endIndex);
+        double d = parseDecimal(s, beginIndex, endIndex, false);
+        if (!Double.isNaN(d)) {
+            return d;
+        }
+        return readJavaFormatString(s.subSequence(beginIndex, endIndex).toString()).doubleValue();
+    }
+
+    /**
+     * Converts the characters of a <code>CharSequence</code> between the
+     * specified indices to a single precision floating point value.  The
+     * accepted syntax is that of {@link #parseFloat(String)}.
+     *
+     * @param s The <code>CharSequence</code> to convert.
+     * @param beginIndex The index of the first character, inclusive.
+     * @param endIndex The index of the last character, exclusive.
+     * @return The single precision value.
+     * @throws IndexOutOfBoundsException If the indices are out of range.
+     * @throws NumberFormatException If the characters do not represent a
+     * properly formatted single precision value.
+     */
+    public static float parseFloat(CharSequence s, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        checkRange(s, beginIndex, endIndex);
+        double d = parseDecimal(s, beginIndex, endIndex, true);
+        if (!Double.isNaN(d)) {
+            return (float)d;
+        }
+        return readJavaFormatString(s.subSequence(beginIndex, endIndex).toString()).floatValue();
+    }
+
+    /**
+     * Copies the <code>String</code> representation of a double precision
+     * floating point value into a <code>char</code> array.
+     *
+     * @param d The double precision value.
+     * @param dst The array to receive the characters.
+     * @param dstIndex The index in <code>dst</code> of the first character.
+     * @return The number of characters copied.
+     * @throws IndexOutOfBoundsException If the characters do not fit.
+     */
+    public static int getChars(double d, char[] dst, int dstIndex) {
+        return getBinaryToASCIIConverter(d).getChars(dst, dstIndex);
+    }
+
+    /**
+     * Copies the <code>String</code> representation of a single precision
+     * floating point value into a <code>char</code> array.
+     *
+     * @param f The single precision value.
+     * @param dst The array to receive the characters.
+     * @param dstIndex The index in <code>dst</code> of the first character.
+     * @return The number of characters copied.
+     * @throws IndexOutOfBoundsException If the characters do not fit.
+     */
+    public static int getChars(float f, char[] dst, int dstIndex) {
+        return getBinaryToASCIIConverter(f).getChars(dst, dstIndex);
+    }
+
+    private static void checkRange(CharSequence s, int beginIndex, int endIndex) {
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException(
+                "begin " + beginIndex + ", end " + endIndex + ", length " + s.length());
+        }
+    }
+
     /**
      * A converter which can process single or double precision floating point
      * values into an ASCII <code>String</code> representation.
@@ -139,6 +230,15 @@ public class FloatingDecimal{
          */
         public void appendTo(Appendable buf);
 
+        /**
+         * Copies the <code>String</code> representation of a floating point
+         * value into a <code>char</code> array.
+         * @param dst The array to receive the characters.
+         * @param dstIndex The index in <code>dst</code> of the first character.
+         * @return The number of characters copied.
+         */
+        public int getChars(char[] dst, int dstIndex);
+
         /**
          * Retrieves the decimal exponent most closely corresponding to this value.
          * @return The decimal exponent.
@@ -211,6 +311,13 @@ public class FloatingDecimal{
             }
         }
 
+        @Override
+        public int getChars(char[] dst, int dstIndex) {
+            int len = image.length();
+            image.getChars(0, len, dst, dstIndex);
+            return len;
+        }
+
         @Override
         public int getDecimalExponent() {
             throw new IllegalArgumentException("Exceptional value does not have an exponent");
@@ -314,6 +421,13 @@ public class FloatingDecimal{
             }
         }
 
+        @Override
+        public int getChars(char[] dst, int dstIndex) {
+            int len = getChars(buffer);
+            System.arraycopy(buffer, 0, dst, dstIndex, len);
+            return len;
+        }
+
         @Override
         public int getDecimalExponent() {
             return decExponent;
@@ -2043,6 +2157,267 @@ public class FloatingDecimal{
         throw new NumberFormatException("For input string: \"" + in + "\"");
     }
 
+    /**
+     * Scans a plain decimal floating-point literal, the common case of
+     * {@link #readJavaFormatString(String)}, without allocating.  Up to 19
+     * significant digits are gathered into a <code>long</code>; the value is
+     * then computed by a single exact floating-point operation when the
+     * digits and the power of ten are both exactly representable, and by
+     * the Eisel-Lemire algorithm otherwise.
+     *
+     * Returns <code>NaN</code> if the input is not a plain decimal literal
+     * or the result cannot be decided here (subnormal results, halfway
+     * cases, too many digits); the caller then falls back to the general
+     * conversion, which also produces the appropriate exception.
+     */
+    private static double parseDecimal(CharSequence in, int i, int end, boolean isSingle) {
+        // don't fool around with white space, as trim() would
+        while (i < end && in.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && in.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (i == end) {
+            return Double.NaN;
+        }
+        boolean isNegative = false;
+        char c = in.charAt(i);
+        if (c == '-' || c == '+') {
+            isNegative = (c == '-');
+            i++;
+        }
+        //
+        // The significand is w * 10^pendingZeros, followed by further digits
+        // that were dropped if truncated is set. Leading zeros are skipped,
+        // trailing zeros are only multiplied in when a nonzero digit follows.
+        //
+        long w = 0;
+        int nDigits = 0;
+        int pendingZeros = 0;
+        int nFracDigits = 0;
+        boolean truncated = false;
+        boolean digitSeen = false;
+        boolean decSeen = false;
+        for (; i < end; i++) {
+            c = in.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitSeen = true;
+                if (decSeen) {
+                    nFracDigits++;
+                }
+                if (c == '0') {
+                    if (w != 0) {
+                        pendingZeros++;
+                    }
+                } else if (!truncated && nDigits + pendingZeros < MAX_LONG_DIGITS) {
+                    nDigits += pendingZeros + 1;
+                    for (; pendingZeros >= 0; pendingZeros--) {
+                        w *= 10;
+                    }
+                    pendingZeros = 0;
+                    w += c - '0';   // unsigned: 19 digits may exceed Long.MAX_VALUE
+                } else {
+                    truncated = true;
+                    pendingZeros++;
+                }
+            } else if (c == '.' && !decSeen) {
+                decSeen = true;
+            } else {
+                break;
+            }
+        }
+        if (!digitSeen) {
+            return Double.NaN;
+        }
+        long exp10 = (long)pendingZeros - nFracDigits;
+        if (i < end && ((c = in.charAt(i)) == 'e' || c == 'E')) {
+            if (++i == end) {
+                return Double.NaN;
+            }
+            boolean expNegative = false;
+            c = in.charAt(i);
+            if (c == '-' || c == '+') {
+                expNegative = (c == '-');
+                i++;
+            }
+            int expAt = i;
+            int expVal = 0;
+            for (; i < end && (c = in.charAt(i)) >= '0' && c <= '9'; i++) {
+                if (expVal >= 100000000) {
+                    return Double.NaN; // let the general code saturate
+                }
+                expVal = expVal * 10 + (c - '0');
+            }
+            if (i == expAt) {
+                return Double.NaN;
+            }
+            exp10 += expNegative ? -expVal : expVal;
+        }
+        if (i < end &&
+            (i != end - 1 || ((c = in.charAt(i)) != 'f' && c != 'F' && c != 'd' && c != 'D'))) {
+            return Double.NaN;
+        }
+
+        double v;
+        if (w == 0) {
+            v = 0.0;
+        } else if (exp10 < EiselLemire.MIN_EXP10) {
+            v = 0.0;                    // below 10^-329, underflows either way
+        } else if (exp10 > EiselLemire.MAX_EXP10) {
+            v = Double.POSITIVE_INFINITY;
+        } else if (isSingle) {
+            if (!truncated && w >= 0 && w <= (1L << 24) &&
+                Math.abs(exp10) <= ASCIIToBinaryBuffer.SINGLE_MAX_SMALL_TEN) {
+                float f = (float)w;
+                v = (exp10 < 0) ? f / ASCIIToBinaryBuffer.SINGLE_SMALL_10_POW[(int)-exp10]
+                                : f * ASCIIToBinaryBuffer.SINGLE_SMALL_10_POW[(int)exp10];
+            } else {
+                long bits = EiselLemire.toBits(w, (int)exp10, true);
+                if (bits < 0 || (truncated && bits != EiselLemire.toBits(w + 1, (int)exp10, true))) {
+                    return Double.NaN;
+                }
+                v = Float.intBitsToFloat((int)bits);
+            }
+        } else {
+            if (!truncated && w >= 0 && w <= (1L << 53) &&
+                Math.abs(exp10) <= ASCIIToBinaryBuffer.MAX_SMALL_TEN) {
+                double d = (double)w;
+                v = (exp10 < 0) ? d / ASCIIToBinaryBuffer.SMALL_10_POW[(int)-exp10]
+                                : d * ASCIIToBinaryBuffer.SMALL_10_POW[(int)exp10];
+            } else {
+                long bits = EiselLemire.toBits(w, (int)exp10, false);
+                if (bits < 0 || (truncated && bits != EiselLemire.toBits(w + 1, (int)exp10, false))) {
+                    return Double.NaN;
+                }
+                v = Double.longBitsToDouble(bits);
+            }
+        }
+        return isNegative ? -v : v;
+    }
+
+    /**
+     * The maximum number of decimal digits that always fit, unsigned, in a
+     * <code>long</code>.
+     */
+    private static final int MAX_LONG_DIGITS = 19;
+
+    /**
+     * The Eisel-Lemire algorithm for correctly rounded decimal to binary
+     * conversion of a significand of at most 64 bits: the normalized
+     * significand is multiplied by a 128-bit truncated approximation of the
+     * power of ten, and the result is accepted only when the error of the
+     * approximation cannot affect the rounding.
+     *
+     * D. Lemire, "Number Parsing at a Gigabyte per Second",
+     * Software: Practice and Experience 51(8), 2021.
+     */
+    private static class EiselLemire {
+        static final int MIN_EXP10 = -348;
+        static final int MAX_EXP10 = 347;
+
+        /**
+         * For each power of ten 10^q from MIN_EXP10 to MAX_EXP10, the high and
+         * low words of the 128 most significant bits of its binary expansion,
+         * rounded down.
+         */
+        private static final long[] POW10_128 = new long[(MAX_EXP10 - MIN_EXP10 + 1) * 2];
+
+        static {
+            java.math.BigInteger five = java.math.BigInteger.valueOf(5);
+            java.math.BigInteger mask = java.math.BigInteger.ONE.shiftLeft(64).subtract(java.math.BigInteger.ONE);
+            for (int q = MIN_EXP10; q <= MAX_EXP10; q++) {
+                java.math.BigInteger p = five.pow(Math.abs(q));
+                int bl = p.bitLength();
+                java.math.BigInteger m;
+                if (q < 0) {
+                    m = java.math.BigInteger.ONE.shiftLeft(bl + 127).divide(p);
+                } else if (bl <= 128) {
+                    m = p.shiftLeft(128 - bl);
+                } else {
+                    m = p.shiftRight(bl - 128);
+                }
+                int idx = (q - MIN_EXP10) * 2;
+                POW10_128[idx] = m.shiftRight(64).longValue();
+                POW10_128[idx + 1] = m.and(mask).longValue();
+            }
+        }
+
+        /**
+         * Returns the bits of the <code>double</code> (or of the
+         * <code>float</code> if <code>isSingle</code>) nearest to
+         * <code>w * 10^q</code>, where <code>w</code> is a nonzero unsigned
+         * value and <code>q</code> lies in [MIN_EXP10, MAX_EXP10], or -1 if
+         * that cannot be decided cheaply or the result is not a normal
+         * number.
+         */
+        static long toBits(long w, int q, boolean isSingle) {
+            int mantBits = isSingle ? SINGLE_EXP_SHIFT : EXP_SHIFT;
+            int shift = 63 - 2 - mantBits;  // leaves mantBits + 2 bits in m
+            long halfMask = (1L << shift) - 1;
+            int bias = isSingle ? FloatConsts.EXP_BIAS : DoubleConsts.EXP_BIAS;
+            int maxExp = isSingle ? 0xFF : 0x7FF;
+
+            int lz = Long.numberOfLeadingZeros(w);
+            w <<= lz;
+            // floor(q * log2(10)) + 64 + bias, less the normalization shift
+            long exp2 = ((217706L * q) >> 16) + 64 + bias - lz;
+
+            int idx = (q - MIN_EXP10) * 2;
+            long pHi = POW10_128[idx];
+            long xHi = unsignedMultiplyHigh(w, pHi);
+            long xLo = w * pHi;
+            if ((xHi & halfMask) == halfMask && Long.compareUnsigned(xLo + w, w) < 0) {
+                // The truncated low word of the power may still carry into
+                // the bits that decide rounding: widen to 192 bits.
+                long pLo = POW10_128[idx + 1];
+                long yHi = unsignedMultiplyHigh(w, pLo);
+                long yLo = w * pLo;
+                long mergedHi = xHi;
+                long mergedLo = xLo + yHi;
+                if (Long.compareUnsigned(mergedLo, xLo) < 0) {
+                    mergedHi++;
+                }
+                if ((mergedHi & halfMask) == halfMask && mergedLo + 1 == 0
+                    && Long.compareUnsigned(yLo + w, w) < 0) {
+                    return -1;
+                }
+                xHi = mergedHi;
+                xLo = mergedLo;
+            }
+            int msb = (int)(xHi >>> 63);
+            long m = xHi >>> (msb + shift);
+            exp2 -= 1 ^ msb;
+            if (xLo == 0 && (xHi & halfMask) == 0 && (m & 3) == 1) {
+                return -1;              // possibly exactly halfway
+            }
+            m += m & 1;                 // round half up, then drop the extra bit
+            m >>>= 1;
+            if ((m >>> (mantBits + 1)) != 0) {
+                m >>>= 1;
+                exp2++;
+            }
+            if (exp2 <= 0 || exp2 >= maxExp) {
+                return -1;              // subnormal or overflow
+            }
+            return (exp2 << mantBits) | (m & ((1L << mantBits) - 1));
+        }
+
+        private static long unsignedMultiplyHigh(long x, long y) {
+            long x1 = x >> 32;
+            long x2 = x & 0xFFFFFFFFL;
+            long y1 = y >> 32;
+            long y2 = y & 0xFFFFFFFFL;
+            long z2 = x2 * y2;
+            long t = x1 * y2 + (z2 >>> 32);
+            long z1 = t & 0xFFFFFFFFL;
+            long z0 = t >> 32;
+            z1 += x2 * y1;
+            long signedHigh = x1 * y1 + z0 + (z1 >> 32);
+            return signedHigh + ((x >> 63) & y) + ((y >> 63) & x);
+        }
+    }
+
     private static class HexFloatPattern {
         /**
          * Grammar is compatible with hexadecimal floating-point constants
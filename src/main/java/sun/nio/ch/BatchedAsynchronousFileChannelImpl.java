@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.nio.ch;
+
+import java.nio.channels.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.nio.ByteBuffer;
+import java.io.FileDescriptor;
+import java.io.IOException;
+
+/**
+ * AsynchronousFileChannel implementation that batches reads and writes.
+ *
+ * <p> Operations are queued rather than each being handed to the thread
+ * pool.  A small number of drain tasks per channel take batches of queued
+ * operations, sort them by position, and perform each run of adjacent
+ * operations of the same kind as one vectored read or write (scatter/gather
+ * through {@link IOUtil} and an {@code IOVecWrapper}).  The other operations
+ * of a batch are performed with positional reads and writes as usual.  The
+ * completions of a batch are then delivered together by the draining thread,
+ * so a deep queue costs one thread handoff per batch rather than one per
+ * operation.  The thread gives up its place as a drainer before it delivers
+ * the completions, so a completion handler may submit an operation and wait
+ * for its result.
+ *
+ * <p> A vectored operation uses the file position, which is otherwise unused
+ * by asynchronous file channels, and so vectored operations of a channel are
+ * serialized.  If a vectored operation transfers fewer bytes than requested,
+ * the operations it did not reach are retried individually, so that each
+ * operation completes with the same result as it would on its own.
+ *
+ * <p> As at most a few operations of a channel are in progress at a time,
+ * this suits sequential access.  Random access with many operations
+ * outstanding is faster with a {@link SimpleAsynchronousFileChannelImpl
+ * simple} channel, which performs each operation in its own task, so
+ * channels are only batched if the {@code sun.nio.ch.batchedFileIO} system
+ * property is set to {@code true}.
+ */
+
+public class BatchedAsynchronousFileChannelImpl
+    extends SimpleAsynchronousFileChannelImpl
+{
+    // Maximum number of operations taken from the queue at a time
+    private static final int MAX_BATCH = 64;
+
+    // Maximum number of tasks draining the queue of a channel
+    private static final int MAX_DRAINERS =
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    // Orders a batch so that adjacent operations of the same kind are together
+    private static final Comparator<Operation<?>> BATCH_ORDER =
+        new Comparator<Operation<?>>() {
+            public int compare(Operation<?> o1, Operation<?> o2) {
+                if (o1.write != o2.write)
+                    return o1.write ? 1 : -1;
+                return Long.compare(o1.position, o2.position);
+            }
+        };
+
+    // Queued operations, and the number of tasks draining them
+    private final ConcurrentLinkedQueue<Operation<?>> queue =
+        new ConcurrentLinkedQueue<>();
+    private final AtomicInteger drainers = new AtomicInteger();
+
+    // Serializes vectored operations, which use the file position
+    private final Object positionLock = new Object();
+
+    private final Runnable drainTask = new Runnable() {
+        public void run() {
+            drain();
+        }
+    };
+
+    BatchedAsynchronousFileChannelImpl(FileDescriptor fdObj,
+                                       boolean reading,
+                                       boolean writing,
+                                       ExecutorService executor)
+    {
+        super(fdObj, reading, writing, executor);
+    }
+
+    public static AsynchronousFileChannel open(FileDescriptor fdo,
+                                               boolean reading,
+                                               boolean writing,
+                                               ThreadPool pool)
+    {
+        // Executor is either default or based on pool parameters
+        ExecutorService executor = (pool == null) ?
+            defaultExecutor() : pool.executor();
+        return new BatchedAsynchronousFileChannelImpl(fdo, reading, writing, executor);
+    }
+
+    /**
+     * A queued read or write.
+     */
+    private static final class Operation<A> {
+        final boolean write;
+        final ByteBuffer buf;
+        final long position;
+        final A attachment;
+        final CompletionHandler<Integer,? super A> handler;
+        final PendingFuture<Integer,A> future;
+
+        // set when the operation has been performed
+        boolean done;
+        int result;
+        Throwable exc;
+
+        Operation(boolean write, ByteBuffer buf, long position, A attachment,
+                  CompletionHandler<Integer,? super A> handler,
+                  PendingFuture<Integer,A> future)
+        {
+            this.write = write;
+            this.buf = buf;
+            this.position = position;
+            this.attachment = attachment;
+            this.handler = handler;
+            this.future = future;
+        }
+
+        void setResult(int n, Throwable x) {
+            done = true;
+            result = n;
+            exc = x;
+        }
+
+        void complete() {
+            if (handler == null) {
+                future.setResult(result, exc);
+            } else {
+                Invoker.invokeUnchecked(handler, attachment, result, exc);
+            }
+        }
+    }
+
+    @Override
+    <A> Future<Integer> implRead(ByteBuffer dst,
+                                 long position,
+                                 A attachment,
+                                 CompletionHandler<Integer,? super A> handler)
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (!reading)
+            throw new NonReadableChannelException();
+        if (dst.isReadOnly())
+            throw new IllegalArgumentException("Read-only buffer");
+
+        // complete immediately if channel closed or no space remaining
+        if (!isOpen() || (dst.remaining() == 0)) {
+            Throwable exc = (isOpen()) ? null : new ClosedChannelException();
+            if (handler == null)
+                return CompletedFuture.withResult(0, exc);
+            Invoker.invokeIndirectly(handler, attachment, 0, exc, executor);
+            return null;
+        }
+        return submit(false, dst, position, attachment, handler);
+    }
+
+    @Override
+    <A> Future<Integer> implWrite(ByteBuffer src,
+                                  long position,
+                                  A attachment,
+                                  CompletionHandler<Integer,? super A> handler)
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (!writing)
+            throw new NonWritableChannelException();
+
+        // complete immediately if channel is closed or no bytes remaining
+        if (!isOpen() || (src.remaining() == 0)) {
+            Throwable exc = (isOpen()) ? null : new ClosedChannelException();
+            if (handler == null)
+                return CompletedFuture.withResult(0, exc);
+            Invoker.invokeIndirectly(handler, attachment, 0, exc, executor);
+            return null;
+        }
+        return submit(true, src, position, attachment, handler);
+    }
+
+    private <A> Future<Integer> submit(boolean write,
+                                       ByteBuffer buf,
+                                       long position,
+                                       A attachment,
+                                       CompletionHandler<Integer,? super A> handler)
+    {
+        PendingFuture<Integer,A> result = (handler == null) ?
+            new PendingFuture<Integer,A>(this) : null;
+        Operation<A> op =
+            new Operation<A>(write, buf, position, attachment, handler, result);
+        queue.offer(op);
+        if (tryStartDrainer()) {
+            boolean executed = false;
+            try {
+                executor.execute(drainTask);
+                executed = true;
+            } finally {
+                if (!executed) {
+                    drainers.decrementAndGet();
+                    // rollback, unless another drainer already has it
+                    if (queue.remove(op))
+                        throw new RejectedExecutionException();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reserves a drainer if fewer than the maximum are running.
+     */
+    private boolean tryStartDrainer() {
+        int n;
+        while ((n = drainers.get()) < MAX_DRAINERS) {
+            if (drainers.compareAndSet(n, n + 1))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Performs and completes queued operations until the queue is empty or
+     * the maximum number of other tasks are draining it.
+     */
+    private void drain() {
+        Operation<?>[] batch = new Operation<?>[MAX_BATCH];
+        Throwable failure = null;
+        for (;;) {
+            int n = poll(batch);
+            if (n > 0)
+                perform(batch, n);
+            // stop being a drainer before completing the batch, so that
+            // handlers waiting for operations they submit cannot hold all
+            // the drainers those operations need
+            drainers.decrementAndGet();
+            for (int i = 0; i < n; i++) {
+                try {
+                    batch[i].complete();
+                } catch (Throwable x) {
+                    // deliver the other completions first
+                    if (failure == null)
+                        failure = x;
+                }
+                batch[i] = null;
+            }
+            // carry on if operations are queued and a drainer is available
+            if (queue.isEmpty() || !tryStartDrainer())
+                break;
+            if (failure != null) {
+                // let another task carry on before the failure propagates
+                executor.execute(drainTask);
+                break;
+            }
+        }
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException)failure;
+        if (failure instanceof Error)
+            throw (Error)failure;
+    }
+
+    private int poll(Operation<?>[] batch) {
+        int n = 0;
+        Operation<?> op;
+        while (n < batch.length && (op = queue.poll()) != null)
+            batch[n++] = op;
+        return n;
+    }
+
+    /**
+     * Performs a batch of operations, combining runs of adjacent operations
+     * of the same kind into vectored operations.
+     */
+    private void perform(Operation<?>[] batch, int n) {
+        int ti = threads.add();
+        try {
+            try {
+                begin();
+            } catch (IOException x) {
+                for (int i = 0; i < n; i++)
+                    batch[i].setResult(0, new AsynchronousCloseException());
+                return;
+            }
+            try {
+                if (n > 1)
+                    Arrays.sort(batch, 0, n, BATCH_ORDER);
+                int i = 0;
+                while (i < n) {
+                    Operation<?> first = batch[i];
+                    long next = first.position + first.buf.remaining();
+                    int j = i + 1;
+                    while (j < n && j - i < IOUtil.IOV_MAX
+                           && batch[j].write == first.write
+                           && batch[j].position == next) {
+                        next += batch[j].buf.remaining();
+                        j++;
+                    }
+                    if (j - i > 1) {
+                        performVectored(batch, i, j);
+                    } else {
+                        performSingle(first);
+                    }
+                    i = j;
+                }
+            } finally {
+                end();
+            }
+        } finally {
+            threads.remove(ti);
+        }
+    }
+
+    /**
+     * Performs a single operation with a positional read or write.
+     */
+    private void performSingle(Operation<?> op) {
+        int n = 0;
+        Throwable exc = null;
+        try {
+            do {
+                n = op.write ? IOUtil.write(fdObj, op.buf, op.position, nd)
+                             : IOUtil.read(fdObj, op.buf, op.position, nd);
+            } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            if (n < 0 && !isOpen())
+                throw new AsynchronousCloseException();
+        } catch (IOException x) {
+            if (!isOpen())
+                x = new AsynchronousCloseException();
+            exc = x;
+        }
+        op.setResult(n, exc);
+    }
+
+    /**
+     * Performs the adjacent operations batch[from] to batch[to - 1] with one
+     * vectored read or write at the position of the first.  Operations that
+     * transfer no bytes are then retried individually.
+     */
+    private void performVectored(Operation<?>[] batch, int from, int to) {
+        int count = to - from;
+        ByteBuffer[] bufs = new ByteBuffer[count];
+        int[] starts = new int[count];
+        for (int k = 0; k < count; k++) {
+            bufs[k] = batch[from + k].buf;
+            starts[k] = bufs[k].position();
+        }
+        boolean write = batch[from].write;
+        try {
+            synchronized (positionLock) {
+                long p;
+                do {
+                    p = nd.seek(fdObj, batch[from].position);
+                } while ((p == IOStatus.INTERRUPTED) && isOpen());
+                long n;
+                do {
+                    n = write ? IOUtil.write(fdObj, bufs, nd)
+                              : IOUtil.read(fdObj, bufs, nd);
+                } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            }
+        } catch (IOException x) {
+            // each operation reports its own result or failure below
+        }
+        for (int k = 0; k < count; k++) {
+            Operation<?> op = batch[from + k];
+            int n = bufs[k].position() - starts[k];
+            if (n > 0) {
+                op.setResult(n, null);
+            } else {
+                performSingle(op);
+            }
+        }
+    }
+}
@@ -54,11 +54,19 @@ import sun.security.action.GetIntegerAction;
  * this implementation we set data.fd to be the file descriptor that we
  * register. That way, we have the file descriptor available when we
  * process the events.
+ *
+ * Registration changes are coalesced: a file descriptor whose events are
+ * changed several times between two polls is queued once, and epoll_ctl is
+ * only invoked for it if the final events differ from the registered events.
+ * When edge triggered, file descriptors are registered with EPOLLET and
+ * every change is applied so that setting the events re-arms the file
+ * descriptor.
  */
 
 class EPollArrayWrapper {
     // EPOLL_EVENTS
     private static final int EPOLLIN      = 0x001;
+    private static final int EPOLLET      = (1 << 31);
 
     // opcodes
     private static final int EPOLL_CTL_ADD      = 1;
@@ -124,8 +132,25 @@ class EPollArrayWrapper {
     // descriptor is registered with epoll.
     private final BitSet registered = new BitSet();
 
+    // file descriptors that are in updateDescriptors
+    private final BitSet updateQueued = new BitSet();
+
+    // events that file descriptors are registered with, stored in the same
+    // way as the pending update events
+    private final byte[] registeredLow = new byte[MAX_UPDATE_ARRAY_SIZE];
+    private Map<Integer,Byte> registeredHigh;
+
+    // true if file descriptors are registered with EPOLLET
+    private final boolean edgeTriggered;
+
 
     EPollArrayWrapper() throws IOException {
+        this(false);
+    }
+
+    EPollArrayWrapper(boolean edgeTriggered) throws IOException {
+        this.edgeTriggered = edgeTriggered;
+
         // creates the epoll file descriptor
         epfd = epollCreate();
 
@@ -135,8 +160,10 @@ class EPollArrayWrapper {
         pollArrayAddress = pollArray.address();
 
         // eventHigh needed when using file descriptors > 64k
-        if (OPEN_MAX > MAX_UPDATE_ARRAY_SIZE)
+        if (OPEN_MAX > MAX_UPDATE_ARRAY_SIZE) {
             eventsHigh = new HashMap<>();
+            registeredHigh = new HashMap<>();
+        }
     }
 
     void initInterrupt(int fd0, int fd1) {
@@ -206,20 +233,48 @@ class EPollArrayWrapper {
         }
     }
 
+    /**
+     * Records the events that the given file descriptor is registered with.
+     */
+    private void setRegisteredEvents(int fd, byte events) {
+        if (fd < MAX_UPDATE_ARRAY_SIZE) {
+            registeredLow[fd] = events;
+        } else if (events == 0) {
+            registeredHigh.remove(Integer.valueOf(fd));
+        } else {
+            registeredHigh.put(Integer.valueOf(fd), Byte.valueOf(events));
+        }
+    }
+
+    /**
+     * Returns the events that the given file descriptor is registered with.
+     */
+    private byte getRegisteredEvents(int fd) {
+        if (fd < MAX_UPDATE_ARRAY_SIZE) {
+            return registeredLow[fd];
+        } else {
+            Byte result = registeredHigh.get(Integer.valueOf(fd));
+            return (result == null) ? 0 : result.byteValue();
+        }
+    }
+
     /**
      * Update the events for a given file descriptor
      */
     void setInterest(int fd, int mask) {
         synchronized (updateLock) {
-            // record the file descriptor and events
-            int oldCapacity = updateDescriptors.length;
-            if (updateCount == oldCapacity) {
-                int newCapacity = oldCapacity + INITIAL_PENDING_UPDATE_SIZE;
-                int[] newDescriptors = new int[newCapacity];
-                System.arraycopy(updateDescriptors, 0, newDescriptors, 0, oldCapacity);
-                updateDescriptors = newDescriptors;
+            // record the file descriptor, once until the next poll
+            if (!updateQueued.get(fd)) {
+                int oldCapacity = updateDescriptors.length;
+                if (updateCount == oldCapacity) {
+                    int newCapacity = oldCapacity + INITIAL_PENDING_UPDATE_SIZE;
+                    int[] newDescriptors = new int[newCapacity];
+                    System.arraycopy(updateDescriptors, 0, newDescriptors, 0, oldCapacity);
+                    updateDescriptors = newDescriptors;
+                }
+                updateDescriptors[updateCount++] = fd;
+                updateQueued.set(fd);
             }
-            updateDescriptors[updateCount++] = fd;
 
             // events are stored as bytes for efficiency reasons
             byte b = (byte)mask;
@@ -252,6 +307,7 @@ class EPollArrayWrapper {
             if (registered.get(fd)) {
                 epollCtl(epfd, EPOLL_CTL_DEL, fd, 0);
                 registered.clear(fd);
+                setRegisteredEvents(fd, (byte)0);
             }
         }
     }
@@ -291,19 +347,28 @@ class EPollArrayWrapper {
 
                 if (events != KILLED) {
                     if (isRegistered) {
-                        opcode = (events != 0) ? EPOLL_CTL_MOD : EPOLL_CTL_DEL;
+                        if (events == 0) {
+                            opcode = EPOLL_CTL_DEL;
+                        } else if (edgeTriggered
+                                   || events != getRegisteredEvents(fd)) {
+                            opcode = EPOLL_CTL_MOD;
+                        }
                     } else {
                         opcode = (events != 0) ? EPOLL_CTL_ADD : 0;
                     }
                     if (opcode != 0) {
-                        epollCtl(epfd, opcode, fd, events);
+                        int flags = edgeTriggered ? EPOLLET : 0;
+                        epollCtl(epfd, opcode, fd, events | flags);
                         if (opcode == EPOLL_CTL_ADD) {
                             registered.set(fd);
                         } else if (opcode == EPOLL_CTL_DEL) {
                             registered.clear(fd);
                         }
+                        setRegisteredEvents(fd, (opcode == EPOLL_CTL_DEL) ?
+                                            (byte)0 : (byte)events);
                     }
                 }
+                updateQueued.clear(fd);
                 j++;
             }
             updateCount = 0;
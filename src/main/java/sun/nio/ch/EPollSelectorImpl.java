@@ -28,12 +28,22 @@ package sun.nio.ch;
 import java.io.IOException;
 import java.nio.channels.*;
 import java.nio.channels.spi.*;
+import java.security.AccessController;
 import java.util.*;
+import java.util.function.Consumer;
 import sun.misc.*;
+import sun.security.action.GetPropertyAction;
 
 /**
  * An implementation of Selector for Linux 2.6+ kernels that uses
  * the epoll event notification facility.
+ *
+ * <p> If the {@code sun.nio.ch.epollEdgeTriggered} system property is set
+ * to {@code true} then channels are registered edge triggered: a key is
+ * only selected when its channel becomes ready, not for as long as it stays
+ * ready, and so the channel should be read or written until the operation
+ * would block.  Setting the key's interest set re-arms the key, so that it
+ * is selected by the next selection operation if the channel is ready.
  */
 class EPollSelectorImpl
     extends SelectorImpl
@@ -43,18 +53,39 @@ class EPollSelectorImpl
     protected int fd0;
     protected int fd1;
 
+    // True if channels are registered edge triggered
+    private static final boolean edgeTriggered;
+    static {
+        String s = AccessController.doPrivileged(
+            new GetPropertyAction("sun.nio.ch.epollEdgeTriggered"));
+        edgeTriggered = (s != null) && (s.length() == 0 || Boolean.parseBoolean(s));
+    }
+
+    // Initial size of the array mapping file descriptors to keys
+    private static final int INITIAL_FD_TO_KEY_SIZE = 64;
+
     // The poll object
     EPollArrayWrapper pollWrapper;
 
-    // Maps from file descriptors to keys
-    private Map<Integer,SelectionKeyImpl> fdToKey;
+    // Maps from file descriptors to keys, indexed by file descriptor
+    private SelectionKeyImpl[] fdToKey;
 
     // True if this Selector has been closed
     private volatile boolean closed = false;
 
     // Lock for interrupt triggering and clearing
     private final Object interruptLock = new Object();
-    private boolean interruptTriggered = false;
+
+    // True if wakeup has been invoked since the last selection operation,
+    // read without the lock so that repeated wakeups are cheap
+    private volatile boolean interruptTriggered = false;
+
+    // True while a selection operation may be blocked in epoll_wait, so that
+    // wakeup only writes to the pipe when there is a thread to wake
+    private boolean polling;
+
+    // True if the pipe has been written to and must be drained
+    private boolean interruptWritten;
 
     /**
      * Package private constructor called by factory method in
@@ -66,9 +97,9 @@ class EPollSelectorImpl
         fd0 = (int) (pipeFds >>> 32);
         fd1 = (int) pipeFds;
         try {
-            pollWrapper = new EPollArrayWrapper();
+            pollWrapper = new EPollArrayWrapper(edgeTriggered);
             pollWrapper.initInterrupt(fd0, fd1);
-            fdToKey = new HashMap<>();
+            fdToKey = new SelectionKeyImpl[INITIAL_FD_TO_KEY_SIZE];
         } catch (Throwable t) {
             try {
                 FileDispatcherImpl.closeIntFD(fd0);
@@ -85,29 +116,87 @@ class EPollSelectorImpl
     }
 
     protected int doSelect(long timeout) throws IOException {
+        return doSelect(null, timeout);
+    }
+
+    @Override
+    protected int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
         if (closed)
             throw new ClosedSelectorException();
         processDeregisterQueue();
         try {
             begin();
-            pollWrapper.poll(timeout);
+            synchronized (interruptLock) {
+                // don't block if wakeup was invoked since the last selection
+                if (interruptTriggered)
+                    timeout = 0;
+                polling = (timeout != 0);
+            }
+            try {
+                pollWrapper.poll(timeout);
+            } finally {
+                synchronized (interruptLock) {
+                    polling = false;
+                }
+            }
         } finally {
             end();
         }
         processDeregisterQueue();
-        int numKeysUpdated = updateSelectedKeys();
+        int numKeysUpdated = (action == null) ?
+            updateSelectedKeys() : processSelectedKeys(action);
         if (pollWrapper.interrupted()) {
-            // Clear the wakeup pipe
             pollWrapper.putEventOps(pollWrapper.interruptedIndex(), 0);
+            pollWrapper.clearInterrupted();
+        }
+        if (interruptTriggered) {
+            // Clear the wakeup pipe if written
             synchronized (interruptLock) {
-                pollWrapper.clearInterrupted();
-                IOUtil.drain(fd0);
+                if (interruptWritten) {
+                    IOUtil.drain(fd0);
+                    interruptWritten = false;
+                }
                 interruptTriggered = false;
             }
         }
         return numKeysUpdated;
     }
 
+    /**
+     * Returns the key for the given file descriptor, null if none.
+     */
+    private SelectionKeyImpl getKey(int fd) {
+        SelectionKeyImpl[] fdToKey = this.fdToKey;
+        return (fd < fdToKey.length) ? fdToKey[fd] : null;
+    }
+
+    /**
+     * Performs the action on the keys whose fd's have been selected by the
+     * epoll, without adding them to the selected-key set.
+     */
+    private int processSelectedKeys(Consumer<SelectionKey> action) {
+        int entries = pollWrapper.updated;
+        int numKeysConsumed = 0;
+        for (int i=0; i<entries; i++) {
+            int nextFD = pollWrapper.getDescriptor(i);
+            SelectionKeyImpl ski = getKey(nextFD);
+            // ski is null in the case of an interrupt
+            if (ski != null) {
+                int rOps = pollWrapper.getEventOps(i);
+                ski.channel.translateAndSetReadyOps(rOps, ski);
+                if ((ski.nioReadyOps() & ski.nioInterestOps()) != 0) {
+                    action.accept(ski);
+                    if (closed)
+                        throw new ClosedSelectorException();
+                    numKeysConsumed++;
+                }
+            }
+        }
+        return numKeysConsumed;
+    }
+
     /**
      * Update the keys whose fd's have been selected by the epoll.
      * Add the ready keys to the ready queue.
@@ -117,7 +206,7 @@ class EPollSelectorImpl
         int numKeysUpdated = 0;
         for (int i=0; i<entries; i++) {
             int nextFD = pollWrapper.getDescriptor(i);
-            SelectionKeyImpl ski = fdToKey.get(Integer.valueOf(nextFD));
+            SelectionKeyImpl ski = getKey(nextFD);
             // ski is null in the case of an interrupt
             if (ski != null) {
                 int rOps = pollWrapper.getEventOps(i);
@@ -173,8 +262,12 @@ class EPollSelectorImpl
         if (closed)
             throw new ClosedSelectorException();
         SelChImpl ch = ski.channel;
-        int fd = Integer.valueOf(ch.getFDVal());
-        fdToKey.put(fd, ski);
+        int fd = ch.getFDVal();
+        if (fd >= fdToKey.length) {
+            int newLength = Math.max(fd + 1, fdToKey.length * 2);
+            fdToKey = Arrays.copyOf(fdToKey, newLength);
+        }
+        fdToKey[fd] = ski;
         pollWrapper.add(fd);
         keys.add(ski);
     }
@@ -183,7 +276,7 @@ class EPollSelectorImpl
         assert (ski.getIndex() >= 0);
         SelChImpl ch = ski.channel;
         int fd = ch.getFDVal();
-        fdToKey.remove(Integer.valueOf(fd));
+        fdToKey[fd] = null;
         pollWrapper.remove(fd);
         ski.setIndex(-1);
         keys.remove(ski);
@@ -202,9 +295,16 @@ class EPollSelectorImpl
     }
 
     public Selector wakeup() {
+        if (interruptTriggered)
+            return this;
         synchronized (interruptLock) {
             if (!interruptTriggered) {
-                pollWrapper.interrupt();
+                // the next selection operation won't block unless the
+                // pipe is needed to wake a thread blocked in epoll_wait
+                if (polling) {
+                    pollWrapper.interrupt();
+                    interruptWritten = true;
+                }
                 interruptTriggered = true;
             }
         }
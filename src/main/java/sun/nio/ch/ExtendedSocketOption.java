@@ -32,7 +32,7 @@ import java.net.SocketOption;
  * but not defined in StandardSocketOptions.
  */
 
-class ExtendedSocketOption {
+public class ExtendedSocketOption {
     private ExtendedSocketOption() { }
 
     static final SocketOption<Boolean> SO_OOBINLINE =
@@ -41,4 +41,16 @@ class ExtendedSocketOption {
             public Class<Boolean> type() { return Boolean.class; }
             public String toString() { return name(); }
         };
+
+    /**
+     * Allows several sockets to bind to the same address and port, with
+     * the kernel distributing incoming connections or datagrams among them.
+     * Supported where {@link Net#isReusePortAvailable()} returns true.
+     */
+    public static final SocketOption<Boolean> SO_REUSEPORT =
+        new SocketOption<Boolean>() {
+            public String name() { return "SO_REUSEPORT"; }
+            public Class<Boolean> type() { return Boolean.class; }
+            public String toString() { return name(); }
+        };
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import sun.misc.Cleaner;
+
+
+/**
+ * An input stream that reads a region of a file through a sliding window of
+ * read-only memory mappings, rather than copying through native read buffers.
+ *
+ * <p> Each window is mapped with {@link FileChannel#map FileChannel.map} and
+ * explicitly unmapped as soon as the stream moves past it, so the address
+ * space and page tables in use stay bounded while streaming very large files.
+ * The mapped buffers never escape this class and all operations are
+ * synchronized, so a window cannot be unmapped while it is being read.
+ *
+ * <p> The length of the region is fixed when the stream is created; bytes
+ * appended to the file afterwards are not read.  Closing the stream closes
+ * the channel.
+ */
+
+public class MappedFileInputStream
+    extends InputStream
+{
+
+    // The size of each mapped window
+    static final int WINDOW_SIZE = 32 << 20;
+
+    private final FileChannel fc;
+    private final long end;
+
+    // Current window and the file position of its first byte
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    // File position of the next byte when there is no window
+    private long position;
+
+    private boolean closed;
+
+    /**
+     * Creates a stream that reads the channel from its current position
+     * to the current end of the file.
+     */
+    public MappedFileInputStream(FileChannel fc) throws IOException {
+        this(fc, fc.position(), fc.size());
+    }
+
+    /**
+     * Creates a stream that reads the bytes of the channel from
+     * {@code position}, inclusive, to {@code end}, exclusive.
+     *
+     * @throws IllegalArgumentException
+     *         If the region is negative or extends beyond the end of the file
+     */
+    public MappedFileInputStream(FileChannel fc, long position, long end)
+        throws IOException
+    {
+        if (position < 0 || end < position || end > fc.size())
+            throw new IllegalArgumentException("Invalid region " + position + ", " + end);
+        this.fc = fc;
+        this.position = position;
+        this.end = end;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed");
+    }
+
+    /**
+     * Returns the current window with at least one byte remaining,
+     * mapping the next window if needed, or null at the end of the region.
+     */
+    private ByteBuffer window() throws IOException {
+        ensureOpen();
+        MappedByteBuffer w = window;
+        if (w != null) {
+            if (w.hasRemaining())
+                return w;
+            position = windowStart + w.limit();
+            window = null;
+            unmap(w);
+        }
+        if (position >= end)
+            return null;
+        long size = Math.min(WINDOW_SIZE, end - position);
+        w = fc.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+        window = w;
+        return w;
+    }
+
+    private static void unmap(MappedByteBuffer bb) {
+        Cleaner cl = ((DirectBuffer)bb).cleaner();
+        if (cl != null)
+            cl.clean();
+    }
+
+    /**
+     * Returns the file position of the next byte to be read.
+     */
+    public synchronized long position() {
+        MappedByteBuffer w = window;
+        return (w != null) ? windowStart + w.position() : position;
+    }
+
+    public synchronized int read() throws IOException {
+        ByteBuffer w = window();
+        if (w == null)
+            return -1;
+        return w.get() & 0xff;
+    }
+
+    public synchronized int read(byte[] bs, int off, int len)
+        throws IOException
+    {
+        if ((off < 0) || (off > bs.length) || (len < 0) ||
+            ((off + len) > bs.length) || ((off + len) < 0)) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0)
+            return 0;
+
+        int n = 0;
+        ByteBuffer w;
+        while (n < len && (w = window()) != null) {
+            int k = Math.min(len - n, w.remaining());
+            w.get(bs, off + n, k);
+            n += k;
+        }
+        return (n == 0) ? -1 : n;
+    }
+
+    /**
+     * Reads bytes into the given buffer, copying directly from the mapped
+     * window without an intermediate array.
+     *
+     * @return  The number of bytes read, or {@code -1} at the end of the region
+     */
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        int len = dst.remaining();
+        if (len == 0)
+            return 0;
+        int n = 0;
+        ByteBuffer w;
+        while (n < len && (w = window()) != null) {
+            int k = Math.min(len - n, w.remaining());
+            if (k == w.remaining()) {
+                dst.put(w);
+            } else {
+                int lim = w.limit();
+                w.limit(w.position() + k);
+                dst.put(w);
+                w.limit(lim);
+            }
+            n += k;
+        }
+        return (n == 0) ? -1 : n;
+    }
+
+    public synchronized long skip(long n) throws IOException {
+        ensureOpen();
+        if (n <= 0)
+            return 0;
+        long pos = position();
+        long newPos = pos + Math.min(n, end - pos);
+        MappedByteBuffer w = window;
+        if (w != null && newPos <= windowStart + w.limit()) {
+            w.position((int)(newPos - windowStart));
+        } else {
+            if (w != null) {
+                window = null;
+                unmap(w);
+            }
+            position = newPos;
+        }
+        return newPos - pos;
+    }
+
+    public synchronized int available() throws IOException {
+        ensureOpen();
+        long rem = end - position();
+        return (rem > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int)rem;
+    }
+
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        MappedByteBuffer w = window;
+        if (w != null) {
+            window = null;
+            unmap(w);
+        }
+        fc.close();
+    }
+
+}
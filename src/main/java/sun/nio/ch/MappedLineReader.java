@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.nio.ch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+
+/**
+ * Reads the lines of a region of a file through read-only memory mappings.
+ *
+ * <p> Lines are terminated by a line feed ('\n'), a carriage return ('\r'),
+ * or a carriage return followed immediately by a line feed, as for {@link
+ * java.io.BufferedReader#readLine BufferedReader.readLine}.  Only charsets in
+ * which these bytes always encode those characters are supported: UTF-8,
+ * ISO-8859-1 and US-ASCII.  The terminators are found by scanning the mapped
+ * bytes a word at a time, and lines made up only of ASCII bytes are never
+ * decoded: {@link #nextLine} returns a view that reads the characters straight
+ * from the mapping.  Other lines are decoded with a {@link CharsetDecoder}
+ * that reports malformed input.
+ *
+ * <p> A reader created for the byte range [{@code start}, {@code end}) reads
+ * the lines that start in that range: it skips the remainder of any line that
+ * began before {@code start}, and reads the last line that starts before
+ * {@code end} to its terminator even if that lies beyond {@code end}.  Readers
+ * for adjacent ranges therefore together read every line of the file exactly
+ * once, which allows a large file to be split at arbitrary byte offsets and
+ * processed in parallel.
+ *
+ * <p> The file is mapped in windows that start at a line boundary, so no line
+ * is split across windows.  Windows are released when they are no longer
+ * reachable rather than being explicitly unmapped, as the views returned by
+ * {@code nextLine} read from them.  The length of the file is fixed when the
+ * reader is created.  Closing the reader does not close the channel.
+ *
+ * <p> Instances of this class are not safe for use by multiple threads.
+ */
+
+public class MappedLineReader
+    implements Closeable
+{
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    // Word-at-a-time scanning masks
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long LFS = ONES * LF;
+    private static final long CRS = ONES * CR;
+    private static final boolean LITTLE_ENDIAN =
+        ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private final FileChannel fc;
+    private final long end;
+    private final long size;
+
+    // Whether every byte is a character (ISO-8859-1), else
+    // non-ASCII lines are decoded with the decoder
+    private final boolean latin1;
+    private final CharsetDecoder decoder;
+
+    // Current window, the file position of its first byte, and
+    // the index in it of the start of the next line
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int next;
+
+    // The current line, and whether the last bytes scanned were ASCII
+    private final Line line = new Line();
+    private boolean scannedAscii;
+
+    private boolean closed;
+
+    /**
+     * Returns {@code true} if lines in the given charset can be read.
+     */
+    public static boolean isSupported(Charset cs) {
+        return cs.equals(StandardCharsets.UTF_8)
+            || cs.equals(StandardCharsets.ISO_8859_1)
+            || cs.equals(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Creates a reader for the lines of the channel from its current
+     * position, which must be at the start of a line, to the end of the file.
+     *
+     * @throws UnsupportedCharsetException
+     *         If lines in the given charset cannot be read
+     */
+    public MappedLineReader(FileChannel fc, Charset cs) throws IOException {
+        this(fc, cs, fc.position(), Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Creates a reader for the lines of the channel that start at positions
+     * from {@code start}, inclusive, to {@code end}, exclusive.
+     *
+     * @throws UnsupportedCharsetException
+     *         If lines in the given charset cannot be read
+     * @throws IllegalArgumentException
+     *         If {@code start} is negative or greater than {@code end}
+     */
+    public MappedLineReader(FileChannel fc, Charset cs, long start, long end)
+        throws IOException
+    {
+        this(fc, cs, start, end, false);
+    }
+
+    private MappedLineReader(FileChannel fc, Charset cs, long start, long end,
+                             boolean atLineStart)
+        throws IOException
+    {
+        if (!isSupported(cs))
+            throw new UnsupportedCharsetException(cs.name());
+        if (start < 0 || end < start)
+            throw new IllegalArgumentException("Invalid range " + start + ", " + end);
+        this.fc = fc;
+        this.size = fc.size();
+        this.end = Math.min(end, size);
+        this.latin1 = cs.equals(StandardCharsets.ISO_8859_1);
+        this.decoder = latin1 ? null : cs.newDecoder();
+        if (start > 0 && !atLineStart && start < this.end) {
+            // skip the rest of the line that began before start
+            map(start - 1, 0);
+            byte b = window.get(0);
+            if (b == LF) {
+                next = 1;
+            } else if (b == CR) {
+                next = 1;
+                if (window.limit() > 1 && window.get(1) == LF)
+                    next++;
+            } else {
+                next = 1;
+                skipLine();
+            }
+        } else {
+            windowStart = start;
+        }
+    }
+
+    /**
+     * Maps a window at the given file position, of the usual size or
+     * large enough to contain at least {@code min} bytes.
+     */
+    private void map(long position, long min) throws IOException {
+        long len = Math.min(Math.max(MappedFileInputStream.WINDOW_SIZE, min),
+                            size - position);
+        if (len > Integer.MAX_VALUE)
+            throw new IOException("Line too long at position " + position);
+        window = fc.map(FileChannel.MapMode.READ_ONLY, position, len);
+        window.order(ByteOrder.nativeOrder());  // the scan is order independent
+        windowStart = position;
+        next = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed");
+    }
+
+    /**
+     * Returns the index of the first line terminator in the window at or
+     * after {@code from}, or {@code limit} if there is none, and records
+     * whether the bytes before it are all ASCII.
+     */
+    private int scan(ByteBuffer w, int from, int limit) {
+        boolean ascii = true;
+        int i = from;
+        while (i + 8 <= limit) {
+            long word = w.getLong(i);
+            long lf = word ^ LFS;
+            long cr = word ^ CRS;
+            long terms = (((lf - ONES) & ~lf) | ((cr - ONES) & ~cr)) & HIGHS;
+            long highs = word & HIGHS;
+            if ((terms | highs) == 0) {
+                i += 8;
+            } else if (terms == 0) {
+                ascii = false;
+                i += 8;
+            } else if (LITTLE_ENDIAN) {
+                // the lowest flagged byte is exact and first in memory
+                int bit = Long.numberOfTrailingZeros(terms);
+                if ((highs & ((1L << bit) - 1)) != 0)
+                    ascii = false;
+                scannedAscii = ascii;
+                return i + (bit >>> 3);
+            } else {
+                break;
+            }
+        }
+        for (; i < limit; i++) {
+            byte b = w.get(i);
+            if (b == LF || b == CR)
+                break;
+            if (b < 0)
+                ascii = false;
+        }
+        scannedAscii = ascii;
+        return i;
+    }
+
+    /**
+     * Finds the end of the line starting at {@code next} in the current
+     * window, remapping the window at the line start if the line extends
+     * beyond it.  Sets {@code line} to the line and {@code next} to the
+     * start of the following line.
+     *
+     * @return  {@code false} if there are no more lines
+     */
+    private boolean findLine() throws IOException {
+        long lineStart = windowStart + next;
+        if (lineStart >= end)
+            return false;
+        if (window == null || next >= window.limit())
+            map(lineStart, 0);
+        for (;;) {
+            MappedByteBuffer w = window;
+            int from = next;
+            int limit = w.limit();
+            int i = scan(w, from, limit);
+            boolean ascii = scannedAscii;
+            long windowEnd = windowStart + limit;
+            if (i == limit || (w.get(i) == CR && i + 1 == limit)) {
+                if (windowEnd < size) {
+                    // line or CRLF continues beyond the window
+                    map(lineStart, 2L * (limit - from) + 1);
+                    continue;
+                }
+                if (i == limit) {
+                    line.set(w, from, i - from, ascii);
+                    next = limit;
+                    return true;
+                }
+            }
+            line.set(w, from, i - from, ascii);
+            next = i + 1;
+            if (w.get(i) == CR && next < limit && w.get(next) == LF)
+                next++;
+            return true;
+        }
+    }
+
+    private void skipLine() throws IOException {
+        findLine();
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * <p> The returned sequence is a view of the current line that is only
+     * valid until the next call to {@code nextLine} or {@link #readLine}; its
+     * {@code toString} method returns the line as a string.
+     *
+     * @return  The line, not including any terminator, or {@code null} if
+     *          there are no more lines in the range
+     * @throws  java.nio.charset.CharacterCodingException
+     *          If the line is not valid in the charset
+     */
+    public CharSequence nextLine() throws IOException {
+        ensureOpen();
+        if (!findLine())
+            return null;
+        if (!line.ascii && !latin1)
+            line.decode(decoder);
+        return line;
+    }
+
+    /**
+     * Reads the next line as a string.
+     *
+     * @return  The line, not including any terminator, or {@code null} if
+     *          there are no more lines in the range
+     * @throws  java.nio.charset.CharacterCodingException
+     *          If the line is not valid in the charset
+     */
+    public String readLine() throws IOException {
+        CharSequence cs = nextLine();
+        return (cs == null) ? null : cs.toString();
+    }
+
+    /**
+     * Returns the file position of the start of the next line.
+     */
+    public long position() {
+        return windowStart + next;
+    }
+
+    /**
+     * Closes this reader, releasing the current window.  The channel is
+     * not closed.
+     */
+    public void close() {
+        closed = true;
+        window = null;
+        line.clear();
+    }
+
+    /**
+     * A view of the current line, reading ASCII and ISO-8859-1 characters
+     * from the mapping and others from the decoded characters.
+     */
+    private static final class Line implements CharSequence {
+        private ByteBuffer bytes;
+        private ByteBuffer src;     // for bulk copies from bytes
+        private int offset;
+        private int length;
+        boolean ascii;
+        private char[] chars = new char[0];
+        private boolean decoded;
+        private byte[] copy = new byte[0];
+
+        void set(ByteBuffer bytes, int offset, int length, boolean ascii) {
+            if (this.bytes != bytes) {
+                this.bytes = bytes;
+                this.src = bytes.duplicate();
+            }
+            this.offset = offset;
+            this.length = length;
+            this.ascii = ascii;
+            this.decoded = false;
+        }
+
+        void clear() {
+            bytes = null;
+            src = null;
+            length = 0;
+            decoded = false;
+        }
+
+        void decode(CharsetDecoder decoder) throws IOException {
+            if (chars.length < length)
+                chars = new char[Math.max(length, 2 * chars.length)];
+            src.limit(offset + length).position(offset);
+            CharBuffer dst = CharBuffer.wrap(chars);
+            decoder.reset();
+            CoderResult cr = decoder.decode(src, dst, true);
+            if (cr.isUnderflow())
+                cr = decoder.flush(dst);
+            if (!cr.isUnderflow())
+                cr.throwException();
+            length = dst.position();
+            decoded = true;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            if (index < 0 || index >= length)
+                throw new StringIndexOutOfBoundsException(index);
+            return decoded ? chars[index] : (char)(bytes.get(offset + index) & 0xff);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @SuppressWarnings("deprecation")
+        public String toString() {
+            if (decoded)
+                return new String(chars, 0, length);
+            if (copy.length < length)
+                copy = new byte[Math.max(length, 2 * copy.length)];
+            src.limit(offset + length).position(offset);
+            src.get(copy, 0, length);
+            // every byte is a character, so no decoding is needed
+            return new String(copy, 0, 0, length);
+        }
+    }
+
+}
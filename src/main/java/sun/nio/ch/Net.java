@@ -369,6 +369,14 @@ public class Net {
         }
     }
 
+    /**
+     * Tells whether SO_REUSEPORT is supported.
+     */
+    public static boolean isReusePortAvailable() {
+        return SocketOptionRegistry.findOption(ExtendedSocketOption.SO_REUSEPORT,
+                                               UNSPEC) != null;
+    }
+
     public static boolean isFastTcpLoopbackRequested() {
         String loopbackProp = AccessController.doPrivileged(
             new PrivilegedAction<String>() {
@@ -30,6 +30,7 @@ import java.nio.channels.*;
 import java.nio.channels.spi.*;
 import java.net.SocketException;
 import java.util.*;
+import java.util.function.Consumer;
 
 
 /**
@@ -77,13 +78,41 @@ public abstract class SelectorImpl
 
     protected abstract int doSelect(long timeout) throws IOException;
 
-    private int lockAndDoSelect(long timeout) throws IOException {
+    /**
+     * Selects keys and performs the given action on each selected key
+     * instead of adding it to the selected-key set.  Implementations that
+     * can avoid the selected-key set override this method.
+     */
+    protected int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        if (action == null)
+            return doSelect(timeout);
+        selectedKeys.clear();
+        int numKeysSelected = doSelect(timeout);
+        if (numKeysSelected == 0)
+            return 0;
+        // copy selected-key set as action may remove keys
+        SelectionKey[] keysToConsume =
+            selectedKeys.toArray(new SelectionKey[selectedKeys.size()]);
+        selectedKeys.clear();
+        for (SelectionKey k : keysToConsume) {
+            action.accept(k);
+            if (!isOpen())
+                throw new ClosedSelectorException();
+        }
+        return numKeysSelected;
+    }
+
+    private int lockAndDoSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
         synchronized (this) {
             if (!isOpen())
                 throw new ClosedSelectorException();
             synchronized (publicKeys) {
                 synchronized (publicSelectedKeys) {
-                    return doSelect(timeout);
+                    return doSelect(action, timeout);
                 }
             }
         }
@@ -94,7 +123,7 @@ public abstract class SelectorImpl
     {
         if (timeout < 0)
             throw new IllegalArgumentException("Negative timeout");
-        return lockAndDoSelect((timeout == 0) ? -1 : timeout);
+        return lockAndDoSelect(null, (timeout == 0) ? -1 : timeout);
     }
 
     public int select() throws IOException {
@@ -102,7 +131,25 @@ public abstract class SelectorImpl
     }
 
     public int selectNow() throws IOException {
-        return lockAndDoSelect(0);
+        return lockAndDoSelect(null, 0);
+    }
+
+    public int select(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        Objects.requireNonNull(action);
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return lockAndDoSelect(action, (timeout == 0) ? -1 : timeout);
+    }
+
+    public int select(Consumer<SelectionKey> action) throws IOException {
+        return select(action, 0);
+    }
+
+    public int selectNow(Consumer<SelectionKey> action) throws IOException {
+        Objects.requireNonNull(action);
+        return lockAndDoSelect(action, 0);
     }
 
     public void implCloseSelector() throws IOException {
@@ -186,6 +186,9 @@ class ServerSocketChannelImpl
             set.add(StandardSocketOptions.SO_RCVBUF);
             set.add(StandardSocketOptions.SO_REUSEADDR);
             set.add(StandardSocketOptions.IP_TOS);
+            if (Net.isReusePortAvailable()) {
+                set.add(ExtendedSocketOption.SO_REUSEPORT);
+            }
             return Collections.unmodifiableSet(set);
         }
     }
@@ -48,10 +48,14 @@ public class SimpleAsynchronousFileChannelImpl
     }
 
     // Used to make native read and write calls
-    private static final FileDispatcher nd = new FileDispatcherImpl();
+    static final FileDispatcher nd = new FileDispatcherImpl();
 
     // Thread-safe set of IDs of native threads, for signalling
-    private final NativeThreadSet threads = new NativeThreadSet(2);
+    final NativeThreadSet threads = new NativeThreadSet(2);
+
+    static ExecutorService defaultExecutor() {
+        return DefaultExecutorHolder.defaultExecutor;
+    }
 
 
     SimpleAsynchronousFileChannelImpl(FileDescriptor fdObj,
@@ -239,6 +239,9 @@ class SocketChannelImpl
             // additional options required by socket adaptor
             set.add(StandardSocketOptions.IP_TOS);
             set.add(ExtendedSocketOption.SO_OOBINLINE);
+            if (Net.isReusePortAvailable()) {
+                set.add(ExtendedSocketOption.SO_REUSEPORT);
+            }
             if (ExtendedOptionsImpl.flowSupported()) {
                 set.add(jdk.net.ExtendedSocketOptions.SO_FLOW_SLA);
             }
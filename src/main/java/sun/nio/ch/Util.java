@@ -30,6 +30,7 @@ import java.lang.reflect.*;
 import java.io.IOException;
 import java.io.FileDescriptor;
 import java.nio.ByteBuffer;
+import java.nio.DirectBufferPool;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.*;
 import java.security.AccessController;
@@ -50,6 +51,9 @@ public class Util {
     // The max size allowed for a cached temp buffer, in bytes
     private static final long MAX_CACHED_BUFFER_SIZE = getMaxCachedBufferSize();
 
+    // True if temporary buffers are allocated from the shared buffer pool
+    private static final boolean USE_BUFFER_POOL = useBufferPool();
+
     // Per-thread cache of temporary direct buffers
     private static ThreadLocal<BufferCache> bufferCache =
         new ThreadLocal<BufferCache>()
@@ -90,6 +94,27 @@ public class Util {
         return Long.MAX_VALUE;
     }
 
+    /**
+     * Returns true if temporary buffers are to be allocated from the shared
+     * DirectBufferPool rather than with ByteBuffer.allocateDirect, so that
+     * buffers that don't fit in a thread's cache are recycled rather than
+     * freed. It can be set with the jdk.nio.useDirectBufferPool property.
+     */
+    private static boolean useBufferPool() {
+        String s = AccessController.doPrivileged(
+            new GetPropertyAction("jdk.nio.useDirectBufferPool"));
+        return (s != null) && (s.length() == 0 || Boolean.parseBoolean(s));
+    }
+
+    /**
+     * Allocates a new temporary buffer of the given size.
+     */
+    private static ByteBuffer allocate(int size) {
+        if (USE_BUFFER_POOL)
+            return DirectBufferPool.getDefault().allocate(size);
+        return ByteBuffer.allocateDirect(size);
+    }
+
     /**
      * Returns true if a buffer of this size is too large to be
      * added to the buffer cache, false otherwise.
@@ -223,7 +248,7 @@ public class Util {
         // to remove the buffer from the cache (as this method does
         // below) given that we won't put the new buffer in the cache.
         if (isBufferTooLarge(size)) {
-            return ByteBuffer.allocateDirect(size);
+            return allocate(size);
         }
 
         BufferCache cache = bufferCache.get();
@@ -238,7 +263,7 @@ public class Util {
                 buf = cache.removeFirst();
                 free(buf);
             }
-            return ByteBuffer.allocateDirect(size);
+            return allocate(size);
         }
     }
 
@@ -296,6 +321,13 @@ public class Util {
      * Frees the memory for the given direct buffer
      */
     private static void free(ByteBuffer buf) {
+        if (USE_BUFFER_POOL) {
+            DirectBufferPool pool = DirectBufferPool.getDefault();
+            if (pool.owns(buf)) {
+                pool.release(buf);
+                return;
+            }
+        }
         ((DirectBuffer)buf).cleaner().clean();
     }
 
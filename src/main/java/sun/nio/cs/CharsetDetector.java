@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.nio.cs;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import sun.misc.Unsafe;
+import sun.nio.ch.DirectBuffer;
+
+
+/**
+ * Utility class for detecting the charset of a byte buffer and decoding it
+ * lazily.
+ *
+ * <p> A buffer is classified in one pass over its remaining bytes.  A
+ * UTF-8 or UTF-16 byte order mark determines the charset; otherwise the
+ * buffer is US-ASCII if all of its bytes are ASCII, UTF-8 if it is
+ * well-formed UTF-8, and ISO-8859-1 if not.  Runs of ASCII bytes are
+ * tested eight bytes at a time.
+ *
+ * <p> The character sequences returned by {@link #decode decode} are views
+ * of the buffer: US-ASCII, ISO-8859-1 and well-formed UTF-16 characters
+ * are read from the buffer as they are accessed, and UTF-8 buffers and
+ * malformed UTF-16 buffers are decoded when the sequence is first
+ * accessed.  Changes to the buffer content are visible in the view until
+ * then.
+ */
+
+public final class CharsetDetector {
+
+    private CharsetDetector() { }
+
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+    private static final long BYTE_BASE = unsafe.arrayBaseOffset(byte[].class);
+
+    // Results of scan
+    private static final int ASCII = 0;
+    private static final int UTF8 = 1;
+    private static final int OTHER = 2;
+
+    /**
+     * Detects the charset of the remaining bytes of the given buffer.  The
+     * position of the buffer is not changed.
+     *
+     * @return  UTF-16 if the bytes start with a UTF-16 byte order mark,
+     *          UTF-8 if they start with a UTF-8 byte order mark or are
+     *          well-formed UTF-8 but not all ASCII, US-ASCII if they are
+     *          all ASCII, and ISO-8859-1 otherwise
+     */
+    public static Charset detect(ByteBuffer bb) {
+        int pos = bb.position();
+        int lim = bb.limit();
+        if (utf16Order(bb, pos, lim) != null)
+            return StandardCharsets.UTF_16;
+        if (hasUTF8Mark(bb, pos, lim))
+            return StandardCharsets.UTF_8;
+        switch (scan(bb, pos, lim)) {
+        case ASCII: return StandardCharsets.US_ASCII;
+        case UTF8:  return StandardCharsets.UTF_8;
+        default:    return StandardCharsets.ISO_8859_1;
+        }
+    }
+
+    /**
+     * Returns a character sequence view of the remaining bytes of the given
+     * buffer, decoded with the charset {@link #detect detected} for them.
+     * A byte order mark is not part of the sequence, and malformed input is
+     * replaced as by {@link Charset#decode Charset.decode}.  The position of
+     * the buffer is not changed.
+     */
+    public static CharSequence decode(ByteBuffer bb) {
+        ByteBuffer src = bb.duplicate();
+        int pos = src.position();
+        int lim = src.limit();
+        ByteOrder order = utf16Order(src, pos, lim);
+        if (order != null) {
+            src.position(pos + 2);
+            if (((lim - pos) & 1) != 0)     // trailing byte is malformed
+                return new Decoded(src, utf16(order));
+            src.order(order);
+            int len = (lim - pos - 2) >> 1;
+            if (!isWellFormedUTF16(src, pos + 2, len))
+                return new Decoded(src, utf16(order));
+            return new UTF16View(src, pos + 2, len);
+        }
+        if (hasUTF8Mark(src, pos, lim)) {
+            src.position(pos + 3);
+            return new Decoded(src, StandardCharsets.UTF_8);
+        }
+        if (scan(src, pos, lim) == UTF8)
+            return new Decoded(src, StandardCharsets.UTF_8);
+        return new Latin1View(src, pos, lim - pos);
+    }
+
+    private static Charset utf16(ByteOrder order) {
+        return (order == ByteOrder.BIG_ENDIAN) ? StandardCharsets.UTF_16BE
+                                               : StandardCharsets.UTF_16LE;
+    }
+
+    // Returns the byte order given by a UTF-16 byte order mark, or null
+    private static ByteOrder utf16Order(ByteBuffer bb, int pos, int lim) {
+        if (lim - pos < 2)
+            return null;
+        int b0 = bb.get(pos) & 0xff;
+        int b1 = bb.get(pos + 1) & 0xff;
+        if (b0 == 0xfe && b1 == 0xff)
+            return ByteOrder.BIG_ENDIAN;
+        if (b0 == 0xff && b1 == 0xfe)
+            return ByteOrder.LITTLE_ENDIAN;
+        return null;
+    }
+
+    private static boolean hasUTF8Mark(ByteBuffer bb, int pos, int lim) {
+        return lim - pos >= 3 &&
+               bb.get(pos) == (byte)0xef &&
+               bb.get(pos + 1) == (byte)0xbb &&
+               bb.get(pos + 2) == (byte)0xbf;
+    }
+
+    /*
+     * Tells whether the len chars of the buffer at off, in the order of the
+     * buffer, have no unpaired surrogates.
+     */
+    private static boolean isWellFormedUTF16(ByteBuffer bb, int off, int len) {
+        int end = off + (len << 1);
+        for (int i = off; i < end; i += 2) {
+            char c = bb.getChar(i);
+            if (!Character.isSurrogate(c))
+                continue;
+            if (Character.isLowSurrogate(c) || i + 2 >= end ||
+                !Character.isLowSurrogate(bb.getChar(i + 2)))
+                return false;
+            i += 2;
+        }
+        return true;
+    }
+
+    /*
+     * Classifies bytes [i, lim) of the buffer as all ASCII, well-formed
+     * UTF-8, or other.  Once the reads are 8-byte aligned, runs of ASCII
+     * bytes in array-backed and direct buffers are tested a long at a time.
+     */
+    private static int scan(ByteBuffer bb, int i, int lim) {
+        Object base = null;
+        long address = -1;
+        if (bb.hasArray()) {
+            base = bb.array();
+            address = BYTE_BASE + bb.arrayOffset();
+        } else if (bb.isDirect()) {
+            address = ((DirectBuffer)bb).address();
+        }
+        int result = ASCII;
+        while (i < lim) {
+            if (address != -1 && ((address + i) & 7) == 0) {
+                while (lim - i >= 8 &&
+                       (unsafe.getLong(base, address + i)
+                        & 0x8080808080808080L) == 0)
+                    i += 8;
+                if (i >= lim)
+                    break;
+            }
+            int c = bb.get(i) & 0xff;
+            if (c < 0x80) {
+                i++;
+                continue;
+            }
+            // See the table of legal UTF-8 byte sequences in UTF_8
+            int n;
+            int lo = 0x80;
+            int hi = 0xbf;
+            if (c >= 0xc2 && c <= 0xdf) {
+                n = 2;
+            } else if (c >= 0xe0 && c <= 0xef) {
+                n = 3;
+                if (c == 0xe0)
+                    lo = 0xa0;
+                else if (c == 0xed)         // surrogates
+                    hi = 0x9f;
+            } else if (c >= 0xf0 && c <= 0xf4) {
+                n = 4;
+                if (c == 0xf0)
+                    lo = 0x90;
+                else if (c == 0xf4)
+                    hi = 0x8f;
+            } else {
+                return OTHER;
+            }
+            if (lim - i < n)
+                return OTHER;
+            int b2 = bb.get(i + 1) & 0xff;
+            if (b2 < lo || b2 > hi)
+                return OTHER;
+            for (int k = 2; k < n; k++) {
+                if ((bb.get(i + k) & 0xc0) != 0x80)
+                    return OTHER;
+            }
+            i += n;
+            result = UTF8;
+        }
+        return result;
+    }
+
+    // A view of bytes as US-ASCII or ISO-8859-1 characters
+    private static class Latin1View implements CharSequence {
+        private final ByteBuffer bb;
+        private final int off;
+        private final int len;
+
+        Latin1View(ByteBuffer bb, int off, int len) {
+            this.bb = bb;
+            this.off = off;
+            this.len = len;
+        }
+
+        public int length() {
+            return len;
+        }
+
+        public char charAt(int index) {
+            if (index < 0 || index >= len)
+                throw new IndexOutOfBoundsException();
+            return (char)(bb.get(off + index) & 0xff);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > len || start > end)
+                throw new IndexOutOfBoundsException();
+            return new Latin1View(bb, off + start, end - start);
+        }
+
+        public String toString() {
+            char[] ca = new char[len];
+            for (int i = 0; i < len; i++)
+                ca[i] = (char)(bb.get(off + i) & 0xff);
+            return new String(ca);
+        }
+    }
+
+    // A view of bytes as UTF-16 code units, in the order of the buffer
+    private static class UTF16View implements CharSequence {
+        private final ByteBuffer bb;
+        private final int off;
+        private final int len;
+
+        UTF16View(ByteBuffer bb, int off, int len) {
+            this.bb = bb;
+            this.off = off;
+            this.len = len;
+        }
+
+        public int length() {
+            return len;
+        }
+
+        public char charAt(int index) {
+            if (index < 0 || index >= len)
+                throw new IndexOutOfBoundsException();
+            return bb.getChar(off + (index << 1));
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > len || start > end)
+                throw new IndexOutOfBoundsException();
+            return new UTF16View(bb, off + (start << 1), end - start);
+        }
+
+        public String toString() {
+            char[] ca = new char[len];
+            for (int i = 0; i < len; i++)
+                ca[i] = bb.getChar(off + (i << 1));
+            return new String(ca);
+        }
+    }
+
+    // A sequence of the remaining bytes of a buffer, decoded on first use
+    private static class Decoded implements CharSequence {
+        private ByteBuffer bb;
+        private final Charset cs;
+        private CharBuffer cb;
+
+        Decoded(ByteBuffer bb, Charset cs) {
+            this.bb = bb;
+            this.cs = cs;
+        }
+
+        private synchronized CharBuffer decoded() {
+            if (cb == null) {
+                cb = cs.decode(bb);
+                bb = null;
+            }
+            return cb;
+        }
+
+        public int length() {
+            return decoded().length();
+        }
+
+        public char charAt(int index) {
+            return decoded().charAt(index);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return decoded().subSequence(start, end);
+        }
+
+        public String toString() {
+            return decoded().toString();
+        }
+    }
+}
@@ -222,6 +222,7 @@ public class StreamDecoder extends Reader
     private Charset cs;
     private CharsetDecoder decoder;
     private ByteBuffer bb;
+    private CharBuffer cb;          // wraps the array last read into
 
     // Exactly one of these is non-null
     private InputStream in;
@@ -308,10 +309,12 @@ public class StreamDecoder extends Reader
         // to deal with it here.
         assert (end - off > 1);
 
-        CharBuffer cb = CharBuffer.wrap(cbuf, off, end - off);
-        if (cb.position() != 0)
-        // Ensure that cb[0] == cbuf[off]
-        cb = cb.slice();
+        // Reuse the buffer wrapping cbuf, if any, as readers usually read
+        // into the same array each time
+        CharBuffer cb = this.cb;
+        if (cb == null || cb.array() != cbuf)
+            this.cb = cb = CharBuffer.wrap(cbuf);
+        cb.limit(end).position(off);
 
         boolean eof = false;
         for (;;) {
@@ -321,19 +324,19 @@ public class StreamDecoder extends Reader
                 break;
             if (!cb.hasRemaining())
                 break;
-            if ((cb.position() > 0) && !inReady())
+            if ((cb.position() > off) && !inReady())
                 break;          // Block at most once
             int n = readBytes();
             if (n < 0) {
                 eof = true;
-                if ((cb.position() == 0) && (!bb.hasRemaining()))
+                if ((cb.position() == off) && (!bb.hasRemaining()))
                     break;
                 decoder.reset();
             }
             continue;
         }
         if (cr.isOverflow()) {
-            assert cb.position() > 0;
+            assert cb.position() > off;
             break;
         }
         cr.throwException();
@@ -344,12 +347,12 @@ public class StreamDecoder extends Reader
         decoder.reset();
         }
 
-        if (cb.position() == 0) {
+        if (cb.position() == off) {
             if (eof)
                 return -1;
             assert false;
         }
-        return cb.position();
+        return cb.position() - off;
     }
 
     String encodingName() {
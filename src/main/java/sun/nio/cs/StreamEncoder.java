@@ -37,6 +37,7 @@ public class StreamEncoder extends Writer
 {
 
     private static final int DEFAULT_BYTE_BUFFER_SIZE = 8192;
+    private static final int STRING_CHUNK_SIZE = 1024;
 
     private volatile boolean isOpen = true;
 
@@ -127,12 +128,15 @@ public class StreamEncoder extends Writer
     }
 
     public void write(String str, int off, int len) throws IOException {
-        /* Check the len before creating a char buffer */
-        if (len < 0)
-            throw new IndexOutOfBoundsException();
-        char cbuf[] = new char[len];
-        str.getChars(off, off + len, cbuf, 0);
-        write(cbuf, 0, len);
+        synchronized (lock) {
+            ensureOpen();
+            if ((off < 0) || (len < 0) || (off > str.length() - len)) {
+                throw new IndexOutOfBoundsException();
+            } else if (len == 0) {
+                return;
+            }
+            implWrite(str, off, len);
+        }
     }
 
     public void flush() throws IOException {
@@ -170,6 +174,7 @@ public class StreamEncoder extends Writer
     private boolean haveLeftoverChar = false;
     private char leftoverChar;
     private CharBuffer lcb = null;
+    private CharBuffer scb = null;      // chunks of strings being written
 
     private StreamEncoder(OutputStream out, Object lock, Charset cs) {
         this(out, lock,
@@ -262,8 +267,30 @@ public class StreamEncoder extends Writer
     void implWrite(char cbuf[], int off, int len)
         throws IOException
     {
-        CharBuffer cb = CharBuffer.wrap(cbuf, off, len);
+        implWrite(CharBuffer.wrap(cbuf, off, len));
+    }
 
+    // Copies the string in chunks into a char array that is reused, along
+    // with the CharBuffer wrapping it, rather than allocating both per write
+    void implWrite(String str, int off, int len)
+        throws IOException
+    {
+        if (scb == null)
+            scb = CharBuffer.allocate(STRING_CHUNK_SIZE);
+        char[] sbuf = scb.array();
+        while (len > 0) {
+            int n = Math.min(len, sbuf.length);
+            str.getChars(off, off + n, sbuf, 0);
+            scb.limit(n).position(0);
+            implWrite(scb);
+            off += n;
+            len -= n;
+        }
+    }
+
+    void implWrite(CharBuffer cb)
+        throws IOException
+    {
         if (haveLeftoverChar)
         flushLeftoverChar(cb, false);
 
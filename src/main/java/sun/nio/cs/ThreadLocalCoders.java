@@ -27,6 +27,8 @@
 package sun.nio.cs;
 
 import java.nio.charset.*;
+import java.security.AccessController;
+import sun.security.action.GetPropertyAction;
 
 
 /**
@@ -35,7 +37,24 @@ import java.nio.charset.*;
 
 public class ThreadLocalCoders {
 
-    private static final int CACHE_SIZE = 3;
+    private static final int DEFAULT_CACHE_SIZE = 8;
+
+    // Number of decoders, and of encoders, cached per thread.  It can be set
+    // with the sun.nio.cs.ThreadLocalCoders.cacheSize property.
+    private static final int CACHE_SIZE = cacheSize();
+
+    private static int cacheSize() {
+        String s = AccessController.doPrivileged(
+            new GetPropertyAction("sun.nio.cs.ThreadLocalCoders.cacheSize"));
+        if (s != null) {
+            try {
+                int n = Integer.parseInt(s);
+                if (n > 0)
+                    return n;
+            } catch (NumberFormatException x) { }
+        }
+        return DEFAULT_CACHE_SIZE;
+    }
 
     private static abstract class Cache {
 
@@ -28,13 +28,16 @@ package sun.nio.fs;
 import java.nio.file.*;
 import java.nio.channels.*;
 import java.io.FileDescriptor;
+import java.security.AccessController;
 import java.util.Set;
 
 import sun.nio.ch.FileChannelImpl;
 import sun.nio.ch.ThreadPool;
 import sun.nio.ch.SimpleAsynchronousFileChannelImpl;
+import sun.nio.ch.BatchedAsynchronousFileChannelImpl;
 import sun.misc.SharedSecrets;
 import sun.misc.JavaIOFileDescriptorAccess;
+import sun.security.action.GetPropertyAction;
 
 import static sun.nio.fs.UnixNativeDispatcher.*;
 import static sun.nio.fs.UnixConstants.*;
@@ -47,6 +50,14 @@ class UnixChannelFactory {
     private static final JavaIOFileDescriptorAccess fdAccess =
         SharedSecrets.getJavaIOFileDescriptorAccess();
 
+    // true if asynchronous file channels batch their operations
+    private static final boolean batchedFileIO;
+    static {
+        String s = AccessController.doPrivileged(
+            new GetPropertyAction("sun.nio.ch.batchedFileIO"));
+        batchedFileIO = (s != null) && (s.length() == 0 || Boolean.parseBoolean(s));
+    }
+
     protected UnixChannelFactory() {
     }
 
@@ -168,8 +179,10 @@ class UnixChannelFactory {
         if (flags.append)
             throw new UnsupportedOperationException("APPEND not allowed");
 
-        // for now use simple implementation
+        // for now use simple implementation, batching is opt-in
         FileDescriptor fdObj = open(-1, path, null, flags, mode);
+        if (batchedFileIO)
+            return BatchedAsynchronousFileChannelImpl.open(fdObj, flags.read, flags.write, pool);
         return SimpleAsynchronousFileChannelImpl.open(fdObj, flags.read, flags.write, pool);
     }
 
@@ -26,9 +26,11 @@
 package sun.tools.jar;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.zip.*;
 import java.util.jar.*;
 import java.util.jar.Pack200.*;
@@ -211,7 +213,12 @@ class Main {
                     tmpfile = createTemporaryFile(tmpbase, ".jar");
                     out = new FileOutputStream(tmpfile);
                 }
-                create(new BufferedOutputStream(out, 4096), manifest);
+                if (fname != null && !nflag && !vflag) {
+                    // compress the entries in parallel when writing to a file
+                    create(((FileOutputStream)out).getChannel(), manifest);
+                } else {
+                    create(new BufferedOutputStream(out, 4096), manifest);
+                }
                 if (in != null) {
                     in.close();
                 }
@@ -547,6 +554,41 @@ class Main {
         zos.close();
     }
 
+    /**
+     * Creates a new JAR file, compressing its entries in parallel.  The
+     * channel is left open.
+     */
+    void create(FileChannel ch, Manifest manifest)
+        throws IOException
+    {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ParallelZipWriter pzw =
+            new ParallelZipWriter(ch, pool, Math.max(4, 2 * pool.getParallelism()));
+        if (flag0) {
+            pzw.setMethod(ParallelZipWriter.STORED);
+        }
+        boolean first = true;
+        if (manifest != null) {
+            ZipEntry e = new ZipEntry(MANIFEST_DIR);
+            e.setTime(System.currentTimeMillis());
+            e.setMethod(ZipEntry.STORED);
+            e.setExtra(JAR_MAGIC.clone());
+            pzw.addEntry(e, new byte[0]);
+            e = new ZipEntry(MANIFEST_NAME);
+            e.setTime(System.currentTimeMillis());
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            manifest.write(baos);
+            pzw.addEntry(e, baos.toByteArray());
+            first = false;
+        }
+        for (File file: entries) {
+            if (addFile(pzw, file, first)) {
+                first = false;
+            }
+        }
+        pzw.finish();
+    }
+
     private char toUpperCaseASCII(char c) {
         return (c < 'a' || c > 'z') ? c : (char) (c + 'A' - 'a');
     }
@@ -859,6 +901,52 @@ class Main {
         }
     }
 
+    /**
+     * Adds a new file entry to the parallel ZIP writer, with the JAR magic
+     * number if it is the first entry.  Returns false if the file is
+     * skipped.
+     */
+    private boolean addFile(ParallelZipWriter pzw, final File file,
+                            boolean first)
+        throws IOException
+    {
+        String name = file.getPath();
+        boolean isDir = file.isDirectory();
+        if (isDir) {
+            name = name.endsWith(File.separator) ? name :
+                (name + File.separator);
+        }
+        name = entryName(name);
+
+        if (name.equals("") || name.equals(".") || name.equals(zname)) {
+            return false;
+        } else if ((name.equals(MANIFEST_DIR) || name.equals(MANIFEST_NAME))
+                   && !Mflag) {
+            return false;
+        }
+
+        ZipEntry e = new ZipEntry(name);
+        e.setTime(file.lastModified());
+        if (first) {
+            e.setExtra(JAR_MAGIC.clone());
+        }
+        if (isDir || file.length() == 0) {
+            e.setMethod(ZipEntry.STORED);
+        }
+        if (isDir) {
+            pzw.addEntry(e, new byte[0]);
+        } else {
+            pzw.addEntry(e, () -> new FileInputStream(file));
+        }
+        return true;
+    }
+
+    /**
+     * The extra field of the first entry of a JAR file, as written by
+     * JarOutputStream.
+     */
+    private static final byte[] JAR_MAGIC = { (byte)0xFE, (byte)0xCA, 0, 0 };
+
     /**
      * A buffer for use only by copy(InputStream, OutputStream).
      * Not as clean as allocating a new buffer as needed by copy,
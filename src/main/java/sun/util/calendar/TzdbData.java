@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.util.calendar;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+
+/**
+ * The contents of {@code lib/tzdb.dat}, read once and shared by
+ * {@link ZoneInfoFile} and the TZDB provider of {@code java.time.zone}.
+ * The file is read into memory rather than mapped, so replacing it while
+ * the VM runs does not affect the rules already loaded.
+ */
+public final class TzdbData {
+
+    private static byte[] data;
+
+    private TzdbData() {
+    }
+
+    /**
+     * Returns the contents of {@code tzdb.dat}, reading the file on the
+     * first call. The array is shared and must not be modified.
+     *
+     * @return the contents of the file, not null
+     * @throws IOException if the file cannot be read
+     */
+    public static synchronized byte[] get() throws IOException {
+        if (data == null) {
+            try {
+                data = AccessController.doPrivileged(new PrivilegedExceptionAction<byte[]>() {
+                    @Override
+                    public byte[] run() throws IOException {
+                        String libDir = System.getProperty("java.home") + File.separator + "lib";
+                        File file = new File(libDir, "tzdb.dat");
+                        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+                            byte[] bytes = new byte[(int) file.length()];
+                            dis.readFully(bytes);
+                            return bytes;
+                        }
+                    }
+                });
+            } catch (PrivilegedActionException e) {
+                throw (IOException) e.getCause();
+            }
+        }
+        return data;
+    }
+}
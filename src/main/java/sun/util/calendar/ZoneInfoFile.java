@@ -26,11 +26,8 @@
 package sun.util.calendar;
 
 import java.io.ByteArrayInputStream;
-import java.io.BufferedInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.StreamCorruptedException;
 import java.security.AccessController;
@@ -134,8 +131,10 @@ public final class ZoneInfoFile {
             if (index < 0) {
                 return null;
             }
-            byte[] bytes = ruleArray[indices[index]];
-            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+            // rules are read from the shared data when first used
+            int pos = rulePositions[indices[index]];
+            DataInputStream dis = new DataInputStream(
+                new ByteArrayInputStream(data, pos, data.length - pos));
             zi = getZoneInfo(dis, zid);
             zones.put(zoneId, zi);
             return zi;
@@ -209,7 +208,8 @@ public final class ZoneInfoFile {
     private final static Map<String, ZoneInfo> zones = new ConcurrentHashMap<>();
     private static Map<String, String> aliases = new HashMap<>();
 
-    private static byte[][] ruleArray;
+    private static byte[] data;
+    private static int[] rulePositions;
     private static String[] regions;
     private static int[] indices;
 
@@ -251,12 +251,8 @@ public final class ZoneInfoFile {
         AccessController.doPrivileged(new PrivilegedAction<Object>() {
             public Object run() {
                 try {
-                    String libDir = System.getProperty("java.home") + File.separator + "lib";
-                    try (DataInputStream dis = new DataInputStream(
-                             new BufferedInputStream(new FileInputStream(
-                                 new File(libDir, "tzdb.dat"))))) {
-                        load(dis);
-                    }
+                    data = TzdbData.get();
+                    load(data);
                 } catch (Exception x) {
                     throw new Error(x);
                 }
@@ -285,12 +281,15 @@ public final class ZoneInfoFile {
     }
 
     /**
-     * Loads the rules from a DateInputStream
+     * Loads the region and alias tables from the rules data, recording
+     * the position of the serialized rules of each region.
      *
-     * @param dis  the DateInputStream to load, not null
+     * @param data  the rules data, not null
      * @throws Exception if an error occurs
      */
-    private static void load(DataInputStream dis) throws ClassNotFoundException, IOException {
+    private static void load(byte[] data) throws ClassNotFoundException, IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(data);
+        DataInputStream dis = new DataInputStream(in);
         if (dis.readByte() != 1) {
             throw new StreamCorruptedException("File format not recognised");
         }
@@ -313,11 +312,11 @@ public final class ZoneInfoFile {
         }
         // rules
         int ruleCount = dis.readShort();
-        ruleArray = new byte[ruleCount][];
+        rulePositions = new int[ruleCount];
         for (int i = 0; i < ruleCount; i++) {
-            byte[] bytes = new byte[dis.readShort()];
-            dis.readFully(bytes);
-            ruleArray[i] = bytes;
+            int length = dis.readShort();
+            rulePositions[i] = data.length - in.available();
+            dis.skipBytes(length);
         }
         // link version-region-rules, only keep the last version, if more than one
         for (int i = 0; i < versionCount; i++) {
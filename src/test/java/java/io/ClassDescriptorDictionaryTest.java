@@ -0,0 +1,381 @@
+package java.io;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ClassDescriptorDictionaryTest {
+
+    static final Random RND = new Random(17);
+
+    enum Color { RED, GREEN }
+
+    static class Point implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int x, y;
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+        public boolean equals(Object o) {
+            return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+        }
+        public int hashCode() {
+            return 31 * x + y;
+        }
+    }
+
+    static class Shape implements Serializable {
+        private static final long serialVersionUID = 2L;
+        String name;
+        Point[] points;
+        Color color;
+        transient int cached;
+        Shape(String name, Color color, Point... points) {
+            this.name = name;
+            this.color = color;
+            this.points = points;
+            this.cached = points.length;
+        }
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeInt(cached);
+        }
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            cached = in.readInt();
+        }
+        public boolean equals(Object o) {
+            if (!(o instanceof Shape))
+                return false;
+            Shape s = (Shape) o;
+            return name.equals(s.name) && color == s.color && Arrays.equals(points, s.points)
+                   && cached == s.cached;
+        }
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+
+    // Not registered in the dictionaries of the tests
+    static class Other implements Serializable {
+        private static final long serialVersionUID = 3L;
+        long value;
+        Other(long value) {
+            this.value = value;
+        }
+        public boolean equals(Object o) {
+            return o instanceof Other && ((Other) o).value == value;
+        }
+        public int hashCode() {
+            return (int) value;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        testRegister();
+        testRoundTrip();
+        testSmaller();
+        testMismatch();
+        testLateRegistration();
+        testConcurrentStreams();
+        testPrimitiveArrays();
+        testLookup();
+        System.out.println("Passed");
+    }
+
+    static ClassDescriptorDictionary dictionary() {
+        return new ClassDescriptorDictionary(Point.class, Shape.class, Point[].class, Color.class,
+                                             String.class, TreeMap.class, LinkedList.class);
+    }
+
+    static byte[] write(ClassDescriptorDictionary dict, Object... objs) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = dict == null ? new ObjectOutputStream(bos)
+                                                   : new ObjectOutputStream(bos, dict)) {
+            for (Object o : objs) {
+                out.writeObject(o);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    static Object[] read(ClassDescriptorDictionary dict, byte[] b, int n)
+        throws IOException, ClassNotFoundException
+    {
+        ByteArrayInputStream bis = new ByteArrayInputStream(b);
+        try (ObjectInputStream in = dict == null ? new ObjectInputStream(bis)
+                                                 : new ObjectInputStream(bis, dict)) {
+            Object[] objs = new Object[n];
+            for (int i = 0; i < n; i++) {
+                objs[i] = in.readObject();
+            }
+            return objs;
+        }
+    }
+
+    static Object[] graph() {
+        Point p = new Point(1, 2);
+        Shape s = new Shape("triangle", Color.GREEN, p, new Point(3, 4), p);
+        TreeMap<String, Object> map = new TreeMap<>();
+        map.put("shape", s);
+        map.put("other", new Other(42));
+        map.put("ints", new int[] { 1, -1, Integer.MAX_VALUE });
+        LinkedList<Object> list = new LinkedList<>();
+        list.add(s);
+        list.add(Color.RED);
+        list.add(new Other(7));
+        return new Object[] { p, s, map, list, "text", Color.GREEN };
+    }
+
+    static void checkGraph(Object[] objs) {
+        Object[] expected = graph();
+        check(objs[0].equals(expected[0]), "point");
+        Shape s = (Shape) objs[1];
+        check(s.equals(expected[1]), "shape");
+        check(s.points[0] == s.points[2], "shared reference");
+        @SuppressWarnings("unchecked")
+        TreeMap<String, Object> map = (TreeMap<String, Object>) objs[2];
+        check(map.get("shape") == s, "back reference");
+        check(map.get("other").equals(new Other(42)), "unregistered class");
+        check(Arrays.equals((int[]) map.get("ints"), new int[] { 1, -1, Integer.MAX_VALUE }), "int[]");
+        @SuppressWarnings("unchecked")
+        LinkedList<Object> list = (LinkedList<Object>) objs[3];
+        check(list.get(0) == s && list.get(1) == Color.RED, "list");
+        check(list.get(2).equals(new Other(7)), "unregistered class in list");
+        check("text".equals(objs[4]), "string");
+        check(objs[5] == Color.GREEN, "enum constant");
+    }
+
+    static void testRegister() {
+        ClassDescriptorDictionary dict = new ClassDescriptorDictionary();
+        check(dict.size() == 0, "empty");
+        check(dict.register(Point.class) == 0, "first index");
+        check(dict.register(Shape.class) == 1, "second index");
+        check(dict.register(Point.class) == 0, "registered again");
+        check(dict.size() == 2, "size " + dict.size());
+        check(dict.get(1) == ObjectStreamClass.lookup(Shape.class), "descriptor");
+        check(dict.indexOf(ObjectStreamClass.lookup(Shape.class), 2) == 1, "indexOf");
+        check(dict.indexOf(ObjectStreamClass.lookup(Shape.class), 1) == -1, "indexOf above limit");
+        check(dict.indexOf(ObjectStreamClass.lookup(Other.class), 2) == -1, "indexOf unregistered");
+        check(dict.fingerprint(0) == 0 && dict.fingerprint(1) != dict.fingerprint(2), "fingerprints");
+        check(new ClassDescriptorDictionary(Point.class).fingerprint(1) == dict.fingerprint(1),
+              "fingerprint of the same classes");
+        check(new ClassDescriptorDictionary(Shape.class).fingerprint(1) != dict.fingerprint(1),
+              "fingerprint of other classes");
+        Class<?> proxy = Proxy.getProxyClass(null, Runnable.class);
+        for (Class<?> cl : new Class<?>[] { Object.class, Thread.class, proxy }) {
+            try {
+                dict.register(cl);
+                throw new RuntimeException("Failed: registered " + cl);
+            } catch (IllegalArgumentException expected) { }
+        }
+        try {
+            new ClassDescriptorDictionary(Point.class, Object.class);
+            throw new RuntimeException("Failed: constructor registered Object");
+        } catch (IllegalArgumentException expected) { }
+        check(dict.size() == 2, "size after failed registrations");
+    }
+
+    static void testRoundTrip() throws Exception {
+        ClassDescriptorDictionary dict = dictionary();
+        checkGraph(read(dict, write(dict, graph()), 6));
+        // another dictionary with the same classes
+        checkGraph(read(dictionary(), write(dict, graph()), 6));
+        // a dictionary with more classes at the end
+        ClassDescriptorDictionary more = dictionary();
+        more.register(Other.class);
+        checkGraph(read(more, write(dict, graph()), 6));
+        // an empty dictionary writes all descriptors in full
+        ClassDescriptorDictionary empty = new ClassDescriptorDictionary();
+        checkGraph(read(empty, write(empty, graph()), 6));
+        // the standard format is still read and written
+        checkGraph(read(null, write(null, graph()), 6));
+        // a class descriptor written as an object
+        Object[] objs = read(dict, write(dict, Point.class, Other.class, Point[].class), 3);
+        check(objs[0] == Point.class && objs[1] == Other.class && objs[2] == Point[].class,
+              "classes");
+        // unshared objects and reset
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bos, dict)) {
+            out.writeUnshared(new Point(5, 6));
+            out.reset();
+            out.writeObject(new Other(8));
+            out.writeInt(99);
+            out.writeObject(new Point(7, 8));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()), dict)) {
+            check(in.readUnshared().equals(new Point(5, 6)), "unshared");
+            check(in.readObject().equals(new Other(8)), "after reset");
+            check(in.readInt() == 99, "primitive data");
+            check(in.readObject().equals(new Point(7, 8)), "registered after reset");
+        }
+        try {
+            new ObjectOutputStream(new ByteArrayOutputStream(), null);
+            throw new RuntimeException("Failed: null dictionary");
+        } catch (NullPointerException expected) { }
+        try {
+            new ObjectInputStream(new ByteArrayInputStream(write(dict)), null);
+            throw new RuntimeException("Failed: null dictionary");
+        } catch (NullPointerException expected) { }
+    }
+
+    // Registered descriptors are written as four byte indexes
+    static void testSmaller() throws IOException {
+        List<Object> objs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            // new streams, so each stream writes its descriptors
+            objs.add(new Shape("s" + i, Color.RED, new Point(i, i)));
+        }
+        ClassDescriptorDictionary dict = dictionary();
+        int full = 0;
+        int indexed = 0;
+        for (Object o : objs) {
+            full += write(null, o).length;
+            indexed += write(dict, o).length;
+        }
+        check(indexed * 2 < full, "indexed " + indexed + " bytes, standard " + full);
+    }
+
+    static void testMismatch() throws Exception {
+        ClassDescriptorDictionary dict = dictionary();
+        byte[] b = write(dict, graph());
+        ClassDescriptorDictionary[] wrong = {
+            new ClassDescriptorDictionary(),
+            new ClassDescriptorDictionary(Point.class),
+            new ClassDescriptorDictionary(Shape.class, Point.class, Point[].class, Color.class,
+                                          String.class, TreeMap.class, LinkedList.class),
+        };
+        for (ClassDescriptorDictionary d : wrong) {
+            try {
+                read(d, b, 6);
+                throw new RuntimeException("Failed: dictionary of " + d.size() + " classes accepted");
+            } catch (StreamCorruptedException expected) { }
+        }
+        // a corrupt index
+        int at = -1;
+        byte[] index = { 0x72, 0, 0, 0, 0 };    // TC_CLASSDESC, index 0 of Point
+        for (int i = 0; i + index.length <= b.length && at < 0; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(b, i, i + index.length), index)) {
+                at = i;
+            }
+        }
+        check(at > 0, "index of Point not found");
+        byte[] bad = b.clone();
+        bad[at + 4] = 100;
+        try {
+            read(dict, bad, 6);
+            throw new RuntimeException("Failed: invalid index accepted");
+        } catch (StreamCorruptedException expected) { }
+    }
+
+    // A class registered after a writing stream was created is written in full
+    static void testLateRegistration() throws Exception {
+        ClassDescriptorDictionary dict = new ClassDescriptorDictionary(Point.class);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos, dict);
+        dict.register(Other.class);
+        out.writeObject(new Other(1));
+        out.writeObject(new Point(1, 1));
+        out.close();
+        for (ClassDescriptorDictionary d : new ClassDescriptorDictionary[] {
+                 dict, new ClassDescriptorDictionary(Point.class) }) {
+            Object[] objs = read(d, bos.toByteArray(), 2);
+            check(objs[0].equals(new Other(1)) && objs[1].equals(new Point(1, 1)),
+                  "late registration, reader size " + d.size());
+        }
+    }
+
+    // One dictionary shared by streams of several threads
+    static void testConcurrentStreams() throws Exception {
+        ClassDescriptorDictionary dict = dictionary();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int k = 0; k < 500; k++) {
+                        checkGraph(read(dict, write(dict, graph()), 6));
+                    }
+                } catch (Throwable x) {
+                    failure.compareAndSet(null, x);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        // registering classes while the streams are in use
+        dict.register(Other.class);
+        for (Thread t : threads) {
+            t.join();
+        }
+        if (failure.get() != null) {
+            throw new RuntimeException("Failed: concurrent streams", failure.get());
+        }
+    }
+
+    // int[] and long[] are packed in big-endian order, at any offset
+    static void testPrimitiveArrays() throws Exception {
+        for (int len : new int[] { 0, 1, 2, 255, 256, 257, 1000, 5000 }) {
+            int[] ints = new int[len];
+            long[] longs = new long[len];
+            for (int i = 0; i < len; i++) {
+                ints[i] = RND.nextInt();
+                longs[i] = RND.nextLong();
+            }
+            for (int pad = 0; pad < 8; pad++) {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+                    out.write(new byte[pad]);
+                    out.writeObject(ints);
+                    out.write(new byte[pad]);
+                    out.writeObject(longs);
+                    out.writeInt(12345);
+                }
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+                    in.readFully(new byte[pad]);
+                    check(Arrays.equals((int[]) in.readObject(), ints), "int[" + len + "] pad " + pad);
+                    in.readFully(new byte[pad]);
+                    check(Arrays.equals((long[]) in.readObject(), longs), "long[" + len + "] pad " + pad);
+                    check(in.readInt() == 12345, "after arrays");
+                }
+            }
+        }
+        byte[] b = write(null, new int[] { 0x01020304, -2 }, new long[] { 0x0102030405060708L });
+        check(contains(b, new byte[] { 0, 0, 0, 2, 1, 2, 3, 4, -1, -1, -1, -2 }), "int[] bytes");
+        check(contains(b, new byte[] { 0, 0, 0, 1, 1, 2, 3, 4, 5, 6, 7, 8 }), "long[] bytes");
+    }
+
+    static boolean contains(byte[] b, byte[] seq) {
+        for (int i = 0; i + seq.length <= b.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(b, i, i + seq.length), seq)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void testLookup() throws Exception {
+        ObjectStreamClass desc = ObjectStreamClass.lookup(Point.class);
+        check(desc == ObjectStreamClass.lookup(Point.class), "cached descriptor");
+        check(desc.getSerialVersionUID() == 1L && desc.getFields().length == 2, "descriptor fields");
+        check(ObjectStreamClass.lookup(Object.class) == null, "non-serializable class");
+        check(ObjectStreamClass.lookupAny(Object.class) != null, "lookupAny");
+        AtomicReference<ObjectStreamClass> other = new AtomicReference<>();
+        Thread t = new Thread(() -> other.set(ObjectStreamClass.lookup(Shape.class)));
+        t.start();
+        t.join();
+        check(other.get() == ObjectStreamClass.lookup(Shape.class), "descriptor of another thread");
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
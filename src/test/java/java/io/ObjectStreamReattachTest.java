@@ -0,0 +1,340 @@
+package java.io;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.TreeMap;
+
+public class ObjectStreamReattachTest {
+
+    static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int value;
+        Node next;
+        Node(int value, Node next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    // Calls reattach while the stream is active
+    static class Reentrant implements Serializable {
+        private static final long serialVersionUID = 1L;
+        transient boolean failedOnWrite;
+        transient boolean failedOnRead;
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            try {
+                out.reattach(new ByteArrayOutputStream());
+            } catch (IOException expected) {
+                failedOnWrite = true;
+            }
+            out.defaultWriteObject();
+            out.writeBoolean(failedOnWrite);
+        }
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            try {
+                in.reattach(new ByteArrayInputStream(new byte[0]));
+            } catch (IOException expected) {
+                failedOnRead = true;
+            }
+            in.defaultReadObject();
+            failedOnWrite = in.readBoolean();
+        }
+    }
+
+    static class Replacing extends ObjectOutputStream {
+        Replacing(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+        protected Object replaceObject(Object obj) {
+            return obj instanceof String ? ((String) obj).toUpperCase() : obj;
+        }
+    }
+
+    static class Resolving extends ObjectInputStream {
+        Resolving(InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+        protected Object resolveObject(Object obj) {
+            return obj instanceof String ? "[" + obj + "]" : obj;
+        }
+    }
+
+    static class Overriding extends ObjectOutputStream {
+        Overriding() throws IOException {
+            super();
+        }
+    }
+
+    static class OverridingInput extends ObjectInputStream {
+        OverridingInput() throws IOException {
+            super();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        testSameBytes(null);
+        testSameBytes(new ClassDescriptorDictionary(Node.class, TreeMap.class, LinkedList.class));
+        testReadMessages(null);
+        testReadMessages(new ClassDescriptorDictionary(Node.class, TreeMap.class));
+        testAfterClose();
+        testDiscardsBuffered();
+        testRetainedSettings();
+        testActive();
+        testArguments();
+        testShrink();
+        System.out.println("Passed");
+    }
+
+    static Object message(int i) {
+        Node list = null;
+        for (int k = 0; k < i % 50; k++) {
+            list = new Node(k, list);
+        }
+        TreeMap<String, Object> map = new TreeMap<>();
+        map.put("id", i);
+        map.put("list", list);
+        map.put("shared", "text");
+        LinkedList<Object> l = new LinkedList<>();
+        l.add(map);
+        l.add(map);
+        l.add("text");
+        l.add(new long[] { i, -i });
+        return l;
+    }
+
+    static void checkMessage(Object o, int i) {
+        @SuppressWarnings("unchecked")
+        LinkedList<Object> l = (LinkedList<Object>) o;
+        @SuppressWarnings("unchecked")
+        TreeMap<String, Object> map = (TreeMap<String, Object>) l.get(0);
+        check(l.get(1) == map, "back reference in message " + i);
+        check(map.get("id").equals(i), "id of message " + i);
+        int n = 0;
+        for (Node p = (Node) map.get("list"); p != null; p = p.next) {
+            check(p.value == i % 50 - 1 - n, "list of message " + i);
+            n++;
+        }
+        check(n == i % 50, "list length of message " + i);
+        check(Arrays.equals((long[]) l.get(3), new long[] { i, -i }), "array of message " + i);
+    }
+
+    static ObjectOutputStream newOutput(OutputStream out, ClassDescriptorDictionary dict)
+        throws IOException
+    {
+        return dict == null ? new ObjectOutputStream(out) : new ObjectOutputStream(out, dict);
+    }
+
+    static ObjectInputStream newInput(InputStream in, ClassDescriptorDictionary dict)
+        throws IOException
+    {
+        return dict == null ? new ObjectInputStream(in) : new ObjectInputStream(in, dict);
+    }
+
+    static byte[] fresh(Object o, ClassDescriptorDictionary dict) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = newOutput(bos, dict)) {
+            out.writeObject(o);
+        }
+        return bos.toByteArray();
+    }
+
+    // A reattached stream writes what a new stream would
+    static void testSameBytes(ClassDescriptorDictionary dict) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = newOutput(bos, dict);
+        for (int i = 0; i < 300; i++) {
+            Object m = message(i);
+            out.writeObject(m);
+            out.writeInt(i);
+            ByteArrayOutputStream next = new ByteArrayOutputStream();
+            out.reattach(next);
+            byte[] b = bos.toByteArray();
+            // the previous message was flushed in full to its stream
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            try (ObjectOutputStream o = newOutput(expected, dict)) {
+                o.writeObject(m);
+                o.writeInt(i);
+            }
+            check(Arrays.equals(b, expected.toByteArray()), "bytes of message " + i);
+            bos = next;
+        }
+        out.close();
+    }
+
+    // One input stream reads the messages of several streams
+    static void testReadMessages(ClassDescriptorDictionary dict) throws Exception {
+        byte[][] messages = new byte[300][];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = fresh(message(i), dict);
+        }
+        ObjectInputStream in = newInput(new ByteArrayInputStream(messages[0]), dict);
+        for (int i = 0; i < messages.length; i++) {
+            if (i > 0) {
+                in.reattach(new ByteArrayInputStream(messages[i]));
+            }
+            checkMessage(in.readObject(), i);
+        }
+        in.close();
+    }
+
+    static void testAfterClose() throws Exception {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(first);
+        out.writeObject("one");
+        out.close();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        out.reattach(second);
+        out.writeObject("two");
+        out.close();
+        check(Arrays.equals(second.toByteArray(), fresh("two", null)), "written after close");
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(first.toByteArray()));
+        check("one".equals(in.readObject()), "first read");
+        in.close();
+        in.reattach(new ByteArrayInputStream(second.toByteArray()));
+        check("two".equals(in.readObject()), "read after close");
+        try {
+            in.readObject();
+            throw new RuntimeException("Failed: read past end");
+        } catch (EOFException expected) { }
+    }
+
+    // Data buffered from the old stream is not read after reattaching
+    static void testDiscardsBuffered() throws Exception {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(first)) {
+            out.writeInt(1);
+            out.writeObject("unread object");
+            out.write(new byte[500]);
+        }
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(first.toByteArray()));
+        check(in.readInt() == 1, "first int");
+        in.reattach(new ByteArrayInputStream(fresh("second", null)));
+        check("second".equals(in.readObject()), "second stream");
+        // a stream that does not start with a header
+        ByteArrayInputStream bad = new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 });
+        try {
+            in.reattach(bad);
+            throw new RuntimeException("Failed: bad header");
+        } catch (StreamCorruptedException expected) { }
+        // the stream can be reattached again after a failed header
+        in.reattach(new ByteArrayInputStream(fresh(message(3), null)));
+        checkMessage(in.readObject(), 3);
+    }
+
+    static void testRetainedSettings() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new Replacing(bos);
+        out.writeObject("a");
+        ByteArrayOutputStream next = new ByteArrayOutputStream();
+        out.reattach(next);
+        out.writeObject("b");
+        out.close();
+        ObjectInputStream in = new Resolving(new ByteArrayInputStream(bos.toByteArray()));
+        check("[A]".equals(in.readObject()), "replaced and resolved");
+        in.reattach(new ByteArrayInputStream(next.toByteArray()));
+        check("[B]".equals(in.readObject()), "replaced and resolved after reattach");
+
+        // the protocol version is kept
+        bos = new ByteArrayOutputStream();
+        out = new ObjectOutputStream(bos);
+        out.useProtocolVersion(ObjectStreamConstants.PROTOCOL_VERSION_1);
+        next = new ByteArrayOutputStream();
+        out.reattach(next);
+        out.writeObject(message(5));
+        out.close();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (ObjectOutputStream o = new ObjectOutputStream(expected)) {
+            o.useProtocolVersion(ObjectStreamConstants.PROTOCOL_VERSION_1);
+            o.writeObject(message(5));
+        }
+        check(Arrays.equals(next.toByteArray(), expected.toByteArray()), "protocol version 1");
+    }
+
+    static void testActive() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(new Reentrant());
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        Reentrant r = (Reentrant) in.readObject();
+        check(r.failedOnWrite, "reattached while writing");
+        check(r.failedOnRead, "reattached while reading");
+    }
+
+    static void testArguments() throws IOException {
+        ObjectOutputStream out = new ObjectOutputStream(new ByteArrayOutputStream());
+        try {
+            out.reattach(null);
+            throw new RuntimeException("Failed: null output");
+        } catch (NullPointerException expected) { }
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(fresh(null, null)));
+        try {
+            in.reattach(null);
+            throw new RuntimeException("Failed: null input");
+        } catch (NullPointerException expected) { }
+        try {
+            new Overriding().reattach(new ByteArrayOutputStream());
+            throw new RuntimeException("Failed: output stream without state");
+        } catch (IllegalStateException expected) { }
+        try {
+            new OverridingInput().reattach(new ByteArrayInputStream(fresh(null, null)));
+            throw new RuntimeException("Failed: input stream without state");
+        } catch (IllegalStateException expected) { }
+    }
+
+    static int tableLength(Object stream, String array) throws Exception {
+        Field f = stream.getClass().getDeclaredField("handles");
+        f.setAccessible(true);
+        Object handles = f.get(stream);
+        Field a = handles.getClass().getDeclaredField(array);
+        a.setAccessible(true);
+        return java.lang.reflect.Array.getLength(a.get(handles));
+    }
+
+    // One large message does not leave large handle tables behind
+    static void testShrink() throws Exception {
+        Object[] big = new Object[100_000];
+        for (int i = 0; i < big.length; i++) {
+            big[i] = new Node(i, null);
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(big);
+        out.flush();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        check(((Object[]) in.readObject()).length == big.length, "big message");
+        int outLarge = tableLength(out, "next");
+        int inLarge = tableLength(in, "entries");
+        check(outLarge > big.length && inLarge > big.length, "tables grew");
+        for (int i = 0; i < 100; i++) {
+            bos = new ByteArrayOutputStream();
+            out.reattach(bos);
+            Object m = message(i);
+            out.writeObject(m);
+            out.flush();
+            in.reattach(new ByteArrayInputStream(bos.toByteArray()));
+            checkMessage(in.readObject(), i);
+        }
+        int outSmall = tableLength(out, "next");
+        int inSmall = tableLength(in, "entries");
+        check(outSmall < 1000, "output table length " + outSmall);
+        check(inSmall < 1000, "input table length " + inSmall);
+        // and the tables grow again when needed
+        bos = new ByteArrayOutputStream();
+        out.reattach(bos);
+        out.writeObject(big);
+        out.flush();
+        in.reattach(new ByteArrayInputStream(bos.toByteArray()));
+        Object[] copy = (Object[]) in.readObject();
+        check(((Node) copy[big.length - 1]).value == big.length - 1, "big message again");
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,160 @@
+package java.lang;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+public class NumberParsingTest {
+
+    static final Random RND = new Random(42);
+    static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    public static void main(String[] args) {
+        testParseIntRange();
+        testParseLongRange();
+        testParseDoubleRange();
+        testParseDoubleFastPath();
+        testToChars();
+        System.out.println("Passed");
+    }
+
+    static void testParseIntRange() {
+        String line = "id=-2147483648;x=+7f;y=2147483647";
+        check(Integer.parseInt(line, 3, 14, 10) == Integer.MIN_VALUE, "int min");
+        check(Integer.parseInt(line, 17, 20, 16) == 0x7f, "int hex with sign");
+        check(Integer.parseInt(line, 23, line.length(), 10) == Integer.MAX_VALUE, "int max");
+        for (int k = 0; k < 10_000; k++) {
+            int v = RND.nextInt();
+            int radix = Character.MIN_RADIX + RND.nextInt(Character.MAX_RADIX - 1);
+            String s = "[" + Integer.toString(v, radix) + "]";
+            check(Integer.parseInt(new StringBuilder(s), 1, s.length() - 1, radix) == v,
+                  "int " + s + " radix " + radix);
+        }
+        expectNFE(() -> Integer.parseInt("2147483648", 0, 10, 10), "int overflow");
+        expectNFE(() -> Integer.parseInt("-", 0, 1, 10), "lone sign");
+        expectNFE(() -> Integer.parseInt("12", 1, 1, 10), "empty range");
+        expectNFE(() -> Integer.parseInt("1a", 0, 2, 10), "bad digit");
+        expectNFE(() -> Integer.parseInt("1", 0, 1, 37), "radix");
+        expectIOOBE(() -> Integer.parseInt("12", 1, 3, 10), "end beyond length");
+        expectIOOBE(() -> Integer.parseInt("12", 2, 1, 10), "begin after end");
+        try {
+            Integer.parseInt(null, 0, 0, 10);
+            throw new RuntimeException("accepted null");
+        } catch (NullPointerException expected) { }
+    }
+
+    static void testParseLongRange() {
+        String s = "-9223372036854775808 9223372036854775807";
+        check(Long.parseLong(s, 0, 20, 10) == Long.MIN_VALUE, "long min");
+        check(Long.parseLong(s, 21, s.length(), 10) == Long.MAX_VALUE, "long max");
+        for (int k = 0; k < 10_000; k++) {
+            long v = RND.nextLong();
+            String t = "  " + Long.toString(v, 36);
+            check(Long.parseLong(t, 2, t.length(), 36) == v, "long " + t);
+        }
+        expectNFE(() -> Long.parseLong("9223372036854775808", 0, 19, 10), "long overflow");
+    }
+
+    static void testParseDoubleRange() {
+        String s = "1.5,-2e3,NaN,0x1p4,Infinity";
+        check(Double.parseDouble(s, 0, 3) == 1.5, "double");
+        check(Double.parseDouble(s, 4, 8) == -2000.0, "double exponent");
+        check(Double.isNaN(Double.parseDouble(s, 9, 12)), "NaN");
+        check(Double.parseDouble(s, 13, 18) == 16.0, "hex");
+        check(Double.parseDouble(s, 19, s.length()) == Double.POSITIVE_INFINITY, "infinity");
+        check(Float.parseFloat(s, 0, 3) == 1.5f, "float");
+        expectNFE(() -> Double.parseDouble(s, 0, 4), "double with comma");
+        expectNFE(() -> Float.parseFloat(s, 2, 2), "empty float");
+        expectIOOBE(() -> Double.parseDouble(s, -1, 2), "negative begin");
+    }
+
+    // Every result must be the double nearest to the exact decimal value
+    static void testParseDoubleFastPath() {
+        String[] fixed = {
+            "0", "-0.0", "1", "0.1", "123456789012345678", "1234567890123456789012",
+            "4.9e-324", "2.2250738585072014E-308", "1.7976931348623157e308",
+            "9007199254740993", "2.5e-1", "1e23", "8.41e21", "5e-324", "1e-400",
+            "0.30000000000000004", "3.4028235e38", "1.4e-45", "7.006492321624085e-46",
+            "2.4703282292062327e-324", "2.4703282292062328e-324"
+        };
+        for (String f : fixed)
+            checkParse(f);
+        for (int k = 0; k < 20_000; k++) {
+            double d = Double.longBitsToDouble(RND.nextLong());
+            if (Double.isNaN(d) || Double.isInfinite(d))
+                continue;
+            check(Double.parseDouble(Double.toString(d)) == d, "round trip " + d);
+            checkParse(Double.toString(d));
+            checkParse(Float.toString((float)d));
+            checkParse(Long.toString(RND.nextLong()) + "." + Math.abs(RND.nextInt())
+                       + "e" + (RND.nextInt(600) - 300));
+        }
+    }
+
+    static void checkParse(String s) {
+        String t = "x" + s + "y";
+        double d = Double.parseDouble(t, 1, t.length() - 1);
+        check(Double.doubleToRawLongBits(Double.parseDouble(s))
+              == Double.doubleToRawLongBits(d), "parseDouble(String) " + s);
+        float f = Float.parseFloat(t, 1, t.length() - 1);
+        check(Float.floatToRawIntBits(f) == Float.floatToRawIntBits(Float.parseFloat(s)),
+              "parseFloat(String) " + s);
+        if (!Double.isInfinite(d)) {
+            BigDecimal x = new BigDecimal(s);
+            BigDecimal v = new BigDecimal(d);
+            BigDecimal below = v.add(new BigDecimal(Math.nextDown(d))).divide(TWO);
+            check(x.compareTo(below) >= 0, "double " + s + " above nearest");
+            if (d != Double.MAX_VALUE) {
+                BigDecimal above = v.add(new BigDecimal(Math.nextUp(d))).divide(TWO);
+                check(x.compareTo(above) <= 0, "double " + s + " below nearest");
+            }
+        }
+    }
+
+    static void testToChars() {
+        char[] buf = new char[40];
+        for (int k = 0; k < 10_000; k++) {
+            int i = RND.nextInt();
+            long l = RND.nextLong();
+            double d = Double.longBitsToDouble(RND.nextLong());
+            float f = Float.intBitsToFloat(RND.nextInt());
+            checkChars(buf, Integer.toChars(i, buf, 3), Integer.toString(i));
+            checkChars(buf, Long.toChars(l, buf, 3), Long.toString(l));
+            checkChars(buf, Double.toChars(d, buf, 3), Double.toString(d));
+            checkChars(buf, Float.toChars(f, buf, 3), Float.toString(f));
+        }
+        checkChars(buf, Integer.toChars(Integer.MIN_VALUE, buf, 3), "-2147483648");
+        checkChars(buf, Long.toChars(Long.MIN_VALUE, buf, 3), "-9223372036854775808");
+
+        // Nothing is written when the result does not fit
+        char[] small = new char[5];
+        Arrays.fill(small, '#');
+        expectIOOBE(() -> Integer.toChars(123456, small, 0), "int too long");
+        expectIOOBE(() -> Double.toChars(0.125, small, 1), "double too long");
+        check(new String(small).equals("#####"), "partial write: " + new String(small));
+        check(Integer.toChars(12345, small, 0) == 5, "exact fit");
+    }
+
+    static void checkChars(char[] buf, int n, String expected) {
+        check(new String(buf, 3, n).equals(expected), "toChars " + expected);
+    }
+
+    static void expectNFE(Runnable r, String what) {
+        try {
+            r.run();
+            throw new RuntimeException("Failed: no NumberFormatException for " + what);
+        } catch (NumberFormatException expected) { }
+    }
+
+    static void expectIOOBE(Runnable r, String what) {
+        try {
+            r.run();
+            throw new RuntimeException("Failed: no IndexOutOfBoundsException for " + what);
+        } catch (IndexOutOfBoundsException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
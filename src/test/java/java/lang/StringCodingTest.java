@@ -0,0 +1,59 @@
+package java.lang;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+public class StringCodingTest {
+
+    static final String[] STRINGS = {
+        "",
+        "a",
+        "plain ascii text",
+        "caf\u00e9 na\u00efve \u00ff",
+        "mixed \u00e9 and \u20ac and \u4e2d",
+        "pair \ud83d\ude00 and lone \ud800 surrogate",
+        "\u0080\u00ff\u0100",
+    };
+
+    public static void main(String[] args) throws Exception {
+        for (String name : new String[] { "UTF-8", "US-ASCII", "ISO-8859-1", "UTF-16" }) {
+            Charset cs = Charset.forName(name);
+            for (String s : STRINGS) {
+                byte[] expected = bytes(cs.encode(CharBuffer.wrap(s)));
+                check(Arrays.equals(s.getBytes(cs), expected), name + " getBytes(Charset) " + s);
+                check(Arrays.equals(s.getBytes(name), expected), name + " getBytes(String) " + s);
+                String decoded = cs.decode(ByteBuffer.wrap(expected)).toString();
+                check(new String(expected, cs).equals(decoded), name + " new String(Charset) " + s);
+                check(new String(expected, name).equals(decoded), name + " new String(String) " + s);
+                // A subrange of a larger array
+                byte[] padded = new byte[expected.length + 4];
+                System.arraycopy(expected, 0, padded, 2, expected.length);
+                check(new String(padded, 2, expected.length, cs).equals(decoded),
+                      name + " subrange " + s);
+            }
+        }
+        // Arbitrary bytes, including malformed UTF-8
+        byte[] all = new byte[256];
+        for (int i = 0; i < 256; i++)
+            all[i] = (byte)i;
+        for (String name : new String[] { "UTF-8", "US-ASCII", "ISO-8859-1" }) {
+            Charset cs = Charset.forName(name);
+            check(new String(all, cs).equals(cs.decode(ByteBuffer.wrap(all)).toString()),
+                  name + " all bytes");
+        }
+        System.out.println("Passed");
+    }
+
+    static byte[] bytes(ByteBuffer bb) {
+        byte[] ba = new byte[bb.remaining()];
+        bb.get(ba);
+        return ba;
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,108 @@
+package java.lang.invoke;
+
+import java.util.Arrays;
+
+public class StringConcatFactoryTest {
+
+    static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    public static void main(String[] args) throws Throwable {
+        testMakeConcat();
+        testConstants();
+        testArgumentTypes();
+        testManyArguments();
+        testLinkageErrors();
+        System.out.println("Passed");
+    }
+
+    static void testMakeConcat() throws Throwable {
+        MethodHandle mh = StringConcatFactory.makeConcat(LOOKUP, "concat",
+                MethodType.methodType(String.class, String.class, String.class)).getTarget();
+        check("ab".equals((String) mh.invokeExact("a", "b")), "two strings");
+        check("nullb".equals((String) mh.invokeExact((String) null, "b")), "null argument");
+        check("".equals((String) mh.invokeExact("", "")), "empty strings");
+
+        MethodHandle none = StringConcatFactory.makeConcat(LOOKUP, "concat",
+                MethodType.methodType(String.class)).getTarget();
+        check("".equals((String) none.invokeExact()), "no arguments");
+    }
+
+    static void testConstants() throws Throwable {
+        MethodHandle mh = StringConcatFactory.makeConcatWithConstants(LOOKUP, "concat",
+                MethodType.methodType(String.class, int.class, Object.class),
+                "x=\u0001, \u0002=\u0001;\u0002", "y", 42L).getTarget();
+        check("x=1, y=[a];42".equals((String) mh.invokeExact(1, (Object) Arrays.asList("a"))),
+              "recipe with constants");
+
+        MethodHandle only = StringConcatFactory.makeConcatWithConstants(LOOKUP, "concat",
+                MethodType.methodType(String.class), "\u0002 and \u0002", "a", 'b').getTarget();
+        check("a and b".equals((String) only.invokeExact()), "constants only");
+    }
+
+    static void testArgumentTypes() throws Throwable {
+        MethodType mt = MethodType.methodType(String.class, boolean.class, byte.class,
+                char.class, short.class, int.class, long.class, float.class, double.class,
+                Object.class, CharSequence.class, char[].class);
+        char[] ca = { 'c' };
+        MethodHandle mh = StringConcatFactory.makeConcatWithConstants(LOOKUP, "concat", mt,
+                "\u0001|\u0001|\u0001|\u0001|\u0001|\u0001|\u0001|\u0001|\u0001|\u0001|\u0001")
+                .getTarget();
+        String s = (String) mh.invokeExact(true, (byte) -1, 'z', (short) 7, 8, 9L, 1.5f, 2.5d,
+                                           (Object) null, (CharSequence) new StringBuilder("sb"), ca);
+        String expected = "true|-1|z|7|8|9|1.5|2.5|null|sb|" + String.valueOf((Object) ca);
+        check(expected.equals(s), s);
+
+        // The return type may be a supertype of String
+        CallSite cs = StringConcatFactory.makeConcat(LOOKUP, "concat",
+                MethodType.methodType(Object.class, int.class));
+        check("5".equals(cs.getTarget().invoke(5)), "Object return type");
+    }
+
+    static void testManyArguments() throws Throwable {
+        int n = 200;
+        Class<?>[] ptypes = new Class<?>[n];
+        Arrays.fill(ptypes, int.class);
+        StringBuilder recipe = new StringBuilder();
+        Object[] values = new Object[n];
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            recipe.append('\u0001').append(',');
+            values[i] = i;
+            expected.append(i).append(',');
+        }
+        MethodHandle mh = StringConcatFactory.makeConcatWithConstants(LOOKUP, "concat",
+                MethodType.methodType(String.class, ptypes), recipe.toString()).getTarget();
+        check(expected.toString().equals(mh.invokeWithArguments(values)), "200 arguments");
+    }
+
+    static void testLinkageErrors() throws Throwable {
+        expectLinkageError(MethodType.methodType(int.class, int.class), "\u0001");
+        expectLinkageError(MethodType.methodType(String.class, int.class), "\u0001\u0001");
+        expectLinkageError(MethodType.methodType(String.class, int.class, int.class), "\u0001");
+        expectLinkageError(MethodType.methodType(String.class), "\u0002", "a", "b");
+        expectLinkageError(MethodType.methodType(String.class), "\u0002\u0002", "a");
+        Class<?>[] longs = new Class<?>[101];
+        Arrays.fill(longs, long.class);
+        try {
+            StringConcatFactory.makeConcat(LOOKUP, "concat", MethodType.methodType(String.class, longs));
+            throw new RuntimeException("linked 202 argument slots");
+        } catch (StringConcatException expected) { }
+        try {
+            StringConcatFactory.makeConcatWithConstants(LOOKUP, "concat",
+                    MethodType.methodType(String.class), "\u0002", (Object) null);
+            throw new RuntimeException("accepted null constant");
+        } catch (NullPointerException expected) { }
+    }
+
+    static void expectLinkageError(MethodType mt, String recipe, Object... constants) {
+        try {
+            StringConcatFactory.makeConcatWithConstants(LOOKUP, "concat", mt, recipe, constants);
+            throw new RuntimeException("linked " + mt + " with " + recipe.length() + " tags");
+        } catch (StringConcatException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
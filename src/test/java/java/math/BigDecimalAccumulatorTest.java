@@ -0,0 +1,137 @@
+package java.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class BigDecimalAccumulatorTest {
+
+    static final Random RND = new Random(11);
+
+    public static void main(String[] args) {
+        testRandomSums();
+        testCompactOverflow();
+        testMultiplyAdd();
+        testRounding();
+        testCollectors();
+        testReset();
+        System.out.println("Passed");
+    }
+
+    static BigDecimal random() {
+        switch (RND.nextInt(4)) {
+        case 0:
+            return BigDecimal.valueOf(RND.nextInt(2000) - 1000, RND.nextInt(5));
+        case 1:
+            return BigDecimal.valueOf(RND.nextLong(), RND.nextInt(40) - 20);
+        case 2:
+            return new BigDecimal(new BigInteger(RND.nextInt(300) + 1, RND), RND.nextInt(60) - 30)
+                   .multiply(BigDecimal.valueOf(RND.nextBoolean() ? 1 : -1));
+        default:
+            return BigDecimal.valueOf(Long.MAX_VALUE - RND.nextInt(10), RND.nextInt(3));
+        }
+    }
+
+    static void testRandomSums() {
+        for (int run = 0; run < 200; run++) {
+            BigDecimalAccumulator acc = new BigDecimalAccumulator();
+            BigDecimal expected = BigDecimal.ZERO;
+            for (int i = 0; i < 50; i++) {
+                BigDecimal v = random();
+                if (RND.nextBoolean()) {
+                    acc.add(v);
+                    expected = expected.add(v);
+                } else {
+                    acc.subtract(v);
+                    expected = expected.subtract(v);
+                }
+                check(acc.toBigDecimal().equals(expected), "sum " + expected + " != " + acc);
+                check(acc.signum() == expected.signum() && acc.scale() == expected.scale(),
+                      "signum and scale");
+            }
+            check(acc.toString().equals(expected.toString()), "toString");
+        }
+    }
+
+    static void testCompactOverflow() {
+        BigDecimalAccumulator acc = new BigDecimalAccumulator();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 10; i++) {
+            acc.add(Long.MAX_VALUE, 0);
+            expected = expected.add(BigDecimal.valueOf(Long.MAX_VALUE));
+        }
+        for (int i = 0; i < 20; i++) {
+            acc.add(Long.MIN_VALUE, 2);
+            expected = expected.add(BigDecimal.valueOf(Long.MIN_VALUE, 2));
+        }
+        check(acc.toBigDecimal().equals(expected), "overflow and back " + acc);
+
+        BigDecimalAccumulator other = new BigDecimalAccumulator().add(new BigDecimal("1e-30"));
+        acc.add(other);
+        check(acc.toBigDecimal().equals(expected.add(new BigDecimal("1e-30"))), "add accumulator");
+    }
+
+    static void testMultiplyAdd() {
+        BigDecimalAccumulator acc = new BigDecimalAccumulator();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 500; i++) {
+            BigDecimal a = random();
+            BigDecimal b = random();
+            acc.multiplyAdd(a, b);
+            expected = expected.add(a.multiply(b));
+            check(acc.toBigDecimal().equals(expected), "multiplyAdd " + a + " * " + b);
+        }
+    }
+
+    static void testRounding() {
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY)
+                continue;
+            for (int i = 0; i < 300; i++) {
+                BigDecimal v = random();
+                int scale = RND.nextInt(20) - 5;
+                BigDecimal expected = v.setScale(scale, mode);
+                BigDecimal actual = new BigDecimalAccumulator().add(v).setScale(scale, mode).toBigDecimal();
+                check(actual.equals(expected), "setScale " + v + " " + scale + " " + mode);
+
+                // The accumulator starts at zero with scale zero
+                MathContext mc = new MathContext(RND.nextInt(30) + 1, mode);
+                check(new BigDecimalAccumulator().add(v).round(mc).toBigDecimal()
+                                                 .equals(BigDecimal.ZERO.add(v).round(mc)),
+                      "round " + v + " " + mc);
+            }
+        }
+        try {
+            new BigDecimalAccumulator().add(new BigDecimal("1.5")).setScale(0, RoundingMode.UNNECESSARY);
+            throw new RuntimeException("rounded with UNNECESSARY");
+        } catch (ArithmeticException expected) { }
+    }
+
+    static void testCollectors() {
+        List<BigDecimal> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            values.add(random());
+        BigDecimal expected = values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        check(values.stream().collect(BigDecimalAccumulator.summing()).equals(expected), "summing");
+        check(values.parallelStream().collect(BigDecimalAccumulator.summing()).equals(expected),
+              "parallel summing");
+        check(values.stream().map(BigDecimal::toString)
+                    .collect(BigDecimalAccumulator.summing(BigDecimal::new)).equals(expected),
+              "summing(mapper)");
+        check(new ArrayList<BigDecimal>().stream().collect(BigDecimalAccumulator.summing())
+                                          .equals(BigDecimal.ZERO), "empty sum");
+        check(values.stream().collect(Collectors.toList()).size() == values.size(), "sanity");
+    }
+
+    static void testReset() {
+        BigDecimalAccumulator acc = new BigDecimalAccumulator().add(new BigDecimal("1e500"));
+        check(acc.reset().toBigDecimal().equals(BigDecimal.ZERO), "reset");
+        check(acc.add(1, 1).toBigDecimal().equals(new BigDecimal("0.1")), "add after reset");
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
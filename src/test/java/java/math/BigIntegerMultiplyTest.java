@@ -0,0 +1,81 @@
+package java.math;
+
+import java.util.Random;
+
+public class BigIntegerMultiplyTest {
+
+    static final Random RND = new Random(31);
+
+    public static void main(String[] args) {
+        // Sizes in ints around the Karatsuba, Toom-Cook and NTT thresholds
+        int[] sizes = { 1, 79, 80, 200, 240, 241, 500, 1000, 6143, 6144, 7000, 12000 };
+        for (int i = 0; i < sizes.length; i++) {
+            for (int j = i; j < sizes.length; j++) {
+                BigInteger a = random(sizes[i]);
+                BigInteger b = random(sizes[j]);
+                BigInteger expected = reference(a, b);
+                check(a.multiply(b).equals(expected), "multiply " + sizes[i] + "x" + sizes[j]);
+                check(a.parallelMultiply(b).equals(expected), "parallelMultiply " + sizes[i] + "x" + sizes[j]);
+                check(a.negate().multiply(b).equals(expected.negate()), "signs " + sizes[i] + "x" + sizes[j]);
+            }
+            BigInteger a = random(sizes[i]);
+            BigInteger square = reference(a, a);
+            check(a.multiply(a).equals(square), "square " + sizes[i]);
+            check(a.parallelMultiply(a).equals(square), "parallel square " + sizes[i]);
+            check(a.pow(2).equals(square), "pow " + sizes[i]);
+        }
+        testDivision();
+        testSqrt();
+        System.out.println("Passed");
+    }
+
+    static BigInteger random(int ints) {
+        return new BigInteger(ints * 32, RND).setBit(ints * 32 - 1);
+    }
+
+    // Schoolbook multiplication by slices of b small enough for multiplyToLen
+    static BigInteger reference(BigInteger a, BigInteger b) {
+        int sliceBits = 32 * 32;
+        BigInteger mask = BigInteger.ONE.shiftLeft(sliceBits).subtract(BigInteger.ONE);
+        BigInteger result = BigInteger.ZERO;
+        BigInteger rest = b.abs();
+        for (int shift = 0; rest.signum() != 0; shift += sliceBits) {
+            result = result.add(a.abs().multiply(rest.and(mask)).shiftLeft(shift));
+            rest = rest.shiftRight(sliceBits);
+        }
+        return a.signum() * b.signum() < 0 ? result.negate() : result;
+    }
+
+    static void testDivision() {
+        int[][] sizes = { { 200, 90 }, { 5000, 2000 }, { 270000, 132000 } };
+        for (int[] s : sizes) {
+            BigInteger n = random(s[0]);
+            BigInteger d = random(s[1]);
+            BigInteger[] qr = n.divideAndRemainder(d);
+            check(qr[0].multiply(d).add(qr[1]).equals(n), "q*d+r " + s[0] + "/" + s[1]);
+            check(qr[1].signum() >= 0 && qr[1].compareTo(d) < 0, "remainder range " + s[0] + "/" + s[1]);
+            check(qr[0].equals(n.divide(d)) && qr[1].equals(n.remainder(d)), "divide and remainder");
+        }
+    }
+
+    static void testSqrt() {
+        for (int ints : new int[] { 1, 2, 100, 3000 }) {
+            for (BigInteger n : new BigInteger[] { random(ints), random(ints).pow(2) }) {
+                BigInteger s = n.sqrt();
+                check(s.multiply(s).compareTo(n) <= 0, "sqrt too large " + ints);
+                BigInteger s1 = s.add(BigInteger.ONE);
+                check(s1.multiply(s1).compareTo(n) > 0, "sqrt too small " + ints);
+            }
+        }
+        check(BigInteger.ZERO.sqrt().signum() == 0, "sqrt 0");
+        try {
+            BigInteger.ONE.negate().sqrt();
+            throw new RuntimeException("sqrt of negative");
+        } catch (ArithmeticException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
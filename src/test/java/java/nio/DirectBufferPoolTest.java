@@ -0,0 +1,207 @@
+package java.nio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import sun.nio.ch.DirectBuffer;
+
+public class DirectBufferPoolTest {
+
+    static final Random RND = new Random(11);
+
+    public static void main(String[] args) throws Exception {
+        testArguments();
+        testAllocate();
+        testReuse();
+        testUnpooled();
+        testLeak();
+        testConcurrent();
+        System.out.println("Passed");
+    }
+
+    static long address(ByteBuffer buf) {
+        return ((DirectBuffer) buf).address();
+    }
+
+    static void fill(ByteBuffer buf, int seed) {
+        for (int i = 0; i < buf.capacity(); i++) {
+            buf.put(i, (byte) (seed + i));
+        }
+    }
+
+    static void verify(ByteBuffer buf, int seed) {
+        for (int i = 0; i < buf.capacity(); i++) {
+            check(buf.get(i) == (byte) (seed + i), "content at " + i + " of buffer " + seed);
+        }
+    }
+
+    static void testArguments() {
+        for (int max : new int[] { -1, (1 << 30) + 1, Integer.MAX_VALUE }) {
+            try {
+                new DirectBufferPool(max);
+                throw new RuntimeException("Failed: maximum " + max + " accepted");
+            } catch (IllegalArgumentException expected) { }
+        }
+        new DirectBufferPool(0);
+        DirectBufferPool pool = new DirectBufferPool();
+        try {
+            pool.allocate(-1);
+            throw new RuntimeException("Failed: negative capacity");
+        } catch (IllegalArgumentException expected) { }
+        ByteBuffer foreign = ByteBuffer.allocateDirect(16);
+        check(!pool.owns(foreign) && !pool.owns(ByteBuffer.allocate(16)), "owns foreign buffer");
+        try {
+            pool.release(foreign);
+            throw new RuntimeException("Failed: released a foreign buffer");
+        } catch (IllegalArgumentException expected) { }
+        ByteBuffer buf = new DirectBufferPool().allocate(16);
+        try {
+            pool.release(buf);
+            throw new RuntimeException("Failed: released a buffer of another pool");
+        } catch (IllegalArgumentException expected) { }
+        check(DirectBufferPool.getDefault() == DirectBufferPool.getDefault(), "default pool");
+    }
+
+    // Buffers held at the same time do not overlap
+    static void testAllocate() {
+        DirectBufferPool pool = new DirectBufferPool(64 << 10);
+        int[] sizes = { 0, 1, 255, 256, 257, 1000, 4096, 65535, 65536 };
+        List<ByteBuffer> bufs = new ArrayList<>();
+        for (int k = 0; k < 2000; k++) {
+            int cap = k < sizes.length ? sizes[k] : RND.nextInt(70_000);
+            ByteBuffer b = pool.allocate(cap);
+            check(b.isDirect() && b.capacity() == cap && b.position() == 0 && b.limit() == cap,
+                  "new buffer " + b);
+            check(b.order() == ByteOrder.BIG_ENDIAN, "byte order");
+            check(pool.owns(b), "owns");
+            check(!pool.owns(b.slice()) && !pool.owns(b.duplicate()), "owns derived buffer");
+            fill(b, k);
+            bufs.add(b);
+        }
+        for (int k = 0; k < bufs.size(); k++) {
+            verify(bufs.get(k), k);
+        }
+        check(pool.getMemoryUsed() > 0, "memory used");
+        for (ByteBuffer b : bufs) {
+            pool.release(b);
+            pool.release(b);    // no effect
+        }
+        check(pool.getLeakCount() == 0, "leaks " + pool.getLeakCount());
+    }
+
+    // The memory of a released buffer is used again, without growing the pool
+    static void testReuse() {
+        DirectBufferPool pool = new DirectBufferPool();
+        ByteBuffer b = pool.allocate(8192);
+        long addr = address(b);
+        pool.release(b);
+        ByteBuffer c = pool.allocate(5000);
+        check(address(c) == addr, "block of the same size class reused");
+        pool.release(c);
+        long used = pool.getMemoryUsed();
+        for (int k = 0; k < 100_000; k++) {
+            ByteBuffer d = pool.allocate(1 + RND.nextInt(1 << 20));
+            d.put(0, (byte) 1);
+            pool.release(d);
+        }
+        check(pool.getMemoryUsed() <= used + (21 << 20), "pool grew to " + pool.getMemoryUsed());
+    }
+
+    static void testUnpooled() {
+        DirectBufferPool pool = new DirectBufferPool(4096);
+        long before = pool.getMemoryUsed();
+        ByteBuffer b = pool.allocate(3 << 20);
+        check(pool.owns(b) && b.capacity() == 3 << 20, "unpooled buffer");
+        check(pool.getMemoryUsed() >= before + (3 << 20), "unpooled memory counted");
+        fill(b, 3);
+        verify(b, 3);
+        pool.release(b);
+        check(pool.getMemoryUsed() == before, "unpooled memory freed");
+    }
+
+    // A buffer that is not released is returned when garbage collected
+    static void testLeak() throws InterruptedException {
+        DirectBufferPool pool = new DirectBufferPool();
+        for (int k = 0; k < 10; k++) {
+            pool.allocate(1024).put(0, (byte) k);
+        }
+        pool.allocate(2 << 20);
+        long unpooled = pool.getMemoryUsed();
+        for (int i = 0; i < 100 && pool.getLeakCount() < 11; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        check(pool.getLeakCount() == 11, "leaks " + pool.getLeakCount());
+        check(pool.getMemoryUsed() <= unpooled - (2 << 20), "leaked unpooled memory freed");
+        // leaked blocks are available again
+        ByteBuffer b = pool.allocate(1024);
+        pool.release(b);
+        check(pool.getLeakCount() == 11, "release is not a leak");
+    }
+
+    // Buffers are allocated, checked and released by different threads
+    static void testConcurrent() throws Exception {
+        DirectBufferPool pool = new DirectBufferPool(256 << 10);
+        int threads = 4;
+        BlockingQueue<ByteBuffer> handoff = new ArrayBlockingQueue<>(64);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers.add(new Thread(() -> {
+                try {
+                    Random rnd = new Random(id);
+                    List<ByteBuffer> held = new ArrayList<>();
+                    for (int k = 0; k < 20_000; k++) {
+                        if (held.size() < 32 && rnd.nextBoolean()) {
+                            ByteBuffer b = pool.allocate(2 + rnd.nextInt(300 << 10));
+                            int seed = (int) (address(b) >>> 4);
+                            b.put(0, (byte) seed);
+                            b.put(b.capacity() - 1, (byte) (seed + 1));
+                            held.add(b);
+                        } else if (!held.isEmpty()) {
+                            ByteBuffer b = held.remove(rnd.nextInt(held.size()));
+                            int seed = (int) (address(b) >>> 4);
+                            check(b.get(0) == (byte) seed && b.get(b.capacity() - 1) == (byte) (seed + 1),
+                                  "buffer overwritten while held");
+                            // some buffers are released by another thread
+                            if (rnd.nextInt(4) != 0 || !handoff.offer(b)) {
+                                pool.release(b);
+                            }
+                            ByteBuffer other = handoff.poll();
+                            if (other != null) {
+                                pool.release(other);
+                            }
+                        }
+                    }
+                    for (ByteBuffer b : held) {
+                        pool.release(b);
+                    }
+                } catch (Throwable x) {
+                    failure.compareAndSet(null, x);
+                }
+            }));
+        }
+        for (Thread t : workers) {
+            t.start();
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+        if (failure.get() != null) {
+            throw new RuntimeException("Failed: concurrent use", failure.get());
+        }
+        for (ByteBuffer b; (b = handoff.poll()) != null; ) {
+            pool.release(b);
+        }
+        check(pool.getLeakCount() == 0, "leaks " + pool.getLeakCount());
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,215 @@
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class SelectorConsumerTest {
+
+    interface SelectorFactory {
+        Selector open(Selector real);
+    }
+
+    public static void main(String[] args) throws Exception {
+        // The provider's selector and the Selector defaults, through a wrapper
+        SelectorFactory[] factories = { real -> real, Wrapper::new };
+        for (SelectorFactory f : factories) {
+            try (Selector real = Selector.open()) {
+                Selector sel = f.open(real);
+                testReadyChannels(real, sel);
+                testNothingReady(real, sel);
+                testWakeup(sel);
+                testActionChanges(real, sel);
+                testArguments(sel);
+            }
+            try (Selector real = Selector.open()) {
+                testCloseInAction(real, f.open(real));
+            }
+        }
+        System.out.println("Passed");
+    }
+
+    static Pipe pipe(Selector real, Object attachment) throws IOException {
+        Pipe p = Pipe.open();
+        p.source().configureBlocking(false);
+        p.source().register(real, SelectionKey.OP_READ, attachment);
+        return p;
+    }
+
+    static void write(Pipe p) throws IOException {
+        p.sink().write(ByteBuffer.wrap(new byte[] { 1 }));
+    }
+
+    static void drain(Pipe p) throws IOException {
+        p.source().read(ByteBuffer.allocate(16));
+    }
+
+    static void testReadyChannels(Selector real, Selector sel) throws IOException {
+        List<Pipe> pipes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pipes.add(pipe(real, i));
+        }
+        for (int i = 0; i < 20; i += 2) {
+            write(pipes.get(i));
+        }
+        Set<Object> seen = new HashSet<>();
+        int n = sel.select(k -> {
+            check(k.isReadable() && k.readyOps() == SelectionKey.OP_READ, "ready set " + k.readyOps());
+            check(seen.add(k.attachment()), "key consumed twice");
+        });
+        check(n == 10 && seen.size() == 10, "consumed " + n + " keys: " + seen);
+        for (Object a : seen) {
+            check(((Integer) a) % 2 == 0, "key of idle channel consumed");
+        }
+        check(sel.selectedKeys().isEmpty(), "selected-key set is not used");
+
+        // level triggered: unread data is reported again
+        seen.clear();
+        check(sel.selectNow(k -> seen.add(k.attachment())) == 10 && seen.size() == 10, "reported again");
+        for (Pipe p : pipes) {
+            drain(p);
+        }
+        check(sel.selectNow(k -> { throw new RuntimeException("Failed: idle key"); }) == 0, "drained");
+        for (Pipe p : pipes) {
+            p.source().close();
+            p.sink().close();
+        }
+        sel.selectNow();
+    }
+
+    static void testNothingReady(Selector real, Selector sel) throws IOException {
+        Pipe p = pipe(real, null);
+        long start = System.nanoTime();
+        check(sel.select(k -> { throw new RuntimeException("Failed: idle key"); }, 200) == 0, "timeout");
+        check(System.nanoTime() - start >= 100_000_000L, "returned before the timeout");
+        check(sel.selectNow(k -> { throw new RuntimeException("Failed: idle key"); }) == 0, "selectNow");
+        p.source().close();
+        p.sink().close();
+        sel.selectNow();
+    }
+
+    static void testWakeup(Selector sel) throws Exception {
+        sel.wakeup();
+        check(sel.select(k -> { }) == 0, "pending wakeup");
+        Thread t = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) { }
+            sel.wakeup();
+        });
+        t.start();
+        long start = System.nanoTime();
+        check(sel.select(k -> { }) == 0, "wakeup from another thread");
+        check(System.nanoTime() - start < 20_000_000_000L, "woken up");
+        t.join();
+        // selectNow clears a pending wakeup
+        sel.wakeup();
+        sel.selectNow(k -> { });
+        check(sel.select(k -> { }, 100) == 0, "timeout after cleared wakeup");
+    }
+
+    // The action may cancel keys, close channels and change interest sets
+    static void testActionChanges(Selector real, Selector sel) throws IOException {
+        Pipe a = pipe(real, "cancel");
+        Pipe b = pipe(real, "close");
+        Pipe c = pipe(real, "interest");
+        write(a);
+        write(b);
+        write(c);
+        check(sel.select(k -> {
+            try {
+                switch ((String) k.attachment()) {
+                    case "cancel": k.cancel(); break;
+                    case "close": k.channel().close(); break;
+                    default: k.interestOps(0); break;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }) == 3, "three keys");
+        check(sel.selectNow(k -> { throw new RuntimeException("Failed: key after change " + k.attachment()); }) == 0,
+              "no keys after changes");
+        check(real.keys().size() == 1, "keys left: " + real.keys().size());
+        SelectionKey key = c.source().keyFor(real);
+        key.interestOps(SelectionKey.OP_READ);
+        check(sel.selectNow(k -> check(k == key, "restored key")) == 1, "interest restored");
+
+        RuntimeException thrown = new RuntimeException("action failure");
+        try {
+            sel.selectNow(k -> { throw thrown; });
+            throw new RuntimeException("Failed: action exception not relayed");
+        } catch (RuntimeException e) {
+            check(e == thrown, "relayed " + e);
+        }
+        for (Pipe p : new Pipe[] { a, b, c }) {
+            p.source().close();
+            p.sink().close();
+        }
+        sel.selectNow();
+    }
+
+    static void testArguments(Selector sel) throws IOException {
+        try {
+            sel.select(k -> { }, -1);
+            throw new RuntimeException("Failed: negative timeout");
+        } catch (IllegalArgumentException expected) { }
+        try {
+            sel.select((Consumer<SelectionKey>) null);
+            throw new RuntimeException("Failed: null action");
+        } catch (NullPointerException expected) { }
+        try {
+            sel.selectNow(null);
+            throw new RuntimeException("Failed: null action");
+        } catch (NullPointerException expected) { }
+    }
+
+    static void testCloseInAction(Selector real, Selector sel) throws IOException {
+        Pipe p = pipe(real, null);
+        write(p);
+        try {
+            sel.select(k -> {
+                try {
+                    sel.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            throw new RuntimeException("Failed: no exception after close");
+        } catch (ClosedSelectorException expected) { }
+        try {
+            sel.selectNow(k -> { });
+            throw new RuntimeException("Failed: select on closed selector");
+        } catch (ClosedSelectorException expected) { }
+        p.source().close();
+        p.sink().close();
+    }
+
+    // Uses the Selector defaults for the action methods
+    static final class Wrapper extends Selector {
+        final Selector real;
+
+        Wrapper(Selector real) {
+            this.real = real;
+        }
+
+        public boolean isOpen() { return real.isOpen(); }
+        public SelectorProvider provider() { return real.provider(); }
+        public Set<SelectionKey> keys() { return real.keys(); }
+        public Set<SelectionKey> selectedKeys() { return real.selectedKeys(); }
+        public int selectNow() throws IOException { return real.selectNow(); }
+        public int select(long timeout) throws IOException { return real.select(timeout); }
+        public int select() throws IOException { return real.select(); }
+        public Selector wakeup() { real.wakeup(); return this; }
+        public void close() throws IOException { real.close(); }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,154 @@
+package java.nio.channels;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import sun.nio.ch.ExtendedSocketOption;
+import sun.nio.ch.Net;
+
+public class ServerSocketChannelAcceptorsTest {
+
+    static final int ACCEPTORS = 4;
+    static final int CLIENTS = 64;
+
+    public static void main(String[] args) throws Exception {
+        try {
+            ServerSocketChannel.openAcceptors(null, 0, 0);
+            throw new RuntimeException("Failed: count 0 accepted");
+        } catch (IllegalArgumentException expected) { }
+
+        if (!Net.isReusePortAvailable()) {
+            // the socket option registry of this platform has no SO_REUSEPORT
+            try (ServerSocketChannel ssc = ServerSocketChannel.open()) {
+                check(!ssc.supportedOptions().contains(ExtendedSocketOption.SO_REUSEPORT),
+                      "SO_REUSEPORT listed as supported");
+            }
+            try {
+                ServerSocketChannel.openAcceptors(null, 0, 1);
+                throw new RuntimeException("Failed: opened without SO_REUSEPORT");
+            } catch (UnsupportedOperationException expected) { }
+            System.out.println("SO_REUSEPORT not available, acceptors not tested");
+            System.out.println("Passed");
+            return;
+        }
+
+        InetAddress lh = InetAddress.getLoopbackAddress();
+        testAccept(new InetSocketAddress(lh, 0), lh);
+        testAccept(null, lh);
+        testBindFailure(lh);
+        System.out.println("Passed");
+    }
+
+    static void testAccept(SocketAddress local, InetAddress lh) throws IOException {
+        List<SelectionKey> keys = ServerSocketChannel.openAcceptors(local, 50, ACCEPTORS);
+        try {
+            check(keys.size() == ACCEPTORS, "keys " + keys.size());
+            try {
+                keys.clear();
+                throw new RuntimeException("Failed: modifiable list");
+            } catch (UnsupportedOperationException expected) { }
+
+            Set<Selector> selectors = new HashSet<>();
+            int port = -1;
+            for (SelectionKey k : keys) {
+                ServerSocketChannel ssc = (ServerSocketChannel) k.channel();
+                check(selectors.add(k.selector()), "selector shared");
+                check(k.selector().keys().size() == 1, "one key per selector");
+                check(k.interestOps() == SelectionKey.OP_ACCEPT, "interest set");
+                check(!ssc.isBlocking(), "blocking channel");
+                check(ssc.getOption(ExtendedSocketOption.SO_REUSEPORT), "SO_REUSEPORT not set");
+                int p = ((InetSocketAddress) ssc.getLocalAddress()).getPort();
+                check(port == -1 || p == port, "port " + p + " differs from " + port);
+                port = p;
+            }
+
+            List<SocketChannel> clients = new ArrayList<>();
+            List<SocketChannel> accepted = new ArrayList<>();
+            int[] perAcceptor = new int[ACCEPTORS];
+            try {
+                for (int i = 0; i < CLIENTS; i++) {
+                    clients.add(SocketChannel.open(new InetSocketAddress(lh, port)));
+                }
+                long deadline = System.currentTimeMillis() + 30_000;
+                while (accepted.size() < CLIENTS) {
+                    check(System.currentTimeMillis() < deadline,
+                          "accepted " + accepted.size() + " of " + CLIENTS);
+                    for (int i = 0; i < ACCEPTORS; i++) {
+                        SelectionKey key = keys.get(i);
+                        int a = i;
+                        key.selector().select(k -> {
+                            check(k == key && k.isAcceptable(), "acceptable key");
+                            try {
+                                SocketChannel sc;
+                                while ((sc = ((ServerSocketChannel) k.channel()).accept()) != null) {
+                                    accepted.add(sc);
+                                    perAcceptor[a]++;
+                                }
+                            } catch (IOException x) {
+                                throw new RuntimeException(x);
+                            }
+                        }, 10);
+                    }
+                }
+                int used = 0;
+                for (int n : perAcceptor) {
+                    if (n > 0)
+                        used++;
+                }
+                check(used > 1, "connections were not distributed");
+
+                // accepted connections are usable
+                clients.get(0).write(ByteBuffer.wrap(new byte[] { 42 }));
+                boolean found = false;
+                for (SocketChannel sc : accepted) {
+                    if (sc.getRemoteAddress().equals(clients.get(0).getLocalAddress())) {
+                        ByteBuffer b = ByteBuffer.allocate(1);
+                        sc.configureBlocking(true);
+                        check(sc.read(b) == 1 && b.get(0) == 42, "data");
+                        found = true;
+                    }
+                }
+                check(found, "peer of first client");
+            } finally {
+                for (SocketChannel sc : clients)
+                    sc.close();
+                for (SocketChannel sc : accepted)
+                    sc.close();
+            }
+        } finally {
+            close(keys);
+        }
+        for (SelectionKey k : keys) {
+            check(!k.channel().isOpen() && !k.selector().isOpen(), "closed");
+        }
+    }
+
+    // A port held by a socket without SO_REUSEPORT cannot be shared
+    static void testBindFailure(InetAddress lh) throws IOException {
+        try (ServerSocketChannel blocker = ServerSocketChannel.open()) {
+            blocker.bind(new InetSocketAddress(lh, 0));
+            try {
+                close(ServerSocketChannel.openAcceptors(blocker.getLocalAddress(), 0, 2));
+                throw new RuntimeException("Failed: bound to a port in use");
+            } catch (IOException expected) { }
+        }
+    }
+
+    static void close(List<SelectionKey> keys) throws IOException {
+        for (SelectionKey k : keys) {
+            k.channel().close();
+            k.selector().close();
+        }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,156 @@
+package java.nio.file;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class FilesLinesTest {
+
+    static final Random RND = new Random(9);
+    static final String[] PIECES = { "x", "word", " ", "12345", "\u00e9", "\u4e2d", "\ud83d\ude00" };
+    static final String[] TERMINATORS = { "\n", "\r", "\r\n" };
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("lines");
+        try {
+            for (int size : new int[] { 1, 100, 70_000, 1_000_000 }) {
+                for (Charset cs : new Charset[] { StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+                                                  StandardCharsets.US_ASCII, StandardCharsets.UTF_16 }) {
+                    testLines(dir, size, cs);
+                }
+            }
+            testSplitting(dir);
+            testEmptyAndProc(dir);
+            testMalformed(dir);
+        } finally {
+            try (Stream<Path> s = Files.list(dir)) {
+                for (Path p : s.collect(Collectors.toList())) {
+                    Files.delete(p);
+                }
+            }
+            Files.delete(dir);
+        }
+        System.out.println("Passed");
+    }
+
+    static Path write(Path dir, int minSize, Charset cs) throws IOException {
+        boolean ascii = cs.equals(StandardCharsets.US_ASCII);
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < minSize) {
+            int pieces = RND.nextInt(12);
+            for (int i = 0; i < pieces; i++) {
+                sb.append(PIECES[RND.nextInt(ascii ? 4 : PIECES.length)]);
+            }
+            if (RND.nextInt(50) != 0 || sb.length() + 1 >= minSize) {
+                sb.append(TERMINATORS[RND.nextInt(TERMINATORS.length)]);
+            }
+        }
+        String text = sb.toString();
+        if (cs.equals(StandardCharsets.ISO_8859_1)) {
+            // characters outside Latin-1 would be replaced
+            text = text.replaceAll("[^\\u0000-\\u00ff]", "?");
+        }
+        Path file = Files.createTempFile(dir, "lines", ".txt");
+        Files.write(file, text.getBytes(cs));
+        return file;
+    }
+
+    static List<String> expected(Path file, Charset cs) throws IOException {
+        try (BufferedReader br = Files.newBufferedReader(file, cs)) {
+            return br.lines().collect(Collectors.toList());
+        }
+    }
+
+    static void testLines(Path dir, int size, Charset cs) throws IOException {
+        Path file = write(dir, size, cs);
+        List<String> expected = expected(file, cs);
+        try (Stream<String> s = Files.lines(file, cs)) {
+            check(s.collect(Collectors.toList()).equals(expected), "sequential " + cs + " " + size);
+        }
+        try (Stream<String> s = Files.lines(file, cs)) {
+            check(s.parallel().collect(Collectors.toList()).equals(expected), "parallel " + cs + " " + size);
+        }
+        try (Stream<String> s = Files.lines(file, cs)) {
+            check(s.parallel().count() == expected.size(), "parallel count " + cs + " " + size);
+        }
+        if (cs.equals(StandardCharsets.UTF_8)) {
+            try (Stream<String> s = Files.lines(file)) {
+                check(s.parallel().skip(3).limit(100).collect(Collectors.toList())
+                       .equals(expected.stream().skip(3).limit(100).collect(Collectors.toList())),
+                      "parallel slice " + size);
+            }
+        }
+    }
+
+    // Splitting to the smallest ranges must still give each line exactly once
+    static void testSplitting(Path dir) throws IOException {
+        Path file = write(dir, 2_000_000, StandardCharsets.UTF_8);
+        List<String> expected = expected(file, StandardCharsets.UTF_8);
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+            FileChannelLinesSpliterator s = new FileChannelLinesSpliterator(
+                    fc, StandardCharsets.UTF_8, 0, fc.size());
+            check(s.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL), "characteristics");
+            List<String> actual = new ArrayList<>();
+            int leaves = collect(s, actual);
+            check(leaves > 16, "split into " + leaves + " ranges");
+            check(actual.equals(expected), "lines of all ranges");
+
+            FileChannelLinesSpliterator t = new FileChannelLinesSpliterator(
+                    fc, StandardCharsets.UTF_8, 0, fc.size());
+            check(t.tryAdvance(line -> check(line.equals(expected.get(0)), "first line")), "tryAdvance");
+            check(t.trySplit() == null, "split after traversal started");
+            check(t.estimateSize() < fc.size(), "estimate after traversal");
+            check(fc.isOpen(), "spliterator does not close the channel");
+        }
+    }
+
+    static int collect(Spliterator<String> s, List<String> out) {
+        Spliterator<String> prefix = s.trySplit();
+        if (prefix == null) {
+            check(s.estimateSize() < 2 * FileChannelLinesSpliterator.MIN_SPLIT_SIZE, "leaf size");
+            s.forEachRemaining(out::add);
+            return 1;
+        }
+        return collect(prefix, out) + collect(s, out);
+    }
+
+    static void testEmptyAndProc(Path dir) throws IOException {
+        Path empty = Files.createTempFile(dir, "empty", ".txt");
+        try (Stream<String> s = Files.lines(empty)) {
+            check(s.count() == 0, "empty file");
+        }
+        // FileChannel.size() is zero for files in /proc, which are read with a Reader
+        Path status = Paths.get("/proc/self/status");
+        if (Files.exists(status)) {
+            try (Stream<String> s = Files.lines(status)) {
+                check(s.anyMatch(line -> line.startsWith("Name:")), "/proc file");
+            }
+        }
+    }
+
+    static void testMalformed(Path dir) throws IOException {
+        Path file = Files.createTempFile(dir, "bad", ".txt");
+        Files.write(file, new byte[] { 'a', '\n', (byte) 0xff, '\n' });
+        try (Stream<String> s = Files.lines(file)) {
+            s.forEach(line -> { });
+            throw new RuntimeException("Failed: malformed input accepted");
+        } catch (UncheckedIOException expected) {
+            check(expected.getCause() instanceof java.nio.charset.CharacterCodingException,
+                  "cause " + expected.getCause());
+        }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,68 @@
+package java.text;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class DateFormatterTest {
+
+    static final String[] PATTERNS = {
+        "yyyy-MM-dd'T'HH:mm:ss.SSSZ", "yyyyMMddHHmmss", "dd/MM/yy h:mm a", "EEE, d MMM yyyy HH:mm:ss z",
+        "EEEE MMMM d G", "yyyy-'W'ww-u", "D k K S", "H:mm:ss XXX", "''yy'' MMMMM",
+    };
+
+    static final String[] ZONES = {
+        "UTC", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe", "Pacific/Chatham",
+    };
+
+    public static void main(String[] args) {
+        Random rnd = new Random(7);
+        long[] fixed = { 0L, -1L, 951782400000L, 1414285200000L, -12219292800000L, 253402300799999L };
+        for (Locale locale : new Locale[] { Locale.US, Locale.FRANCE, Locale.JAPAN }) {
+            for (String pattern : PATTERNS) {
+                for (String zone : ZONES) {
+                    SimpleDateFormat sdf = new SimpleDateFormat(pattern, locale);
+                    sdf.setTimeZone(TimeZone.getTimeZone(zone));
+                    DateFormatter f = DateFormatter.of(sdf);
+                    for (long millis : fixed)
+                        check(sdf, f, millis);
+                    for (int i = 0; i < 100; i++)
+                        check(sdf, f, rnd.nextLong() % 4_000_000_000_000L);
+                }
+            }
+        }
+        testWithZone();
+        System.out.println("Passed");
+    }
+
+    static void check(SimpleDateFormat sdf, DateFormatter f, long millis) {
+        String expected = sdf.format(new Date(millis));
+        compare(expected, f.format(millis), sdf, millis);
+        compare(expected, f.format(new Date(millis)), sdf, millis);
+        StringBuilder sb = new StringBuilder("x");
+        f.formatTo(millis, sb);
+        compare("x" + expected, sb.toString(), sdf, millis);
+        char[] dst = new char[expected.length() + 1];
+        int end = f.format(millis, dst, 1);
+        compare(expected, new String(dst, 1, end - 1), sdf, millis);
+    }
+
+    static void testWithZone() {
+        DateFormatter utc = DateFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.US)
+                                         .withZone(TimeZone.getTimeZone("UTC"));
+        DateFormatter tokyo = utc.withZone(TimeZone.getTimeZone("Asia/Tokyo"));
+        if (!utc.format(0L).equals("1970-01-01 00:00") || !tokyo.format(0L).equals("1970-01-01 09:00"))
+            throw new RuntimeException("Failed: withZone " + utc.format(0L) + " " + tokyo.format(0L));
+        try {
+            utc.format(0L, new char[5], 0);
+            throw new RuntimeException("wrote past the array");
+        } catch (IndexOutOfBoundsException expected) { }
+    }
+
+    static void compare(String expected, String actual, SimpleDateFormat sdf, long millis) {
+        if (!expected.equals(actual))
+            throw new RuntimeException("Failed: " + sdf.toPattern() + " " + sdf.getTimeZone().getID() +
+                                       " " + millis + ": expected " + expected + ", got " + actual);
+    }
+}
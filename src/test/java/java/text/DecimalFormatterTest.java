@@ -0,0 +1,138 @@
+package java.text;
+
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DecimalFormatterTest {
+
+    static final String[] PATTERNS = {
+        "0", "#", "#,##0.00", "0.###", "#,##0.##;(#,##0.##)", "00000.0000",
+        "#%", "\u00a4#,##0.00", "#,####", "0.0##E0", "'#'#.#", "#.##\u2030",
+    };
+
+    static final double[] DOUBLES = {
+        0.0, -0.0, 1.0, -1.0, 0.5, 1.5, 2.5, -2.5, 0.125, 0.005, 0.0009, 123456.789,
+        1e-10, 1e15, 9.995, 0.1 + 0.2, Double.MIN_VALUE, 4503599627370495.5,
+        Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+    };
+
+    static final long[] LONGS = {
+        0, 1, -1, 7, 1000, -123456789, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE / 100,
+    };
+
+    public static void main(String[] args) throws Exception {
+        Random rnd = new Random(42);
+        for (Locale locale : new Locale[] { Locale.US, Locale.GERMANY, new Locale("ar", "EG") }) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            for (String pattern : PATTERNS) {
+                for (RoundingMode mode : RoundingMode.values()) {
+                    if (mode == RoundingMode.UNNECESSARY)
+                        continue;
+                    DecimalFormat df = new DecimalFormat(pattern, symbols);
+                    df.setRoundingMode(mode);
+                    DecimalFormatter f = DecimalFormatter.of(df);
+                    for (double d : DOUBLES)
+                        check(df, f, d);
+                    for (int i = 0; i < 200; i++)
+                        check(df, f, (rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(20) - 8));
+                    for (long l : LONGS)
+                        check(df, f, l);
+                }
+            }
+        }
+        testLongResults();
+        testArrayBounds();
+        testConcurrentUse();
+        System.out.println("Passed");
+    }
+
+    static void check(DecimalFormat df, DecimalFormatter f, double d) {
+        String expected = df.format(d);
+        compare(expected, f.format(d), df, d);
+        StringBuilder sb = new StringBuilder("x");
+        f.formatTo(d, sb);
+        compare("x" + expected, sb.toString(), df, d);
+        char[] dst = new char[expected.length() + 3];
+        int end = f.format(d, dst, 2);
+        compare(expected, new String(dst, 2, end - 2), df, d);
+    }
+
+    static void check(DecimalFormat df, DecimalFormatter f, long l) {
+        String expected = df.format(l);
+        compare(expected, f.format(l), df, l);
+        StringBuffer sb = new StringBuffer();
+        f.formatTo(l, sb);
+        compare(expected, sb.toString(), df, l);
+        java.io.StringWriter w = new java.io.StringWriter();
+        f.formatTo(l, w);
+        compare(expected, w.toString(), df, l);
+        char[] dst = new char[expected.length()];
+        check(f.format(l, dst, 0) == dst.length, "end index");
+        compare(expected, new String(dst), df, l);
+    }
+
+    static void compare(String expected, String actual, DecimalFormat df, Object value) {
+        if (!expected.equals(actual))
+            throw new RuntimeException("Failed: " + df.toPattern() + " " + df.getRoundingMode() +
+                                       " " + value + ": expected " + expected + ", got " + actual);
+    }
+
+    // Results longer than the initial scratch buffer
+    static void testLongResults() {
+        DecimalFormat df = new DecimalFormat("#,##0.0");
+        df.setMinimumIntegerDigits(200);
+        df.setMaximumFractionDigits(300);
+        DecimalFormatter f = DecimalFormatter.of(df);
+        for (double d : new double[] { 1e-300, 1.5, 1e300, -Math.PI }) {
+            check(df, f, d);
+            check(df, f, (long) d);
+        }
+        check("3".equals(DecimalFormatter.ofPattern("0").format(3L)), "short after long");
+    }
+
+    static void testArrayBounds() {
+        DecimalFormatter f = DecimalFormatter.ofPattern("0.00");
+        try {
+            f.format(1.5, new char[3], 0);
+            throw new RuntimeException("wrote past the array");
+        } catch (IndexOutOfBoundsException expected) { }
+        try {
+            f.format(1L, new char[10], -1);
+            throw new RuntimeException("accepted negative offset");
+        } catch (IndexOutOfBoundsException expected) { }
+    }
+
+    static void testConcurrentUse() throws Exception {
+        DecimalFormatter f = DecimalFormatter.ofPattern("#,##0.000");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                futures.add(pool.submit(() -> {
+                    DecimalFormat df = new DecimalFormat("#,##0.000");
+                    Random rnd = new Random(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        double d = rnd.nextGaussian() * 1e6;
+                        compare(df.format(d), f.format(d), df, d);
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
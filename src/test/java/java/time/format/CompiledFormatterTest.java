@@ -0,0 +1,180 @@
+package java.time.format;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CompiledFormatterTest {
+
+    static final Random RND = new Random(7);
+
+    static final DateTimeFormatter[] FORMATTERS = {
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ISO_LOCAL_TIME,
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+        DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+        DateTimeFormatter.ISO_INSTANT,
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
+        DateTimeFormatter.ofPattern("uuuuMMddHHmmss"),
+        DateTimeFormatter.ofPattern("uuuu/M/d H:m[:s]"),
+        DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ssXXXXX"),
+        new DateTimeFormatterBuilder().appendInstant(3).toFormatter(),
+        new DateTimeFormatterBuilder().appendInstant(-1).toFormatter(),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(ZoneOffset.ofHours(5)),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(ZoneId.of("Europe/Paris")),
+        DateTimeFormatter.ISO_LOCAL_DATE.withResolverStyle(ResolverStyle.STRICT),
+    };
+
+    public static void main(String[] args) {
+        List<TemporalAccessor> temporals = temporals();
+        for (DateTimeFormatter f : FORMATTERS) {
+            for (TemporalAccessor t : temporals) {
+                testFormat(f, t);
+            }
+        }
+        testParseInstant();
+        testByteArrayBounds();
+        System.out.println("Passed");
+    }
+
+    static List<TemporalAccessor> temporals() {
+        List<TemporalAccessor> list = new ArrayList<>();
+        int[] years = { -999_999_999, -10_000, -1, 0, 1, 999, 1970, 2024, 9999, 10_000, 999_999_999 };
+        int[] nanos = { 0, 1, 1_000, 120_000_000, 123_456_000, 999_999_999 };
+        for (int y : years) {
+            for (int n : nanos) {
+                LocalDateTime ldt = LocalDateTime.of(y, 1 + RND.nextInt(12), 1 + RND.nextInt(28),
+                                                     RND.nextInt(24), RND.nextInt(60), RND.nextInt(60), n);
+                list.add(ldt);
+            }
+        }
+        for (int k = 0; k < 2_000; k++) {
+            long sec = RND.nextLong() % 300_000_000_000L;
+            int n = RND.nextBoolean() ? 0 : RND.nextInt(1_000_000_000);
+            LocalDateTime ldt = LocalDateTime.ofEpochSecond(sec, n, ZoneOffset.UTC);
+            ZoneOffset off = ZoneOffset.ofTotalSeconds(RND.nextInt(36 * 3600) - 18 * 3600);
+            list.add(ldt);
+            list.add(ldt.toLocalDate());
+            list.add(ldt.toLocalTime());
+            list.add(OffsetDateTime.of(ldt, off));
+            list.add(ZonedDateTime.of(ldt, ZoneId.of("America/New_York")));
+            list.add(Instant.ofEpochSecond(sec, n));
+        }
+        list.add(Instant.MIN);
+        list.add(Instant.MAX);
+        list.add(LocalTime.MIDNIGHT);
+        list.add(LocalDate.MAX);
+        return list;
+    }
+
+    // The compiled path must produce the same text or exception as the general path
+    static void testFormat(DateTimeFormatter f, TemporalAccessor t) {
+        String expected;
+        Class<?> failure = null;
+        try {
+            StringBuilder buf = new StringBuilder();
+            f.toPrinterParser(false).format(new DateTimePrintContext(t, f), buf);
+            expected = buf.toString();
+        } catch (DateTimeException ex) {
+            expected = ex.getMessage();
+            failure = ex.getClass();
+        }
+        String actual;
+        try {
+            actual = f.format(t);
+            check(failure == null, f + " formatted " + t + " as " + actual + ", expected " + expected);
+        } catch (DateTimeException ex) {
+            check(ex.getClass() == failure, f + " failed on " + t + ": " + ex);
+            actual = ex.getMessage();
+        }
+        check(actual.equals(expected), f + " formatted " + t + " as " + actual + ", expected " + expected);
+
+        if (failure == null) {
+            byte[] dst = new byte[expected.length() + 4];
+            int n = f.formatTo(t, dst, 2);
+            check(new String(dst, 2, n, java.nio.charset.StandardCharsets.US_ASCII).equals(expected),
+                  f + " formatTo(byte[]) of " + t);
+            // A formatter that cannot be compiled must give the same result
+            StringBuilder sb = new StringBuilder("x");
+            f.formatTo(t, sb);
+            check(sb.toString().equals("x" + expected), f + " formatTo(StringBuilder) of " + t);
+        }
+    }
+
+    static void testParseInstant() {
+        DateTimeFormatter[] formatters = {
+            DateTimeFormatter.ISO_INSTANT,
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(ZoneOffset.ofHoursMinutes(-3, -30)),
+            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSXXX"),
+        };
+        List<String> texts = new ArrayList<>();
+        for (int k = 0; k < 2_000; k++) {
+            Instant i = Instant.ofEpochSecond(RND.nextLong() % 300_000_000_000L, RND.nextInt(1_000_000_000));
+            ZoneOffset off = ZoneOffset.ofTotalSeconds((RND.nextInt(36 * 4) - 18 * 4) * 900);
+            for (DateTimeFormatter f : formatters) {
+                texts.add(f.format(OffsetDateTime.ofInstant(i, off)));
+            }
+        }
+        String[] bad = {
+            "", "2024-02-30T00:00:00Z", "2024-13-01T00:00:00Z", "2024-01-01T24:00:00Z",
+            "2024-01-01T23:59:60Z", "2024-01-01T00:00:00", "2024-01-01T00:00:00+19:00",
+            "+2024-01-01T00:00:00Z", "2024-1-01T00:00:00Z", "2024-01-01T00:00:00.Z",
+            "2024-01-01T00:00:00.1234567890Z", "2024-01-01T00:00:00Zx", "2023-02-29T00:00:00Z",
+            "2024-01-01 00:00:00.000+01:00", "2024-01-01T00:00:00+01:00:60",
+        };
+        for (String s : bad) {
+            texts.add(s);
+        }
+        for (DateTimeFormatter f : formatters) {
+            for (String s : texts) {
+                String expected;
+                try {
+                    expected = f.parse(s, Instant::from).toString();
+                } catch (DateTimeParseException ex) {
+                    expected = ex.getMessage() + " at " + ex.getErrorIndex();
+                }
+                String actual;
+                try {
+                    actual = f.parseInstant(s).toString();
+                } catch (DateTimeParseException ex) {
+                    actual = ex.getMessage() + " at " + ex.getErrorIndex();
+                }
+                check(actual.equals(expected), f + " parsed " + s + " as " + actual + ", expected " + expected);
+            }
+        }
+    }
+
+    static void testByteArrayBounds() {
+        DateTimeFormatter f = DateTimeFormatter.ISO_LOCAL_DATE;
+        LocalDate d = LocalDate.of(2024, 5, 6);
+        try {
+            f.formatTo(d, new byte[9], 0);
+            throw new RuntimeException("Failed: formatted into a short array");
+        } catch (IndexOutOfBoundsException expected) { }
+        try {
+            f.formatTo(d, new byte[20], 21);
+            throw new RuntimeException("Failed: accepted offset beyond the array");
+        } catch (IndexOutOfBoundsException expected) { }
+        try {
+            DateTimeFormatter.ofPattern("MMMM", java.util.Locale.FRENCH)
+                             .formatTo(LocalDate.of(2024, 2, 1), new byte[20], 0);
+            throw new RuntimeException("Failed: wrote non-ASCII text");
+        } catch (DateTimeException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,116 @@
+package java.time.zone;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class ZoneOffsetCacheTest {
+
+    static final Random RND = new Random(11);
+    static final long START_1900 = -2208988800L;
+    static final long END_2030 = 1893456000L;
+
+    public static void main(String[] args) {
+        for (String id : ZoneId.getAvailableZoneIds()) {
+            ZoneRules rules = ZoneId.of(id).getRules();
+            TimeZone tz = TimeZone.getTimeZone(id);
+            testRandomInstants(id, rules, tz);
+            testAroundTransitions(id, rules, tz);
+            testExtremeInstants(id, rules);
+        }
+        testSharedData();
+        System.out.println("Passed");
+    }
+
+    // Each instant is queried twice so the second query may come from the cache
+    static void testRandomInstants(String id, ZoneRules rules, TimeZone tz) {
+        for (int k = 0; k < 200; k++) {
+            long sec = START_1900 + (long) (RND.nextDouble() * (END_2030 - START_1900));
+            Instant instant = Instant.ofEpochSecond(sec);
+            for (int rep = 0; rep < 2; rep++) {
+                check(rules.getOffset(instant).getTotalSeconds() * 1000 == tz.getOffset(sec * 1000),
+                      id + " at " + instant);
+            }
+        }
+    }
+
+    // Days with a transition must give the offset before and after it
+    static void testAroundTransitions(String id, ZoneRules rules, TimeZone tz) {
+        List<ZoneOffsetTransition> transitions = rules.getTransitions();
+        for (ZoneOffsetTransition t : transitions) {
+            long sec = t.toEpochSecond();
+            if (sec < START_1900 || sec >= END_2030) {
+                continue;
+            }
+            long[] probes = { sec - 86400, sec - 1, sec, sec + 1, sec - 3600, sec + 3600 };
+            for (int rep = 0; rep < 3; rep++) {
+                for (long p : probes) {
+                    check(rules.getOffset(Instant.ofEpochSecond(p)).getTotalSeconds() * 1000
+                          == tz.getOffset(p * 1000), id + " near transition " + t + " at " + p);
+                }
+            }
+            check(rules.getOffset(Instant.ofEpochSecond(sec - 1)).equals(t.getOffsetBefore()),
+                  id + " before " + t);
+            check(rules.getOffset(Instant.ofEpochSecond(sec)).equals(t.getOffsetAfter()),
+                  id + " after " + t);
+        }
+        // Instants governed by the last rules, beyond the TimeZone range
+        Instant far = Instant.parse("2090-01-01T00:00:00Z");
+        ZoneOffsetTransition t = rules.nextTransition(far);
+        if (t != null) {
+            for (int rep = 0; rep < 3; rep++) {
+                check(rules.getOffset(t.getInstant().minusSeconds(1)).equals(t.getOffsetBefore()),
+                      id + " before " + t);
+                check(rules.getOffset(t.getInstant()).equals(t.getOffsetAfter()),
+                      id + " after " + t);
+            }
+        }
+    }
+
+    static String offsetOrError(ZoneRules rules, Instant instant) {
+        try {
+            return rules.getOffset(instant).toString();
+        } catch (DateTimeException x) {
+            return x.toString();
+        }
+    }
+
+    // Filling the cache never changes the result, even where finding the
+    // offset throws; each day is queried again so its slot would be filled
+    static void testExtremeInstants(String id, ZoneRules rules) {
+        long[] secs = {
+            Instant.MIN.getEpochSecond(), Instant.MIN.getEpochSecond() + 86400,
+            LocalDate.MIN.atStartOfDay(ZoneOffset.UTC).toEpochSecond() + 43200,
+            LocalDate.MAX.atStartOfDay(ZoneOffset.UTC).toEpochSecond() + 43200,
+            Instant.MAX.getEpochSecond() - 86400, Instant.MAX.getEpochSecond(),
+        };
+        for (long sec : secs) {
+            Instant instant = Instant.ofEpochSecond(sec);
+            String first = offsetOrError(rules, instant);
+            for (int rep = 0; rep < 3; rep++) {
+                String again = offsetOrError(rules, instant);
+                check(again.equals(first), id + " at " + instant + ": " + again + ", first " + first);
+            }
+        }
+    }
+
+    // The two readers of tzdb.dat share one copy and agree on the rules
+    static void testSharedData() {
+        ZoneRules paris = ZoneId.of("Europe/Paris").getRules();
+        TimeZone tz = TimeZone.getTimeZone("Europe/Paris");
+        check(paris.getOffset(Instant.parse("2024-07-01T00:00:00Z")).equals(ZoneOffset.ofHours(2)),
+              "Paris summer offset");
+        check(tz.getRawOffset() == 3_600_000, "Paris raw offset");
+        check(tz.useDaylightTime(), "Paris daylight time");
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,155 @@
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class ParallelPoolTest {
+
+    public static void main(String[] args) {
+        testPoolHonored();
+        testLeafSizeHonored();
+        testDefaults();
+        System.out.println("Passed");
+    }
+
+    static void testPoolHonored() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            AtomicInteger outside = new AtomicInteger();
+            IntStream.range(0, 10_000).parallel(pool).forEach(i -> {
+                if (ForkJoinTask.getPool() != pool)
+                    outside.incrementAndGet();
+            });
+            check(outside.get() == 0, outside + " elements processed outside the pool");
+
+            long sum = LongStream.range(0, 100_000).parallel(pool).map(i -> {
+                check(ForkJoinTask.getPool() == pool, "map outside the pool");
+                return i;
+            }).sum();
+            check(sum == 99_999L * 100_000 / 2, "sum in pool");
+
+            // Stateful operations evaluated to an array run in the pool too
+            Integer[] sorted = Stream.of(3, 1, 2).parallel(pool).peek(i -> {
+                check(ForkJoinTask.getPool() == pool, "peek outside the pool");
+            }).sorted().toArray(Integer[]::new);
+            check(Arrays.equals(sorted, new Integer[] { 1, 2, 3 }), "sorted in pool");
+
+            check(Stream.of(1).parallel(pool).isParallel(), "parallel(pool) is parallel");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static void testLeafSizeHonored() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (long leaf : new long[] { 1, 10, 100 }) {
+                LeafRecorder r = new LeafRecorder(1000);
+                AtomicLong count = new AtomicLong();
+                StreamSupport.stream(r, true).parallel(pool).leafSize(leaf)
+                             .forEach(i -> count.incrementAndGet());
+                check(count.get() == 1000, "all elements processed");
+                check(r.maxLeaf.get() <= leaf,
+                      "leaf of " + r.maxLeaf + " elements for leaf size " + leaf);
+            }
+            // Zero restores the default, which is larger than one element
+            LeafRecorder r = new LeafRecorder(1000);
+            StreamSupport.stream(r, true).leafSize(1).leafSize(0).forEach(i -> { });
+            check(r.maxLeaf.get() > 1, "leafSize(0) restores the default");
+        } finally {
+            pool.shutdown();
+        }
+        try {
+            Stream.of(1).leafSize(-1);
+            throw new RuntimeException("accepted negative leaf size");
+        } catch (IllegalArgumentException expected) { }
+    }
+
+    // The interface defaults, as used by streams that are not pipelines
+    static void testDefaults() {
+        MinimalStream s = new MinimalStream();
+        check(s.parallel(ForkJoinPool.commonPool()) == s && s.parallel, "default parallel(pool)");
+        check(s.leafSize(10) == s, "default leafSize");
+        try {
+            s.parallel(null);
+            throw new RuntimeException("accepted null pool");
+        } catch (NullPointerException expected) { }
+        try {
+            s.leafSize(-1);
+            throw new RuntimeException("accepted negative leaf size");
+        } catch (IllegalArgumentException expected) { }
+    }
+
+    // Records the largest portion of the source traversed by one leaf task
+    static final class LeafRecorder implements Spliterator<Integer> {
+        final AtomicLong maxLeaf;
+        int lo;
+        final int hi;
+
+        LeafRecorder(int size) {
+            this(new AtomicLong(), 0, size);
+        }
+
+        LeafRecorder(AtomicLong maxLeaf, int lo, int hi) {
+            this.maxLeaf = maxLeaf;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        public boolean tryAdvance(Consumer<? super Integer> action) {
+            record(1);
+            if (lo >= hi)
+                return false;
+            action.accept(lo++);
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super Integer> action) {
+            record(hi - lo);
+            while (lo < hi)
+                action.accept(lo++);
+        }
+
+        private void record(long n) {
+            long m;
+            while (n > (m = maxLeaf.get()) && !maxLeaf.compareAndSet(m, n)) { }
+        }
+
+        public Spliterator<Integer> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null : new LeafRecorder(maxLeaf, lo, lo = mid);
+        }
+
+        public long estimateSize() {
+            return hi - lo;
+        }
+
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    static final class MinimalStream implements BaseStream<Integer, MinimalStream> {
+        boolean parallel;
+
+        public Iterator<Integer> iterator() { throw new UnsupportedOperationException(); }
+        public Spliterator<Integer> spliterator() { throw new UnsupportedOperationException(); }
+        public boolean isParallel() { return parallel; }
+        public MinimalStream sequential() { parallel = false; return this; }
+        public MinimalStream parallel() { parallel = true; return this; }
+        public MinimalStream unordered() { return this; }
+        public MinimalStream onClose(Runnable closeHandler) { return this; }
+        public void close() { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
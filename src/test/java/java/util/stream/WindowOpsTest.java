@@ -0,0 +1,134 @@
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class WindowOpsTest {
+
+    public static void main(String[] args) {
+        testWindowEdges();
+        testStepGreaterThanSize();
+        testShortFinalChunk();
+        testPrimitiveWindows();
+        testScan();
+        testDefaultImplementations();
+        testIllegalArguments();
+        System.out.println("Passed");
+    }
+
+    static void testWindowEdges() {
+        check(Stream.of(1, 2, 3).windowFixed(4).count() == 0, "window larger than stream");
+        check(Stream.of(1, 2, 3, 4).windowFixed(2).collect(Collectors.toList())
+                    .equals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4))),
+              "exact multiple");
+        check(Stream.of(1, 2, 3, 4, 5).windowFixed(2).count() == 2, "trailing elements dropped");
+        check(Stream.<Integer>empty().windowSliding(1, 1).count() == 0, "empty stream");
+        check(Stream.of(1, 2, 3, 4).windowSliding(3, 1).collect(Collectors.toList())
+                    .equals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(2, 3, 4))),
+              "sliding windows");
+        // Infinite sources are evaluated one window at a time
+        List<List<Integer>> first = Stream.iterate(0, i -> i + 1).windowSliding(2, 1).limit(3)
+                                          .collect(Collectors.toList());
+        check(first.equals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(1, 2),
+                                         Arrays.asList(2, 3))), "infinite source");
+        for (int n = 0; n < 50; n++) {
+            List<List<Integer>> seq = IntStream.range(0, n).boxed()
+                                               .windowSliding(4, 3).collect(Collectors.toList());
+            List<List<Integer>> par = IntStream.range(0, n).boxed().parallel()
+                                               .windowSliding(4, 3).collect(Collectors.toList());
+            List<List<Integer>> unsized = IntStream.range(0, n).boxed().parallel().filter(i -> true)
+                                                   .windowSliding(4, 3).collect(Collectors.toList());
+            check(seq.equals(par) && seq.equals(unsized), "parallel windows of " + n);
+            check(seq.size() == (n < 4 ? 0 : (n - 4) / 3 + 1), "window count of " + n);
+        }
+    }
+
+    static void testStepGreaterThanSize() {
+        List<List<Integer>> w = IntStream.range(0, 10).boxed().windowSliding(2, 3)
+                                         .collect(Collectors.toList());
+        check(w.equals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(3, 4),
+                                     Arrays.asList(6, 7))), "step > size: " + w);
+        check(IntStream.range(0, 10).boxed().parallel().windowSliding(2, 3)
+                       .collect(Collectors.toList()).equals(w), "parallel step > size");
+    }
+
+    static void testShortFinalChunk() {
+        List<List<Integer>> c = IntStream.range(0, 7).boxed().chunked(3)
+                                         .collect(Collectors.toList());
+        check(c.equals(Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5),
+                                     Arrays.asList(6))), "short final chunk: " + c);
+        check(IntStream.range(0, 7).boxed().parallel().chunked(3)
+                       .collect(Collectors.toList()).equals(c), "parallel chunks");
+        check(IntStream.range(0, 6).boxed().chunked(3).count() == 2, "no empty chunk");
+    }
+
+    static void testPrimitiveWindows() {
+        int[][] iw = IntStream.range(0, 5).chunked(2).toArray(int[][]::new);
+        check(Arrays.deepEquals(iw, new int[][] { { 0, 1 }, { 2, 3 }, { 4 } }), "int chunks");
+        long[][] lw = LongStream.range(0, 5).parallel().windowSliding(3, 2).toArray(long[][]::new);
+        check(Arrays.deepEquals(lw, new long[][] { { 0, 1, 2 }, { 2, 3, 4 } }), "long windows");
+    }
+
+    static void testScan() {
+        int n = 100_000;
+        long[] expected = new long[n];
+        long sum = 0;
+        for (int i = 0; i < n; i++)
+            expected[i] = sum += i;
+        check(Arrays.equals(LongStream.range(0, n).scan(0, Long::sum).toArray(), expected),
+              "sequential scan");
+        check(Arrays.equals(LongStream.range(0, n).parallel().scan(0, Long::sum).toArray(),
+                            expected), "parallel scan");
+        check(Arrays.equals(LongStream.range(0, n).parallel().filter(i -> true)
+                                      .scan(0, Long::sum).toArray(), expected),
+              "parallel scan of unknown size");
+        check(Arrays.equals(IntStream.range(0, 5).parallel().scan(0, Integer::sum).toArray(),
+                            new int[] { 0, 1, 3, 6, 10 }), "parallel int scan");
+        List<String> s = Stream.of("a", "b", "c").parallel().scan("", String::concat)
+                               .collect(Collectors.toList());
+        check(s.equals(Arrays.asList("a", "ab", "abc")), "parallel reference scan: " + s);
+    }
+
+    // The interface defaults, as used by streams that are not pipelines
+    static void testDefaultImplementations() {
+        boolean[] closed = new boolean[1];
+        Stream<Integer> src = Stream.of(0, 1, 2, 3, 4).onClose(() -> closed[0] = true);
+        try (Stream<List<Integer>> w = WindowOps.windows(src, 2, 2, true)) {
+            check(w.collect(Collectors.toList())
+                   .equals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2, 3),
+                                         Arrays.asList(4))), "default chunked");
+        }
+        check(closed[0], "default closes upstream");
+        check(WindowOps.windows(Stream.of(0, 1, 2, 3, 4, 5, 6), 2, 3, false).count() == 2,
+              "default windowSliding");
+        check(WindowOps.windows(IntStream.range(0, 5).parallel(), 2, 2, false).isParallel(),
+              "default preserves parallel");
+        check(Arrays.equals(WindowOps.scan(IntStream.of(1, 2, 3), 0, Integer::sum).toArray(),
+                            new int[] { 1, 3, 6 }), "default int scan");
+        check(Arrays.equals(WindowOps.scan(LongStream.of(1, 2, 3), 1, (a, b) -> a * b).toArray(),
+                            new long[] { 1, 2, 6 }), "default long scan");
+        check(Arrays.deepEquals(WindowOps.windows(LongStream.range(0, 4), 3, 1, false)
+                                         .toArray(long[][]::new),
+                                new long[][] { { 0, 1, 2 }, { 1, 2, 3 } }), "default long windows");
+        try {
+            WindowOps.windows(Stream.of(1), 1, 0, false);
+            throw new RuntimeException("default accepted step 0");
+        } catch (IllegalArgumentException expected) { }
+    }
+
+    static void testIllegalArguments() {
+        try {
+            Stream.of(1).windowFixed(0);
+            throw new RuntimeException("accepted size 0");
+        } catch (IllegalArgumentException expected) { }
+        try {
+            IntStream.of(1).windowSliding(1, -1);
+            throw new RuntimeException("accepted step -1");
+        } catch (IllegalArgumentException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
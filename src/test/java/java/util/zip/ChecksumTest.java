@@ -0,0 +1,177 @@
+package java.util.zip;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class ChecksumTest {
+
+    static final Random RND = new Random(13);
+
+    public static void main(String[] args) {
+        testKnownValues();
+        testAgainstReference();
+        testByteBuffers();
+        testCombine("CRC32", CRC32::new, CRC32::combine);
+        testCombine("CRC32C", CRC32C::new, CRC32C::combine);
+        testCombine("Adler32", Adler32::new, Adler32::combine);
+        System.out.println("Passed");
+    }
+
+    interface Combiner {
+        long combine(long c1, long c2, long len2);
+    }
+
+    // Bitwise CRC-32C, reflected Castagnoli polynomial
+    static long reference(byte[] b, int off, int len) {
+        int crc = 0xffffffff;
+        for (int i = off; i < off + len; i++) {
+            crc ^= b[i] & 0xff;
+            for (int k = 0; k < 8; k++) {
+                crc = (crc >>> 1) ^ (0x82f63b78 & -(crc & 1));
+            }
+        }
+        return ~crc & 0xffffffffL;
+    }
+
+    static long crc32c(byte[] b) {
+        CRC32C c = new CRC32C();
+        c.update(b);
+        return c.getValue();
+    }
+
+    // Check value of the CRC catalogue and the examples of RFC 3720, B.4
+    static void testKnownValues() {
+        check(crc32c("123456789".getBytes(StandardCharsets.US_ASCII)) == 0xe3069283L, "check value");
+        check(crc32c(new byte[0]) == 0, "empty");
+        byte[] b = new byte[32];
+        check(crc32c(b) == 0x8a9136aaL, "32 zeros");
+        Arrays.fill(b, (byte) 0xff);
+        check(crc32c(b) == 0x62a8ab43L, "32 ones");
+        for (int i = 0; i < 32; i++) {
+            b[i] = (byte) i;
+        }
+        check(crc32c(b) == 0x46dd794eL, "incrementing");
+        for (int i = 0; i < 32; i++) {
+            b[i] = (byte) (31 - i);
+        }
+        check(crc32c(b) == 0x113fdb5cL, "decrementing");
+    }
+
+    static void testAgainstReference() {
+        byte[] data = new byte[10_000];
+        RND.nextBytes(data);
+        for (int k = 0; k < 2000; k++) {
+            int off = RND.nextInt(64);
+            int len = k < 100 ? k : RND.nextInt(data.length - off);
+            CRC32C c = new CRC32C();
+            // in pieces, some of them single bytes
+            int p = off;
+            while (p < off + len) {
+                if (RND.nextInt(4) == 0) {
+                    c.update(data[p++]);
+                } else {
+                    int n = Math.min(off + len - p, RND.nextInt(100));
+                    c.update(data, p, n);
+                    p += n;
+                }
+            }
+            check(c.getValue() == reference(data, off, len), "offset " + off + " length " + len);
+            c.reset();
+            check(c.getValue() == 0, "reset");
+        }
+        CRC32C c = new CRC32C();
+        for (int[] bad : new int[][] { { -1, 1 }, { 0, -1 }, { 1, data.length }, { data.length + 1, 0 } }) {
+            try {
+                c.update(data, bad[0], bad[1]);
+                throw new RuntimeException("Failed: bounds " + Arrays.toString(bad));
+            } catch (ArrayIndexOutOfBoundsException expected) { }
+        }
+    }
+
+    static void testByteBuffers() {
+        byte[] data = new byte[5000];
+        RND.nextBytes(data);
+        for (int k = 0; k < 500; k++) {
+            int pos = RND.nextInt(100);
+            int lim = pos + RND.nextInt(data.length - pos);
+            long expected = reference(data, pos, lim - pos);
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data).clear();
+            ByteBuffer[] bufs = {
+                ByteBuffer.wrap(data), ByteBuffer.wrap(data).asReadOnlyBuffer(), direct,
+                ByteBuffer.wrap(data, 7, data.length - 7).slice()
+            };
+            for (ByteBuffer bb : bufs) {
+                int shift = data.length - bb.capacity();
+                if (pos < shift) {
+                    continue;
+                }
+                bb.limit(lim - shift).position(pos - shift);
+                CRC32C c = new CRC32C();
+                c.update(bb);
+                check(c.getValue() == expected, "buffer " + bb);
+                check(bb.position() == bb.limit(), "position after update");
+            }
+        }
+    }
+
+    static void testCombine(String name, Supplier<Checksum> factory, Combiner combiner) {
+        byte[] data = new byte[200_000];
+        RND.nextBytes(data);
+        for (int k = 0; k < 500; k++) {
+            int len = k < 20 ? k : RND.nextInt(data.length);
+            int split = RND.nextInt(len + 1);
+            Checksum whole = factory.get();
+            whole.update(data, 0, len);
+            Checksum first = factory.get();
+            first.update(data, 0, split);
+            Checksum second = factory.get();
+            second.update(data, split, len - split);
+            long combined = combiner.combine(first.getValue(), second.getValue(), len - split);
+            check(combined == whole.getValue(), name + " split " + split + " of " + len);
+        }
+        // several segments combined in order
+        Checksum whole = factory.get();
+        whole.update(data, 0, data.length);
+        Checksum first = factory.get();
+        long value = -1;
+        int p = 0;
+        while (p < data.length) {
+            int n = Math.min(data.length - p, 1 + RND.nextInt(20_000));
+            Checksum c = factory.get();
+            c.update(data, p, n);
+            if (p == 0) {
+                value = c.getValue();
+            } else {
+                value = combiner.combine(value, c.getValue(), n);
+            }
+            p += n;
+        }
+        check(value == whole.getValue(), name + " segments");
+        check(combiner.combine(first.getValue(), first.getValue(), 0) == first.getValue(), name + " empty");
+        // the second sequence may be longer than an int
+        long c1 = whole.getValue();
+        long len = 5_000_000_000L;
+        if (name.equals("Adler32")) {
+            // only the length modulo 65521 matters
+            check(combiner.combine(c1, value, len) == combiner.combine(c1, value, len % 65521),
+                  name + " long length");
+        } else {
+            // combining with a zero CRC shifts the first CRC by the length
+            long shifted = combiner.combine(combiner.combine(c1, 0, len / 2), 0, len - len / 2);
+            check(combiner.combine(c1, 0, len) == shifted, name + " long length");
+        }
+        try {
+            combiner.combine(0, 0, -1);
+            throw new RuntimeException("Failed: " + name + " negative length");
+        } catch (IllegalArgumentException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,374 @@
+package java.util.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DirectBufferPool;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+public class InflaterDeflaterBufferTest {
+
+    static final Random RND = new Random(19);
+
+    enum Kind { HEAP, DIRECT, READ_ONLY }
+
+    public static void main(String[] args) throws Exception {
+        for (int size : new int[] { 0, 1, 1000, 100_000, 3_000_000 }) {
+            byte[] data = data(size);
+            byte[] expected = deflateArrays(data);
+            for (Kind in : Kind.values()) {
+                for (Kind out : new Kind[] { Kind.HEAP, Kind.DIRECT }) {
+                    byte[] z = deflate(data, in, out);
+                    check(Arrays.equals(inflateArrays(z, size), data), "deflate " + in + " to " + out + ", " + size);
+                    check(Arrays.equals(inflate(expected, size, in, out), data),
+                          "inflate " + in + " to " + out + ", " + size);
+                }
+            }
+        }
+        testDictionary();
+        testArguments();
+        testSyncFlush();
+        testChannel();
+        System.out.println("Passed");
+    }
+
+    // Compressible data with some random bytes
+    static byte[] data(int size) {
+        byte[] b = new byte[size];
+        for (int i = 0; i < size; i++) {
+            b[i] = (byte) (RND.nextInt(8) == 0 ? RND.nextInt(256) : 'a' + (i / 7) % 20);
+        }
+        return b;
+    }
+
+    static ByteBuffer buffer(byte[] b, int off, int len, Kind kind) {
+        switch (kind) {
+            case HEAP:
+                // not at the start of the array
+                byte[] a = new byte[len + 10];
+                System.arraycopy(b, off, a, 5, len);
+                return ByteBuffer.wrap(a, 5, len).slice();
+            case DIRECT:
+                ByteBuffer d = ByteBuffer.allocateDirect(len);
+                d.put(b, off, len).flip();
+                return d;
+            default:
+                return ByteBuffer.wrap(b, off, len).asReadOnlyBuffer();
+        }
+    }
+
+    static ByteBuffer output(int capacity, Kind kind) {
+        return kind == Kind.DIRECT ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    static byte[] drain(ByteBuffer out, ByteArrayOutputStream bos) {
+        out.flip();
+        byte[] b = new byte[out.remaining()];
+        out.get(b);
+        bos.write(b, 0, b.length);
+        out.clear();
+        return b;
+    }
+
+    static byte[] deflateArrays(byte[] data) {
+        Deflater def = new Deflater();
+        def.setInput(data);
+        def.finish();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        while (!def.finished()) {
+            bos.write(buf, 0, def.deflate(buf));
+        }
+        def.end();
+        return bos.toByteArray();
+    }
+
+    static byte[] inflateArrays(byte[] z, int size) throws DataFormatException {
+        Inflater inf = new Inflater();
+        inf.setInput(z);
+        byte[] out = new byte[size];
+        int n = 0;
+        while (!inf.finished()) {
+            int k = inf.inflate(out, n, out.length - n);
+            check(k > 0 || n == size, "inflate progress");
+            n += k;
+        }
+        check(inf.getRemaining() == 0, "remaining input");
+        inf.end();
+        return out;
+    }
+
+    // Input given in pieces of random size, output into small buffers
+    static byte[] deflate(byte[] data, Kind inKind, Kind outKind) {
+        Deflater def = new Deflater();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ByteBuffer out = output(1 + RND.nextInt(70_000), outKind);
+        int off = 0;
+        do {
+            int len = Math.min(data.length - off, RND.nextInt(100_000));
+            ByteBuffer in = buffer(data, off, len, inKind);
+            off += len;
+            boolean last = off == data.length;
+            def.setInput(in);
+            if (last) {
+                def.finish();
+            }
+            while (!def.finished()) {
+                int pos = out.position();
+                int n = def.deflate(out);
+                check(out.position() == pos + n, "output position");
+                drain(out, bos);
+                if (n == 0 && def.needsInput() && !last) {
+                    break;
+                }
+            }
+            check(!in.hasRemaining(), "input consumed");
+        } while (!def.finished());
+        check(def.getBytesRead() == data.length, "bytes read " + def.getBytesRead());
+        check(def.getBytesWritten() == bos.size(), "bytes written");
+        def.end();
+        return bos.toByteArray();
+    }
+
+    static byte[] inflate(byte[] z, int size, Kind inKind, Kind outKind) throws DataFormatException {
+        Inflater inf = new Inflater();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ByteBuffer out = output(1 + RND.nextInt(70_000), outKind);
+        int off = 0;
+        while (!inf.finished()) {
+            check(off < z.length, "inflater needs more input than given");
+            int len = Math.min(z.length - off, 1 + RND.nextInt(50_000));
+            ByteBuffer in = buffer(z, off, len, inKind);
+            off += len;
+            inf.setInput(in);
+            while (!inf.finished()) {
+                int pos = out.position();
+                int n = inf.inflate(out);
+                check(out.position() == pos + n, "output position");
+                drain(out, bos);
+                if (n == 0 && inf.needsInput()) {
+                    break;
+                }
+            }
+            check(inf.finished() || !in.hasRemaining(), "input consumed");
+        }
+        check(off == z.length, "input left over");
+        check(inf.getBytesWritten() == size && inf.getBytesRead() == z.length, "inflater totals");
+        inf.end();
+        return bos.toByteArray();
+    }
+
+    static void testDictionary() throws DataFormatException {
+        byte[] dict = data(5000);
+        byte[] data = Arrays.copyOfRange(dict, 1000, 4000);
+        for (Kind kind : Kind.values()) {
+            Deflater def = new Deflater();
+            ByteBuffer d = buffer(dict, 0, dict.length, kind);
+            def.setDictionary(d);
+            check(!d.hasRemaining(), "deflater dictionary consumed");
+            def.setInput(data);
+            def.finish();
+            byte[] z = new byte[10_000];
+            int zlen = def.deflate(z);
+            check(def.finished() && zlen < 200, "deflated with dictionary to " + zlen);
+            int adler = def.getAdler();
+            def.end();
+
+            Inflater inf = new Inflater();
+            inf.setInput(z, 0, zlen);
+            ByteBuffer out = ByteBuffer.allocate(data.length);
+            check(inf.inflate(out) == 0 && inf.needsDictionary(), "dictionary needed");
+            Adler32 a = new Adler32();
+            a.update(dict);
+            check(inf.getAdler() == (int) a.getValue(), "dictionary adler " + adler);
+            ByteBuffer d2 = buffer(dict, 0, dict.length, kind);
+            inf.setDictionary(d2);
+            check(!d2.hasRemaining(), "inflater dictionary consumed");
+            while (!inf.finished()) {
+                inf.inflate(out);
+            }
+            check(Arrays.equals(out.array(), data), "inflated with dictionary " + kind);
+            inf.end();
+        }
+    }
+
+    static void testArguments() throws DataFormatException {
+        Deflater def = new Deflater();
+        Inflater inf = new Inflater();
+        ByteBuffer ro = ByteBuffer.allocate(10).asReadOnlyBuffer();
+        try {
+            def.deflate(ro);
+            throw new RuntimeException("Failed: deflate to read-only buffer");
+        } catch (ReadOnlyBufferException expected) { }
+        try {
+            inf.inflate(ro);
+            throw new RuntimeException("Failed: inflate to read-only buffer");
+        } catch (ReadOnlyBufferException expected) { }
+        try {
+            def.deflate(ByteBuffer.allocate(10), 7);
+            throw new RuntimeException("Failed: invalid flush mode");
+        } catch (IllegalArgumentException expected) { }
+        try {
+            def.setInput((ByteBuffer) null);
+            throw new RuntimeException("Failed: null input");
+        } catch (NullPointerException expected) { }
+        try {
+            inf.setInput((ByteBuffer) null);
+            throw new RuntimeException("Failed: null input");
+        } catch (NullPointerException expected) { }
+        // array input replaces buffer input and the other way round
+        def.setInput(ByteBuffer.allocateDirect(10));
+        def.setInput(new byte[0]);
+        def.finish();
+        ByteBuffer out = ByteBuffer.allocate(100);
+        while (!def.finished()) {
+            def.deflate(out);
+        }
+        check(def.getBytesRead() == 0, "buffer input replaced");
+        def.end();
+        inf.end();
+        try {
+            Deflater ended = new Deflater();
+            ended.end();
+            ended.deflate(ByteBuffer.allocate(1));
+            throw new RuntimeException("Failed: deflate after end");
+        } catch (NullPointerException expected) { }
+    }
+
+    // A sync flush makes all input so far available to the inflater
+    static void testSyncFlush() throws DataFormatException {
+        byte[] data = data(50_000);
+        Deflater def = new Deflater();
+        Inflater inf = new Inflater();
+        ByteBuffer z = ByteBuffer.allocateDirect(100_000);
+        ByteBuffer out = ByteBuffer.allocateDirect(data.length);
+        int off = 0;
+        while (off < data.length) {
+            int len = Math.min(data.length - off, 1 + RND.nextInt(5000));
+            def.setInput(buffer(data, off, len, Kind.DIRECT));
+            off += len;
+            z.clear();
+            while (def.deflate(z, Deflater.SYNC_FLUSH) > 0 && !z.hasRemaining()) {
+            }
+            z.flip();
+            inf.setInput(z);
+            while (inf.inflate(out) > 0) {
+            }
+            check(out.position() == off, "inflated " + out.position() + " of " + off + " after flush");
+        }
+        out.flip();
+        byte[] b = new byte[out.remaining()];
+        out.get(b);
+        check(Arrays.equals(b, data), "sync flushed data");
+        def.end();
+        inf.end();
+    }
+
+    static ReadableByteChannel source(byte[] z) {
+        return Channels.newChannel(new ByteArrayInputStream(z));
+    }
+
+    static void testChannel() throws Exception {
+        byte[] data = data(1_000_000);
+        byte[] z = deflateArrays(data);
+        for (Kind kind : new Kind[] { Kind.HEAP, Kind.DIRECT }) {
+            try (InflaterChannel ch = new InflaterChannel(source(z))) {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                ByteBuffer out = output(1 + RND.nextInt(20_000), kind);
+                for (int n; (n = ch.read(out)) != -1; ) {
+                    check(n > 0, "blocking read returned 0");
+                    drain(out, bos);
+                }
+                check(Arrays.equals(bos.toByteArray(), data), "channel into " + kind);
+                check(ch.read(out) == -1, "read after end");
+                out.limit(0);
+                check(ch.read(out) == 0, "read into full buffer");
+            }
+        }
+
+        DirectBufferPool pool = DirectBufferPool.getDefault();
+        try (InflaterChannel ch = new InflaterChannel(source(z), new Inflater(), 4096)) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            for (ByteBuffer b; (b = ch.readBuffer()) != null; ) {
+                check(b.isDirect() && pool.owns(b), "pooled buffer");
+                check(b.position() == 0 && (b.limit() == 4096 || bos.size() + b.limit() == data.length),
+                      "buffer filled " + b);
+                // returned flipped
+                b.position(b.limit());
+                drain(b, bos);
+                pool.release(b);
+            }
+            check(Arrays.equals(bos.toByteArray(), data), "readBuffer");
+            check(ch.readBuffer(10) == null, "readBuffer after end");
+            try {
+                ch.readBuffer(0);
+                throw new RuntimeException("Failed: capacity 0");
+            } catch (IllegalArgumentException expected) { }
+        }
+
+        // truncated and corrupt input
+        try (InflaterChannel ch = new InflaterChannel(source(Arrays.copyOf(z, z.length / 2)))) {
+            ByteBuffer out = ByteBuffer.allocate(8192);
+            try {
+                while (ch.read(out) != -1) {
+                    out.clear();
+                }
+                throw new RuntimeException("Failed: truncated input");
+            } catch (EOFException expected) { }
+        }
+        byte[] bad = z.clone();
+        for (int i = 2; i < 40; i++) {
+            bad[i] = (byte) 0xff;
+        }
+        try (InflaterChannel ch = new InflaterChannel(source(bad))) {
+            ByteBuffer out = ByteBuffer.allocate(8192);
+            try {
+                while (ch.read(out) != -1) {
+                    out.clear();
+                }
+                throw new RuntimeException("Failed: corrupt input");
+            } catch (ZipException expected) { }
+        }
+
+        // a non-blocking source with no input available
+        Pipe pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        Inflater inf = new Inflater();
+        InflaterChannel ch = new InflaterChannel(pipe.source(), inf, 512);
+        ByteBuffer out = ByteBuffer.allocate(data.length);
+        check(ch.read(out) == 0, "no input available");
+        pipe.sink().write(ByteBuffer.wrap(z, 0, 1000));
+        int n = 0;
+        for (int k = 0; k < 1000 && n == 0; k++) {
+            n = ch.read(out);
+        }
+        check(n > 0, "input became available");
+        ch.close();
+        check(!ch.isOpen() && !pipe.source().isOpen(), "source closed");
+        try {
+            ch.read(out);
+            throw new RuntimeException("Failed: read after close");
+        } catch (ClosedChannelException expected) { }
+        check(inf.getBytesRead() > 0 && inf.getRemaining() >= 0, "given inflater is not ended");
+        inf.end();
+        pipe.sink().close();
+
+        try {
+            new InflaterChannel(source(z), new Inflater(), 0);
+            throw new RuntimeException("Failed: buffer size 0");
+        } catch (IllegalArgumentException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
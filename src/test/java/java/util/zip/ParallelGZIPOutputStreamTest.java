@@ -0,0 +1,251 @@
+package java.util.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelGZIPOutputStreamTest {
+
+    static final Random RND = new Random(7);
+
+    public static void main(String[] args) throws Exception {
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            int block = 1024;
+            int[] sizes = { 0, 1, block - 1, block, block + 1, 3 * block, 100_000, 3_000_000 };
+            for (int size : sizes) {
+                for (ForkJoinPool pool : new ForkJoinPool[] { one, four }) {
+                    for (int level : new int[] { 0, 1, Deflater.DEFAULT_COMPRESSION, 9 }) {
+                        if (size > 100_000 && level != Deflater.DEFAULT_COMPRESSION) {
+                            continue;
+                        }
+                        byte[] data = data(size);
+                        check(size, data, block, level, pool, false);
+                        check(size, data, block, level, pool, true);
+                    }
+                }
+            }
+            testDefaults();
+            testRatio();
+            testArguments();
+            testStates();
+            testFailingStream(four);
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+        System.out.println("Passed");
+    }
+
+    // Text-like data with repeats that span blocks
+    static byte[] data(int size) {
+        byte[] b = new byte[size];
+        String[] words = { "alpha ", "beta ", "gamma\n", "delta ", "epsilon " };
+        int i = 0;
+        while (i < size) {
+            if (i > 5000 && RND.nextInt(20) == 0) {
+                int from = RND.nextInt(i - 4000);
+                int n = Math.min(size - i, 200 + RND.nextInt(3000));
+                System.arraycopy(b, from, b, i, n);
+                i += n;
+            } else if (RND.nextInt(10) == 0) {
+                b[i++] = (byte) RND.nextInt(256);
+            } else {
+                byte[] w = words[RND.nextInt(words.length)].getBytes();
+                int n = Math.min(size - i, w.length);
+                System.arraycopy(w, 0, b, i, n);
+                i += n;
+            }
+        }
+        return b;
+    }
+
+    static byte[] compress(byte[] data, int blockSize, int level, ForkJoinPool pool, boolean flushes)
+        throws IOException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(bos, blockSize, level, pool)) {
+            int off = 0;
+            while (off < data.length) {
+                int n = Math.min(data.length - off, RND.nextInt(3) == 0 ? 1 : RND.nextInt(5000));
+                if (n == 1 && RND.nextBoolean()) {
+                    out.write(data[off]);
+                } else {
+                    out.write(data, off, n);
+                }
+                off += n;
+                if (flushes && RND.nextInt(10) == 0) {
+                    out.flush();
+                }
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    static void check(int size, byte[] data, int blockSize, int level, ForkJoinPool pool, boolean flushes)
+        throws IOException
+    {
+        String what = size + " bytes, level " + level + ", parallelism " + pool.getParallelism()
+                      + (flushes ? ", flushed" : "");
+        byte[] gz = compress(data, blockSize, level, pool, flushes);
+        check(Arrays.equals(gunzip(gz), data), "GZIPInputStream " + what);
+        check(Arrays.equals(inflateMember(gz, data.length), data), "single member " + what);
+    }
+
+    static byte[] gunzip(byte[] gz) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            for (int n; (n = in.read(buf)) > 0; ) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    // Parses the output as exactly one GZIP member and checks its trailer
+    static byte[] inflateMember(byte[] gz, int size) throws IOException {
+        check(gz.length >= 18 && (gz[0] & 0xff) == 0x1f && (gz[1] & 0xff) == 0x8b && gz[2] == 8,
+              "header");
+        check(gz[3] == 0, "no optional header fields");
+        Inflater inf = new Inflater(true);
+        try {
+            inf.setInput(gz, 10, gz.length - 10);
+            byte[] out = new byte[size + 1];
+            int n = 0;
+            try {
+                while (!inf.finished()) {
+                    int k = inf.inflate(out, n, out.length - n);
+                    check(k > 0 || !inf.needsInput(), "truncated deflate stream");
+                    n += k;
+                }
+            } catch (DataFormatException x) {
+                throw new RuntimeException("Failed: deflate stream", x);
+            }
+            check(inf.getRemaining() == 8, "trailer follows the deflate stream");
+            int t = gz.length - 8;
+            CRC32 crc = new CRC32();
+            crc.update(out, 0, n);
+            check(ZipUtils.get32(gz, t) == crc.getValue(), "trailer CRC");
+            check(ZipUtils.get32(gz, t + 4) == (size & 0xffffffffL), "trailer size");
+            return Arrays.copyOf(out, n);
+        } finally {
+            inf.end();
+        }
+    }
+
+    static void testDefaults() throws IOException {
+        byte[] data = data(1_000_000);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(bos)) {
+            out.write(data);
+        }
+        check(Arrays.equals(gunzip(bos.toByteArray()), data), "default block size");
+        bos.reset();
+        try (ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(bos, 4096)) {
+            out.write(data);
+        }
+        check(Arrays.equals(gunzip(bos.toByteArray()), data), "common pool");
+    }
+
+    // Using the previous block as the dictionary keeps the ratio close to GZIPOutputStream
+    static void testRatio() throws IOException {
+        byte[] data = data(4_000_000);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+            out.write(data);
+        }
+        int serial = bos.size();
+        bos.reset();
+        try (ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(bos)) {
+            out.write(data);
+        }
+        check(bos.size() < serial * 1.02, "parallel " + bos.size() + " bytes, serial " + serial);
+    }
+
+    static void testArguments() throws IOException {
+        OutputStream sink = new ByteArrayOutputStream();
+        for (int blockSize : new int[] { 0, -1 }) {
+            try {
+                new ParallelGZIPOutputStream(sink, blockSize);
+                throw new RuntimeException("Failed: block size " + blockSize);
+            } catch (IllegalArgumentException expected) { }
+        }
+        for (int level : new int[] { -2, 10 }) {
+            try {
+                new ParallelGZIPOutputStream(sink, 1024, level, ForkJoinPool.commonPool());
+                throw new RuntimeException("Failed: level " + level);
+            } catch (IllegalArgumentException expected) { }
+        }
+        try {
+            new ParallelGZIPOutputStream(sink, 1024, 1, null);
+            throw new RuntimeException("Failed: null pool");
+        } catch (NullPointerException expected) { }
+        try (ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(sink)) {
+            try {
+                out.write(new byte[4], 2, 3);
+                throw new RuntimeException("Failed: out of bounds write");
+            } catch (IndexOutOfBoundsException expected) { }
+        }
+    }
+
+    static void testStates() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(bos, 100);
+        out.write(data(1000));
+        out.finish();
+        int size = bos.size();
+        out.finish();
+        check(bos.size() == size, "second finish wrote");
+        try {
+            out.write(1);
+            throw new RuntimeException("Failed: write after finish");
+        } catch (IOException expected) { }
+        out.close();
+        out.close();
+        try {
+            out.flush();
+            throw new RuntimeException("Failed: flush after close");
+        } catch (IOException expected) { }
+        check(bos.size() == size, "close after finish wrote");
+    }
+
+    // Errors of the underlying stream are reported by the writing method
+    static void testFailingStream(ForkJoinPool pool) throws IOException {
+        OutputStream failing = new OutputStream() {
+            int written;
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+            public void write(byte[] b, int off, int len) throws IOException {
+                written += len;
+                if (written > 5000) {
+                    throw new IOException("disk full");
+                }
+            }
+        };
+        ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(failing, 1024, 9, pool);
+        try {
+            byte[] data = new byte[1024];
+            for (int i = 0; i < 10_000; i++) {
+                RND.nextBytes(data);
+                out.write(data);
+            }
+            out.close();
+            throw new RuntimeException("Failed: error of the underlying stream lost");
+        } catch (IOException expected) {
+            check("disk full".equals(expected.getMessage()), "exception " + expected);
+        }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,550 @@
+package java.util.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+
+public class ParallelZipWriterTest {
+
+    static final Random RND = new Random(5);
+
+    public static void main(String[] args) throws Exception {
+        File dir = File.createTempFile("pzw", "");
+        dir.delete();
+        dir.mkdir();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            testRoundTrip(dir, pool, 1);
+            testRoundTrip(dir, pool, 16);
+            testRoundTrip(dir, Runnable::run, 3);
+            testOrdering(dir, pool);
+            testEntryFields(dir, pool);
+            testPrefix(dir, pool);
+            testManyEntries(dir, pool);
+            testLargeOffsets(dir, pool);
+            testDuplicate(dir, pool);
+            testFailingSource(dir, pool);
+            testMismatch(dir, pool);
+            testRejectedTask(dir);
+            testPending(dir);
+            testArguments(dir);
+        } finally {
+            pool.shutdown();
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+        System.out.println("Passed");
+    }
+
+    static byte[] content(int i) {
+        Random r = new Random(i);
+        byte[] b = new byte[i % 11 == 0 ? r.nextInt(300_000) : r.nextInt(3_000)];
+        r.nextBytes(b);
+        if (i % 2 == 0) {
+            // compressible
+            for (int k = 0; k < b.length; k++) {
+                b[k] &= 7;
+            }
+        }
+        return b;
+    }
+
+    static FileChannel open(File f) throws IOException {
+        return FileChannel.open(f.toPath(), StandardOpenOption.WRITE,
+                                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        for (int n; (n = in.read(buf)) != -1; ) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    // Reads the file back with ZipFile and JarInputStream, expecting the
+    // entries in the given order
+    static void verify(File f, List<String> names, List<byte[]> contents) throws IOException {
+        try (ZipFile zf = new ZipFile(f)) {
+            check(zf.size() == names.size(), "ZipFile size " + zf.size());
+            Enumeration<? extends ZipEntry> en = zf.entries();
+            for (int i = 0; i < names.size(); i++) {
+                ZipEntry e = en.nextElement();
+                check(e.getName().equals(names.get(i)), "ZipFile order " + e.getName());
+                check(e.getSize() == contents.get(i).length, "ZipFile size of " + e.getName());
+                try (InputStream in = zf.getInputStream(e)) {
+                    check(Arrays.equals(readAll(in), contents.get(i)), "ZipFile data of " + e.getName());
+                }
+            }
+            check(!en.hasMoreElements(), "ZipFile extra entries");
+        }
+        try (JarInputStream in = new JarInputStream(new FileInputStream(f))) {
+            for (int i = 0; i < names.size(); i++) {
+                JarEntry e = in.getNextJarEntry();
+                check(e != null && e.getName().equals(names.get(i)), "JarInputStream order " + e);
+                // sizes are in the LOC header, there are no data descriptors
+                check((((ZipEntry) e).flag & 8) == 0, "data descriptor of " + e.getName());
+                check(e.getSize() == contents.get(i).length, "JarInputStream size of " + e.getName());
+                check(Arrays.equals(readAll(in), contents.get(i)), "JarInputStream data of " + e.getName());
+            }
+            check(in.getNextJarEntry() == null, "JarInputStream extra entries");
+        }
+    }
+
+    static void testRoundTrip(File dir, Executor executor, int maxPending) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        List<String> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        try (ParallelZipWriter w = new ParallelZipWriter(open(f), executor, maxPending)) {
+            for (int i = 0; i < 200; i++) {
+                String name = (i % 10 == 9 ? "dir" + i / 10 + "/" : "") + "entry" + i;
+                byte[] b = content(i);
+                ZipEntry e = new ZipEntry(name);
+                if (i % 3 == 0) {
+                    e.setMethod(ZipEntry.STORED);
+                }
+                if (i % 4 == 0) {
+                    w.addEntry(e, () -> new ByteArrayInputStream(b));
+                } else if (i % 4 == 1) {
+                    // only part of the array is used
+                    byte[] padded = new byte[b.length + 20];
+                    System.arraycopy(b, 0, padded, 10, b.length);
+                    w.addEntry(e, padded, 10, b.length);
+                } else {
+                    w.addEntry(e, b);
+                }
+                names.add(name);
+                contents.add(b);
+            }
+        }
+        verify(f, names, contents);
+    }
+
+    // Entries that take longest to compress are added first
+    static void testOrdering(File dir, ForkJoinPool pool) throws Exception {
+        File f = File.createTempFile("test", ".zip", dir);
+        List<String> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        CountDownLatch last = new CountDownLatch(1);
+        try (ParallelZipWriter w = new ParallelZipWriter(open(f), pool, 8)) {
+            for (int i = 0; i < 8; i++) {
+                int id = i;
+                byte[] b = content(i);
+                String name = "slow" + i;
+                w.addEntry(new ZipEntry(name), () -> {
+                    if (id == 0) {
+                        // the first entry is not compressed before the last one
+                        last.await(10, TimeUnit.SECONDS);
+                    } else if (id == 7) {
+                        last.countDown();
+                    }
+                    return new ByteArrayInputStream(b);
+                });
+                names.add(name);
+                contents.add(b);
+            }
+        }
+        verify(f, names, contents);
+    }
+
+    static void testEntryFields(File dir, ForkJoinPool pool) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        String name = "caf\u00e9/\u65e5\u672c.txt";
+        byte[] data = "fields".getBytes("UTF-8");
+        FileTime mtime = FileTime.fromMillis(1_500_000_000_000L);
+        byte[] extra = { (byte) 0xcd, (byte) 0xab, 3, 0, 1, 2, 3 };
+        try (ParallelZipWriter w = new ParallelZipWriter(open(f), pool, 4)) {
+            w.setComment("archive \u00e9");
+            ZipEntry e = new ZipEntry(name);
+            e.setLastModifiedTime(mtime);
+            e.setComment("entry comment");
+            e.setExtra(extra);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            e.setCrc(crc.getValue());
+            e.setSize(data.length);
+            w.addEntry(e, data);
+            ZipEntry s = new ZipEntry("stored");
+            s.setMethod(ZipEntry.STORED);
+            s.setCompressedSize(data.length);
+            w.addEntry(s, data);
+            w.setMethod(ZipEntry.STORED);
+            w.addEntry(new ZipEntry("default-stored"), data);
+            w.setMethod(ZipEntry.DEFLATED);
+            w.setLevel(0);
+            w.addEntry(new ZipEntry("level0"), data);
+        }
+        try (ZipFile zf = new ZipFile(f)) {
+            check("archive \u00e9".equals(zf.getComment()), "archive comment " + zf.getComment());
+            ZipEntry e = zf.getEntry(name);
+            check(e != null, "UTF-8 name");
+            check(e.getMethod() == ZipEntry.DEFLATED, "method");
+            check(e.getLastModifiedTime().toMillis() == mtime.toMillis(), "mtime " + e.getLastModifiedTime());
+            check("entry comment".equals(e.getComment()), "entry comment");
+            check(containsExtra(e.getExtra(), extra), "extra " + Arrays.toString(e.getExtra()));
+            check(zf.getEntry("stored").getMethod() == ZipEntry.STORED, "stored");
+            check(zf.getEntry("stored").getCompressedSize() == data.length, "stored size");
+            check(zf.getEntry("default-stored").getMethod() == ZipEntry.STORED, "default method");
+            check(zf.getEntry("level0").getMethod() == ZipEntry.DEFLATED, "level 0");
+            for (String n : new String[] { name, "stored", "default-stored", "level0" }) {
+                try (InputStream in = zf.getInputStream(zf.getEntry(n))) {
+                    check(Arrays.equals(readAll(in), data), "data of " + n);
+                }
+            }
+        }
+        // the LOC header has the same name and time
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(f))) {
+            ZipEntry e = in.getNextEntry();
+            check(e.getName().equals(name), "ZipInputStream name");
+            check(e.getLastModifiedTime().toMillis() == mtime.toMillis(), "LOC mtime " + e.getLastModifiedTime());
+        }
+        // a name that is not UTF-8 encoded when another charset is used
+        File g = File.createTempFile("test", ".zip", dir);
+        Charset cp = Charset.forName("ISO-8859-1");
+        try (ParallelZipWriter w = new ParallelZipWriter(open(g), pool, 4, cp)) {
+            w.addEntry(new ZipEntry("caf\u00e9"), data);
+        }
+        try (ZipFile zf = new ZipFile(g, cp)) {
+            ZipEntry e = zf.getEntry("caf\u00e9");
+            check(e != null && (e.flag & ZipConstants64.EFS) == 0, "latin-1 name");
+        }
+    }
+
+    static boolean containsExtra(byte[] all, byte[] extra) {
+        for (int i = 0; all != null && i + extra.length <= all.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(all, i, i + extra.length), extra)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The ZIP file is written from the current position of the channel
+    static void testPrefix(File dir, ForkJoinPool pool) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        byte[] prefix = new byte[12345];
+        RND.nextBytes(prefix);
+        List<String> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        long end;
+        try (FileChannel ch = open(f)) {
+            ch.write(ByteBuffer.wrap(prefix));
+            ParallelZipWriter w = new ParallelZipWriter(ch, pool, 4);
+            for (int i = 0; i < 20; i++) {
+                byte[] b = content(i);
+                w.addEntry(new ZipEntry("e" + i), b);
+                names.add("e" + i);
+                contents.add(b);
+            }
+            w.finish();
+            w.finish();
+            end = ch.position();
+            check(end == ch.size(), "position after finish " + end + " size " + ch.size());
+            check(ch.isOpen(), "channel closed by finish");
+            try {
+                w.addEntry(new ZipEntry("late"), new byte[1]);
+                throw new RuntimeException("Failed: entry added after finish");
+            } catch (ZipException expected) { }
+            w.close();
+            check(!ch.isOpen(), "channel open after close");
+            w.close();
+        }
+        try (ZipFile zf = new ZipFile(f)) {
+            for (int i = 0; i < names.size(); i++) {
+                try (InputStream in = zf.getInputStream(zf.getEntry(names.get(i)))) {
+                    check(Arrays.equals(readAll(in), contents.get(i)), "prefixed data " + i);
+                }
+            }
+        }
+    }
+
+    // More entries than the END header can count need the ZIP64 END header
+    static void testManyEntries(File dir, ForkJoinPool pool) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        int n = 0x10000 + 10;
+        try (ParallelZipWriter w = new ParallelZipWriter(open(f), pool, 64)) {
+            byte[] empty = new byte[0];
+            for (int i = 0; i < n; i++) {
+                w.addEntry(new ZipEntry("e" + i), i % 1000 == 0 ? Integer.toString(i).getBytes() : empty);
+            }
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+            byte[] end = new byte[ZipConstants.ENDHDR];
+            raf.seek(raf.length() - end.length);
+            raf.readFully(end);
+            check(ZipUtils.get32(end, 0) == ZipConstants.ENDSIG, "END signature");
+            check(ZipUtils.get16(end, ZipConstants.ENDTOT) == ZipConstants64.ZIP64_MAGICCOUNT,
+                  "END entry count");
+        }
+        try (ZipFile zf = new ZipFile(f)) {
+            check(zf.size() == n, "ZIP64 entry count " + zf.size());
+            for (int i = 0; i < n; i += 1000) {
+                try (InputStream in = zf.getInputStream(zf.getEntry("e" + i))) {
+                    check(new String(readAll(in)).equals(Integer.toString(i)), "entry " + i);
+                }
+            }
+            try (InputStream in = zf.getInputStream(zf.getEntry("e" + (n - 1)))) {
+                check(in.read() == -1, "last entry");
+            }
+        }
+        int count = 0;
+        try (JarInputStream in = new JarInputStream(new FileInputStream(f))) {
+            while (in.getNextJarEntry() != null) {
+                count++;
+            }
+        }
+        check(count == n, "JarInputStream entry count " + count);
+    }
+
+    // Entries and the central directory beyond 4GB need ZIP64 extra fields;
+    // the file is sparse up to the start of the ZIP file
+    static void testLargeOffsets(File dir, ForkJoinPool pool) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        long start = 5L << 30;
+        List<String> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        try (FileChannel ch = open(f)) {
+            ch.position(start);
+            try (ParallelZipWriter w = new ParallelZipWriter(ch, pool, 4)) {
+                for (int i = 0; i < 10; i++) {
+                    byte[] b = content(i);
+                    w.addEntry(new ZipEntry("far" + i), b);
+                    names.add("far" + i);
+                    contents.add(b);
+                }
+            }
+        }
+        try (ZipFile zf = new ZipFile(f)) {
+            check(zf.size() == names.size(), "ZIP64 offsets size");
+            for (int i = 0; i < names.size(); i++) {
+                try (InputStream in = zf.getInputStream(zf.getEntry(names.get(i)))) {
+                    check(Arrays.equals(readAll(in), contents.get(i)), "ZIP64 offset data " + i);
+                }
+            }
+        } finally {
+            f.delete();
+        }
+    }
+
+    static void testDuplicate(File dir, ForkJoinPool pool) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        try (ParallelZipWriter w = new ParallelZipWriter(open(f), pool, 4)) {
+            w.addEntry(new ZipEntry("a"), new byte[] { 1 });
+            try {
+                w.addEntry(new ZipEntry("a"), new byte[] { 2 });
+                throw new RuntimeException("Failed: duplicate entry");
+            } catch (ZipException expected) {
+                check(expected.getMessage().contains("duplicate"), "message " + expected.getMessage());
+            }
+            w.addEntry(new ZipEntry("b"), new byte[] { 3 });
+        }
+        // the writer can be used after the duplicate was rejected
+        verify(f, Arrays.asList("a", "b"), Arrays.asList(new byte[] { 1 }, new byte[] { 3 }));
+    }
+
+    // The error of a source is reported by a later method of the writer
+    static void testFailingSource(File dir, ForkJoinPool pool) throws IOException {
+        for (boolean inRead : new boolean[] { false, true }) {
+            File f = File.createTempFile("test", ".zip", dir);
+            ParallelZipWriter w = new ParallelZipWriter(open(f), pool, 4);
+            w.addEntry(new ZipEntry("good"), content(1));
+            w.addEntry(new ZipEntry("bad"), () -> {
+                if (!inRead) {
+                    throw new IOException("cannot open");
+                }
+                return new InputStream() {
+                    int n;
+                    public int read() throws IOException {
+                        if (++n > 1000) {
+                            throw new IOException("cannot read");
+                        }
+                        return n & 0xff;
+                    }
+                };
+            });
+            try {
+                for (int i = 0; i < 100; i++) {
+                    w.addEntry(new ZipEntry("after" + i), content(i));
+                }
+                w.finish();
+                throw new RuntimeException("Failed: source error lost");
+            } catch (IOException expected) {
+                String msg = inRead ? "cannot read" : "cannot open";
+                check(msg.equals(expected.getMessage()), "exception " + expected);
+            }
+            try {
+                w.close();
+            } catch (IOException ignore) { }
+            try {
+                w.addEntry(new ZipEntry("closed"), new byte[1]);
+                throw new RuntimeException("Failed: entry added after close");
+            } catch (IOException expected) { }
+        }
+        // an unchecked exception of a source is wrapped
+        File f = File.createTempFile("test", ".zip", dir);
+        try (ParallelZipWriter w = new ParallelZipWriter(open(f), pool, 4)) {
+            w.addEntry(new ZipEntry("bad"), () -> { throw new IllegalStateException("oops"); });
+            w.finish();
+            throw new RuntimeException("Failed: unchecked source error lost");
+        } catch (ZipException expected) {
+            check(expected.getMessage().contains("oops"), "message " + expected.getMessage());
+        }
+    }
+
+    // A size or CRC-32 set beforehand is checked against the data
+    static void testMismatch(File dir, ForkJoinPool pool) throws IOException {
+        byte[] data = { 1, 2, 3 };
+        for (int k = 0; k < 2; k++) {
+            File f = File.createTempFile("test", ".zip", dir);
+            ParallelZipWriter w = new ParallelZipWriter(open(f), pool, 4);
+            ZipEntry e = new ZipEntry("e");
+            if (k == 0) {
+                e.setSize(4);
+            } else {
+                e.setCrc(12345);
+            }
+            w.addEntry(e, data);
+            try {
+                w.close();
+                throw new RuntimeException("Failed: mismatch " + k);
+            } catch (ZipException expected) { }
+        }
+        File f = File.createTempFile("test", ".zip", dir);
+        try (ParallelZipWriter w = new ParallelZipWriter(open(f), pool, 4)) {
+            ZipEntry e = new ZipEntry("stored");
+            e.setMethod(ZipEntry.STORED);
+            e.setSize(3);
+            e.setCompressedSize(2);
+            try {
+                w.addEntry(e, data);
+                throw new RuntimeException("Failed: STORED sizes");
+            } catch (ZipException expected) { }
+        }
+    }
+
+    // An executor that rejects a task fails the writer
+    static void testRejectedTask(File dir) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        ParallelZipWriter w = new ParallelZipWriter(open(f), task -> {
+            throw new java.util.concurrent.RejectedExecutionException("full");
+        }, 4);
+        try {
+            w.addEntry(new ZipEntry("a"), new byte[1]);
+            throw new RuntimeException("Failed: rejected task");
+        } catch (java.util.concurrent.RejectedExecutionException expected) { }
+        try {
+            w.close();
+            throw new RuntimeException("Failed: rejected task lost");
+        } catch (ZipException expected) { }
+    }
+
+    // Adding an entry blocks while maxPending entries are not yet written
+    static void testPending(File dir) throws Exception {
+        File f = File.createTempFile("test", ".zip", dir);
+        ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        ParallelZipWriter w = new ParallelZipWriter(open(f), tasks::add, 2);
+        w.addEntry(new ZipEntry("p0"), new byte[] { 0 });
+        w.addEntry(new ZipEntry("p1"), new byte[] { 1 });
+        CountDownLatch added = new CountDownLatch(1);
+        Thread t = new Thread(() -> {
+            try {
+                w.addEntry(new ZipEntry("p2"), new byte[] { 2 });
+                added.countDown();
+            } catch (IOException x) {
+                throw new RuntimeException(x);
+            }
+        });
+        t.start();
+        check(!added.await(200, TimeUnit.MILLISECONDS), "third entry added while two pending");
+        // running the second task writes nothing, as the first is pending
+        Runnable first = tasks.poll();
+        tasks.poll().run();
+        check(!added.await(200, TimeUnit.MILLISECONDS), "entry written out of order");
+        first.run();
+        check(added.await(10, TimeUnit.SECONDS), "third entry not added");
+        t.join();
+        tasks.poll().run();
+        w.close();
+        verify(f, Arrays.asList("p0", "p1", "p2"),
+               Arrays.asList(new byte[] { 0 }, new byte[] { 1 }, new byte[] { 2 }));
+    }
+
+    static void testArguments(File dir) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        try (FileChannel ch = open(f)) {
+            Executor ex = Runnable::run;
+            for (int max : new int[] { 0, -1 }) {
+                try {
+                    new ParallelZipWriter(ch, ex, max);
+                    throw new RuntimeException("Failed: maxPending " + max);
+                } catch (IllegalArgumentException expected) { }
+            }
+            try {
+                new ParallelZipWriter(null, ex, 1);
+                throw new RuntimeException("Failed: null channel");
+            } catch (NullPointerException expected) { }
+            try {
+                new ParallelZipWriter(ch, null, 1);
+                throw new RuntimeException("Failed: null executor");
+            } catch (NullPointerException expected) { }
+            try {
+                new ParallelZipWriter(ch, ex, 1, null);
+                throw new RuntimeException("Failed: null charset");
+            } catch (NullPointerException expected) { }
+            ParallelZipWriter w = new ParallelZipWriter(ch, ex, 1);
+            try {
+                w.setMethod(7);
+                throw new RuntimeException("Failed: method 7");
+            } catch (IllegalArgumentException expected) { }
+            for (int level : new int[] { -2, 10 }) {
+                try {
+                    w.setLevel(level);
+                    throw new RuntimeException("Failed: level " + level);
+                } catch (IllegalArgumentException expected) { }
+            }
+            char[] c = new char[0x10000];
+            Arrays.fill(c, 'c');
+            try {
+                w.setComment(new String(c));
+                throw new RuntimeException("Failed: long comment");
+            } catch (IllegalArgumentException expected) { }
+            try {
+                w.addEntry(new ZipEntry("a"), new byte[4], 2, 3);
+                throw new RuntimeException("Failed: out of bounds entry");
+            } catch (IndexOutOfBoundsException expected) { }
+            try {
+                w.addEntry(new ZipEntry("a"), (java.util.concurrent.Callable<InputStream>) null);
+                throw new RuntimeException("Failed: null source");
+            } catch (NullPointerException expected) { }
+        }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
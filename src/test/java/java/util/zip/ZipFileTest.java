@@ -0,0 +1,385 @@
+package java.util.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+public class ZipFileTest {
+
+    static final Random RND = new Random(3);
+
+    public static void main(String[] args) throws Exception {
+        File dir = File.createTempFile("zipfile", "");
+        dir.delete();
+        dir.mkdir();
+        try {
+            testLookup(dir);
+            testZip64(dir);
+            testComments(dir);
+            testConcurrentReads(dir);
+            testCloseWhileReading(dir);
+            testSharedAndDeleted(dir);
+            testInvalid(dir);
+        } finally {
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+        System.out.println("Passed");
+    }
+
+    static byte[] content(int i) {
+        byte[] b = new byte[new Random(i).nextInt(i % 7 == 0 ? 100_000 : 2_000)];
+        new Random(~i).nextBytes(b);
+        if (i % 2 == 0) {
+            // compressible
+            for (int k = 0; k < b.length; k++) {
+                b[k] &= 3;
+            }
+        }
+        return b;
+    }
+
+    static File write(File dir, List<String> names, String comment) throws IOException {
+        File f = File.createTempFile("test", ".zip", dir);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(f))) {
+            if (comment != null) {
+                out.setComment(comment);
+            }
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                ZipEntry e = new ZipEntry(name);
+                byte[] data = name.endsWith("/") ? new byte[0] : content(i);
+                if (i % 3 == 0) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    e.setMethod(ZipEntry.STORED);
+                    e.setSize(data.length);
+                    e.setCrc(crc.getValue());
+                }
+                out.putNextEntry(e);
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+        return f;
+    }
+
+    static byte[] read(ZipFile zf, ZipEntry e) throws IOException {
+        try (InputStream in = zf.getInputStream(e)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[1 + RND.nextInt(8192)];
+            for (int n; (n = in.read(buf)) > 0; ) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    static List<String> names(int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            switch (i % 5) {
+                case 0: names.add("dir" + i + "/"); break;
+                case 1: names.add("dir" + (i - 1) + "/file" + i + ".txt"); break;
+                case 2: names.add("META-INF/" + i + ".MF"); break;
+                case 3: names.add("\u00e9t\u00e9/\u4e2d" + i); break;
+                default: names.add("f" + i); break;
+            }
+        }
+        return names;
+    }
+
+    static void testLookup(File dir) throws IOException {
+        List<String> names = names(3000);
+        File f = write(dir, names, null);
+        try (ZipFile zf = new ZipFile(f)) {
+            check(zf.size() == names.size(), "size " + zf.size());
+            check(zf.getName().equals(f.getPath()), "name");
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                ZipEntry e = zf.getEntry(name);
+                check(e != null && e.getName().equals(name), "entry " + name);
+                byte[] expected = name.endsWith("/") ? new byte[0] : content(i);
+                check(e.getSize() == expected.length, "size of " + name);
+                check(e.getMethod() == (i % 3 == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED), "method of " + name);
+                CRC32 crc = new CRC32();
+                crc.update(expected);
+                check(e.getCrc() == crc.getValue(), "crc of " + name);
+                check(Arrays.equals(read(zf, e), expected), "content of " + name);
+                if (name.endsWith("/")) {
+                    // a directory is found without its slash, and the entry
+                    // has the name looked up, as before
+                    String bare = name.substring(0, name.length() - 1);
+                    ZipEntry d = zf.getEntry(bare);
+                    check(d != null && d.getName().equals(bare) && d.getSize() == 0, "directory " + name);
+                }
+            }
+            for (String missing : new String[] { "", "/", "f4/", "F4", "dir0/file", "nothere", "META-INF/" }) {
+                check(zf.getEntry(missing) == null, "missing entry " + missing);
+            }
+            // enumeration and stream give the entries in CEN order
+            List<String> enumerated = new ArrayList<>();
+            for (Enumeration<? extends ZipEntry> en = zf.entries(); en.hasMoreElements(); ) {
+                enumerated.add(en.nextElement().getName());
+            }
+            check(enumerated.equals(names), "entries()");
+            check(zf.stream().map(ZipEntry::getName).collect(Collectors.toList()).equals(names), "stream()");
+            // entries are read in any order, and partly
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++) {
+                order.add(i);
+            }
+            Collections.shuffle(order, RND);
+            for (int i : order.subList(0, 500)) {
+                ZipEntry e = zf.getEntry(names.get(i));
+                try (InputStream in = zf.getInputStream(e)) {
+                    byte[] expected = e.isDirectory() ? new byte[0] : content(i);
+                    long skip = expected.length / 2;
+                    check(in.skip(skip) == skip, "skip");
+                    int b = in.read();
+                    check(b == (skip < expected.length ? expected[(int) skip] & 0xff : -1), "read after skip");
+                }
+            }
+        }
+    }
+
+    // Over 65535 entries need a ZIP64 END record
+    static void testZip64(File dir) throws IOException {
+        File f = File.createTempFile("zip64", ".zip", dir);
+        int count = 70_000;
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(f))) {
+            out.setLevel(Deflater.NO_COMPRESSION);
+            for (int i = 0; i < count; i++) {
+                out.putNextEntry(new ZipEntry("e" + i));
+                out.write(("entry " + i).getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        try (ZipFile zf = new ZipFile(f)) {
+            check(zf.size() == count, "zip64 size " + zf.size());
+            for (int i = 0; i < count; i += 997) {
+                ZipEntry e = zf.getEntry("e" + i);
+                check(e != null, "zip64 entry " + i);
+                check(new String(read(zf, e), StandardCharsets.US_ASCII).equals("entry " + i), "zip64 content " + i);
+            }
+            ZipEntry last = zf.getEntry("e" + (count - 1));
+            check(new String(read(zf, last), StandardCharsets.US_ASCII).equals("entry " + (count - 1)),
+                  "last zip64 entry");
+            check(zf.stream().count() == count, "zip64 stream");
+        }
+        // an entry count in the ZIP64 END record that is far too large
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+            byte[] tail = new byte[200];
+            long tailpos = raf.length() - tail.length;
+            raf.seek(tailpos);
+            raf.readFully(tail);
+            int end64 = tail.length - 4;
+            while (end64 >= 0 && !(tail[end64] == 'P' && tail[end64 + 1] == 'K' &&
+                                   tail[end64 + 2] == 6 && tail[end64 + 3] == 6)) {
+                end64--;
+            }
+            check(end64 >= 0, "zip64 END record");
+            raf.seek(tailpos + end64 + ZipConstants64.ZIP64_ENDTOT);
+            raf.write(new byte[] { (byte)0xff, (byte)0xff, (byte)0xff, 0x7f, 0, 0, 0, 0 });
+        }
+        try (ZipFile zf = new ZipFile(f)) {
+            check(zf.size() == count, "zip64 size with a bad count " + zf.size());
+            check(zf.getEntry("e" + (count - 1)) != null, "last zip64 entry with a bad count");
+        }
+    }
+
+    static void testComments(File dir) throws IOException {
+        String comment = "zip file comment \u00e9";
+        File f = File.createTempFile("comment", ".zip", dir);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(f))) {
+            out.setComment(comment);
+            ZipEntry e = new ZipEntry("a");
+            e.setComment("entry comment");
+            out.putNextEntry(e);
+            out.write(1);
+        }
+        try (ZipFile zf = new ZipFile(f)) {
+            check(comment.equals(zf.getComment()), "zip comment " + zf.getComment());
+            check("entry comment".equals(zf.getEntry("a").getComment()), "entry comment");
+        }
+        // a comment that looks like an END header, and bytes after the zip file
+        String fake = "PK\u0005\u0006 not an END header";
+        File g = write(dir, names(20), fake);
+        try (ZipFile zf = new ZipFile(g)) {
+            check(fake.equals(zf.getComment()) && zf.size() == 20, "comment with END signature");
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(g, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[100]);
+        }
+        try (ZipFile zf = new ZipFile(g)) {
+            check(zf.size() == 20 && Arrays.equals(read(zf, zf.getEntry("f4")), content(4)), "padded zip");
+        }
+        File h = write(dir, names(3), null);
+        try (ZipFile zf = new ZipFile(h)) {
+            check(zf.getComment() == null, "no comment");
+        }
+    }
+
+    // Interrupted readers don't affect the others
+    static void testConcurrentReads(File dir) throws Exception {
+        List<String> names = names(500);
+        File f = write(dir, names, null);
+        try (ZipFile zf = new ZipFile(f)) {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int id = t;
+                threads.add(new Thread(() -> {
+                    Random rnd = new Random(id);
+                    try {
+                        for (int k = 0; k < 1000; k++) {
+                            int i = rnd.nextInt(names.size());
+                            if (rnd.nextInt(10) == 0) {
+                                Thread.currentThread().interrupt();
+                            }
+                            ZipEntry e = zf.getEntry(names.get(i));
+                            byte[] expected = e.isDirectory() ? new byte[0] : content(i);
+                            check(Arrays.equals(read(zf, e), expected), "concurrent read of " + e);
+                            Thread.interrupted();
+                        }
+                    } catch (Throwable x) {
+                        failure.compareAndSet(null, x);
+                    }
+                }));
+            }
+            for (Thread t : threads) {
+                t.start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            if (failure.get() != null) {
+                throw new RuntimeException("Failed: concurrent reads", failure.get());
+            }
+        }
+    }
+
+    // Reads racing with close fail with an IOException, or return correct data
+    static void testCloseWhileReading(File dir) throws Exception {
+        List<String> names = names(200);
+        File f = write(dir, names, null);
+        for (int round = 0; round < 10; round++) {
+            ZipFile zf = new ZipFile(f);
+            AtomicBoolean started = new AtomicBoolean();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                int id = t;
+                threads.add(new Thread(() -> {
+                    Random rnd = new Random(id);
+                    try {
+                        while (true) {
+                            int i = rnd.nextInt(names.size());
+                            ZipEntry e = zf.getEntry(names.get(i));
+                            byte[] data = read(zf, e);
+                            // a stream closed by the ZipFile may end early
+                            byte[] expected = e.isDirectory() ? new byte[0] : content(i);
+                            check(data.length <= expected.length &&
+                                  Arrays.equals(data, Arrays.copyOf(expected, data.length)),
+                                  "read racing close");
+                            started.set(true);
+                        }
+                    } catch (IOException | IllegalStateException expected) {
+                        // closed
+                    } catch (NullPointerException x) {
+                        // close ended the inflater while it was inflating,
+                        // as it has always done
+                        if (!"Inflater has been closed".equals(x.getMessage())) {
+                            failure.compareAndSet(null, x);
+                        }
+                    } catch (Throwable x) {
+                        failure.compareAndSet(null, x);
+                    }
+                }));
+            }
+            for (Thread t : threads) {
+                t.start();
+            }
+            while (!started.get()) {
+                Thread.sleep(1);
+            }
+            zf.close();
+            for (Thread t : threads) {
+                t.join();
+            }
+            if (failure.get() != null) {
+                throw new RuntimeException("Failed: read racing close", failure.get());
+            }
+        }
+        ZipFile zf = new ZipFile(f);
+        InputStream in = zf.getInputStream(zf.getEntry("f4"));
+        zf.close();
+        try {
+            in.read();
+            throw new RuntimeException("Failed: read after close");
+        } catch (IOException expected) { }
+        try {
+            zf.getEntry("f4");
+            throw new RuntimeException("Failed: getEntry after close");
+        } catch (IllegalStateException expected) { }
+    }
+
+    static void testSharedAndDeleted(File dir) throws IOException {
+        List<String> names = names(50);
+        File f = write(dir, names, null);
+        ZipFile a = new ZipFile(f);
+        try (ZipFile b = new ZipFile(f)) {
+            a.close();
+            check(Arrays.equals(read(b, b.getEntry("f4")), content(4)), "read after other ZipFile closed");
+        }
+        try (ZipFile c = new ZipFile(f, ZipFile.OPEN_READ | ZipFile.OPEN_DELETE)) {
+            check(!f.exists(), "file not deleted");
+            check(Arrays.equals(read(c, c.getEntry("f9")), content(9)), "read of deleted file");
+        }
+    }
+
+    static void testInvalid(File dir) throws IOException {
+        File empty = File.createTempFile("empty", ".zip", dir);
+        File garbage = File.createTempFile("garbage", ".zip", dir);
+        byte[] junk = new byte[10_000];
+        RND.nextBytes(junk);
+        try (FileOutputStream out = new FileOutputStream(garbage)) {
+            out.write(junk);
+        }
+        for (File f : new File[] { empty, garbage }) {
+            try {
+                new ZipFile(f).close();
+                throw new RuntimeException("Failed: opened " + f);
+            } catch (ZipException expected) { }
+        }
+        // a truncated zip file has no END header
+        File truncated = write(dir, names(20), null);
+        try (RandomAccessFile raf = new RandomAccessFile(truncated, "rw")) {
+            raf.setLength(raf.length() - 10);
+        }
+        try {
+            new ZipFile(truncated).close();
+            throw new RuntimeException("Failed: opened a truncated zip file");
+        } catch (ZipException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,83 @@
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Compares the simple and batched asynchronous file channels for 4 KB reads,
+ * sequential and random, with 1, 16 and 64 reads outstanding.
+ *
+ * Usage: AsynchronousFileChannelBenchmark [file size in MB] [reads per run]
+ */
+public class AsynchronousFileChannelBenchmark {
+
+    static final int BLOCK = 4096;
+
+    public static void main(String[] args) throws Exception {
+        long size = (args.length > 0 ? Long.parseLong(args[0]) : 256) << 20;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Path file = Files.createTempFile("bench", ".bin");
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                byte[] block = new byte[1 << 20];
+                new Random(1).nextBytes(block);
+                for (long p = 0; p < size; p += block.length) {
+                    raf.write(block);
+                }
+            }
+            for (int rep = 0; rep < 3; rep++) {
+                for (boolean random : new boolean[] { false, true }) {
+                    for (int depth : new int[] { 1, 16, 64 }) {
+                        double simple = run(file, false, random, depth, size, reads);
+                        double batched = run(file, true, random, depth, size, reads);
+                        System.out.printf("%-10s depth %2d  simple %8.0f reads/s  batched %8.0f reads/s%n",
+                                          random ? "random" : "sequential", depth, simple, batched);
+                    }
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static AsynchronousFileChannel open(Path file, boolean batched) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+        return batched ? BatchedAsynchronousFileChannelImpl.open(raf.getFD(), true, false, null)
+                       : SimpleAsynchronousFileChannelImpl.open(raf.getFD(), true, false, null);
+    }
+
+    static double run(Path file, boolean batched, boolean random, int depth, long size, int reads)
+        throws Exception
+    {
+        Random rnd = new Random(2);
+        long blocks = size / BLOCK;
+        Semaphore window = new Semaphore(depth);
+        CompletionHandler<Integer, ByteBuffer> handler = new CompletionHandler<Integer, ByteBuffer>() {
+            public void completed(Integer n, ByteBuffer buf) {
+                window.release();
+            }
+            public void failed(Throwable x, ByteBuffer buf) {
+                x.printStackTrace();
+                window.release();
+            }
+        };
+        try (AsynchronousFileChannel ch = open(file, batched)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                long block = random ? (long) (rnd.nextDouble() * blocks) : i % blocks;
+                window.acquire();
+                ByteBuffer buf = ByteBuffer.allocate(BLOCK);
+                ch.read(buf, block * BLOCK, buf, handler);
+            }
+            window.acquire(depth);
+            return reads / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BatchedAsynchronousFileChannelTest {
+
+    static final Random RND = new Random(17);
+    static final int CHUNK = 4096;
+    static final int CHUNKS = 512;
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("batched", ".bin");
+        try {
+            testDefault(file);
+            byte[] data = new byte[CHUNK * CHUNKS];
+            RND.nextBytes(data);
+            testWriteAndRead(file, data);
+            testReentrantHandlers(file, data);
+            testFailingHandler(file, data);
+            testClosed(file);
+        } finally {
+            Files.delete(file);
+        }
+        System.out.println("Passed");
+    }
+
+    // The channel owns the descriptor and closes it when it is closed
+    static AsynchronousFileChannel open(Path file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+        return BatchedAsynchronousFileChannelImpl.open(raf.getFD(), true, true, null);
+    }
+
+    // Batching is opt-in
+    static void testDefault(Path file) throws IOException {
+        try (AsynchronousFileChannel ch = AsynchronousFileChannel.open(file, StandardOpenOption.READ)) {
+            check(ch instanceof SimpleAsynchronousFileChannelImpl
+                  && !(ch instanceof BatchedAsynchronousFileChannelImpl),
+                  "default channel is " + ch.getClass().getName());
+        }
+    }
+
+    static void testWriteAndRead(Path file, byte[] data) throws Exception {
+        try (AsynchronousFileChannel ch = open(file)) {
+            // adjacent writes, submitted out of order, are combined
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < CHUNKS; i++) {
+                order.add(i);
+            }
+            Collections.shuffle(order, RND);
+            List<Future<Integer>> writes = new ArrayList<>();
+            for (int i : order) {
+                writes.add(ch.write(ByteBuffer.wrap(data, i * CHUNK, CHUNK), (long) i * CHUNK));
+            }
+            for (Future<Integer> f : writes) {
+                check(f.get(30, TimeUnit.SECONDS) == CHUNK, "write result");
+            }
+            check(Arrays.equals(Files.readAllBytes(file), data), "written contents");
+
+            // reads of random sizes, adjacent and not, some beyond the end
+            int ops = 2_000;
+            ByteBuffer[] bufs = new ByteBuffer[ops];
+            long[] positions = new long[ops];
+            List<Future<Integer>> reads = new ArrayList<>();
+            long next = 0;
+            for (int k = 0; k < ops; k++) {
+                int len = 1 + RND.nextInt(3 * CHUNK);
+                bufs[k] = RND.nextBoolean() ? ByteBuffer.allocate(len) : ByteBuffer.allocateDirect(len);
+                positions[k] = RND.nextInt(4) == 0 ? RND.nextInt(data.length + CHUNK) : next;
+                next = positions[k] + len;
+                if (next >= data.length) {
+                    next = 0;
+                }
+                reads.add(ch.read(bufs[k], positions[k]));
+            }
+            for (int k = 0; k < ops; k++) {
+                int n = reads.get(k).get(30, TimeUnit.SECONDS);
+                int expected = (int) Math.min(bufs[k].capacity(), data.length - positions[k]);
+                if (expected <= 0) {
+                    check(n == -1, "read at end of file returned " + n);
+                    continue;
+                }
+                check(n == expected, "read " + n + " of " + expected + " at " + positions[k]);
+                for (int i = 0; i < n; i++) {
+                    check(bufs[k].get(i) == data[(int) positions[k] + i], "byte at " + (positions[k] + i));
+                }
+            }
+        }
+    }
+
+    // Handlers that wait for operations they submit must not deadlock
+    static void testReentrantHandlers(Path file, byte[] data) throws Exception {
+        try (AsynchronousFileChannel ch = open(file)) {
+            int count = 16;
+            CountDownLatch done = new CountDownLatch(count);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            for (int k = 0; k < count; k++) {
+                long position = (long) k * CHUNK;
+                ch.read(ByteBuffer.allocate(CHUNK), position, position,
+                        new CompletionHandler<Integer, Long>() {
+                    public void completed(Integer n, Long pos) {
+                        try {
+                            ByteBuffer b = ByteBuffer.allocate(CHUNK);
+                            int m = ch.read(b, pos + CHUNK).get(30, TimeUnit.SECONDS);
+                            check(n == CHUNK && m == CHUNK, "nested read");
+                            check(b.get(0) == data[(int) (pos + CHUNK)], "nested read contents");
+                        } catch (Throwable x) {
+                            failure.compareAndSet(null, x);
+                        }
+                        done.countDown();
+                    }
+                    public void failed(Throwable x, Long pos) {
+                        failure.compareAndSet(null, x);
+                        done.countDown();
+                    }
+                });
+            }
+            check(done.await(60, TimeUnit.SECONDS), "handlers waiting on nested reads deadlocked");
+            if (failure.get() != null) {
+                throw new RuntimeException("Failed: nested read", failure.get());
+            }
+        }
+    }
+
+    // A handler that throws does not prevent other completions
+    static void testFailingHandler(Path file, byte[] data) throws Exception {
+        Thread.setDefaultUncaughtExceptionHandler((t, x) -> {
+            if (!"handler failure".equals(x.getMessage())) {
+                x.printStackTrace();
+            }
+        });
+        try (AsynchronousFileChannel ch = open(file)) {
+            int count = 32;
+            CountDownLatch done = new CountDownLatch(count);
+            AtomicInteger completed = new AtomicInteger();
+            for (int k = 0; k < count; k++) {
+                final boolean fail = (k % 4 == 0);
+                ch.read(ByteBuffer.allocate(CHUNK), (long) k * CHUNK, null,
+                        new CompletionHandler<Integer, Void>() {
+                    public void completed(Integer n, Void a) {
+                        completed.incrementAndGet();
+                        done.countDown();
+                        if (fail) {
+                            throw new RuntimeException("handler failure");
+                        }
+                    }
+                    public void failed(Throwable x, Void a) {
+                        done.countDown();
+                    }
+                });
+            }
+            check(done.await(60, TimeUnit.SECONDS), "completions after a failing handler");
+            check(completed.get() == count, completed + " of " + count + " completed");
+            check(ch.read(ByteBuffer.allocate(1), 0).get(30, TimeUnit.SECONDS) == 1, "read after failures");
+        }
+    }
+
+    static void testClosed(Path file) throws Exception {
+        AsynchronousFileChannel ch = open(file);
+        ch.close();
+        try {
+            ch.read(ByteBuffer.allocate(1), 0).get();
+            throw new RuntimeException("Failed: read from a closed channel");
+        } catch (ExecutionException expected) {
+            check(expected.getCause() instanceof ClosedChannelException, "cause " + expected.getCause());
+        }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,153 @@
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+public class MappedFileInputStreamTest {
+
+    static final Random RND = new Random(3);
+
+    public static void main(String[] args) throws IOException {
+        // Larger than two windows, so reads cross window boundaries
+        int size = 2 * MappedFileInputStream.WINDOW_SIZE + 12345;
+        byte[] data = new byte[size];
+        RND.nextBytes(data);
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Files.write(file, data);
+            testReadAll(file, data);
+            testRegion(file, data);
+            testSkip(file, data);
+            testByteBuffer(file, data);
+            testClose(file);
+            testInvalidRegion(file, size);
+        } finally {
+            Files.delete(file);
+        }
+        System.out.println("Passed");
+    }
+
+    static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    static void testReadAll(Path file, byte[] data) throws IOException {
+        try (MappedFileInputStream in = new MappedFileInputStream(open(file))) {
+            byte[] buf = new byte[data.length];
+            int n = 0;
+            while (n < buf.length) {
+                int k = in.read(buf, n, Math.min(buf.length - n, 1 + RND.nextInt(5 << 20)));
+                check(k > 0, "read returned " + k + " at " + n);
+                n += k;
+                check(in.position() == n, "position " + in.position() + " after " + n);
+            }
+            check(Arrays.equals(buf, data), "contents");
+            check(in.read() == -1 && in.read(buf, 0, 1) == -1, "end of file");
+            check(in.available() == 0, "nothing available at the end");
+        }
+    }
+
+    static void testRegion(Path file, byte[] data) throws IOException {
+        long start = MappedFileInputStream.WINDOW_SIZE - 10;
+        long end = start + 30;
+        try (MappedFileInputStream in = new MappedFileInputStream(open(file), start, end)) {
+            check(in.available() == 30, "available in region");
+            for (long p = start; p < end; p++) {
+                check(in.read() == (data[(int) p] & 0xff), "byte at " + p);
+            }
+            check(in.read() == -1, "end of region");
+        }
+        FileChannel fc = open(file);
+        fc.position(data.length - 5);
+        try (MappedFileInputStream in = new MappedFileInputStream(fc)) {
+            check(in.position() == data.length - 5 && in.available() == 5, "from channel position");
+        }
+    }
+
+    static void testSkip(Path file, byte[] data) throws IOException {
+        try (MappedFileInputStream in = new MappedFileInputStream(open(file))) {
+            long pos = 0;
+            while (pos < data.length) {
+                long n = RND.nextInt(MappedFileInputStream.WINDOW_SIZE / 3);
+                long skipped = in.skip(n);
+                check(skipped == Math.min(n, data.length - pos), "skip " + n + " at " + pos);
+                pos += skipped;
+                check(in.position() == pos, "position after skip");
+                int b = in.read();
+                check(b == (pos < data.length ? data[(int) pos] & 0xff : -1), "byte after skip at " + pos);
+                if (b >= 0) {
+                    pos++;
+                }
+            }
+            check(in.skip(10) == 0 && in.skip(-1) == 0, "skip at the end");
+        }
+    }
+
+    static void testByteBuffer(Path file, byte[] data) throws IOException {
+        try (MappedFileInputStream in = new MappedFileInputStream(open(file))) {
+            ByteBuffer heap = ByteBuffer.allocate(3 << 20);
+            ByteBuffer direct = ByteBuffer.allocateDirect(5 << 20);
+            int pos = 0;
+            for (boolean useHeap = true; ; useHeap = !useHeap) {
+                ByteBuffer dst = useHeap ? heap : direct;
+                dst.clear();
+                int n = in.read(dst);
+                if (n < 0) {
+                    break;
+                }
+                dst.flip();
+                for (int i = 0; i < n; i++) {
+                    check(dst.get(i) == data[pos + i], "buffer byte at " + (pos + i));
+                }
+                pos += n;
+            }
+            check(pos == data.length, "read " + pos + " of " + data.length);
+            check(in.read(ByteBuffer.allocate(0)) == 0, "empty buffer");
+        }
+    }
+
+    static void testClose(Path file) throws IOException {
+        FileChannel fc = open(file);
+        MappedFileInputStream in = new MappedFileInputStream(fc);
+        in.read();
+        in.close();
+        in.close();
+        check(!fc.isOpen(), "close closes the channel");
+        try {
+            in.read();
+            throw new RuntimeException("Failed: read after close");
+        } catch (IOException expected) { }
+        try {
+            in.available();
+            throw new RuntimeException("Failed: available after close");
+        } catch (IOException expected) { }
+    }
+
+    static void testInvalidRegion(Path file, long size) throws IOException {
+        long[][] regions = { { -1, 10 }, { 10, 5 }, { 0, size + 1 } };
+        try (FileChannel fc = open(file)) {
+            for (long[] r : regions) {
+                try {
+                    new MappedFileInputStream(fc, r[0], r[1]);
+                    throw new RuntimeException("Failed: accepted region " + r[0] + ", " + r[1]);
+                } catch (IllegalArgumentException expected) { }
+            }
+            MappedFileInputStream in = new MappedFileInputStream(fc, 0, 10);
+            try {
+                in.read(new byte[4], 2, 3);
+                throw new RuntimeException("Failed: read beyond the array");
+            } catch (IndexOutOfBoundsException expected) { }
+        }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
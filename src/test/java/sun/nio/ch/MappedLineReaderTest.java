@@ -0,0 +1,193 @@
+package sun.nio.ch;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class MappedLineReaderTest {
+
+    static final Random RND = new Random(5);
+    static final String[] PIECES = { "a", "line", " ", "0123456789", "\u00e9", "\u4e2d", "\ud83d\ude00" };
+    static final String[] TERMINATORS = { "\n", "\r", "\r\n" };
+
+    public static void main(String[] args) throws IOException {
+        testSmall();
+        testCharsets();
+        testAcrossWindows();
+        testMalformed();
+        testUnsupported();
+        System.out.println("Passed");
+    }
+
+    static byte[] lines(int minSize, Charset cs, boolean ascii) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(minSize + 1024);
+        StringBuilder sb = new StringBuilder();
+        while (out.size() < minSize) {
+            sb.setLength(0);
+            int pieces = RND.nextInt(20);
+            for (int i = 0; i < pieces; i++) {
+                sb.append(PIECES[RND.nextInt(ascii ? 4 : PIECES.length)]);
+            }
+            sb.append(TERMINATORS[RND.nextInt(TERMINATORS.length)]);
+            byte[] b = sb.toString().getBytes(cs);
+            out.write(b, 0, b.length);
+        }
+        return out.toByteArray();
+    }
+
+    static List<String> expected(byte[] data, Charset cs) throws IOException {
+        List<String> list = new ArrayList<>();
+        BufferedReader r = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data), cs));
+        for (String s; (s = r.readLine()) != null; ) {
+            list.add(s);
+        }
+        return list;
+    }
+
+    static List<String> read(Path file, Charset cs, long[] splits) throws IOException {
+        List<String> list = new ArrayList<>();
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i + 1 < splits.length; i++) {
+                try (MappedLineReader r = new MappedLineReader(fc, cs, splits[i], splits[i + 1])) {
+                    for (CharSequence line; (line = r.nextLine()) != null; ) {
+                        String s = line.toString();
+                        check(line.length() == s.length(), "view length");
+                        if (s.length() > 0) {
+                            check(line.charAt(s.length() - 1) == s.charAt(s.length() - 1), "view charAt");
+                        }
+                        list.add(s);
+                    }
+                }
+            }
+        }
+        return list;
+    }
+
+    static void checkSplits(byte[] data, Charset cs, int count) throws IOException {
+        Path file = Files.createTempFile("lines", ".txt");
+        try {
+            Files.write(file, data);
+            List<String> expected = expected(data, cs);
+            check(read(file, cs, new long[] { 0, data.length }).equals(expected), "whole file");
+            for (int k = 0; k < count; k++) {
+                int parts = 1 + RND.nextInt(6);
+                long[] splits = new long[parts + 1];
+                for (int i = 1; i < parts; i++) {
+                    splits[i] = (long) (RND.nextDouble() * data.length);
+                }
+                splits[parts] = data.length;
+                Arrays.sort(splits);
+                check(read(file, cs, splits).equals(expected),
+                      "split at " + Arrays.toString(splits));
+            }
+            try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ);
+                 MappedLineReader r = new MappedLineReader(fc, cs)) {
+                for (String s : expected) {
+                    check(s.equals(r.readLine()), "readLine " + s);
+                }
+                check(r.readLine() == null, "end of lines");
+                check(r.position() >= data.length, "position at the end");
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static void testSmall() throws IOException {
+        String[] texts = { "", "x", "\n", "\r\n", "\r\r\n\n", "a\rb\nc\r\nd", "no terminator", "a\r" };
+        for (String t : texts) {
+            checkSplits(t.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, 20);
+        }
+    }
+
+    static void testCharsets() throws IOException {
+        checkSplits(lines(200_000, StandardCharsets.UTF_8, false), StandardCharsets.UTF_8, 50);
+        checkSplits(lines(200_000, StandardCharsets.US_ASCII, true), StandardCharsets.US_ASCII, 20);
+        byte[] latin1 = new byte[100_000];
+        for (int i = 0; i < latin1.length; i++) {
+            latin1[i] = (byte) (RND.nextInt(8) == 0 ? '\n' : 32 + RND.nextInt(224));
+        }
+        checkSplits(latin1, StandardCharsets.ISO_8859_1, 20);
+        check(MappedLineReader.isSupported(StandardCharsets.UTF_8)
+              && !MappedLineReader.isSupported(StandardCharsets.UTF_16), "isSupported");
+    }
+
+    // Lines straddle the window boundary, including a long line and a split CRLF
+    static void testAcrossWindows() throws IOException {
+        int window = MappedFileInputStream.WINDOW_SIZE;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(window + (3 << 20));
+        byte[] head = lines(window - (1 << 20), StandardCharsets.UTF_8, false);
+        out.write(head, 0, head.length);
+        byte[] pad = new byte[window - 1 - out.size()];
+        Arrays.fill(pad, (byte) 'p');
+        out.write(pad, 0, pad.length);
+        out.write('\r');   // last byte of the first window
+        out.write('\n');   // first byte of the second window
+        byte[] longLine = new byte[2 << 20];
+        Arrays.fill(longLine, (byte) 'L');
+        out.write(longLine, 0, longLine.length);
+        out.write('\n');
+        byte[] tail = lines(100_000, StandardCharsets.UTF_8, false);
+        out.write(tail, 0, tail.length);
+        checkSplits(out.toByteArray(), StandardCharsets.UTF_8, 5);
+    }
+
+    static void testMalformed() throws IOException {
+        Path file = Files.createTempFile("lines", ".txt");
+        try {
+            Files.write(file, new byte[] { 'o', 'k', '\n', (byte) 0xc3, '(', '\n' });
+            try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ);
+                 MappedLineReader r = new MappedLineReader(fc, StandardCharsets.UTF_8)) {
+                check("ok".equals(r.readLine()), "valid line");
+                try {
+                    r.readLine();
+                    throw new RuntimeException("Failed: malformed line accepted");
+                } catch (CharacterCodingException expected) { }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static void testUnsupported() throws IOException {
+        Path file = Files.createTempFile("lines", ".txt");
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+            try {
+                new MappedLineReader(fc, StandardCharsets.UTF_16);
+                throw new RuntimeException("Failed: UTF-16 accepted");
+            } catch (UnsupportedCharsetException expected) { }
+            try {
+                new MappedLineReader(fc, StandardCharsets.UTF_8, 5, 4);
+                throw new RuntimeException("Failed: invalid range accepted");
+            } catch (IllegalArgumentException expected) { }
+            MappedLineReader r = new MappedLineReader(fc, StandardCharsets.UTF_8);
+            r.close();
+            try {
+                r.nextLine();
+                throw new RuntimeException("Failed: read after close");
+            } catch (IOException expected) { }
+            check(fc.isOpen(), "close does not close the channel");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
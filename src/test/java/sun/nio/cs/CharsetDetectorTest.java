@@ -0,0 +1,249 @@
+package sun.nio.cs;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CharsetDetectorTest {
+
+    static final Random RND = new Random(31);
+    static final String[] PIECES = { "a", "text ", "0123456789abcdef", "\u00e9", "\u4e2d", "\ud83d\ude00" };
+
+    public static void main(String[] args) throws Exception {
+        testDetect();
+        testMalformedUTF8();
+        testRandom();
+        testViews();
+        testUTF16();
+        testLaziness();
+        System.out.println("Passed");
+    }
+
+    // The charset expected for the bytes, found with a strict decoder
+    static Charset expectedCharset(byte[] b) {
+        if (b.length >= 2 && ((b[0] == (byte) 0xfe && b[1] == (byte) 0xff) ||
+                              (b[0] == (byte) 0xff && b[1] == (byte) 0xfe)))
+            return StandardCharsets.UTF_16;
+        if (b.length >= 3 && b[0] == (byte) 0xef && b[1] == (byte) 0xbb && b[2] == (byte) 0xbf)
+            return StandardCharsets.UTF_8;
+        boolean ascii = true;
+        for (byte x : b) {
+            ascii &= x >= 0;
+        }
+        if (ascii)
+            return StandardCharsets.US_ASCII;
+        try {
+            StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(b));
+            return StandardCharsets.UTF_8;
+        } catch (CharacterCodingException x) {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+
+    // What Charset.decode gives for the bytes, without a byte order mark
+    static String expectedText(byte[] b) {
+        Charset cs = expectedCharset(b);
+        if (cs == StandardCharsets.UTF_8 && b.length >= 3 && b[0] == (byte) 0xef
+            && b[1] == (byte) 0xbb && b[2] == (byte) 0xbf)
+            return cs.decode(ByteBuffer.wrap(b, 3, b.length - 3)).toString();
+        return cs.decode(ByteBuffer.wrap(b)).toString();
+    }
+
+    // The bytes at the given offset of heap, direct, read-only and sliced buffers
+    static ByteBuffer[] buffers(byte[] b, int off) {
+        byte[] padded = new byte[off + b.length + 5];
+        Arrays.fill(padded, (byte) 0xff);
+        System.arraycopy(b, 0, padded, off, b.length);
+        ByteBuffer heap = ByteBuffer.wrap(padded);
+        heap.limit(off + b.length).position(off);
+        ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+        direct.put(padded).limit(off + b.length).position(off);
+        ByteBuffer slice = ByteBuffer.wrap(padded, off, b.length).slice();
+        return new ByteBuffer[] { heap, direct, heap.asReadOnlyBuffer(), slice };
+    }
+
+    static void verify(byte[] b, String what) {
+        Charset cs = expectedCharset(b);
+        String text = expectedText(b);
+        for (int off = 0; off < 9; off++) {
+            for (ByteBuffer bb : buffers(b, off)) {
+                int pos = bb.position();
+                int lim = bb.limit();
+                check(CharsetDetector.detect(bb).equals(cs),
+                      what + ": detected " + CharsetDetector.detect(bb) + ", expected " + cs + " in " + bb);
+                CharSequence seq = CharsetDetector.decode(bb);
+                check(seq.length() == text.length(), what + ": length " + seq.length() + " in " + bb);
+                check(seq.toString().equals(text), what + ": text in " + bb);
+                check(bb.position() == pos && bb.limit() == lim, what + ": buffer changed");
+            }
+        }
+    }
+
+    static byte[] bytes(int... v) {
+        byte[] b = new byte[v.length];
+        for (int i = 0; i < v.length; i++) {
+            b[i] = (byte) v[i];
+        }
+        return b;
+    }
+
+    static void testDetect() {
+        verify(new byte[0], "empty");
+        verify("a".getBytes(StandardCharsets.US_ASCII), "one byte");
+        verify("plain ASCII text that is longer than eight bytes".getBytes(StandardCharsets.US_ASCII),
+              "ASCII");
+        verify("caf\u00e9 \u4e2d \ud83d\ude00".getBytes(StandardCharsets.UTF_8), "UTF-8");
+        verify("caf\u00e9".getBytes(StandardCharsets.ISO_8859_1), "Latin-1");
+        verify(bytes(0xef, 0xbb, 0xbf), "UTF-8 mark only");
+        verify(bytes(0xef, 0xbb, 0xbf, 'a', 0xc3, 0xa9), "UTF-8 mark");
+        verify(bytes(0xef, 0xbb, 0xbf, 'a', 0xe9), "UTF-8 mark and malformed input");
+        verify(bytes(0xef, 0xbb), "partial UTF-8 mark");
+        verify(bytes(0xfe, 0xff), "UTF-16BE mark only");
+        verify(bytes(0xfe, 0xff, 0, 'a', 0x4e, 0x2d), "UTF-16BE");
+        verify(bytes(0xff, 0xfe, 'a', 0, 0x2d, 0x4e), "UTF-16LE");
+        verify(bytes(0xfe, 0xff, 0, 'a', 0x4e), "UTF-16BE with a trailing byte");
+        verify(bytes(0xfe), "partial UTF-16 mark");
+    }
+
+    // Sequences excluded by the table of legal UTF-8 byte sequences
+    static void testMalformedUTF8() {
+        int[][] bad = {
+            { 0x80 }, { 0xbf }, { 0xc0, 0x80 }, { 0xc1, 0xbf }, { 0xc2 }, { 0xc2, 0x41 },
+            { 0xe0, 0x80, 0x80 }, { 0xe0, 0x9f, 0xbf }, { 0xed, 0xa0, 0x80 }, { 0xed, 0xbf, 0xbf },
+            { 0xe1, 0x80 }, { 0xe1, 0x80, 0xc0 }, { 0xf0, 0x80, 0x80, 0x80 }, { 0xf0, 0x8f, 0xbf, 0xbf },
+            { 0xf4, 0x90, 0x80, 0x80 }, { 0xf5, 0x80, 0x80, 0x80 }, { 0xff }, { 0xf1, 0x80, 0x80 },
+        };
+        int[][] good = {
+            { 0xc2, 0x80 }, { 0xdf, 0xbf }, { 0xe0, 0xa0, 0x80 }, { 0xed, 0x9f, 0xbf },
+            { 0xee, 0x80, 0x80 }, { 0xf0, 0x90, 0x80, 0x80 }, { 0xf4, 0x8f, 0xbf, 0xbf },
+        };
+        for (int[][] cases : new int[][][] { bad, good }) {
+            for (int[] c : cases) {
+                byte[] seq = bytes(c);
+                // alone, and after and before ASCII runs of several lengths
+                for (int n : new int[] { 0, 1, 7, 8, 9, 17 }) {
+                    byte[] b = new byte[n + seq.length + n];
+                    Arrays.fill(b, (byte) 'x');
+                    System.arraycopy(seq, 0, b, n, seq.length);
+                    verify(b, Arrays.toString(c) + " within " + n);
+                    verify(Arrays.copyOf(b, n + seq.length), Arrays.toString(c) + " at end after " + n);
+                }
+                Charset expected = cases == bad ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+                check(CharsetDetector.detect(ByteBuffer.wrap(seq)).equals(expected),
+                      "detected " + Arrays.toString(c));
+            }
+        }
+    }
+
+    static void testRandom() {
+        for (int k = 0; k < 300; k++) {
+            StringBuilder sb = new StringBuilder();
+            int len = RND.nextInt(k < 100 ? 20 : 2000);
+            boolean ascii = RND.nextBoolean();
+            while (sb.length() < len) {
+                sb.append(PIECES[ascii ? RND.nextInt(3) : RND.nextInt(PIECES.length)]);
+            }
+            byte[] b = sb.toString().getBytes(StandardCharsets.UTF_8);
+            verify(b, "random text " + k);
+            if (b.length > 0 && RND.nextBoolean()) {
+                // one corrupt byte
+                b[RND.nextInt(b.length)] = (byte) (0x80 + RND.nextInt(0x80));
+                verify(b, "corrupt random text " + k);
+            }
+        }
+    }
+
+    static void testViews() {
+        byte[] latin1 = "abc\u00e9\u00ff".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] utf16 = "\ufeffab\u4e2d\ud83d\ude00".getBytes(StandardCharsets.UTF_16BE);
+        byte[] utf8 = "ab\u4e2d\ud83d\ude00".getBytes(StandardCharsets.UTF_8);
+        for (byte[] b : new byte[][] { latin1, utf16, utf8 }) {
+            String text = expectedText(b);
+            CharSequence seq = CharsetDetector.decode(ByteBuffer.wrap(b));
+            for (int i = 0; i < text.length(); i++) {
+                check(seq.charAt(i) == text.charAt(i), "charAt " + i + " of " + text);
+            }
+            for (int start = 0; start <= text.length(); start++) {
+                for (int end = start; end <= text.length(); end++) {
+                    CharSequence sub = seq.subSequence(start, end);
+                    check(sub.toString().equals(text.substring(start, end)),
+                          "subSequence " + start + " " + end + " of " + text);
+                    check(sub.length() == end - start, "subSequence length");
+                }
+            }
+            for (int i : new int[] { -1, text.length() }) {
+                try {
+                    seq.charAt(i);
+                    throw new RuntimeException("Failed: charAt " + i + " of " + text);
+                } catch (IndexOutOfBoundsException expected) { }
+            }
+            int[][] bad = { { -1, 0 }, { 0, text.length() + 1 }, { 2, 1 } };
+            for (int[] r : bad) {
+                try {
+                    seq.subSequence(r[0], r[1]);
+                    throw new RuntimeException("Failed: subSequence " + Arrays.toString(r));
+                } catch (IndexOutOfBoundsException expected) { }
+            }
+        }
+    }
+
+    // Unpaired surrogates are replaced as by Charset.decode
+    static void testUTF16() {
+        String[] malformed = {
+            "a\ud800b", "a\udc00b", "\ud800", "\udc00", "ab\ud83d", "\ude00ab", "\ud83d\ud83d\ude00",
+            "\ud83d\ude00\ude00", "\ud83d\ud83d",
+        };
+        String[] wellFormed = { "", "ok \ud83d\ude00 text", "\ud83d\ude00\ud83d\ude00", "\uffff\ue000" };
+        for (String[] texts : new String[][] { malformed, wellFormed }) {
+            for (String s : texts) {
+                for (boolean be : new boolean[] { true, false }) {
+                    // String.getBytes replaces the surrogates, so encode by hand
+                    String t = "\ufeff" + s;
+                    byte[] b = new byte[t.length() * 2];
+                    for (int i = 0; i < t.length(); i++) {
+                        char c = t.charAt(i);
+                        b[2 * i + (be ? 0 : 1)] = (byte) (c >> 8);
+                        b[2 * i + (be ? 1 : 0)] = (byte) c;
+                    }
+                    String what = (be ? "UTF-16BE " : "UTF-16LE ") + escape(s);
+                    verify(b, what);
+                    String decoded = CharsetDetector.decode(ByteBuffer.wrap(b)).toString();
+                    if (texts == malformed) {
+                        check(decoded.indexOf('\ufffd') >= 0, "replacement in " + what);
+                    } else {
+                        check(decoded.equals(s), "well-formed " + what);
+                    }
+                }
+            }
+        }
+    }
+
+    static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            sb.append(c < 0x80 ? String.valueOf(c) : String.format("\\u%04x", (int) c));
+        }
+        return sb.toString();
+    }
+
+    // Views read the buffer as they are accessed, decoded sequences do not
+    static void testLaziness() {
+        byte[] b = "abc".getBytes(StandardCharsets.US_ASCII);
+        CharSequence seq = CharsetDetector.decode(ByteBuffer.wrap(b));
+        b[0] = 'x';
+        check(seq.toString().equals("xbc"), "ASCII view");
+        b = "ab\u00e9".getBytes(StandardCharsets.UTF_8);
+        seq = CharsetDetector.decode(ByteBuffer.wrap(b));
+        check(seq.charAt(0) == 'a', "decoded");
+        b[0] = 'x';
+        check(seq.toString().equals("ab\u00e9"), "decoded once");
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
@@ -0,0 +1,233 @@
+package sun.nio.cs;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class StreamDecoderTest {
+
+    static final Random RND = new Random(29);
+    static final String[] PIECES = { "a", "text ", "0123456789", "\u00e9", "\u4e2d", "\ud83d\ude00", "\n" };
+    static final Charset[] CHARSETS = {
+        StandardCharsets.UTF_8, StandardCharsets.UTF_16, StandardCharsets.ISO_8859_1,
+        Charset.forName("GB18030")
+    };
+    static final char SENTINEL = '\uffff';
+
+    public static void main(String[] args) throws IOException {
+        testSameArray();
+        testOtherArrays();
+        testSmallReads();
+        testTrickle();
+        testBufferedReader();
+        testMalformed();
+        testArguments();
+        System.out.println("Passed");
+    }
+
+    // Text of the pieces that the charset can encode
+    static String text(int len, Charset cs) {
+        StringBuilder sb = new StringBuilder(len + 2);
+        while (sb.length() < len) {
+            String piece = PIECES[RND.nextInt(PIECES.length)];
+            if (cs.newEncoder().canEncode(piece)) {
+                sb.append(piece);
+            }
+        }
+        return sb.toString();
+    }
+
+    static Reader reader(byte[] b, Charset cs, boolean channel) {
+        InputStream in = new ByteArrayInputStream(b);
+        if (channel) {
+            return Channels.newReader(Channels.newChannel(in), cs.newDecoder()
+                                          .onMalformedInput(CodingErrorAction.REPLACE)
+                                          .onUnmappableCharacter(CodingErrorAction.REPLACE), -1);
+        }
+        return new InputStreamReader(in, cs);
+    }
+
+    // Reads at random offsets into one array, checking that nothing outside
+    // the range read into is written
+    static String readAll(Reader r, char[] buf) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            Arrays.fill(buf, SENTINEL);
+            int off = RND.nextInt(buf.length);
+            int len = RND.nextInt(buf.length - off + 1);
+            int n = r.read(buf, off, len);
+            if (n == -1) {
+                check(len > 0, "end of stream for an empty read");
+                break;
+            }
+            check(n <= len && (n > 0 || len == 0), "read " + n + " of " + len);
+            for (int i = 0; i < buf.length; i++) {
+                if (i < off || i >= off + n) {
+                    check(buf[i] == SENTINEL, "written at " + i + ", read " + n + " at " + off);
+                }
+            }
+            sb.append(buf, off, n);
+        }
+        return sb.toString();
+    }
+
+    static void testSameArray() throws IOException {
+        for (Charset cs : CHARSETS) {
+            for (int len : new int[] { 0, 1, 2, 100, 8192, 100_000 }) {
+                String s = text(len, cs);
+                for (boolean channel : new boolean[] { false, true }) {
+                    for (int size : new int[] { 2, 3, 17, 8192 }) {
+                        try (Reader r = reader(s.getBytes(cs), cs, channel)) {
+                            check(readAll(r, new char[size]).equals(s),
+                                  cs + " length " + len + " buffer " + size + (channel ? " channel" : ""));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Reads that alternate between arrays
+    static void testOtherArrays() throws IOException {
+        char[][] bufs = { new char[100], new char[5000], new char[100] };
+        for (Charset cs : CHARSETS) {
+            String s = text(50_000, cs);
+            StringBuilder sb = new StringBuilder();
+            try (Reader r = reader(s.getBytes(cs), cs, false)) {
+                while (true) {
+                    char[] buf = bufs[RND.nextInt(bufs.length)];
+                    int off = RND.nextInt(buf.length / 2);
+                    int n = r.read(buf, off, buf.length - off);
+                    if (n < 0) {
+                        break;
+                    }
+                    sb.append(buf, off, n);
+                }
+            }
+            check(sb.toString().equals(s), cs + " alternating arrays");
+        }
+    }
+
+    // Single chars and surrogate pairs read one char at a time
+    static void testSmallReads() throws IOException {
+        for (Charset cs : CHARSETS) {
+            String s = text(5000, cs);
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[4];
+            try (Reader r = reader(s.getBytes(cs), cs, false)) {
+                while (true) {
+                    if (RND.nextBoolean()) {
+                        int c = r.read();
+                        if (c < 0) {
+                            break;
+                        }
+                        sb.append((char) c);
+                        continue;
+                    }
+                    int len = 1 + RND.nextInt(buf.length);
+                    int n = r.read(buf, 0, len);
+                    if (n < 0) {
+                        break;
+                    }
+                    sb.append(buf, 0, n);
+                }
+                check(r.read() == -1 && r.read(buf, 0, 2) == -1, "read after end");
+            }
+            check(sb.toString().equals(s), cs + " small reads");
+        }
+    }
+
+    // A stream that returns one byte at a time, so chars are split between reads
+    static void testTrickle() throws IOException {
+        for (Charset cs : CHARSETS) {
+            String s = text(3000, cs);
+            byte[] b = s.getBytes(cs);
+            InputStream slow = new InputStream() {
+                int pos;
+                public int read() {
+                    return pos < b.length ? b[pos++] & 0xff : -1;
+                }
+                public int read(byte[] buf, int off, int len) {
+                    if (pos == b.length) {
+                        return -1;
+                    }
+                    if (len == 0) {
+                        return 0;
+                    }
+                    buf[off] = b[pos++];
+                    return 1;
+                }
+            };
+            try (Reader r = new InputStreamReader(slow, cs)) {
+                check(readAll(r, new char[64]).equals(s), cs + " one byte at a time");
+            }
+        }
+    }
+
+    static void testBufferedReader() throws IOException {
+        for (Charset cs : CHARSETS) {
+            String s = text(200_000, cs);
+            StringBuilder sb = new StringBuilder();
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(
+                     new ByteArrayInputStream(s.getBytes(cs)), cs), 100)) {
+                for (String line; (line = r.readLine()) != null; ) {
+                    sb.append(line).append('\n');
+                }
+            }
+            String expected = s.endsWith("\n") ? s : s + "\n";
+            check(sb.toString().equals(expected), cs + " lines");
+        }
+    }
+
+    static void testMalformed() throws IOException {
+        byte[] b = "abc".getBytes(StandardCharsets.UTF_8);
+        byte[] bad = Arrays.copyOf(b, 10_000);
+        Arrays.fill(bad, 3, bad.length, (byte) 'x');
+        bad[5000] = (byte) 0xc3;    // lead byte without continuation
+        bad[bad.length - 1] = (byte) 0xe4;  // truncated at the end
+        String replaced = new String(bad, StandardCharsets.UTF_8);
+        try (Reader r = reader(bad, StandardCharsets.UTF_8, false)) {
+            check(readAll(r, new char[300]).equals(replaced), "replaced");
+        }
+        Reader r = Channels.newReader(Channels.newChannel(new ByteArrayInputStream(bad)),
+                                      StandardCharsets.UTF_8.newDecoder(), -1);
+        try {
+            readAll(r, new char[300]);
+            throw new RuntimeException("Failed: malformed input read");
+        } catch (CharacterCodingException expected) { }
+    }
+
+    static void testArguments() throws IOException {
+        Reader r = new InputStreamReader(new ByteArrayInputStream("abc".getBytes()), StandardCharsets.UTF_8);
+        char[] buf = new char[4];
+        int[][] bad = { { -1, 1 }, { 0, -1 }, { 1, 4 }, { 5, 0 }, { 2, Integer.MAX_VALUE } };
+        for (int[] b : bad) {
+            try {
+                r.read(buf, b[0], b[1]);
+                throw new RuntimeException("Failed: bounds " + Arrays.toString(b));
+            } catch (IndexOutOfBoundsException expected) { }
+        }
+        check(r.read(buf, 4, 0) == 0, "empty read");
+        check(r.read(buf, 1, 3) == 3 && buf[1] == 'a' && buf[3] == 'c', "read at offset");
+        r.close();
+        try {
+            r.read(buf, 0, 2);
+            throw new RuntimeException("Failed: read after close");
+        } catch (IOException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}
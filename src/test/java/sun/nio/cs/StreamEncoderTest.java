@@ -0,0 +1,178 @@
+package sun.nio.cs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class StreamEncoderTest {
+
+    static final Random RND = new Random(23);
+    static final String[] PIECES = { "a", "text ", "0123456789", "\u00e9", "\u4e2d", "\ud83d\ude00" };
+    static final Charset[] CHARSETS = {
+        StandardCharsets.UTF_8, StandardCharsets.UTF_16, StandardCharsets.ISO_8859_1,
+        StandardCharsets.US_ASCII, Charset.forName("GB18030")
+    };
+
+    public static void main(String[] args) throws IOException {
+        testStrings();
+        testChunkBoundaries();
+        testMixedWrites();
+        testUnmappable();
+        testArguments();
+        System.out.println("Passed");
+    }
+
+    static String text(int len) {
+        StringBuilder sb = new StringBuilder(len + 2);
+        while (sb.length() < len) {
+            sb.append(PIECES[RND.nextInt(PIECES.length)]);
+        }
+        return sb.toString();
+    }
+
+    static byte[] write(String s, Charset cs, boolean channel) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Writer w = channel
+            ? Channels.newWriter(Channels.newChannel(bos), cs.newEncoder()
+                                     .onMalformedInput(CodingErrorAction.REPLACE)
+                                     .onUnmappableCharacter(CodingErrorAction.REPLACE), -1)
+            : new OutputStreamWriter(bos, cs);
+        int off = 0;
+        while (off < s.length()) {
+            int n = Math.min(s.length() - off, RND.nextInt(4) == 0 ? RND.nextInt(3) : RND.nextInt(5000));
+            w.write(s, off, n);
+            off += n;
+        }
+        w.close();
+        return bos.toByteArray();
+    }
+
+    // The bytes are those of String.getBytes, which replaces malformed and
+    // unmappable input as the writers do
+    static void testStrings() throws IOException {
+        for (Charset cs : CHARSETS) {
+            for (int len : new int[] { 0, 1, 1023, 1024, 1025, 5000, 100_000 }) {
+                String s = text(len);
+                for (boolean channel : new boolean[] { false, true }) {
+                    check(Arrays.equals(write(s, cs, channel), s.getBytes(cs)),
+                          cs + " length " + len + (channel ? " channel" : ""));
+                }
+            }
+        }
+    }
+
+    // A surrogate pair split between the chunks of a string, or between writes
+    static void testChunkBoundaries() throws IOException {
+        String pair = "\ud83d\ude00";
+        for (Charset cs : new Charset[] { StandardCharsets.UTF_8, StandardCharsets.UTF_16 }) {
+            for (int at = 1020; at < 1030; at++) {
+                StringBuilder sb = new StringBuilder();
+                while (sb.length() < at) {
+                    sb.append('x');
+                }
+                sb.append(pair).append(pair).append("end");
+                String s = sb.toString();
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try (Writer w = new OutputStreamWriter(bos, cs)) {
+                    w.write(s);
+                }
+                check(Arrays.equals(bos.toByteArray(), s.getBytes(cs)), cs + " pair at " + at);
+                // the string split between the surrogates of a pair
+                bos.reset();
+                try (Writer w = new OutputStreamWriter(bos, cs)) {
+                    w.write(s, 0, at + 1);
+                    w.write(s, at + 1, s.length() - at - 1);
+                }
+                check(Arrays.equals(bos.toByteArray(), s.getBytes(cs)), cs + " split pair at " + at);
+            }
+        }
+    }
+
+    static void testMixedWrites() throws IOException {
+        for (Charset cs : CHARSETS) {
+            String s = text(20_000);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (Writer w = new OutputStreamWriter(bos, cs)) {
+                int off = 0;
+                while (off < s.length()) {
+                    int n = Math.min(s.length() - off, RND.nextInt(3000));
+                    switch (RND.nextInt(5)) {
+                    case 0:
+                        w.write(s.charAt(off));
+                        n = 1;
+                        break;
+                    case 1:
+                        w.write(s.toCharArray(), off, n);
+                        break;
+                    case 2:
+                        w.append(s, off, off + n);
+                        break;
+                    case 3:
+                        w.flush();
+                        // fall through
+                    default:
+                        w.write(s, off, n);
+                    }
+                    off += n;
+                }
+            }
+            check(Arrays.equals(bos.toByteArray(), s.getBytes(cs)), cs + " mixed writes");
+        }
+    }
+
+    static void testUnmappable() throws IOException {
+        // replaced by OutputStreamWriter, including unpaired surrogates
+        String s = "a\u4e2db\ud800c" + text(3000) + "\udc00";
+        for (Charset cs : new Charset[] { StandardCharsets.US_ASCII, StandardCharsets.UTF_8 }) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (Writer w = new OutputStreamWriter(bos, cs)) {
+                w.write(s);
+            }
+            check(Arrays.equals(bos.toByteArray(), s.getBytes(cs)), cs + " replacement");
+        }
+        // reported by an encoder that reports errors
+        CharsetEncoder enc = StandardCharsets.US_ASCII.newEncoder();
+        Writer w = new OutputStreamWriter(new ByteArrayOutputStream(), enc);
+        try {
+            w.write(text(2000) + "\u4e2d");
+            w.flush();
+            throw new RuntimeException("Failed: unmappable character written");
+        } catch (CharacterCodingException expected) { }
+    }
+
+    static void testArguments() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Writer w = new OutputStreamWriter(bos, StandardCharsets.UTF_8);
+        String s = "abc";
+        int[][] bad = { { -1, 1 }, { 0, -1 }, { 1, 3 }, { 4, 0 }, { 2, Integer.MAX_VALUE } };
+        for (int[] b : bad) {
+            try {
+                w.write(s, b[0], b[1]);
+                throw new RuntimeException("Failed: bounds " + Arrays.toString(b));
+            } catch (IndexOutOfBoundsException expected) { }
+        }
+        w.write(s, 3, 0);
+        w.write(s, 1, 2);
+        w.flush();
+        check(new String(bos.toByteArray(), StandardCharsets.UTF_8).equals("bc"), "slice written");
+        w.close();
+        try {
+            w.write(s, 0, 0);
+            throw new RuntimeException("Failed: write after close");
+        } catch (IOException expected) { }
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+}